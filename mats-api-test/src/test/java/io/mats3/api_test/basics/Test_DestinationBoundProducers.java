@@ -0,0 +1,193 @@
+package io.mats3.api_test.basics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.broker.MatsTestBroker;
+import io.mats3.util.wrappers.ConnectionFactoryWrapper;
+
+/**
+ * Tests {@link JmsMatsJmsSessionHandler_Pooling#setDestinationProducersPerSession(int)}: The JMS Sessions are wrapped
+ * to record the creation and closing of destination bound {@link MessageProducer}s. With the feature enabled, a
+ * producer shall be created once per destination and then reused, and when the LRU-cache is full, the least recently
+ * used producer shall be closed. With the feature disabled (default), no destination bound producers shall be made.
+ */
+public class Test_DestinationBoundProducers {
+    private static final String TERMINATOR = MatsTestHelp.terminator();
+    private static final int NUMBER_OF_TERMINATORS = 3;
+
+    private static MatsTestBroker _matsTestBroker;
+
+    @BeforeClass
+    public static void startBroker() {
+        _matsTestBroker = MatsTestBroker.create();
+    }
+
+    @AfterClass
+    public static void stopBroker() {
+        _matsTestBroker.close();
+    }
+
+    @Test
+    public void boundProducerIsReusedAndLeastRecentlyUsedIsClosedOnEviction() throws InterruptedException {
+        ConnectionFactoryRecordingProducers recorder = new ConnectionFactoryRecordingProducers(
+                _matsTestBroker.getConnectionFactory());
+        // Room for two bound producers per Session, while we send to three destinations.
+        JmsMatsFactory<String> matsFactory = createMatsFactory("bound", recorder, 2);
+        try {
+            // Within one initiation, all the messages are sent in order on the same JMS Session.
+            sendTo(matsFactory, 0, 0, 0, 1, 1, 0, 2);
+
+            // The repeated destinations reused their producer, i.e. only one created per destination.
+            Assert.assertEquals(queueNames(0, 1, 2), recorder._createdFor);
+            // Adding Terminator2 evicted the least recently used, which was Terminator1 since Terminator0 was used
+            // after it - and the evicted producer was closed.
+            Assert.assertEquals(queueNames(1), recorder._closedFor);
+
+            // Sending to Terminator1 again creates a new producer for it, evicting and closing Terminator0's.
+            sendTo(matsFactory, 1);
+            Assert.assertEquals(queueNames(0, 1, 2, 1), recorder._createdFor);
+            Assert.assertEquals(queueNames(1, 0), recorder._closedFor);
+        }
+        finally {
+            matsFactory.stop(30_000);
+        }
+    }
+
+    @Test
+    public void disabledByDefault() throws InterruptedException {
+        ConnectionFactoryRecordingProducers recorder = new ConnectionFactoryRecordingProducers(
+                _matsTestBroker.getConnectionFactory());
+        JmsMatsFactory<String> matsFactory = createMatsFactory("anonymous", recorder, 0);
+        try {
+            sendTo(matsFactory, 0, 1, 2, 0);
+            Assert.assertEquals(new ArrayList<>(), recorder._createdFor);
+            Assert.assertEquals(new ArrayList<>(), recorder._closedFor);
+        }
+        finally {
+            matsFactory.stop(30_000);
+        }
+    }
+
+    private JmsMatsFactory<String> createMatsFactory(String name, ConnectionFactory connectionFactory,
+            int destinationProducersPerSession) {
+        JmsMatsJmsSessionHandler_Pooling sessionPool = JmsMatsJmsSessionHandler_Pooling.create(connectionFactory)
+                .setDestinationProducersPerSession(destinationProducersPerSession);
+        JmsMatsFactory<String> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions(name,
+                "testversion", sessionPool, MatsSerializerJson.create());
+        matsFactory.getFactoryConfig().setConcurrency(1);
+        for (int i = 0; i < NUMBER_OF_TERMINATORS; i++) {
+            matsFactory.terminator(TERMINATOR + i, StateTO.class, DataTO.class,
+                    (ctx, state, msg) -> _latch.countDown());
+        }
+        matsFactory.waitForReceiving(10_000);
+        return matsFactory;
+    }
+
+    private volatile CountDownLatch _latch;
+
+    private void sendTo(JmsMatsFactory<String> matsFactory, int... terminators) throws InterruptedException {
+        _latch = new CountDownLatch(terminators.length);
+        matsFactory.getDefaultInitiator().initiateUnchecked(init -> {
+            for (int terminator : terminators) {
+                init.traceId(MatsTestHelp.traceId())
+                        .from(MatsTestHelp.from("test"))
+                        .to(TERMINATOR + terminator)
+                        .send(new DataTO(terminator, "Message"));
+            }
+        });
+        Assert.assertTrue("Did not receive all messages", _latch.await(10, TimeUnit.SECONDS));
+    }
+
+    private static List<String> queueNames(int... terminators) {
+        List<String> names = new ArrayList<>();
+        for (int terminator : terminators) {
+            names.add("mats." + TERMINATOR + terminator);
+        }
+        return names;
+    }
+
+    /**
+     * Wraps the Connections and their Sessions in dynamic proxies, recording which queues destination bound
+     * MessageProducers are created for, and closed for. The non-specific (anonymous) producers are not recorded.
+     */
+    private static class ConnectionFactoryRecordingProducers extends ConnectionFactoryWrapper {
+        private final List<String> _createdFor = new CopyOnWriteArrayList<>();
+        private final List<String> _closedFor = new CopyOnWriteArrayList<>();
+
+        ConnectionFactoryRecordingProducers(ConnectionFactory targetConnectionFactory) {
+            super(targetConnectionFactory);
+        }
+
+        @Override
+        public Connection createConnection() throws JMSException {
+            Connection connection = unwrap().createConnection();
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                return method.getName().equals("createSession")
+                        ? recordingSession((Session) result)
+                        : result;
+            });
+        }
+
+        private Session recordingSession(Session session) {
+            return proxy(Session.class, (proxy, method, args) -> {
+                Object result = invoke(session, method, args);
+                // ?: Is this the creation of a destination bound producer?
+                if (method.getName().equals("createProducer") && (args[0] != null)) {
+                    // -> Yes, so record it, and wrap it to record its closing.
+                    String queueName = ((Queue) args[0]).getQueueName();
+                    _createdFor.add(queueName);
+                    MessageProducer producer = (MessageProducer) result;
+                    return proxy(MessageProducer.class, (p, m, a) -> {
+                        if (m.getName().equals("close")) {
+                            _closedFor.add(queueName);
+                        }
+                        return invoke(producer, m, a);
+                    });
+                }
+                return result;
+            });
+        }
+
+        private static <T> T proxy(Class<T> iface, InvocationHandler handler) {
+            return iface.cast(Proxy.newProxyInstance(Test_DestinationBoundProducers.class.getClassLoader(),
+                    new Class<?>[] { iface }, handler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args)
+                throws Throwable {
+            try {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.mats3.api_test.basics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import io.mats3.MatsFactory.FactoryConfig.OutgoingMessageProperties;
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.impl.jms.JmsMatsStatics;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.broker.MatsTestBroker;
+
+/**
+ * Tests {@link io.mats3.MatsFactory.FactoryConfig#setOutgoingMessageProperties(OutgoingMessageProperties)}: A plain
+ * JMS consumer receives a message sent with each setting, asserting which of the informational JMS Message
+ * Properties are present. Also asserts that a request-reply flow gets the TraceId onto the MDC in the stages when
+ * the TraceId is not present as a property, i.e. with {@link OutgoingMessageProperties#NONE NONE}.
+ */
+public class Test_OutgoingMessageProperties {
+    private static final String SERVICE = MatsTestHelp.service();
+    private static final String TERMINATOR = MatsTestHelp.terminator();
+
+    private static final List<String> MINIMAL_PROPERTIES = Arrays.asList(
+            JmsMatsStatics.JMS_MSG_PROP_TRACE_ID,
+            JmsMatsStatics.JMS_MSG_PROP_MATS_MESSAGE_ID);
+
+    private static final List<String> REST_OF_FULL_PROPERTIES = Arrays.asList(
+            JmsMatsStatics.JMS_MSG_PROP_DISPATCH_TYPE,
+            JmsMatsStatics.JMS_MSG_PROP_MESSAGE_TYPE,
+            JmsMatsStatics.JMS_MSG_PROP_ENVELOPE_SIZE,
+            JmsMatsStatics.JMS_MSG_PROP_INITIALIZING_APP,
+            JmsMatsStatics.JMS_MSG_PROP_INITIATOR_ID,
+            JmsMatsStatics.JMS_MSG_PROP_FROM,
+            JmsMatsStatics.JMS_MSG_PROP_TO,
+            JmsMatsStatics.JMS_MSG_PROP_AUDIT);
+
+    private static MatsTestBroker _matsTestBroker;
+
+    @BeforeClass
+    public static void startBroker() {
+        _matsTestBroker = MatsTestBroker.create();
+    }
+
+    @AfterClass
+    public static void stopBroker() {
+        _matsTestBroker.close();
+    }
+
+    @Test
+    public void full() throws JMSException {
+        Message message = sendAndReceiveRaw(OutgoingMessageProperties.FULL);
+        assertProperties(message, MINIMAL_PROPERTIES, true);
+        assertProperties(message, REST_OF_FULL_PROPERTIES, true);
+    }
+
+    @Test
+    public void minimal() throws JMSException {
+        Message message = sendAndReceiveRaw(OutgoingMessageProperties.MINIMAL);
+        assertProperties(message, MINIMAL_PROPERTIES, true);
+        assertProperties(message, REST_OF_FULL_PROPERTIES, false);
+    }
+
+    @Test
+    public void none() throws JMSException {
+        Message message = sendAndReceiveRaw(OutgoingMessageProperties.NONE);
+        assertProperties(message, MINIMAL_PROPERTIES, false);
+        assertProperties(message, REST_OF_FULL_PROPERTIES, false);
+    }
+
+    @Test
+    public void traceIdOnMdcInStagesWithNone() throws InterruptedException {
+        JmsMatsFactory<String> matsFactory = createMatsFactory("MdcWithNone", OutgoingMessageProperties.NONE);
+        try {
+            List<String> mdcTraceIds = new CopyOnWriteArrayList<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            matsFactory.single(SERVICE, DataTO.class, DataTO.class, (ctx, msg) -> {
+                mdcTraceIds.add(MDC.get(JmsMatsStatics.MDC_TRACE_ID) + "|" + ctx.getTraceId());
+                return new DataTO(msg.number * 2, msg.string);
+            });
+            matsFactory.terminator(TERMINATOR, StateTO.class, DataTO.class, (ctx, state, msg) -> {
+                mdcTraceIds.add(MDC.get(JmsMatsStatics.MDC_TRACE_ID) + "|" + ctx.getTraceId());
+                latch.countDown();
+            });
+            matsFactory.waitForReceiving(10_000);
+
+            matsFactory.getDefaultInitiator().initiateUnchecked(init -> init.traceId(MatsTestHelp.traceId())
+                    .from(MatsTestHelp.from("traceIdOnMdc"))
+                    .to(SERVICE)
+                    .replyTo(TERMINATOR, new StateTO(1, 1))
+                    .request(new DataTO(1, "Request")));
+
+            Assert.assertTrue("Did not receive reply", latch.await(10, TimeUnit.SECONDS));
+            // Both the Service and the Terminator shall have had the Mats flow's TraceId on the MDC.
+            Assert.assertEquals(2, mdcTraceIds.size());
+            for (String mdcAndContextTraceId : mdcTraceIds) {
+                String[] split = mdcAndContextTraceId.split("\\|");
+                Assert.assertEquals("MDC vs. ProcessContext TraceId", split[1], split[0]);
+            }
+        }
+        finally {
+            matsFactory.stop(30_000);
+        }
+    }
+
+    private static JmsMatsFactory<String> createMatsFactory(String name, OutgoingMessageProperties setting) {
+        JmsMatsFactory<String> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions(name,
+                "testversion", JmsMatsJmsSessionHandler_Pooling.create(_matsTestBroker.getConnectionFactory()),
+                MatsSerializerJson.create());
+        matsFactory.getFactoryConfig().setOutgoingMessageProperties(setting);
+        Assert.assertEquals(setting, matsFactory.getFactoryConfig().getOutgoingMessageProperties());
+        return matsFactory;
+    }
+
+    /**
+     * Sends a Mats message to a queue which no Mats endpoint listens to, and receives it using a plain JMS consumer.
+     */
+    private static Message sendAndReceiveRaw(OutgoingMessageProperties setting) throws JMSException {
+        JmsMatsFactory<String> matsFactory = createMatsFactory(setting.name(), setting);
+        String rawQueue = MatsTestHelp.endpointId("Raw." + setting);
+        Connection connection = _matsTestBroker.getConnectionFactory().createConnection();
+        try {
+            connection.start();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageConsumer consumer = session.createConsumer(session.createQueue(
+                    matsFactory.getFactoryConfig().getMatsDestinationPrefix() + rawQueue));
+
+            matsFactory.getDefaultInitiator().initiateUnchecked(init -> init.traceId(MatsTestHelp.traceId())
+                    .from(MatsTestHelp.from("raw"))
+                    .to(rawQueue)
+                    .send(new DataTO(1, "Raw")));
+
+            Message message = consumer.receive(10_000);
+            Assert.assertNotNull("Did not receive message on [" + rawQueue + "]", message);
+            return message;
+        }
+        finally {
+            connection.close();
+            matsFactory.stop(30_000);
+        }
+    }
+
+    private static void assertProperties(Message message, List<String> properties, boolean present)
+            throws JMSException {
+        for (String property : properties) {
+            Assert.assertEquals("Property [" + property + "] present:", present, message.propertyExists(property));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.mats3.api_test.concurrency;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.api.intercept.MatsStageInterceptor;
+import io.mats3.api.intercept.MatsStageInterceptor.StageCompletedContext.ProcessResult;
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.test.MatsTestBrokerInterface.MatsMessageRepresentation;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+
+/**
+ * Tests the batched receive-and-commit mode, {@link io.mats3.MatsStage.StageConfig#setMaxBatchSize(int)}: A bunch of
+ * messages are sent to a Terminator with batching enabled and concurrency 1, one of which is a "poison message" whose
+ * processing always throws. The batch containing the poison message shall be rolled back, whereupon the messages are
+ * replayed one by one: All the good messages shall be committed exactly once, while the poison message shall end up on
+ * the DLQ. Also, only the poison message shall be reported as failed to the "stage completed" interceptors.
+ * <p>
+ * ASCII-artsy, it looks like this:
+ *
+ * <pre>
+ * [Initiator]    - sends NUMBER_OF_MESSAGES messages in a single initiation
+ * [Terminator]   - batch processing, throws on the poison message
+ * </pre>
+ */
+public class Test_BatchedStageProcessing {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final String TERMINATOR = MatsTestHelp.terminator();
+
+    private static final int NUMBER_OF_MESSAGES = 100;
+    private static final int POISON_MESSAGE_NUMBER = 37;
+    private static final int MAX_BATCH_SIZE = 20;
+
+    private static MatsEndpoint<Void, StateTO> _terminator;
+
+    private static final Map<Integer, AtomicInteger> _committedMessages = new ConcurrentHashMap<>();
+    private static final Map<Integer, AtomicInteger> _userExceptionCompletions = new ConcurrentHashMap<>();
+    private static final CountDownLatch _committedLatch = new CountDownLatch(NUMBER_OF_MESSAGES - 1);
+
+    // Only touched by the single StageProcessor thread, and read after the latch.
+    private static int _lambdasSinceLastCommit;
+    private static volatile int _maxLambdasBeforeCommit;
+
+    @BeforeClass
+    public static void setupTerminator() {
+        MATS.getMatsInterceptableMatsFactory().addStageInterceptor(new MatsStageInterceptor() {
+            @Override
+            public void stageCompleted(StageCompletedContext context) {
+                if (context.getProcessResult() == ProcessResult.USER_EXCEPTION) {
+                    DataTO dto = (DataTO) context.getIncomingMessage();
+                    _userExceptionCompletions.computeIfAbsent((int) dto.number, k -> new AtomicInteger())
+                            .incrementAndGet();
+                }
+            }
+        });
+        _terminator = MATS.getMatsFactory().terminator(TERMINATOR, StateTO.class, DataTO.class,
+                endpointConfig -> endpointConfig.setConcurrency(1),
+                stageConfig -> stageConfig.setMaxBatchSize(MAX_BATCH_SIZE).setBatchMaxWaitMillis(50),
+                (context, sto, dto) -> {
+                    _lambdasSinceLastCommit++;
+                    if (dto.number == POISON_MESSAGE_NUMBER) {
+                        throw new RuntimeException("Poison message: Should roll back the batch, and end up on DLQ.");
+                    }
+                    context.doAfterCommit(() -> {
+                        _maxLambdasBeforeCommit = Math.max(_maxLambdasBeforeCommit, _lambdasSinceLastCommit);
+                        _lambdasSinceLastCommit = 0;
+                        _committedMessages.computeIfAbsent((int) dto.number, k -> new AtomicInteger())
+                                .incrementAndGet();
+                        _committedLatch.countDown();
+                    });
+                });
+    }
+
+    @Test
+    public void doTest() throws InterruptedException {
+        Assert.assertEquals(MAX_BATCH_SIZE, _terminator.getStages().get(0).getStageConfig().getMaxBatchSize());
+
+        MATS.getMatsInitiator().initiateUnchecked(init -> {
+            for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+                init.traceId(MatsTestHelp.traceId() + "_#" + i)
+                        .from(MatsTestHelp.from("test"))
+                        .to(TERMINATOR)
+                        .send(new DataTO(i, "Batch"), new StateTO(i, i));
+            }
+        });
+
+        Assert.assertTrue("Did not get all the good messages committed.", _committedLatch.await(30,
+                TimeUnit.SECONDS));
+
+        // :: The poison message shall have ended up on the DLQ
+        MatsMessageRepresentation dlqMessage = MATS.getMatsTestBrokerInterface().getDlqMessage(TERMINATOR);
+        Assert.assertEquals(TERMINATOR, dlqMessage.getTo());
+        Assert.assertEquals(new DataTO(POISON_MESSAGE_NUMBER, "Batch"), dlqMessage.getIncomingMessage(DataTO.class));
+
+        // :: All the good messages shall have been committed exactly once
+        Assert.assertEquals(NUMBER_OF_MESSAGES - 1, _committedMessages.size());
+        for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            if (i == POISON_MESSAGE_NUMBER) {
+                Assert.assertNull("The poison message should not have been committed.", _committedMessages.get(i));
+                continue;
+            }
+            Assert.assertEquals("Message #" + i + " should have been committed once.", 1,
+                    _committedMessages.get(i).get());
+        }
+
+        // :: Only the poison message shall have been reported as failed, not the innocent messages of its batch.
+        Assert.assertEquals("Innocent messages were reported as failed: " + _userExceptionCompletions,
+                Collections.singleton(POISON_MESSAGE_NUMBER), _userExceptionCompletions.keySet());
+
+        // :: Assert that batching actually happened, i.e. several lambdas were run before a single commit.
+        log.info("Max number of lambdas run before a commit: [" + _maxLambdasBeforeCommit + "]");
+        Assert.assertTrue("Batching evidently did not happen.", _maxLambdasBeforeCommit > 1);
+        Assert.assertTrue(_maxLambdasBeforeCommit <= MAX_BATCH_SIZE);
+    }
+}
@@ -0,0 +1,210 @@
+package io.mats3.api_test.concurrency;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.mats3.MatsInitiator.MatsBackendRuntimeException;
+import io.mats3.MatsInitiator.MatsMessageSendRuntimeException;
+import io.mats3.api_test.DataTO;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling.PoolStats;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.broker.MatsTestBroker;
+import io.mats3.util.wrappers.ConnectionFactoryWrapper;
+
+/**
+ * Initiates from many threads at once, which all contend for the same JMS Session pool in the
+ * {@link JmsMatsJmsSessionHandler_Pooling} - as would e.g. a web tier with many request threads - while a JMS Session
+ * crashes. Both the crashed pool and the live pools shall empty out, i.e. no pool shall linger in the handler after
+ * all Sessions are gone.
+ */
+public class Test_ConcurrentInitiations {
+    private static final String QUEUE = MatsTestHelp.endpointId("NoConsumer");
+
+    private static final int THREADS = 16;
+    private static final int INITIATIONS_PER_THREAD = 10;
+
+    private MatsTestBroker _matsTestBroker;
+    private ConnectionFactoryWithFailingSessions _connectionFactory;
+    private JmsMatsJmsSessionHandler_Pooling _sessionPool;
+    private JmsMatsFactory<String> _matsFactory;
+
+    @Before
+    public void createMatsFactory() {
+        _matsTestBroker = MatsTestBroker.create();
+        _connectionFactory = new ConnectionFactoryWithFailingSessions(_matsTestBroker.getConnectionFactory());
+        _sessionPool = JmsMatsJmsSessionHandler_Pooling.create(_connectionFactory);
+        // No endpoints, so that only the initiators employ Sessions from the pool.
+        _matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions("ConcurrentInitiations", "testversion",
+                _sessionPool, MatsSerializerJson.create());
+    }
+
+    @After
+    public void stopMatsFactory() {
+        _matsFactory.stop(30_000);
+        _matsTestBroker.close();
+    }
+
+    @Test
+    public void commitCrashingUnderConcurrentInitiations() throws Exception {
+        // Crash the Session doing the 30th commit, in the middle of the concurrent initiations.
+        _connectionFactory._failCommitNumber.set(30);
+        int failedInitiations = initiateConcurrently();
+
+        // At least the crashed commit failed; others employing the crashed pool's Connection might also fail.
+        Assert.assertTrue("Expected failed initiations, got [" + failedInitiations + "]", failedInitiations >= 1);
+        // All Sessions are now released, so the crashed pool shall be emptied out and gone - only live remains.
+        for (PoolStats poolStats : _sessionPool.getPoolStats()) {
+            Assert.assertFalse("Crashed pool lingers: " + poolStats, poolStats.isCrashed());
+        }
+        // Closing all the available Sessions shall close the live pools too.
+        Assert.assertEquals(0, _sessionPool.closeAllAvailableSessions());
+        Assert.assertEquals(new ArrayList<>(), _sessionPool.getPoolStats());
+    }
+
+    @Test
+    public void sessionCloseCrashingWhenClosingAvailableSessions() throws Exception {
+        Assert.assertEquals(0, initiateConcurrently());
+        // The concurrent initiations shall have left several Sessions available in the pool.
+        Assert.assertEquals(1, _sessionPool.getPoolStats().size());
+        Assert.assertTrue(_sessionPool.getPoolStats().get(0).getIdleSessions() > 1);
+
+        // Closing the first Session crashes the pool, which then closes the rest of the Sessions.
+        _connectionFactory._failSessionClose.set(true);
+        Assert.assertEquals(0, _sessionPool.closeAllAvailableSessions());
+        // Neither the live nor the crashed pools shall hold on to the now empty pool.
+        Assert.assertEquals(new ArrayList<>(), _sessionPool.getPoolStats());
+    }
+
+    /**
+     * @return the number of initiations that failed.
+     */
+    private int initiateConcurrently() throws Exception {
+        // Make all the threads hold a Session at the same time in their first initiation, to fill up the pool.
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < INITIATIONS_PER_THREAD; i++) {
+                        boolean first = (i == 0);
+                        int number = i;
+                        try {
+                            _matsFactory.getDefaultInitiator().initiateUnchecked(init -> {
+                                if (first) {
+                                    awaitBarrier(barrier);
+                                }
+                                init.traceId(MatsTestHelp.traceId())
+                                        .from(MatsTestHelp.from("concurrent"))
+                                        .to(QUEUE)
+                                        .send(new DataTO(number, "Message"));
+                            });
+                        }
+                        catch (MatsBackendRuntimeException | MatsMessageSendRuntimeException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                // Rethrows any unexpected Exception from the initiations.
+                future.get(60, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return failed.get();
+    }
+
+    private static void awaitBarrier(CyclicBarrier barrier) {
+        try {
+            barrier.await(30, TimeUnit.SECONDS);
+        }
+        catch (Exception e) {
+            throw new AssertionError("Didn't get all threads to initiate concurrently.", e);
+        }
+    }
+
+    /**
+     * Wraps the Connections and their Sessions in dynamic proxies, where the commit with a given number, or the
+     * first close of a Session, throws a JMSException.
+     */
+    private static class ConnectionFactoryWithFailingSessions extends ConnectionFactoryWrapper {
+        private final AtomicInteger _commitCount = new AtomicInteger();
+        private final AtomicInteger _failCommitNumber = new AtomicInteger(-1);
+        private final AtomicBoolean _failSessionClose = new AtomicBoolean();
+
+        ConnectionFactoryWithFailingSessions(ConnectionFactory targetConnectionFactory) {
+            super(targetConnectionFactory);
+        }
+
+        @Override
+        public Connection createConnection() throws JMSException {
+            Connection connection = unwrap().createConnection();
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                return method.getName().equals("createSession")
+                        ? failingSession((Session) result)
+                        : result;
+            });
+        }
+
+        private Session failingSession(Session session) {
+            return proxy(Session.class, (proxy, method, args) -> {
+                // ?: Is this the commit that should fail?
+                if (method.getName().equals("commit")
+                        && (_commitCount.incrementAndGet() == _failCommitNumber.get())) {
+                    // -> Yes, so throw.
+                    throw new JMSException("Test: Failing commit.");
+                }
+                // ?: Is this the first close after failing Session close was set?
+                if (method.getName().equals("close") && _failSessionClose.compareAndSet(true, false)) {
+                    // -> Yes, so throw.
+                    throw new JMSException("Test: Failing Session close.");
+                }
+                return invoke(session, method, args);
+            });
+        }
+
+        private static <T> T proxy(Class<T> iface, InvocationHandler handler) {
+            return iface.cast(Proxy.newProxyInstance(Test_ConcurrentInitiations.class.getClassLoader(),
+                    new Class<?>[] { iface }, handler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.mats3.api_test.concurrency;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.MatsFactory.FactoryConfig;
+import io.mats3.MatsStage.StageConfig;
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.broker.MatsTestBroker;
+
+/**
+ * Tests {@link FactoryConfig#setInteractiveQueueSuffix(String)} and {@link StageConfig#setInteractiveConcurrency(int)}:
+ * A service with a single ordinary processor, whose lambda takes some time, gets a backlog of ordinary requests - and
+ * then an interactive request: The interactive request shall be processed by the interactive processor consuming
+ * from the separate interactive queue, thus bypassing the backlog.
+ * <p>
+ * ASCII-artsy, it looks like this:
+ *
+ * <pre>
+ * [Initiator]   - request, a backlog of ordinary ones, then an interactive one
+ *     [Service] - reply - sleeping a bit, recording whether interactive processor
+ * [Terminator]
+ * </pre>
+ */
+public class Test_InteractiveQueueLane {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    private static final String SERVICE = "InteractiveLane.Service";
+    private static final String TERMINATOR = "InteractiveLane.Terminator";
+
+    private static final int BACKLOG = 100;
+
+    @Test
+    public void interactiveBypassesBacklog() throws Exception {
+        MatsTestBroker matsTestBroker = MatsTestBroker.create();
+        JmsMatsFactory<String> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions("test",
+                "testversion", JmsMatsJmsSessionHandler_Pooling.create(matsTestBroker.getConnectionFactory()),
+                MatsSerializerJson.create());
+        matsFactory.getFactoryConfig().setInteractiveQueueSuffix("!interactive");
+        Assert.assertEquals("!interactive", matsFactory.getFactoryConfig().getInteractiveQueueSuffix());
+        try {
+            AtomicInteger ordinaryProcessed = new AtomicInteger();
+            AtomicInteger ordinaryProcessedWhenInteractive = new AtomicInteger(-1);
+            CountDownLatch interactiveLatch = new CountDownLatch(1);
+            CountDownLatch backlogLatch = new CountDownLatch(BACKLOG);
+
+            MatsEndpoint<DataTO, Void> service = matsFactory.single(SERVICE, DataTO.class, DataTO.class,
+                    endpointConfig -> {
+                    },
+                    stageConfig -> stageConfig.setConcurrency(1).setInteractiveConcurrency(1),
+                    (context, dto) -> {
+                        // The interactive processors are named with suffix "_pri".
+                        boolean interactiveProcessor = Thread.currentThread().getName().contains("_pri");
+                        Assert.assertEquals("Processed on wrong lane", context.isInteractive(),
+                                interactiveProcessor);
+                        if (!interactiveProcessor) {
+                            try {
+                                Thread.sleep(10);
+                            }
+                            catch (InterruptedException e) {
+                                throw new AssertionError("Got interrupted.", e);
+                            }
+                        }
+                        return new DataTO(dto.number * 2, dto.string + ":FromService");
+                    });
+            StageConfig<?, ?, ?> stageConfig = service.getStages().get(0).getStageConfig();
+            Assert.assertEquals(1, stageConfig.getInteractiveConcurrency());
+            // 0 is rejected, as then the interactive queue would never be consumed.
+            try {
+                stageConfig.setInteractiveConcurrency(0);
+                Assert.fail("setInteractiveConcurrency(0) should have been rejected.");
+            }
+            catch (IllegalArgumentException e) {
+                // expected.
+            }
+
+            matsFactory.terminator(TERMINATOR, StateTO.class, DataTO.class, (context, sto, dto) -> {
+                Assert.assertEquals(sto.number1 * 2, dto.number, 0d);
+                if (context.isInteractive()) {
+                    ordinaryProcessedWhenInteractive.set(ordinaryProcessed.get());
+                    interactiveLatch.countDown();
+                }
+                else {
+                    ordinaryProcessed.incrementAndGet();
+                    backlogLatch.countDown();
+                }
+            });
+            Assert.assertTrue("Endpoints did not start receiving.", matsFactory.waitForReceiving(30_000));
+            // The single ordinary processor, and the single interactive processor.
+            Assert.assertEquals(2, stageConfig.getRunningStageProcessors());
+
+            // :: Send the backlog, then the interactive request.
+            matsFactory.getDefaultInitiator().initiateUnchecked(init -> {
+                for (int i = 0; i < BACKLOG; i++) {
+                    init.traceId(MatsTestHelp.traceId())
+                            .from(MatsTestHelp.from("backlog"))
+                            .to(SERVICE)
+                            .replyTo(TERMINATOR, new StateTO(i, i))
+                            .request(new DataTO(i, "Backlog" + i));
+                }
+            });
+            matsFactory.getDefaultInitiator().initiateUnchecked(init -> init
+                    .traceId(MatsTestHelp.traceId())
+                    .from(MatsTestHelp.from("interactive"))
+                    .to(SERVICE)
+                    .interactive()
+                    .replyTo(TERMINATOR, new StateTO(BACKLOG, BACKLOG))
+                    .request(new DataTO(BACKLOG, "Interactive")));
+
+            Assert.assertTrue("Didn't get interactive reply.", interactiveLatch.await(30, TimeUnit.SECONDS));
+            Assert.assertTrue("Didn't get all backlog replies.", backlogLatch.await(30, TimeUnit.SECONDS));
+            log.info("Ordinary messages processed when interactive reply came: ["
+                    + ordinaryProcessedWhenInteractive.get() + "] of [" + BACKLOG + "].");
+            // The interactive shall not have waited for the backlog (generous, to not be flaky on a slow machine).
+            Assert.assertTrue("Interactive waited for backlog: " + ordinaryProcessedWhenInteractive.get(),
+                    ordinaryProcessedWhenInteractive.get() < BACKLOG / 2);
+        }
+        finally {
+            Assert.assertTrue("Did not stop nicely.", matsFactory.stop(30_000));
+            matsTestBroker.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.mats3.api_test.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.broker.MatsTestBroker;
+import io.mats3.util.wrappers.ConnectionFactoryWrapper;
+
+/**
+ * Tests {@link JmsMatsJmsSessionHandler_Pooling#setConnectionsPerPoolingKey(int)}: With the default FACTORY pooling
+ * for both initiators and stage processors, all Sessions would share a single JMS Connection - but when set to 4,
+ * the Sessions shall be spread across exactly 4 Connections, and everything shall work as normal.
+ */
+public class Test_MultipleConnectionsPerPoolingKey {
+    private static final int CONNECTIONS = 4;
+    private static final int THREADS = 32;
+    private static final int INITIATIONS_PER_THREAD = 10;
+
+    @Test
+    public void sessionsSpreadAcrossConnections() throws Exception {
+        MatsTestBroker matsTestBroker = MatsTestBroker.create();
+        ConnectionFactoryWithConnectionCounter connectionFactory = new ConnectionFactoryWithConnectionCounter(
+                matsTestBroker.getConnectionFactory());
+        JmsMatsJmsSessionHandler_Pooling sessionPool = JmsMatsJmsSessionHandler_Pooling.create(connectionFactory)
+                .setConnectionsPerPoolingKey(CONNECTIONS);
+        Assert.assertEquals(CONNECTIONS, sessionPool.getConnectionsPerPoolingKey());
+        JmsMatsFactory<String> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions("test",
+                "testversion", sessionPool, MatsSerializerJson.create());
+        matsFactory.getFactoryConfig().setConcurrency(8);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch latch = new CountDownLatch(THREADS * INITIATIONS_PER_THREAD);
+            matsFactory.terminator("Terminator", StateTO.class, DataTO.class,
+                    (ctx, state, msg) -> latch.countDown());
+            matsFactory.waitForReceiving(10_000);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < INITIATIONS_PER_THREAD; i++) {
+                        int number = i;
+                        matsFactory.getDefaultInitiator().initiateUnchecked(init -> init
+                                .traceId(MatsTestHelp.traceId())
+                                .from(MatsTestHelp.from("spread"))
+                                .to("Terminator")
+                                .send(new DataTO(number, "Message" + number)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            Assert.assertTrue("Did not receive all messages", latch.await(30, TimeUnit.SECONDS));
+
+            // :: Both the stage processors and the initiators have the factory as pooling key, so exactly 4.
+            Assert.assertEquals(CONNECTIONS, connectionFactory.getConnectionCount());
+        }
+        finally {
+            executor.shutdownNow();
+            matsFactory.stop(30_000);
+            matsTestBroker.close();
+        }
+    }
+
+    private static class ConnectionFactoryWithConnectionCounter extends ConnectionFactoryWrapper {
+        private final AtomicInteger _connectionCount = new AtomicInteger();
+
+        ConnectionFactoryWithConnectionCounter(ConnectionFactory targetConnectionFactory) {
+            super(targetConnectionFactory);
+        }
+
+        @Override
+        public Connection createConnection() throws JMSException {
+            _connectionCount.incrementAndGet();
+            return unwrap().createConnection();
+        }
+
+        int getConnectionCount() {
+            return _connectionCount.get();
+        }
+    }
+}
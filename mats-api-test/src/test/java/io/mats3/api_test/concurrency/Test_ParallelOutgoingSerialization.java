@@ -0,0 +1,139 @@
+package io.mats3.api_test.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.serial.MatsTrace;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+
+/**
+ * Tests {@link io.mats3.MatsFactory.FactoryConfig#setOutgoingSerializationParallelism(int)
+ * setOutgoingSerializationParallelism(4)}: Both a stage and an initiation sending a bunch of messages shall have all
+ * of them arrive, and in the order they were sent - the serialization is parallel, but the sending is not. The
+ * serialization shall also run with the sending thread's MDC, i.e. with the traceId and stage context.
+ * <p>
+ * ASCII-artsy, it looks like this:
+ *
+ * <pre>
+ * [Initiator]    - send
+ *     [Fan-out]  - initiates 50 messages within the stage
+ * [Terminator]   - concurrency 1, recording the order of the received messages
+ * </pre>
+ */
+public class Test_ParallelOutgoingSerialization {
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create(
+            new MatsSerializerJson(MatsSerializerJson.DEFAULT_COMPRESSION_LEVEL) {
+                @Override
+                public SerializedMatsTrace serializeMatsTrace(MatsTrace<String> matsTrace) {
+                    // Record the MDC for the messages sent to the Terminator, which are serialized in parallel.
+                    if (TERMINATOR.equals(matsTrace.getCurrentCall().getTo().getId())) {
+                        _serializationMdcs.add(MDC.get("traceId") + "@" + MDC.get("mats.StageId"));
+                    }
+                    return super.serializeMatsTrace(matsTrace);
+                }
+            });
+
+    private static final String FAN_OUT = MatsTestHelp.endpointId("fanOut");
+    private static final String TERMINATOR = MatsTestHelp.terminator();
+
+    private static final int NUMBER_OF_MESSAGES = 50;
+
+    private static final List<Integer> _received = new ArrayList<>();
+    private static final List<String> _serializationMdcs = new CopyOnWriteArrayList<>();
+    private static volatile String _fanOutMdc;
+    private static volatile CountDownLatch _latch;
+
+    @BeforeClass
+    public static void setupEndpoints() {
+        MATS.getMatsFactory().getFactoryConfig().setOutgoingSerializationParallelism(4);
+
+        MATS.getMatsFactory().terminator(FAN_OUT, StateTO.class, DataTO.class,
+                (context, sto, dto) -> {
+                    _fanOutMdc = MDC.get("traceId") + "@" + MDC.get("mats.StageId");
+                    for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+                        int number = i;
+                        context.initiate(msg -> msg.to(TERMINATOR)
+                                .send(new DataTO(number, dto.string + ":" + number)));
+                    }
+                });
+
+        MATS.getMatsFactory().terminator(TERMINATOR, StateTO.class, DataTO.class,
+                endpointConfig -> endpointConfig.setConcurrency(1),
+                stageConfig -> {
+                },
+                (context, sto, dto) -> {
+                    synchronized (_received) {
+                        _received.add((int) dto.number);
+                    }
+                    _latch.countDown();
+                });
+    }
+
+    @Before
+    public void reset() {
+        synchronized (_received) {
+            _received.clear();
+        }
+        _serializationMdcs.clear();
+        _latch = new CountDownLatch(NUMBER_OF_MESSAGES);
+    }
+
+    @Test
+    public void fromStage() throws InterruptedException {
+        MATS.getMatsInitiator().initiateUnchecked(
+                (msg) -> msg.traceId(MatsTestHelp.traceId())
+                        .from(MatsTestHelp.from("fromStage"))
+                        .to(FAN_OUT)
+                        .send(new DataTO(0, "FromStage")));
+
+        assertAllReceivedInOrder();
+
+        // All the messages shall have been serialized with the Fan-out stage's MDC, also those on the pool threads.
+        Assert.assertEquals(FAN_OUT, _fanOutMdc.substring(_fanOutMdc.indexOf('@') + 1));
+        Assert.assertEquals(NUMBER_OF_MESSAGES, _serializationMdcs.size());
+        for (String serializationMdc : _serializationMdcs) {
+            Assert.assertEquals(_fanOutMdc, serializationMdc);
+        }
+    }
+
+    @Test
+    public void fromInitiation() throws InterruptedException {
+        MATS.getMatsInitiator().initiateUnchecked(init -> {
+            for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+                int number = i;
+                init.traceId(MatsTestHelp.traceId())
+                        .from(MatsTestHelp.from("fromInitiation"))
+                        .to(TERMINATOR)
+                        .send(new DataTO(number, "FromInitiation:" + number));
+            }
+        });
+
+        assertAllReceivedInOrder();
+    }
+
+    private void assertAllReceivedInOrder() throws InterruptedException {
+        Assert.assertTrue("Did not receive all messages", _latch.await(30, TimeUnit.SECONDS));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            expected.add(i);
+        }
+        synchronized (_received) {
+            Assert.assertEquals(expected, _received);
+        }
+    }
+}
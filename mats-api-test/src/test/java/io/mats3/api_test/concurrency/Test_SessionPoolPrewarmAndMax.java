@@ -0,0 +1,131 @@
+package io.mats3.api_test.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling.PoolStats;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Simple;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.broker.MatsTestBroker;
+
+/**
+ * Tests {@link JmsMatsJmsSessionHandler_Pooling#setMinIdleSessions(int)} and
+ * {@link JmsMatsJmsSessionHandler_Pooling#setMaxSessions(int, long)}: With INITIATOR pooling, the initiator's pool
+ * shall hold the min idle Sessions right after the MatsFactory is started, and when hammered from many more threads
+ * than max Sessions, it shall never create more than max Sessions - the surplus threads wait for a Session to be
+ * released. All messages shall arrive. The {@link PoolStats} are read using
+ * {@link JmsMatsFactory#getSessionPoolStats()}, which gives an empty List for a non-pooling session handler.
+ */
+public class Test_SessionPoolPrewarmAndMax {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    private static final int MIN_IDLE = 3;
+    private static final int MAX = 5;
+    private static final int THREADS = 32;
+    private static final int INITIATIONS_PER_THREAD = 10;
+
+    @Test
+    public void prewarmAndMax() throws Exception {
+        MatsTestBroker matsTestBroker = MatsTestBroker.create();
+        JmsMatsJmsSessionHandler_Pooling sessionPool = JmsMatsJmsSessionHandler_Pooling.create(
+                matsTestBroker.getConnectionFactory(),
+                JmsMatsJmsSessionHandler_Pooling.PoolingKeyInitiator.INITIATOR,
+                JmsMatsJmsSessionHandler_Pooling.PoolingKeyStageProcessor.FACTORY)
+                .setMinIdleSessions(MIN_IDLE)
+                .setMaxSessions(MAX, 30_000);
+        Assert.assertEquals(MIN_IDLE, sessionPool.getMinIdleSessions());
+        Assert.assertEquals(MAX, sessionPool.getMaxSessions());
+        JmsMatsFactory<String> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions("test",
+                "testversion", sessionPool, MatsSerializerJson.create());
+        matsFactory.holdEndpointsUntilFactoryIsStarted();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch latch = new CountDownLatch(THREADS * INITIATIONS_PER_THREAD);
+            matsFactory.terminator("Terminator", StateTO.class, DataTO.class,
+                    (ctx, state, msg) -> latch.countDown());
+            matsFactory.start();
+
+            // :: The initiator pool shall be pre-warmed with min idle Sessions, none in use.
+            PoolStats prewarmed = getInitiatorPoolStats(matsFactory);
+            log.info("After start: " + prewarmed);
+            Assert.assertEquals(MIN_IDLE, prewarmed.getIdleSessions());
+            Assert.assertEquals(0, prewarmed.getInUseSessions());
+            Assert.assertEquals(MIN_IDLE, prewarmed.getSessionsCreated());
+
+            // :: Hammer it from many more threads than max Sessions.
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < INITIATIONS_PER_THREAD; i++) {
+                        int number = i;
+                        matsFactory.getDefaultInitiator().initiateUnchecked(init -> init
+                                .traceId(MatsTestHelp.traceId())
+                                .from(MatsTestHelp.from("prewarmAndMax"))
+                                .to("Terminator")
+                                .send(new DataTO(number, "Message" + number)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                // Rethrows any Exception from the initiations, e.g. timeout waiting for a Session.
+                future.get(60, TimeUnit.SECONDS);
+            }
+            Assert.assertTrue("Did not receive all messages", latch.await(30, TimeUnit.SECONDS));
+
+            // :: Never more than max Sessions, and with this many threads, someone must have waited.
+            PoolStats afterwards = getInitiatorPoolStats(matsFactory);
+            log.info("After initiations: " + afterwards);
+            Assert.assertTrue("Created more than max Sessions: " + afterwards, afterwards.getSessionsCreated() <= MAX);
+            Assert.assertEquals(afterwards.getSessionsCreated(), afterwards.getIdleSessions());
+            Assert.assertTrue("Nobody waited for a Session: " + afterwards, afterwards.getWaitsForSession() > 0);
+            Assert.assertEquals(0, afterwards.getTimeoutsWaitingForSession());
+        }
+        finally {
+            executor.shutdownNow();
+            matsFactory.stop(30_000);
+            matsTestBroker.close();
+        }
+    }
+
+    @Test
+    public void noSessionPoolStatsWithNonPoolingHandler() {
+        MatsTestBroker matsTestBroker = MatsTestBroker.create();
+        JmsMatsFactory<String> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions("test",
+                "testversion", JmsMatsJmsSessionHandler_Simple.create(matsTestBroker.getConnectionFactory()),
+                MatsSerializerJson.create());
+        try {
+            Assert.assertEquals(new ArrayList<>(), matsFactory.getSessionPoolStats());
+        }
+        finally {
+            matsFactory.stop(30_000);
+            matsTestBroker.close();
+        }
+    }
+
+    private static PoolStats getInitiatorPoolStats(JmsMatsFactory<String> matsFactory) {
+        // With INITIATOR and FACTORY pooling, there is the initiator's pool, and the stage processors' pool.
+        List<PoolStats> poolStats = matsFactory.getSessionPoolStats();
+        Assert.assertEquals("Expected the initiator and the stage processor pool: " + poolStats, 2, poolStats.size());
+        for (PoolStats stats : poolStats) {
+            if (stats.getPoolingKey().contains("JmsMatsInitiator{")) {
+                return stats;
+            }
+        }
+        throw new AssertionError("Did not find the initiator pool: " + poolStats);
+    }
+}
@@ -0,0 +1,174 @@
+package io.mats3.api_test.concurrency;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.serial.json.MatsSerializerJson;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.broker.MatsTestBroker;
+
+/**
+ * Tests {@link JmsMatsFactory#setSharedStageProcessingSlots(int)}: Many endpoints, each with several StageProcessors,
+ * are hit with messages, including a multi-stage endpoint doing request-reply to the services: All messages shall be
+ * processed, all by MessageListeners, and never more concurrently than the number of slots. One service throws on its
+ * first invocation, to check that the rollback and redelivery works as with own threads.
+ * <p>
+ * ASCII-artsy, it looks like this:
+ *
+ * <pre>
+ * [Initiator]            - request to each service, and to the multi-stage endpoint
+ *     [Service N]        - reply, recording thread and concurrently executing lambdas
+ *     [Multi S0]         - request to Service 0
+ *     [Multi S1]         - reply
+ * [Terminator]
+ * </pre>
+ */
+public class Test_SharedStageProcessingSlots {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    private static final int SLOTS = 3;
+    private static final int CONCURRENCY = 4;
+    private static final int NUMBER_OF_SERVICES = 10;
+    private static final int MESSAGES_PER_ENDPOINT = 20;
+
+    private static final String SERVICE_PREFIX = "SharedPool.Service";
+    private static final String MULTI = "SharedPool.Multi";
+    private static final String TERMINATOR = "SharedPool.Terminator";
+
+    private final Set<String> _processingThreadNames = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger _concurrentlyExecuting = new AtomicInteger();
+    private final AtomicInteger _maxConcurrentlyExecuting = new AtomicInteger();
+    private final AtomicBoolean _hasThrown = new AtomicBoolean();
+
+    @Test
+    public void allProcessedUsingSharedSlots() throws Exception {
+        MatsTestBroker matsTestBroker = MatsTestBroker.create();
+        JmsMatsFactory<String> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions("test",
+                "testversion", JmsMatsJmsSessionHandler_Pooling.create(matsTestBroker.getConnectionFactory()),
+                MatsSerializerJson.create());
+        matsFactory.getFactoryConfig().setName("SharedPoolTest");
+        matsFactory.getFactoryConfig().setConcurrency(CONCURRENCY);
+        matsFactory.setSharedStageProcessingSlots(SLOTS);
+        Assert.assertEquals(SLOTS, matsFactory.getSharedStageProcessingSlots());
+        try {
+            int numberOfEndpoints = NUMBER_OF_SERVICES + 1;
+            CountDownLatch latch = new CountDownLatch(numberOfEndpoints * MESSAGES_PER_ENDPOINT);
+
+            // :: The services
+            for (int s = 0; s < NUMBER_OF_SERVICES; s++) {
+                int serviceNumber = s;
+                matsFactory.single(SERVICE_PREFIX + s, DataTO.class, DataTO.class, (context, dto) -> {
+                    enter();
+                    try {
+                        // ?: Is this the first invocation of the first service?
+                        if ((serviceNumber == 0) && _hasThrown.compareAndSet(false, true)) {
+                            // -> Yes, so throw, thus rollback and redelivery.
+                            throw new IllegalStateException("Throwing once, to get redelivery.");
+                        }
+                        Thread.sleep(2);
+                        return new DataTO(dto.number * 2, dto.string + ":FromService");
+                    }
+                    catch (InterruptedException e) {
+                        throw new AssertionError("Got interrupted.", e);
+                    }
+                    finally {
+                        exit();
+                    }
+                });
+            }
+
+            // :: The multi-stage endpoint, doing request-reply to the first service.
+            MatsEndpoint<DataTO, StateTO> multi = matsFactory.staged(MULTI, DataTO.class, StateTO.class);
+            multi.stage(DataTO.class, (context, sto, dto) -> {
+                enter();
+                try {
+                    sto.number1 = (int) dto.number;
+                    context.request(SERVICE_PREFIX + 0, new DataTO(dto.number, dto.string));
+                }
+                finally {
+                    exit();
+                }
+            });
+            multi.lastStage(DataTO.class, (context, sto, dto) -> {
+                enter();
+                try {
+                    return new DataTO(dto.number, dto.string + ":FromMulti");
+                }
+                finally {
+                    exit();
+                }
+            });
+
+            matsFactory.terminator(TERMINATOR, StateTO.class, DataTO.class, (context, sto, dto) -> {
+                enter();
+                try {
+                    if (dto.number == sto.number1 * 2) {
+                        latch.countDown();
+                    }
+                }
+                finally {
+                    exit();
+                }
+            });
+
+            Assert.assertTrue("Endpoints did not start receiving.", matsFactory.waitForReceiving(30_000));
+
+            // :: Send the messages to all the endpoints.
+            long nanosStart = System.nanoTime();
+            matsFactory.getDefaultInitiator().initiateUnchecked(init -> {
+                for (int i = 0; i < MESSAGES_PER_ENDPOINT; i++) {
+                    for (int s = 0; s < numberOfEndpoints; s++) {
+                        String to = s < NUMBER_OF_SERVICES ? SERVICE_PREFIX + s : MULTI;
+                        init.traceId(MatsTestHelp.traceId())
+                                .from(MatsTestHelp.from("allProcessedUsingSharedSlots"))
+                                .to(to)
+                                .replyTo(TERMINATOR, new StateTO(i, i))
+                                .request(new DataTO(i, "Message" + i));
+                    }
+                }
+            });
+            Assert.assertTrue("Didn't get all replies.", latch.await(60, TimeUnit.SECONDS));
+            log.info("Processed [" + (numberOfEndpoints * MESSAGES_PER_ENDPOINT) + "] flows in [" + ((System
+                    .nanoTime() - nanosStart) / 1_000_000d) + " ms], max concurrently executing: ["
+                    + _maxConcurrentlyExecuting.get() + "], distinct thread names: [" + _processingThreadNames.size()
+                    + "].");
+
+            // :: Everything processed by the MessageListeners, never more concurrently than the number of slots.
+            Assert.assertTrue("Did not throw", _hasThrown.get());
+            for (String threadName : _processingThreadNames) {
+                Assert.assertTrue("Not processed by MessageListener: " + threadName,
+                        threadName.startsWith("MATS:SharedPool.") && threadName.contains(" @"));
+            }
+            Assert.assertTrue("More concurrently executing than slots: " + _maxConcurrentlyExecuting.get(),
+                    _maxConcurrentlyExecuting.get() <= SLOTS);
+        }
+        finally {
+            Assert.assertTrue("Did not stop nicely.", matsFactory.stop(30_000));
+            matsTestBroker.close();
+        }
+    }
+
+    private void enter() {
+        // The provider's thread is named after the StageProcessor while processing, with its own name appended.
+        _processingThreadNames.add(Thread.currentThread().getName());
+        int concurrent = _concurrentlyExecuting.incrementAndGet();
+        _maxConcurrentlyExecuting.accumulateAndGet(concurrent, Math::max);
+    }
+
+    private void exit() {
+        _concurrentlyExecuting.decrementAndGet();
+    }
+}
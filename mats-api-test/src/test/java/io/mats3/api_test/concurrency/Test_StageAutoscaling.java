@@ -0,0 +1,125 @@
+package io.mats3.api_test.concurrency;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.MatsStage.StageConfig;
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+
+/**
+ * Tests {@link StageConfig#setAutoscaling(int, int)}: A service stage with min 1 and max {@link #MAX} processors, whose
+ * lambda takes some time, is hit by a burst of messages: It shall grow beyond the single processor it starts with, but
+ * never beyond max - and when the burst is processed, it shall shrink back to the min.
+ * <p>
+ * ASCII-artsy, it looks like this:
+ *
+ * <pre>
+ * [Initiator]   - request, a burst of them
+ *     [Service] - reply - autoscaling, sleeping a bit, recording concurrently executing lambdas
+ * [Terminator]
+ * </pre>
+ */
+public class Test_StageAutoscaling {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final String SERVICE = MatsTestHelp.service();
+    private static final String TERMINATOR = MatsTestHelp.terminator();
+
+    private static final int MAX = 6;
+    private static final int NUMBER_OF_MESSAGES = 300;
+
+    private static MatsEndpoint<DataTO, Void> _serviceEndpoint;
+
+    private static final AtomicInteger _concurrentlyExecuting = new AtomicInteger();
+    private static final AtomicInteger _maxConcurrentlyExecuting = new AtomicInteger();
+    private static volatile CountDownLatch _latch;
+
+    @BeforeClass
+    public static void setupServiceAndTerminator() {
+        // Evaluate the load often, so that the test does not take forever.
+        MATS.getMatsFactory().getFactoryConfig().setAutoscalingIntervalMillis(50);
+
+        _serviceEndpoint = MATS.getMatsFactory().single(SERVICE, DataTO.class, DataTO.class,
+                endpointConfig -> {
+                },
+                stageConfig -> stageConfig.setAutoscaling(1, MAX),
+                (context, dto) -> {
+                    int concurrent = _concurrentlyExecuting.incrementAndGet();
+                    _maxConcurrentlyExecuting.accumulateAndGet(concurrent, Math::max);
+                    try {
+                        Thread.sleep(10);
+                    }
+                    catch (InterruptedException e) {
+                        throw new AssertionError("Got interrupted.", e);
+                    }
+                    finally {
+                        _concurrentlyExecuting.decrementAndGet();
+                    }
+                    return new DataTO(dto.number * 2, dto.string + ":FromService");
+                });
+
+        MATS.getMatsFactory().terminator(TERMINATOR, StateTO.class, DataTO.class,
+                (context, sto, dto) -> {
+                    if (dto.number == sto.number1 * 2) {
+                        _latch.countDown();
+                    }
+                });
+    }
+
+    @Test
+    public void growAndShrink() throws InterruptedException {
+        StageConfig<?, ?, ?> stageConfig = _serviceEndpoint.getStages().get(0).getStageConfig();
+        Assert.assertTrue(stageConfig.isAutoscaling());
+        Assert.assertEquals(1, stageConfig.getMinConcurrency());
+        Assert.assertEquals(MAX, stageConfig.getMaxConcurrency());
+        // The single ordinary processor, and the interactive processor.
+        int runningAtMin = stageConfig.getRunningStageProcessors();
+
+        // :: Send the burst, and wait for all replies.
+        _latch = new CountDownLatch(NUMBER_OF_MESSAGES);
+        long nanosStart = System.nanoTime();
+        MATS.getMatsInitiator().initiateUnchecked(init -> {
+            for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+                init.traceId(MatsTestHelp.traceId())
+                        .from(MatsTestHelp.from("growAndShrink"))
+                        .to(SERVICE)
+                        .replyTo(TERMINATOR, new StateTO(i, i))
+                        .request(new DataTO(i, "Message" + i));
+            }
+        });
+        Assert.assertTrue("Didn't get all replies.", _latch.await(60, TimeUnit.SECONDS));
+        log.info("Processed [" + NUMBER_OF_MESSAGES + "] messages in [" + ((System.nanoTime() - nanosStart)
+                / 1_000_000d) + " ms], max concurrently executing: [" + _maxConcurrentlyExecuting.get() + "].");
+
+        // :: It shall have grown beyond the single processor, but not beyond max.
+        Assert.assertTrue("Did not grow: " + _maxConcurrentlyExecuting.get(), _maxConcurrentlyExecuting.get() > 1);
+        Assert.assertTrue("Grew beyond max: " + _maxConcurrentlyExecuting.get(),
+                _maxConcurrentlyExecuting.get() <= MAX);
+
+        // :: Now idle, it shall shrink back to the min.
+        long waitUntil = System.currentTimeMillis() + 30_000;
+        while ((stageConfig.getRunningStageProcessors() > runningAtMin)
+                && (System.currentTimeMillis() < waitUntil)) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(runningAtMin, stageConfig.getRunningStageProcessors());
+
+        // :: Assert that the stop-semantics works with the autoscaling.
+        Assert.assertTrue(_serviceEndpoint.stop(10_000));
+        Assert.assertEquals(0, stageConfig.getRunningStageProcessors());
+    }
+}
@@ -0,0 +1,108 @@
+package io.mats3.api_test.concurrency;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.MatsEndpoint.ProcessContext;
+import io.mats3.MatsFactory.ContextLocal;
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.MatsTestLatch.Result;
+import io.mats3.test.junit.Rule_Mats;
+
+/**
+ * Tests that a Stage configured with {@link io.mats3.MatsStage.StageConfig#setUseVirtualThreads(boolean)
+ * setUseVirtualThreads(true)} works: The StageProcessor thread shall be virtual if the JVM supports it (Java 21+),
+ * otherwise it falls back to platform threads. In both cases, the MDC and the {@link ContextLocal} shall be in place
+ * inside the stage lambda, and the stage shall stop nicely.
+ * <p>
+ * ASCII-artsy, it looks like this:
+ *
+ * <pre>
+ * [Initiator]   - request
+ *     [Service] - reply - running on virtual threads, recording thread, MDC and ContextLocal
+ * [Terminator]
+ * </pre>
+ */
+public class Test_VirtualThreadStageProcessors {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final String SERVICE = MatsTestHelp.service();
+    private static final String TERMINATOR = MatsTestHelp.terminator();
+
+    private static MatsEndpoint<DataTO, Void> _serviceEndpoint;
+
+    private static volatile Thread _serviceThread;
+    private static volatile String _serviceMdcTraceId;
+    private static volatile boolean _serviceHadProcessContextInContextLocal;
+
+    @BeforeClass
+    public static void setupServiceAndTerminator() {
+        _serviceEndpoint = MATS.getMatsFactory().single(SERVICE, DataTO.class, DataTO.class,
+                endpointConfig -> endpointConfig.setConcurrency(4),
+                stageConfig -> stageConfig.setUseVirtualThreads(true),
+                (context, dto) -> {
+                    _serviceThread = Thread.currentThread();
+                    _serviceMdcTraceId = MDC.get("traceId");
+                    Optional<?> processContext = ContextLocal.getAttribute(ProcessContext.class);
+                    _serviceHadProcessContextInContextLocal = processContext.isPresent();
+                    return new DataTO(dto.number * 2, dto.string + ":FromService");
+                });
+
+        MATS.getMatsFactory().terminator(TERMINATOR, StateTO.class, DataTO.class,
+                (context, sto, dto) -> MATS.getMatsTestLatch().resolve(sto, dto));
+    }
+
+    @Test
+    public void doTest() throws Exception {
+        Assert.assertTrue(_serviceEndpoint.getStages().get(0).getStageConfig().isUseVirtualThreads());
+        Assert.assertFalse(MATS.getMatsFactory().getFactoryConfig().isUseVirtualThreads());
+
+        DataTO dto = new DataTO(42, "TheAnswer");
+        StateTO sto = new StateTO(420, 420.024);
+        String traceId = MatsTestHelp.traceId();
+        MATS.getMatsInitiator().initiateUnchecked(
+                (msg) -> msg.traceId(traceId)
+                        .from(MatsTestHelp.from("test"))
+                        .to(SERVICE)
+                        .replyTo(TERMINATOR, sto)
+                        .request(dto));
+
+        Result<StateTO, DataTO> result = MATS.getMatsTestLatch().waitForResult();
+        Assert.assertEquals(sto, result.getState());
+        Assert.assertEquals(new DataTO(dto.number * 2, dto.string + ":FromService"), result.getData());
+
+        // :: Assert the context available within the stage lambda
+        Assert.assertEquals(traceId, _serviceMdcTraceId);
+        Assert.assertTrue("ProcessContext should be available via ContextLocal",
+                _serviceHadProcessContextInContextLocal);
+        Assert.assertTrue(_serviceThread.getName().startsWith("MATS:" + SERVICE));
+
+        // :: Assert virtual thread if supported by JVM (Java 21+), by reflection since we compile for Java 8.
+        String javaSpecVersion = System.getProperty("java.specification.version");
+        if (!javaSpecVersion.startsWith("1.") && (Integer.parseInt(javaSpecVersion) >= 21)) {
+            Method isVirtual = Thread.class.getMethod("isVirtual");
+            Assert.assertTrue("The StageProcessor thread should be virtual", (Boolean) isVirtual.invoke(
+                    _serviceThread));
+        }
+        else {
+            log.info("Pre-21 JVM [" + javaSpecVersion + "], so the stage should have fallen back to platform threads.");
+        }
+
+        // :: Assert that the stop-semantics works for the (possibly) virtual threads
+        Assert.assertTrue(_serviceEndpoint.stop(10_000));
+        Assert.assertFalse(_serviceThread.isAlive());
+    }
+}
@@ -0,0 +1,146 @@
+package io.mats3.api_test.failure;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.MatsStage.StageConfig;
+import io.mats3.api_test.DataTO;
+import io.mats3.api_test.StateTO;
+import io.mats3.test.MatsTestBrokerInterface.MatsMessageRepresentation;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+
+/**
+ * Tests {@link StageConfig#setPrefetchSize(int)}, {@link StageConfig#setMaxRedeliveries(int)} and
+ * {@link StageConfig#setRedeliveryDelayMillis(long)}: A single-stage service configured with prefetch 1 and 3
+ * redeliveries always throws, which should put the message on the MQ DLQ after 1 delivery and 3 redeliveries -
+ * instead of the 1 redelivery which the test ConnectionFactory is configured with.
+ * <p/>
+ * ASCII-artsy, it looks like this:
+ *
+ * <pre>
+ * [Initiator]   - request
+ *     [Service] - throws RuntimeException, message ends up on DLQ after the stage's configured number of retries.
+ * [Terminator]  - <i>does not get message!</i>
+ * </pre>
+ */
+public class Test_StagePrefetchAndRedelivery {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final String SERVICE = MatsTestHelp.service();
+    private static final String TERMINATOR = MatsTestHelp.terminator();
+
+    private static final AtomicInteger _serviceInvocations = new AtomicInteger();
+
+    private static MatsEndpoint<DataTO, Void> _service;
+
+    @BeforeClass
+    public static void setupServiceAndTerminator() {
+        _service = MATS.getMatsFactory().single(SERVICE, DataTO.class, DataTO.class,
+                endpointConfig -> {
+                },
+                stageConfig -> stageConfig.setPrefetchSize(1).setMaxRedeliveries(3).setRedeliveryDelayMillis(10),
+                (context, dto) -> {
+                    _serviceInvocations.incrementAndGet();
+                    throw new RuntimeException("Should send message to DLQ after the stage's redeliveries.");
+                });
+
+        MATS.getMatsFactory().terminator(TERMINATOR, StateTO.class, DataTO.class,
+                (context, sto, dto) -> MATS.getMatsTestLatch().resolve(context, sto, dto));
+    }
+
+    @Test
+    public void stageConfigValues() {
+        StageConfig<?, ?, ?> stageConfig = _service.getStages().get(0).getStageConfig();
+        Assert.assertEquals(1, stageConfig.getPrefetchSize());
+        Assert.assertEquals(3, stageConfig.getMaxRedeliveries());
+        Assert.assertEquals(10, stageConfig.getRedeliveryDelayMillis());
+    }
+
+    @Test
+    public void stageConfigDefaultsAndNonDefaultEdgeValues() {
+        StageConfig<?, ?, ?> stageConfig = MATS.getMatsFactory().single(SERVICE + ".edgeValues", DataTO.class,
+                DataTO.class, (context, dto) -> dto).getStages().get(0).getStageConfig();
+        try {
+            // The default is the ConnectionFactory's settings
+            Assert.assertEquals(StageConfig.CONNECTION_FACTORY_DEFAULT, stageConfig.getPrefetchSize());
+            Assert.assertEquals(StageConfig.CONNECTION_FACTORY_DEFAULT, stageConfig.getMaxRedeliveries());
+            Assert.assertEquals(StageConfig.CONNECTION_FACTORY_DEFAULT, stageConfig.getRedeliveryDelayMillis());
+
+            // 0 prefetch, and -1 (unlimited) redeliveries, are proper values, distinct from the default
+            stageConfig.setPrefetchSize(0).setMaxRedeliveries(-1).setRedeliveryDelayMillis(0);
+            Assert.assertEquals(0, stageConfig.getPrefetchSize());
+            Assert.assertEquals(-1, stageConfig.getMaxRedeliveries());
+            Assert.assertEquals(0, stageConfig.getRedeliveryDelayMillis());
+
+            // Values below are illegal
+            assertIllegalArgument(() -> stageConfig.setPrefetchSize(-1));
+            assertIllegalArgument(() -> stageConfig.setMaxRedeliveries(-2));
+            assertIllegalArgument(() -> stageConfig.setRedeliveryDelayMillis(-1));
+
+            // The default can be reinstated
+            stageConfig.setPrefetchSize(StageConfig.CONNECTION_FACTORY_DEFAULT)
+                    .setMaxRedeliveries(StageConfig.CONNECTION_FACTORY_DEFAULT)
+                    .setRedeliveryDelayMillis(StageConfig.CONNECTION_FACTORY_DEFAULT);
+            Assert.assertEquals(StageConfig.CONNECTION_FACTORY_DEFAULT, stageConfig.getPrefetchSize());
+            Assert.assertEquals(StageConfig.CONNECTION_FACTORY_DEFAULT, stageConfig.getMaxRedeliveries());
+            Assert.assertEquals(StageConfig.CONNECTION_FACTORY_DEFAULT, stageConfig.getRedeliveryDelayMillis());
+        }
+        finally {
+            MATS.getMatsFactory().getEndpoint(SERVICE + ".edgeValues").ifPresent(ep -> ep.remove(30_000));
+        }
+    }
+
+    private static void assertIllegalArgument(Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail("Expected IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            log.info("Got expected IllegalArgumentException: " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void throwRuntimeExceptionShouldRedeliverStageConfiguredTimesAndDlq() {
+        MATS.getMatsInitiator().initiateUnchecked(
+                (msg) -> msg.traceId(MatsTestHelp.traceId())
+                        .from(MatsTestHelp.from("test"))
+                        .to(SERVICE)
+                        .replyTo(TERMINATOR, new StateTO(420, 420.024))
+                        .request(new DataTO(42, "TheAnswer")));
+
+        // Wait for the DLQ
+        MatsMessageRepresentation dlqMessage = MATS.getMatsTestBrokerInterface().getDlqMessage(SERVICE);
+        Assert.assertEquals(SERVICE, dlqMessage.getTo());
+
+        log.info("The number of service invocations was: [" + _serviceInvocations + "]");
+        /*
+         * The per-stage redelivery settings are only applied on ActiveMQ: With Artemis, the number of deliveries is
+         * configured on the broker - 10 for a default external Artemis, and 3 for the in-vm Artemis used in tests.
+         * (Ref. Test_ThrowExceptionsInServiceShouldDlq)
+         */
+        // ?: Are we running on Artemis?
+        if (MATS.getJmsConnectionFactory().getClass().getName().startsWith("org.apache.activemq.artemis.")) {
+            // -> Yes, Artemis, so the stage's settings are not applied - the broker's are.
+            boolean okNumberOfInvocations = _serviceInvocations.get() == 10
+                    || _serviceInvocations.get() == 3;
+            Assert.assertTrue("Did not get the correct number of deliveries for Artemis, which should be [3] or [10]."
+                    + " It was [" + _serviceInvocations.get() + "]", okNumberOfInvocations);
+        }
+        else {
+            // -> No, ActiveMQ, so the stage's settings should be applied: 1 delivery and 3 redeliveries.
+            Assert.assertEquals("Did not get the correct number of deliveries, which should be [4] (1 delivery and 3"
+                    + " redeliveries).", 4, _serviceInvocations.get());
+        }
+    }
+}
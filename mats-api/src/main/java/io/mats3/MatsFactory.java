@@ -474,6 +474,119 @@ public interface MatsFactory extends StartStoppable {
          */
         int getNumberOfCpus();
 
+        /**
+         * Sets whether the {@link MatsStage} Processors, i.e. the threads running the receive-loop of each stage,
+         * should by default be <i>virtual threads</i> instead of ordinary platform threads. Virtual threads are only
+         * available on Java 21+: If set to <code>true</code> on an earlier JVM, the implementation shall log a warning
+         * and fall back to platform threads. The default is <code>false</code>. May be overridden per stage by
+         * {@link StageConfig#setUseVirtualThreads(boolean)}.
+         * <p/>
+         * The rationale is that a service with many endpoints, each having several stages with a concurrency of
+         * 2 x CPUs, will hold a large number of threads that mostly sit parked in the receive-call. With virtual threads,
+         * this cost is very low, and one may also crank up the concurrency for IO-bound stages. Note that the JMS
+         * client's receive-call might pin the carrier thread (e.g. if it waits inside a <code>synchronized</code>
+         * block), which limits the gains depending on the JMS client implementation.
+         * <p/>
+         * Will only have effect before the {@link MatsStage}s are started. Can be reset by stopping, setting, and
+         * restarting.
+         *
+         * @param useVirtualThreads
+         *            whether the Stage Processors should by default run on virtual threads.
+         * @return <code>this</code> for chaining.
+         */
+        FactoryConfig setUseVirtualThreads(boolean useVirtualThreads);
+
+        /**
+         * @return whether the Stage Processors by default should run on virtual threads, as set by
+         *         {@link #setUseVirtualThreads(boolean)}. Default is <code>false</code>.
+         */
+        boolean isUseVirtualThreads();
+
+        /**
+         * Sets the parallelism for serializing the outgoing messages of a stage invocation or initiation: If above 1,
+         * and the stage or initiation produces more than a handful of messages (the JMS implementation uses 8), the
+         * messages' envelopes are serialized and compressed in parallel on a pool shared by all the stages and
+         * initiators of this MatsFactory, bounded to the given parallelism - the stage or initiator thread takes part
+         * in the work. The messages are still sent sequentially, in the order they were produced, after all are
+         * serialized. The default is 0, meaning that the messages are serialized sequentially on the stage or
+         * initiator thread.
+         * <p/>
+         * The rationale is that a "fan-out" stage producing hundreds of messages spends most of its wall time on
+         * serializing and compressing the envelopes, which on a multi-core host can be cut substantially by doing it in
+         * parallel. For the ordinary stage producing a single message, there is no difference.
+         *
+         * @param parallelism
+         *            the max number of threads serializing the outgoing messages of a single stage invocation or
+         *            initiation, 0 or 1 meaning sequential on the stage or initiator thread.
+         * @return <code>this</code> for chaining.
+         */
+        FactoryConfig setOutgoingSerializationParallelism(int parallelism);
+
+        /**
+         * @return the parallelism for serializing the outgoing messages, as set by
+         *         {@link #setOutgoingSerializationParallelism(int)}. Default is 0, i.e. sequential.
+         */
+        int getOutgoingSerializationParallelism();
+
+        /**
+         * Sets how often the load of the {@link StageConfig#setAutoscaling(int, int) autoscaling} stages is evaluated,
+         * i.e. how quickly they may grow or shrink their number of Stage Processors. The default is 1000 ms.
+         *
+         * @param intervalMillis
+         *            the interval between each evaluation of the autoscaling stages' load, at least 10.
+         * @return <code>this</code> for chaining.
+         */
+        FactoryConfig setAutoscalingIntervalMillis(int intervalMillis);
+
+        /**
+         * @return the interval between each evaluation of the autoscaling stages' load, as set by
+         *         {@link #setAutoscalingIntervalMillis(int)}. Default is 1000 ms.
+         */
+        int getAutoscalingIntervalMillis();
+
+        /**
+         * Which of the informational message system properties (e.g. JMS Message Properties) to put on each outgoing
+         * message. These are not needed by Mats, as all information is in the envelope - they exist purely to
+         * simplify inspection, logging and intercepting on the message broker. However, they cost allocations on the
+         * sender, and header parsing and memory on the broker, for every message - which for high-volume internal
+         * flows might be worth shedding.
+         */
+        enum OutgoingMessageProperties {
+            /**
+             * All the informational properties: TraceId, MatsMessageId, DispatchType, MessageType, envelope size,
+             * initializing app, initiator id, from, to, and audit. This is the default.
+             */
+            FULL,
+
+            /**
+             * Only the TraceId and the MatsMessageId, which identifies the message and its flow.
+             */
+            MINIMAL,
+
+            /**
+             * None of the informational properties.
+             */
+            NONE
+        }
+
+        /**
+         * Sets which of the informational message system properties to put on each outgoing message, read
+         * {@link OutgoingMessageProperties}. Default is {@link OutgoingMessageProperties#FULL FULL}. Notice that this
+         * does not affect the system headers that Mats employs, e.g. priority for interactive messages.
+         *
+         * @param outgoingMessageProperties
+         *            which of the informational properties to put on each outgoing message.
+         * @return <code>this</code> for chaining.
+         */
+        FactoryConfig setOutgoingMessageProperties(OutgoingMessageProperties outgoingMessageProperties);
+
+        /**
+         * @return which of the informational message system properties are put on each outgoing message, as set by
+         *         {@link #setOutgoingMessageProperties(OutgoingMessageProperties)}. Default is
+         *         {@link OutgoingMessageProperties#FULL FULL}.
+         */
+        OutgoingMessageProperties getOutgoingMessageProperties();
+
         /**
          * Sets a Function that may modify the TraceId of Mats flows that are initiated "from the outside", i.e. not
          * from within a Stage. The intended use is to automatically prefix the Mats flow TraceId with some sort of
@@ -496,6 +609,39 @@ public interface MatsFactory extends StartStoppable {
          */
         FactoryConfig setInitiateTraceIdModifier(Function<String, String> modifier);
 
+        /**
+         * Enables separate <i>interactive lanes</i>: Messages of {@link MatsInitiate#interactive() interactive} flows
+         * are sent to a separate queue for each stage, named as the ordinary queue with this suffix appended, which
+         * the stage's interactive Stage Processors consume from - instead of the default where they are sent to the
+         * ordinary queue with high priority, and the interactive Stage Processors consume from the same queue using a
+         * message selector on the priority. The separate queue gives the interactive flows predictable latency even
+         * when the ordinary queue has a large backlog, on every broker: Message selectors are broker-dependent in
+         * efficiency, and not supported for queues on RabbitMQ, where interactive Stage Processors are thus not started
+         * in the default mode. Topics are not affected.
+         * <p/>
+         * Needless to say, all MatsFactories which communicate must be configured the same here, as the sender chooses
+         * the queue: A node not having this set will not consume from the interactive queues. Messages sent to the
+         * ordinary queue with high priority, e.g. from nodes not yet having this set, are still processed by the
+         * ordinary Stage Processors. The suffix should not be something an endpointId could end with, e.g.
+         * <code>"!interactive"</code>.
+         * <p/>
+         * Default is <code>null</code>, i.e. the message selector on priority. Will only have effect for Stages
+         * started after it is set.
+         *
+         * @param suffix
+         *            the suffix appended to the queue name to get the interactive queue, or <code>null</code> for the
+         *            default of using a message selector on priority.
+         * @return <code>this</code> for chaining.
+         */
+        FactoryConfig setInteractiveQueueSuffix(String suffix);
+
+        /**
+         * @return the suffix appended to the queue name to get the interactive queue, as set by
+         *         {@link #setInteractiveQueueSuffix(String)} - or <code>null</code> if not using separate queues for
+         *         interactive flows, which is the default.
+         */
+        String getInteractiveQueueSuffix();
+
         /**
          * Sets the prefix that should be applied to the endpointIds to get queue or topic name in the underlying
          * messaging system - the default is <code>"mats."</code>. Needless to say, two MatsFactories which are
@@ -2,6 +2,7 @@ package io.mats3;
 
 import io.mats3.MatsConfig.StartStoppable;
 import io.mats3.MatsEndpoint.EndpointConfig;
+import io.mats3.MatsFactory.FactoryConfig;
 
 /**
  * A representation of a process stage of a {@link MatsEndpoint}. Either constructed implicitly (for single-stage
@@ -55,6 +56,13 @@ public interface MatsStage<R, S, I> extends StartStoppable {
      * Provides for both configuring the stage (before it is started), and introspecting the configuration.
      */
     interface StageConfig<R, S, I> extends MatsConfig {
+        /**
+         * Marker value for the per-stage consumer settings {@link #setPrefetchSize(int)},
+         * {@link #setMaxRedeliveries(int)} and {@link #setRedeliveryDelayMillis(long)}, meaning that the setting is not
+         * set for this stage, and thus that the ConnectionFactory's (or broker's) setting is used. This is the default
+         * for all three, and can be set to reinstate it.
+         */
+        int CONNECTION_FACTORY_DEFAULT = Integer.MIN_VALUE;
 
         /**
          * @return the stageId for this Stage - for the initial stage of an endpoint, this is the same as the
@@ -90,6 +98,212 @@ public interface MatsStage<R, S, I> extends StartStoppable {
          */
         int getRunningStageProcessors();
 
+        /**
+         * Overrides the factory default {@link FactoryConfig#setUseVirtualThreads(boolean)} for this stage, i.e.
+         * whether the Stage Processors for this stage should run on virtual threads (Java 21+, falling back to platform
+         * threads on earlier JVMs). Typically relevant for IO-bound stages where you want to crank up the concurrency.
+         * <p/>
+         * Will only have effect before the {@link MatsStage} is started. Can be reset by stopping, setting, and
+         * restarting.
+         *
+         * @param useVirtualThreads
+         *            whether the Stage Processors of this stage should run on virtual threads.
+         * @return <code>this</code>, for chaining.
+         */
+        StageConfig<R, S, I> setUseVirtualThreads(boolean useVirtualThreads);
+
+        /**
+         * @return whether the Stage Processors of this stage should run on virtual threads: Unless overridden by
+         *         {@link #setUseVirtualThreads(boolean)}, this returns the factory default,
+         *         {@link FactoryConfig#isUseVirtualThreads()}.
+         */
+        boolean isUseVirtualThreads();
+
+        /**
+         * Enables <i>batched receive-and-commit</i> for this stage: Upon receiving a message, the Stage Processor will
+         * additionally drain up to <code>maxBatchSize - 1</code> more messages (waiting at most
+         * {@link #setBatchMaxWaitMillis(int) batchMaxWaitMillis} for them), and process them all within a single
+         * transaction - the process lambda is still invoked once per message, but there is only one commit for the
+         * entire batch. This can give a substantial throughput increase for high-volume stages with small messages,
+         * where the commit (JMS, and possibly JDBC) is the dominating cost.
+         * <p/>
+         * Semantics: If the process lambda for any of the messages in the batch throws, the entire batch is rolled
+         * back - and a redelivered message is never part of a batch, but always processed alone - so that a poison
+         * message is handled in isolation, and only it ends up on the DLQ. Notice that this means that the other
+         * messages of a failed batch spend one delivery attempt (as do the messages received in a batch before a
+         * redelivered message, which are rolled back unprocessed). The "stage completed" interceptors are invoked once
+         * for a failed batch, for the message that raised - the other messages are reported when processed alone. Also,
+         * any {@link MatsEndpoint.ProcessContext#doAfterCommit(Runnable) doAfterCommit} lambdas are run after the
+         * commit of the entire batch. Any {@link MatsEndpoint.MatsRefuseMessageException} raised inside a batch will
+         * cause batch rollback, not immediate DLQ - the refusal takes effect when the message is replayed on its own.
+         * The interactive (prioritized) processors never batch.
+         * <p/>
+         * Default is 1, i.e. no batching. Will only have effect before the {@link MatsStage} is started. Can be reset
+         * by stopping, setting, and restarting.
+         *
+         * @param maxBatchSize
+         *            the max number of messages to process in a single transaction, 1 meaning no batching.
+         * @return <code>this</code>, for chaining.
+         */
+        StageConfig<R, S, I> setMaxBatchSize(int maxBatchSize);
+
+        /**
+         * @return the max number of messages to process in a single transaction, ref.
+         *         {@link #setMaxBatchSize(int)}. Default is 1, i.e. no batching.
+         */
+        int getMaxBatchSize();
+
+        /**
+         * When {@link #setMaxBatchSize(int) batching}, how long to wait for more messages to fill up the batch after the
+         * first message has been received. Default is 0, which means that only messages which are already available
+         * (i.e. prefetched to the consumer) are drained into the batch - thus not adding latency.
+         *
+         * @param batchMaxWaitMillis
+         *            how long to wait for more messages to fill up the batch, 0 meaning only take what is available.
+         * @return <code>this</code>, for chaining.
+         */
+        StageConfig<R, S, I> setBatchMaxWaitMillis(int batchMaxWaitMillis);
+
+        /**
+         * @return how long to wait for more messages to fill up the batch, ref. {@link #setBatchMaxWaitMillis(int)}.
+         */
+        int getBatchMaxWaitMillis();
+
+        /**
+         * Enables <i>autoscaling</i> of the number of Stage Processors for this stage: Instead of running the fixed
+         * {@link #getConcurrency() concurrency}, the stage starts with <code>minConcurrency</code> processors, and then
+         * grows towards <code>maxConcurrency</code> when the processors are busy or the incoming messages have waited
+         * on the queue, and shrinks back towards <code>minConcurrency</code> when the processors are idle - an idle
+         * processor exits, thus releasing its thread and JMS Session. The load is evaluated periodically, ref.
+         * {@link FactoryConfig#setAutoscalingIntervalMillis(int)}, growing quickly and shrinking slowly.
+         * <p/>
+         * The rationale is that with hundreds of endpoints, hand-tuning the concurrency of each stage is not feasible:
+         * With autoscaling, the seldom used stages hold few threads and Sessions, while the hot stages can absorb
+         * bursts. Topic stages always run a single processor, thus autoscaling has no effect for them. The interactive
+         * (prioritized) processors are not autoscaled, ref. {@link #setInteractiveConcurrency(int)}.
+         * <p/>
+         * Default is no autoscaling, which can also be reinstated by setting both to 0. Will only have effect before
+         * the {@link MatsStage} is started. Can be reset by stopping, setting, and restarting.
+         *
+         * @param minConcurrency
+         *            the minimum number of Stage Processors, at least 1.
+         * @param maxConcurrency
+         *            the maximum number of Stage Processors, at least <code>minConcurrency</code>.
+         * @return <code>this</code>, for chaining.
+         */
+        StageConfig<R, S, I> setAutoscaling(int minConcurrency, int maxConcurrency);
+
+        /**
+         * @return whether autoscaling of the number of Stage Processors is enabled, ref.
+         *         {@link #setAutoscaling(int, int)}.
+         */
+        boolean isAutoscaling();
+
+        /**
+         * @return the minimum number of Stage Processors if {@link #isAutoscaling() autoscaling}, otherwise the
+         *         {@link #getConcurrency() concurrency}.
+         */
+        int getMinConcurrency();
+
+        /**
+         * @return the maximum number of Stage Processors if {@link #isAutoscaling() autoscaling}, otherwise the
+         *         {@link #getConcurrency() concurrency}.
+         */
+        int getMaxConcurrency();
+
+        /**
+         * Sets the number of interactive Stage Processors for this stage, i.e. those which only process messages of
+         * {@link MatsInitiator.MatsInitiate#interactive() interactive} flows - the "fast lane" that lets user-facing
+         * flows bypass a backlog of batch-like flows on the queue, ref.
+         * {@link FactoryConfig#setInteractiveQueueSuffix(String)}. Topic stages do not have interactive Stage
+         * Processors.
+         * <p/>
+         * Default is half of the {@link #getMinConcurrency() (min) concurrency}, but at least 1. Setting 0 is
+         * <b>rejected</b>, as there is no "no interactive Stage Processors" setting: With a separate interactive queue,
+         * the interactive messages would then never be consumed. Will only have effect before the {@link MatsStage} is
+         * started. Can be reset by stopping, setting, and restarting.
+         *
+         * @param interactiveConcurrency
+         *            the number of interactive Stage Processors, at least 1.
+         * @return <code>this</code>, for chaining.
+         * @throws IllegalArgumentException
+         *             if <code>interactiveConcurrency</code> is less than 1.
+         */
+        StageConfig<R, S, I> setInteractiveConcurrency(int interactiveConcurrency);
+
+        /**
+         * @return the number of interactive Stage Processors, ref. {@link #setInteractiveConcurrency(int)}.
+         */
+        int getInteractiveConcurrency();
+
+        /**
+         * Sets the prefetch size for the consumers of this stage, i.e. how many messages the broker may push to each
+         * Stage Processor ahead of it asking for them. With a high prefetch, a fast stage with many small messages
+         * gets high throughput, but a slow stage will hoard messages on one Stage Processor while others are idle, both
+         * on this node and on other nodes - thus slow stages should have a low prefetch, e.g. 1.
+         * <p/>
+         * Not all brokers support setting this per consumer: The JMS implementation applies it for ActiveMQ, while for
+         * e.g. Artemis it must be set on the ConnectionFactory (the "consumerWindowSize", in bytes). Setting 0 means no
+         * prefetch, i.e. the Stage Processor pulls each message from the broker when it asks for it. Default, which can
+         * also be reinstated by setting {@link #CONNECTION_FACTORY_DEFAULT}, is the ConnectionFactory's prefetch. Will
+         * only have effect before the {@link MatsStage} is started. Can be reset by stopping, setting, and restarting.
+         *
+         * @param prefetchSize
+         *            the number of messages that may be prefetched to each Stage Processor, 0 meaning none - or
+         *            {@link #CONNECTION_FACTORY_DEFAULT} for the default.
+         * @return <code>this</code>, for chaining.
+         */
+        StageConfig<R, S, I> setPrefetchSize(int prefetchSize);
+
+        /**
+         * @return the prefetch size set by {@link #setPrefetchSize(int)}, {@link #CONNECTION_FACTORY_DEFAULT} meaning
+         *         the ConnectionFactory's default.
+         */
+        int getPrefetchSize();
+
+        /**
+         * Sets how many times a message is redelivered to this stage after the processing raised an exception (i.e.
+         * the transaction was rolled back), before it is put on the Dead Letter Queue. A stage whose failures are
+         * permanent might want few redeliveries, while a stage calling out to a flaky resource might want more.
+         * <p/>
+         * Not all brokers support setting this per consumer: The JMS implementation applies it for ActiveMQ, while for
+         * e.g. Artemis the redelivery is configured on the broker ("max-delivery-attempts" in the address settings).
+         * Default, which can also be reinstated by setting {@link #CONNECTION_FACTORY_DEFAULT}, is the
+         * ConnectionFactory's redelivery policy. Will only have effect before the {@link MatsStage} is started. Can be
+         * reset by stopping, setting, and restarting.
+         *
+         * @param maxRedeliveries
+         *            the maximum number of redeliveries, 0 meaning DLQ on first failure and -1 meaning unlimited - or
+         *            {@link #CONNECTION_FACTORY_DEFAULT} for the default.
+         * @return <code>this</code>, for chaining.
+         */
+        StageConfig<R, S, I> setMaxRedeliveries(int maxRedeliveries);
+
+        /**
+         * @return the maximum number of redeliveries set by {@link #setMaxRedeliveries(int)},
+         *         {@link #CONNECTION_FACTORY_DEFAULT} meaning the ConnectionFactory's default.
+         */
+        int getMaxRedeliveries();
+
+        /**
+         * Sets the delay before a message is redelivered to this stage after the processing raised an exception, ref.
+         * {@link #setMaxRedeliveries(int)}. Same broker support as for that setting - for Artemis, it is the
+         * "redelivery-delay" in the broker's address settings. Default, which can also be reinstated by setting
+         * {@link #CONNECTION_FACTORY_DEFAULT}, is the ConnectionFactory's redelivery policy.
+         *
+         * @param redeliveryDelayMillis
+         *            the delay before redelivery, 0 meaning immediate - or {@link #CONNECTION_FACTORY_DEFAULT} for the
+         *            default.
+         * @return <code>this</code>, for chaining.
+         */
+        StageConfig<R, S, I> setRedeliveryDelayMillis(long redeliveryDelayMillis);
+
+        /**
+         * @return the redelivery delay set by {@link #setRedeliveryDelayMillis(long)},
+         *         {@link #CONNECTION_FACTORY_DEFAULT} meaning the ConnectionFactory's default.
+         */
+        long getRedeliveryDelayMillis();
+
         /**
          * Sets the origin for this Stage, i.e. where it was created. Use this to set something sane if the
          * {@link #getOrigin() automatically created creation info} is useless. It should be a single line, no line
@@ -0,0 +1,76 @@
+package io.mats3.impl.jms;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+/**
+ * Cache of the JMS {@link Destination}s created from a JMS {@link Session}, employed by the
+ * {@link JmsMatsJmsSessionHandler.JmsSessionHolder JmsSessionHolder}s: Sending a Mats message otherwise entails
+ * concatenating the destination prefix with the channel id, and creating a new Queue or Topic object - for every
+ * message. The cache is keyed on the channel id, separately for Queues and Topics, and is cleared if the destination
+ * prefix changes. It is bounded, evicting the least recently used destination.
+ * <p />
+ * Not thread safe - just like the JMS Session it belongs to.
+ */
+final class JmsMatsDestinationCache {
+    /**
+     * Max number of cached destinations, for each of Queues and Topics.
+     */
+    static final int MAX_CACHED_DESTINATIONS = 1000;
+
+    private final Map<String, Destination> _queues = new BoundedMap();
+    private final Map<String, Destination> _topics = new BoundedMap();
+    private String _destinationPrefix;
+
+    /**
+     * @param jmsSession
+     *            the JMS Session to create the Destination with if not already cached.
+     * @param destinationPrefix
+     *            the destination prefix, i.e. {@link io.mats3.MatsFactory.FactoryConfig#getMatsDestinationPrefix()}.
+     * @param queue
+     *            <code>true</code> for a Queue, <code>false</code> for a Topic.
+     * @param channelId
+     *            the Mats channel id, i.e. the endpoint or stage id.
+     * @return the Queue or Topic for the destination prefix + channel id.
+     * @throws JMSException
+     *             if the JMS Session raises it when creating the Destination.
+     */
+    Destination getDestination(Session jmsSession, String destinationPrefix, boolean queue, String channelId)
+            throws JMSException {
+        // ?: Has the destination prefix changed? (Identity check first, as it is normally the very same String)
+        if ((destinationPrefix != _destinationPrefix) && !destinationPrefix.equals(_destinationPrefix)) {
+            // -> Yes, so the cached destinations are for the wrong names.
+            _queues.clear();
+            _topics.clear();
+            _destinationPrefix = destinationPrefix;
+        }
+        Map<String, Destination> destinations = queue ? _queues : _topics;
+        Destination destination = destinations.get(channelId);
+        // ?: Did we have it?
+        if (destination == null) {
+            // -> No, so create it and cache it.
+            String destinationName = destinationPrefix + channelId;
+            destination = queue
+                    ? jmsSession.createQueue(destinationName)
+                    : jmsSession.createTopic(destinationName);
+            destinations.put(channelId, destination);
+        }
+        return destination;
+    }
+
+    private static final class BoundedMap extends LinkedHashMap<String, Destination> {
+        private BoundedMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Entry<String, Destination> eldest) {
+            return size() > MAX_CACHED_DESTINATIONS;
+        }
+    }
+}
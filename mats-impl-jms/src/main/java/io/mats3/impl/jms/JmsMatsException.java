@@ -65,4 +65,14 @@ public class JmsMatsException extends Exception {
         }
     }
 
+    /**
+     * Thrown when a message within a batch (ref. {@link io.mats3.MatsStage.StageConfig#setMaxBatchSize(int)}) is
+     * refused or overflows: Letting the TransactionManager insta-DLQ would DLQ the entire batch, so instead the batch is
+     * rolled back, whereupon the messages are replayed one by one - where the refusal then is handled as normal.
+     */
+    static class JmsMatsBatchRollbackRuntimeException extends RuntimeException {
+        JmsMatsBatchRollbackRuntimeException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
@@ -10,9 +10,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -28,8 +32,10 @@ import io.mats3.MatsEndpoint.EndpointConfig;
 import io.mats3.MatsEndpoint.ProcessSingleLambda;
 import io.mats3.MatsEndpoint.ProcessTerminatorLambda;
 import io.mats3.MatsFactory;
+import io.mats3.MatsFactory.FactoryConfig.OutgoingMessageProperties;
 import io.mats3.MatsInitiator;
 import io.mats3.MatsInitiator.MatsInitiate;
+import io.mats3.MatsStage;
 import io.mats3.MatsStage.StageConfig;
 import io.mats3.api.intercept.MatsInitiateInterceptor;
 import io.mats3.api.intercept.MatsInitiateInterceptor.InitiateInterceptContext;
@@ -41,6 +47,7 @@ import io.mats3.api.intercept.MatsStageInterceptor;
 import io.mats3.api.intercept.MatsStageInterceptor.StageInterceptContext;
 import io.mats3.impl.jms.JmsMatsInitiator.MatsInitiator_TxRequired;
 import io.mats3.impl.jms.JmsMatsInitiator.MatsInitiator_TxRequiresNew;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling.PoolStats;
 import io.mats3.impl.jms.JmsMatsProcessContext.DoAfterCommitRunnableHolder;
 import io.mats3.serial.MatsSerializer;
 import io.mats3.serial.MatsTrace;
@@ -166,12 +173,42 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
     // Set to default, which is 0 (which means default logic; 2x numCpus)
     private int _concurrency = 0;
 
+    // Set to default, which is false (i.e. platform threads for the StageProcessors).
+    private boolean _useVirtualThreads = false;
+
+    // Set to default, which is 0 (i.e. sequential serialization on the stage/initiator thread). Volatile since read by
+    // the stage and initiator threads.
+    private volatile int _outgoingSerializationParallelism = 0;
+
+    // Set to default, which is 1000 ms. Volatile since read by the autoscaler thread.
+    private volatile int _autoscalingIntervalMillis = 1000;
+
+    // Evaluates the load of the autoscaling stages, growing and shrinking their number of StageProcessors.
+    private final JmsMatsStageAutoscaler _stageAutoscaler = new JmsMatsStageAutoscaler(this);
+
+    // Set to default, which is 0 (i.e. each StageProcessor has its own thread, instead of shared processing slots).
+    private volatile int _sharedStageProcessingSlotsCount = 0;
+
+    // The shared processing slots for the StageProcessors, lazily created. Guarded by the lock object.
+    private final Object _sharedStageProcessingSlotsLock = new Object();
+    private JmsMatsSharedStageProcessingSlots _sharedStageProcessingSlots;
+
+    // Set to default, which is FULL (i.e. all the informational JMS Message Properties on each outgoing message).
+    private OutgoingMessageProperties _outgoingMessageProperties = OutgoingMessageProperties.FULL;
+
+    // The pool for parallel serialization of outgoing messages, lazily created. Guarded by the lock object.
+    private final Object _outgoingSerializationPoolLock = new Object();
+    private ForkJoinPool _outgoingSerializationPool;
+
     // Set to default, which is empty string (not null).
     private String _name = "";
 
     // Set to default, which is "mats.".
     private String _matsDestinationPrefix = "mats.";
 
+    // Set to default, which is null (i.e. interactive messages are prioritized on the ordinary queue, using selector).
+    private volatile String _interactiveQueueSuffix = null;
+
     // Set to default, which is "mats:trace".
     private String _matsTraceKey = "mats:trace";
 
@@ -185,6 +222,141 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
         return _initiateTraceIdModifier;
     }
 
+    JmsMatsStageAutoscaler getStageAutoscaler() {
+        return _stageAutoscaler;
+    }
+
+    /**
+     * @return the pool to use for parallel serialization of outgoing messages, lazily created - or <code>null</code>
+     *         if the {@link FactoryConfig#setOutgoingSerializationParallelism(int) parallelism} is 1 or less, in which
+     *         case the outgoing messages shall be serialized sequentially.
+     */
+    ForkJoinPool getOutgoingSerializationPool() {
+        // ?: Is parallel serialization enabled? (Quick check without synchronization, as this is the common case)
+        if (_outgoingSerializationParallelism <= 1) {
+            // -> No, so the messages shall be serialized sequentially.
+            return null;
+        }
+        synchronized (_outgoingSerializationPoolLock) {
+            // ?: Has the parallelism been changed concurrently, or is the pool already created?
+            if ((_outgoingSerializationParallelism <= 1) || (_outgoingSerializationPool != null)) {
+                // -> Yes, so return what we have (which is null if changed to sequential).
+                return _outgoingSerializationPool;
+            }
+            _outgoingSerializationPool = new ForkJoinPool(_outgoingSerializationParallelism, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName(THREAD_PREFIX + "Serializer:" + _name + ":" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+            log.info(LOG_PREFIX + "Created pool for parallel serialization of outgoing messages, parallelism ["
+                    + _outgoingSerializationParallelism + "], for [" + idThis() + "].");
+            return _outgoingSerializationPool;
+        }
+    }
+
+    /**
+     * Makes the {@link JmsMatsStageProcessor StageProcessors} of this MatsFactory consume with JMS MessageListeners and
+     * share a bounded number of processing slots, instead of each having its own thread parked in
+     * <code>consumer.receive()</code>: The listeners are invoked on the JMS provider's dispatch threads, which are
+     * pooled by the provider - so that many mostly-idle stages do not hold any threads. Before processing a message,
+     * the listener must acquire a slot, which caps the number of messages concurrently being processed by the entire
+     * MatsFactory at the number of slots. The slots are handed out round-robin between the stages having messages, so
+     * that a hot stage cannot starve the others. The transactional semantics are the same as with own threads, as the
+     * message is processed inside the {@link JmsMatsTransactionManager.TransactionContext TransactionContext} on the
+     * listener's thread.
+     * <p/>
+     * Note that the number of StageProcessors per stage, i.e. the {@link FactoryConfig#setConcurrency(int)
+     * concurrency}, still determines the number of JMS Consumers and Sessions, and thus caps how many messages a single
+     * stage can have in processing concurrently. Receiving messages in batches (a
+     * {@link StageConfig#setMaxBatchSize(int) max batch size} above 1) is not employed in this mode, as a
+     * MessageListener cannot receive more messages in the transaction. The wait for a slot is bounded: If no slot is
+     * had within a few seconds, the message is rolled back to be redelivered, thus freeing the provider's dispatch
+     * thread - this counts as a delivery attempt, but a redelivered message waits for its slot without limit.
+     * <p/>
+     * Must be set before any endpoints are started, i.e. before the StageProcessors are created.
+     *
+     * @param slots
+     *            the number of shared processing slots, or 0 for the default mode where each StageProcessor has its own
+     *            thread.
+     */
+    public void setSharedStageProcessingSlots(int slots) {
+        if (slots < 0) {
+            throw new IllegalArgumentException("slots must be >= 0, was [" + slots + "].");
+        }
+        synchronized (_sharedStageProcessingSlotsLock) {
+            // ?: Are the slots already created, i.e. there are StageProcessors using them?
+            if (_sharedStageProcessingSlots != null) {
+                // -> Yes, so we cannot change it now.
+                throw new IllegalStateException("The shared Stage processing slots are already in use, cannot change"
+                        + " them now - must be set before any endpoints are started.");
+            }
+            log.info(LOG_PREFIX + "MatsFactory's SharedStageProcessingSlots is set to [" + slots + "]"
+                    + (slots == 0 ? " (i.e. disabled)." : "."));
+            _sharedStageProcessingSlotsCount = slots;
+        }
+    }
+
+    /**
+     * @return the number of processing slots shared by the StageProcessors, 0 if disabled (the default).
+     * @see #setSharedStageProcessingSlots(int)
+     */
+    public int getSharedStageProcessingSlots() {
+        return _sharedStageProcessingSlotsCount;
+    }
+
+    /**
+     * @return the processing slots shared by all the StageProcessors, lazily created - or <code>null</code> if
+     *         {@link #setSharedStageProcessingSlots(int) disabled}, in which case each StageProcessor has its own
+     *         thread.
+     */
+    JmsMatsSharedStageProcessingSlots getSharedStageProcessingSlots_internal() {
+        // ?: Are shared processing slots enabled? (Quick check without synchronization, as this is the common case)
+        if (_sharedStageProcessingSlotsCount == 0) {
+            // -> No, so the StageProcessors shall have their own threads.
+            return null;
+        }
+        synchronized (_sharedStageProcessingSlotsLock) {
+            if (_sharedStageProcessingSlots == null) {
+                _sharedStageProcessingSlots = new JmsMatsSharedStageProcessingSlots(_name,
+                        _sharedStageProcessingSlotsCount);
+            }
+            return _sharedStageProcessingSlots;
+        }
+    }
+
+    private void shutdownSharedStageProcessingSlots() {
+        JmsMatsSharedStageProcessingSlots slots;
+        synchronized (_sharedStageProcessingSlotsLock) {
+            slots = _sharedStageProcessingSlots;
+            _sharedStageProcessingSlots = null;
+        }
+        // ?: Were there slots?
+        if (slots != null) {
+            // -> Yes, so shut them down - the StageProcessors using them are stopped.
+            slots.shutdown();
+        }
+    }
+
+    private void shutdownOutgoingSerializationPool() {
+        ForkJoinPool pool;
+        synchronized (_outgoingSerializationPoolLock) {
+            pool = _outgoingSerializationPool;
+            _outgoingSerializationPool = null;
+        }
+        // ?: Was there a pool?
+        if (pool != null) {
+            // -> Yes, so shut it down - any ongoing serializations will finish, as they are already submitted.
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private void installIfPresent(Class<?> standardInterceptorClass, Class<?> interceptable) {
         if (standardInterceptorClass != null) {
             log.info(LOG_PREFIX + "Found '" + standardInterceptorClass.getSimpleName()
@@ -223,6 +395,22 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
         return _jmsMatsJmsSessionHandler;
     }
 
+    /**
+     * @return a snapshot of the statistics of each of the JMS Session pools, e.g. for metrics, if the
+     *         {@link JmsMatsJmsSessionHandler} is a {@link JmsMatsJmsSessionHandler_Pooling} - otherwise an empty List,
+     *         as there are no pools.
+     * @see JmsMatsJmsSessionHandler_Pooling#getPoolStats()
+     */
+    public List<PoolStats> getSessionPoolStats() {
+        // ?: Is the session handler the pooling variant?
+        if (_jmsMatsJmsSessionHandler instanceof JmsMatsJmsSessionHandler_Pooling) {
+            // -> Yes, so return its stats.
+            return ((JmsMatsJmsSessionHandler_Pooling) _jmsMatsJmsSessionHandler).getPoolStats();
+        }
+        // E-> No pools.
+        return new ArrayList<>();
+    }
+
     public JmsMatsTransactionManager getJmsMatsTransactionManager() {
         return _jmsMatsTransactionManager;
     }
@@ -694,6 +882,8 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
         log.info(LOG_PREFIX + "Starting [" + idThis() + "], thus starting all created endpoints.");
         // First setting the "hold" to false, so if any subsequent endpoints are added, they will auto-start.
         _holdEndpointsUntilFactoryIsStarted = false;
+        // Let the serializer warm up for the STO and DTO classes, so that the first messages do not incur it.
+        warmupMatsSerializer();
         // :: Now start all the already configured endpoints
         for (MatsEndpoint<?, ?> endpoint : getEndpoints()) {
             endpoint.start();
@@ -702,6 +892,53 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
         for (MatsEndpoint<?, ?> endpoint : getEndpoints()) {
             endpoint.waitForReceiving(10_000);
         }
+        // Pre-warm the Session pools for the initiators, so that the first initiations do not incur creating them.
+        // (After the endpoints, so that their StageProcessors do not pick up the pre-warmed Sessions, if shared.)
+        prewarmInitiatorSessions();
+    }
+
+    private void prewarmInitiatorSessions() {
+        // Ensure that the default initiator is created, as this is what most initiations go through.
+        getDefaultInitiator();
+        List<JmsMatsInitiator<Z>> initiators;
+        synchronized (_createdInitiators) {
+            initiators = new ArrayList<>(_createdInitiators);
+        }
+        for (JmsMatsInitiator<Z> initiator : initiators) {
+            try {
+                _jmsMatsJmsSessionHandler.prewarmSessions(initiator);
+            }
+            catch (Throwable t) {
+                // The pre-warm is just an optimization, so just log and continue.
+                log.warn(LOG_PREFIX + "Got problems when pre-warming the JMS Sessions for [" + initiator
+                        + "] - ignoring, as it is only an optimization.", t);
+            }
+        }
+    }
+
+    private void warmupMatsSerializer() {
+        LinkedHashSet<Class<?>> types = new LinkedHashSet<>();
+        for (MatsEndpoint<?, ?> endpoint : getEndpoints()) {
+            types.add(endpoint.getEndpointConfig().getReplyClass());
+            types.add(endpoint.getEndpointConfig().getStateClass());
+            for (MatsStage<?, ?, ?> stage : endpoint.getStages()) {
+                types.add(stage.getStageConfig().getIncomingClass());
+            }
+        }
+        long nanosAtStart = System.nanoTime();
+        try {
+            _matsSerializer.warmup(types);
+        }
+        catch (Throwable t) {
+            // The warm-up is just an optimization, so just log and continue.
+            log.warn(LOG_PREFIX + "Got problems when warming up the MatsSerializer [" + _matsSerializer
+                    + "] - ignoring, as it is only an optimization.", t);
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(LOG_PREFIX + "Warmed up MatsSerializer for [" + types.size() + "] STO and DTO classes, took ["
+                    + ((System.nanoTime() - nanosAtStart) / 1_000_000d) + " ms].");
+        }
     }
 
     @Override
@@ -755,6 +992,15 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
         }
 
 
+        // :: Shut down any pool for parallel serialization of outgoing messages - recreated if used again.
+        shutdownOutgoingSerializationPool();
+
+        // :: Shut down any shared processing slots for the StageProcessors - recreated if endpoints are started again.
+        shutdownSharedStageProcessingSlots();
+
+        // :: Shut down the autoscaler thread, if running - the stages have unregistered, but in case they didn't stop.
+        _stageAutoscaler.shutdown();
+
         // :: "Closing the JMS pool"; closing all available SessionHolder, which should lead to the Connections closing.
         _jmsMatsJmsSessionHandler.closeAllAvailableSessions();
         return stopped;
@@ -803,6 +1049,72 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
                     Integer.toString(Runtime.getRuntime().availableProcessors())));
         }
 
+        @Override
+        public FactoryConfig setUseVirtualThreads(boolean useVirtualThreads) {
+            log.info(LOG_PREFIX + "MatsFactory's UseVirtualThreads is set to [" + useVirtualThreads
+                    + "] (was: [" + _useVirtualThreads + "])"
+                    + (useVirtualThreads && !JmsMatsVirtualThreads.isAvailable()
+                            ? " - NOTICE: Virtual threads are not available on this JVM, will use platform threads."
+                            : "") + ".");
+            _useVirtualThreads = useVirtualThreads;
+            return this;
+        }
+
+        @Override
+        public boolean isUseVirtualThreads() {
+            return _useVirtualThreads;
+        }
+
+        @Override
+        public FactoryConfig setOutgoingSerializationParallelism(int parallelism) {
+            if (parallelism < 0) {
+                throw new IllegalArgumentException("parallelism must be >= 0, was [" + parallelism + "].");
+            }
+            log.info(LOG_PREFIX + "MatsFactory's OutgoingSerializationParallelism is set to [" + parallelism
+                    + "] (was: [" + _outgoingSerializationParallelism + "]).");
+            _outgoingSerializationParallelism = parallelism;
+            // Any existing pool has the old parallelism, so shut it down - a new is created on next use if enabled.
+            shutdownOutgoingSerializationPool();
+            return this;
+        }
+
+        @Override
+        public int getOutgoingSerializationParallelism() {
+            return _outgoingSerializationParallelism;
+        }
+
+        @Override
+        public FactoryConfig setAutoscalingIntervalMillis(int intervalMillis) {
+            if (intervalMillis < 10) {
+                throw new IllegalArgumentException("intervalMillis must be >= 10, was [" + intervalMillis + "].");
+            }
+            log.info(LOG_PREFIX + "MatsFactory's AutoscalingIntervalMillis is set to [" + intervalMillis
+                    + "] (was: [" + _autoscalingIntervalMillis + "]).");
+            _autoscalingIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        @Override
+        public int getAutoscalingIntervalMillis() {
+            return _autoscalingIntervalMillis;
+        }
+
+        @Override
+        public FactoryConfig setOutgoingMessageProperties(OutgoingMessageProperties outgoingMessageProperties) {
+            if (outgoingMessageProperties == null) {
+                throw new NullPointerException("outgoingMessageProperties");
+            }
+            log.info(LOG_PREFIX + "MatsFactory's OutgoingMessageProperties is set to [" + outgoingMessageProperties
+                    + "] (was: [" + _outgoingMessageProperties + "]).");
+            _outgoingMessageProperties = outgoingMessageProperties;
+            return this;
+        }
+
+        @Override
+        public OutgoingMessageProperties getOutgoingMessageProperties() {
+            return _outgoingMessageProperties;
+        }
+
         @Override
         public FactoryConfig setInitiateTraceIdModifier(Function<String, String> modifier) {
             _initiateTraceIdModifier = modifier;
@@ -822,6 +1134,22 @@ public class JmsMatsFactory<Z> implements MatsInterceptableMatsFactory, JmsMatsS
             return _matsDestinationPrefix;
         }
 
+        @Override
+        public FactoryConfig setInteractiveQueueSuffix(String suffix) {
+            if ((suffix != null) && suffix.isEmpty()) {
+                throw new IllegalArgumentException("suffix must be null or non-empty.");
+            }
+            log.info(LOG_PREFIX + "MatsFactory's InteractiveQueueSuffix is set to [" + suffix + "] (was: ["
+                    + _interactiveQueueSuffix + "]).");
+            _interactiveQueueSuffix = suffix;
+            return this;
+        }
+
+        @Override
+        public String getInteractiveQueueSuffix() {
+            return _interactiveQueueSuffix;
+        }
+
         @Override
         public FactoryConfig setMatsTraceKey(String key) {
             log.info("MatsFactory's Mats Trace Key is set to [" + key + "] (was: [" + _matsTraceKey + "]).");
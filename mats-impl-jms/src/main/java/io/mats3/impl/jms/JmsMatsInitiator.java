@@ -208,9 +208,7 @@ class JmsMatsInitiator<Z> implements MatsInitiator, JmsMatsTxContextKey, JmsMats
                         // :: Serialize
                         long nanosAtStart_totalEnvelopeSerialization = System.nanoTime();
                         long nowMillis = System.currentTimeMillis();
-                        for (JmsMatsMessage<Z> matsMessage : messagesToSend) {
-                            matsMessage.serializeAndCacheMatsTrace(nowMillis);
-                        }
+                        serializeAndCacheMatsTraces(_parentFactory, messagesToSend, nowMillis);
                         long nowNanos = System.nanoTime();
                         nanosTaken_totalEnvelopeSerialization[0] = nowNanos - nanosAtStart_totalEnvelopeSerialization;
 
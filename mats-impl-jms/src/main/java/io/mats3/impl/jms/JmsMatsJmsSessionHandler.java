@@ -1,5 +1,8 @@
 package io.mats3.impl.jms;
 
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
 
@@ -67,6 +70,20 @@ public interface JmsMatsJmsSessionHandler {
      */
     int closeAllAvailableSessions();
 
+    /**
+     * Invoked when the MatsFactory is {@link JmsMatsFactory#start() started}, so that an implementation which pools
+     * Sessions may create some up front, and thus spare the first initiations the latency of creating the JMS
+     * Connection and Sessions. Default is to do nothing.
+     *
+     * @param initiator
+     *            the initiator whose Sessions should be pre-warmed.
+     * @throws JmsMatsJmsException
+     *             if there was a problem getting a Connection or Session.
+     */
+    default void prewarmSessions(JmsMatsInitiator<?> initiator) throws JmsMatsJmsException {
+        /* no-op */
+    }
+
     /**
      * A "sidecar object" for the JMS Session, so that additional stuff can be bound to it.
      */
@@ -100,6 +117,34 @@ public interface JmsMatsJmsSessionHandler {
          */
         MessageProducer getDefaultNoDestinationMessageProducer();
 
+        /**
+         * @param destinationPrefix
+         *            the destination prefix, i.e.
+         *            {@link io.mats3.MatsFactory.FactoryConfig#getMatsDestinationPrefix()}.
+         * @param queue
+         *            <code>true</code> for a Queue, <code>false</code> for a Topic.
+         * @param channelId
+         *            the Mats channel id, i.e. the endpoint or stage id.
+         * @return the JMS Queue or Topic for the destination prefix + channel id, created from {@link #getSession() the
+         *         JMS Session} - cached, so that the same instance is returned for subsequent invocations.
+         * @throws JMSException
+         *             if the JMS Session raises it when creating the Destination.
+         */
+        Destination getDestination(String destinationPrefix, boolean queue, String channelId) throws JMSException;
+
+        /**
+         * Sends the message to the destination, within {@link #getSession() the JMS Session}. The default
+         * implementation uses {@link #getDefaultNoDestinationMessageProducer() the default non-specific
+         * MessageProducer}, but an implementation may choose to use a MessageProducer bound to the destination.
+         *
+         * @throws JMSException
+         *             if the MessageProducer raises it.
+         */
+        default void send(Destination destination, Message message, int deliveryMode, int priority,
+                long timeToLive) throws JMSException {
+            getDefaultNoDestinationMessageProducer().send(destination, message, deliveryMode, priority, timeToLive);
+        }
+
         /**
          * Employed by StageProcessors: This physically closes the JMS Session, and removes it from the pool-Connection,
          * and when all Sessions for a given pool-Connection is closed, the pool-Connection is closed.
@@ -1,17 +1,24 @@
 package io.mats3.impl.jms;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
 
@@ -148,6 +155,162 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
         _poolingKeyStageProcessor = poolingKeyStageProcessor;
     }
 
+    // Set to default, which is 0, i.e. all messages are sent using the default non-specific MessageProducer.
+    protected volatile int _destinationProducersPerSession = 0;
+
+    /**
+     * Enables sending using {@link MessageProducer}s bound to their destination, instead of the default non-specific
+     * (anonymous) MessageProducer where the destination is given on each send: Each pooled Session keeps a LRU-cache
+     * of such producers, with the given max size - the least recently used producer is closed when a new is needed.
+     * The producers are closed along with the Session. Some brokers can only employ producer-side optimizations like
+     * flow control windows and asynchronous sends for producers bound to a destination, which makes a difference
+     * for the "hot" destinations, typically the replies and nexts of the stages. Default is 0, meaning disabled.
+     *
+     * @param maxProducersPerSession
+     *            the max number of destination bound MessageProducers to keep for each Session, 0 to disable.
+     * @return <code>this</code>, for chaining.
+     */
+    public JmsMatsJmsSessionHandler_Pooling setDestinationProducersPerSession(int maxProducersPerSession) {
+        if (maxProducersPerSession < 0) {
+            throw new IllegalArgumentException("maxProducersPerSession must be >= 0, was [" + maxProducersPerSession
+                    + "].");
+        }
+        log.info(LOG_PREFIX + "DestinationProducersPerSession is set to [" + maxProducersPerSession
+                + "] (was: [" + _destinationProducersPerSession + "]).");
+        _destinationProducersPerSession = maxProducersPerSession;
+        return this;
+    }
+
+    /**
+     * @return the max number of destination bound MessageProducers kept for each Session, as set by
+     *         {@link #setDestinationProducersPerSession(int)} - 0 means disabled, which is default.
+     */
+    public int getDestinationProducersPerSession() {
+        return _destinationProducersPerSession;
+    }
+
+    // Set to default, which is 1, i.e. one JMS Connection per pooling key.
+    protected volatile int _connectionsPerPoolingKey = 1;
+
+    // Round-robin start point for choosing among the connections for a pooling key.
+    protected final AtomicInteger _connectionRoundRobin = new AtomicInteger();
+
+    /**
+     * Spreads the JMS Sessions of each pooling key across up to the given number of JMS Connections, instead of one:
+     * When a new or pooled Session is needed, the Connection that currently has the fewest employed Sessions is
+     * chosen, starting round-robin so that ties are spread evenly. This gives a middle ground between e.g.
+     * {@link PoolingKeyInitiator#FACTORY} where all initiators share a single Connection - which on some brokers,
+     * e.g. ActiveMQ, means a single TCP socket and transport thread, and thus a throughput ceiling - and
+     * {@link PoolingKeyInitiator#INITIATOR} or {@link PoolingKeyStageProcessor#STAGE_PROCESSOR}, which can result in
+     * very many Connections. Typically tuned to the number of cores or network links. Default is 1.
+     * <p />
+     * Should be set before the MatsFactory is started, as existing Connections are not rebalanced.
+     *
+     * @param connectionsPerPoolingKey
+     *            the max number of JMS Connections to spread the Sessions of each pooling key across, minimum 1.
+     * @return <code>this</code>, for chaining.
+     */
+    public JmsMatsJmsSessionHandler_Pooling setConnectionsPerPoolingKey(int connectionsPerPoolingKey) {
+        if (connectionsPerPoolingKey < 1) {
+            throw new IllegalArgumentException("connectionsPerPoolingKey must be >= 1, was ["
+                    + connectionsPerPoolingKey + "].");
+        }
+        log.info(LOG_PREFIX + "ConnectionsPerPoolingKey is set to [" + connectionsPerPoolingKey
+                + "] (was: [" + _connectionsPerPoolingKey + "]).");
+        _connectionsPerPoolingKey = connectionsPerPoolingKey;
+        return this;
+    }
+
+    /**
+     * @return the max number of JMS Connections the Sessions of each pooling key are spread across, as set by
+     *         {@link #setConnectionsPerPoolingKey(int)} - default 1.
+     */
+    public int getConnectionsPerPoolingKey() {
+        return _connectionsPerPoolingKey;
+    }
+
+    // Set to default, which is 0, i.e. Sessions are only created when needed.
+    protected volatile int _minIdleSessions = 0;
+
+    // Set to default, which is 0, i.e. no upper bound on the number of Sessions.
+    protected volatile int _maxSessions = 0;
+
+    // Set to default, which is 10 seconds.
+    protected volatile long _maxSessionsWaitMillis = 10_000;
+
+    /**
+     * Sets the number of idle Sessions that the pools used by Initiators should be pre-warmed with, so that the first
+     * burst of initiations does not pay the latency of creating the JMS Connection and Sessions: The pools are filled
+     * when the MatsFactory is {@link JmsMatsFactory#start() started}, and in the background when a pool is created
+     * anew after a crash (e.g. a broker failover). If {@link #setConnectionsPerPoolingKey(int) multiple connections
+     * per pooling key} is employed, each of them gets this number of idle Sessions. Default is 0, meaning that
+     * Sessions are only created when needed.
+     *
+     * @param minIdleSessions
+     *            the number of idle Sessions to pre-warm each Initiator pool with.
+     * @return <code>this</code>, for chaining.
+     */
+    public JmsMatsJmsSessionHandler_Pooling setMinIdleSessions(int minIdleSessions) {
+        if (minIdleSessions < 0) {
+            throw new IllegalArgumentException("minIdleSessions must be >= 0, was [" + minIdleSessions + "].");
+        }
+        log.info(LOG_PREFIX + "MinIdleSessions is set to [" + minIdleSessions + "] (was: [" + _minIdleSessions
+                + "]).");
+        _minIdleSessions = minIdleSessions;
+        return this;
+    }
+
+    /**
+     * @return the number of idle Sessions each Initiator pool is pre-warmed with, as set by
+     *         {@link #setMinIdleSessions(int)} - default 0.
+     */
+    public int getMinIdleSessions() {
+        return _minIdleSessions;
+    }
+
+    /**
+     * Sets an upper bound on the number of Sessions in each pool, so that a spike of initiations cannot create an
+     * unbounded number of Sessions: When an Initiator needs a Session and the pool is at max with none available, it
+     * waits up to the given time for one to be released - and if none is, it gets a {@link JmsMatsJmsException}.
+     * Sessions used by StageProcessors are counted if they share the pool (e.g. with the FACTORY pooling keys), but
+     * StageProcessors never wait - so the max should be set with room for them. Default is 0, meaning unbounded.
+     *
+     * @param maxSessions
+     *            the max number of Sessions in each pool, 0 for unbounded.
+     * @param maxWaitMillis
+     *            how long an Initiator shall wait for a Session to be released when the pool is at max.
+     * @return <code>this</code>, for chaining.
+     */
+    public JmsMatsJmsSessionHandler_Pooling setMaxSessions(int maxSessions, long maxWaitMillis) {
+        if (maxSessions < 0) {
+            throw new IllegalArgumentException("maxSessions must be >= 0, was [" + maxSessions + "].");
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis must be >= 0, was [" + maxWaitMillis + "].");
+        }
+        log.info(LOG_PREFIX + "MaxSessions is set to [" + maxSessions + "] with max wait [" + maxWaitMillis
+                + " ms] (was: [" + _maxSessions + "] with max wait [" + _maxSessionsWaitMillis + " ms]).");
+        _maxSessions = maxSessions;
+        _maxSessionsWaitMillis = maxWaitMillis;
+        return this;
+    }
+
+    /**
+     * @return the max number of Sessions in each pool, as set by {@link #setMaxSessions(int, long)} - default 0,
+     *         meaning unbounded.
+     */
+    public int getMaxSessions() {
+        return _maxSessions;
+    }
+
+    /**
+     * @return how long an Initiator waits for a Session when the pool is at max, as set by
+     *         {@link #setMaxSessions(int, long)}.
+     */
+    public long getMaxSessionsWaitMillis() {
+        return _maxSessionsWaitMillis;
+    }
+
     @Override
     public JmsSessionHolder getSessionHolder(JmsMatsInitiator<?> initiator) throws JmsMatsJmsException {
         return getSessionHolder_internal(initiator);
@@ -163,34 +326,24 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
     public int closeAllAvailableSessions() {
         log.info(LOG_PREFIX + "Closing all available SessionHolders in all ConnectionWithPools,"
                 + " thus hoping to close all JMS Connections (Note: Each Session pool has a single Connection).");
-        int liveConnectionsWithPoolBefore;
+        int liveConnectionsWithPoolBefore = _connectionWithSessionPools_live.size();
         int availableSessionsNowClosed = 0;
-        int liveConnectionsWithPoolAfter;
         int employedSessions = 0;
-        synchronized (this) {
-            liveConnectionsWithPoolBefore = _connectionWithSessionPools_live.size();
-            // Copying over the liveConnections, since it hopefully will be modified.
-            ArrayList<ConnectionWithSessionPool> connWithSessionPools = new ArrayList<>(_connectionWithSessionPools_live
-                    .values());
-            // :: Iterate over the pools, summing up employed, closing all available
-            for (ConnectionWithSessionPool currentPool : connWithSessionPools) {
-                // :: Sum up employed, for logging.
-                employedSessions += currentPool._employedSessionHolders.size();
-                // :: Close all available
-                // Copying over the availableSessionHolders, since it hopefully will be modified.
-                ArrayList<JmsSessionHolderImpl> availableSessionHolders = new ArrayList<>(
-                        currentPool._availableSessionHolders);
-                availableSessionsNowClosed += availableSessionHolders.size();
-                // Iterate over the available SessionHolders in each pool, closing them.
-                for (JmsSessionHolderImpl availableHolder : availableSessionHolders) {
-                    currentPool.internalCloseSession(availableHolder);
-                }
+        // :: Iterate over the pools, summing up employed, closing all available
+        for (ConnectionWithSessionPool currentPool : _connectionWithSessionPools_live.values()) {
+            // :: Sum up employed, for logging.
+            employedSessions += currentPool._employedSessionHolders.size();
+            // :: Close all available - polling them out, so that no-one can depool them concurrently.
+            JmsSessionHolderImpl availableHolder;
+            while ((availableHolder = currentPool._availableSessionHolders.pollFirst()) != null) {
+                availableSessionsNowClosed++;
+                currentPool.internalCloseSession(availableHolder);
             }
+        }
 
-            // ----- Closed all available JmsSessionHolders
+        // ----- Closed all available JmsSessionHolders
 
-            liveConnectionsWithPoolAfter = _connectionWithSessionPools_live.size();
-        }
+        int liveConnectionsWithPoolAfter = _connectionWithSessionPools_live.size();
         log.info(LOG_PREFIX + " \\- Before closing: Live ConnectionWithPools:[" + liveConnectionsWithPoolBefore
                 + "] with total Employed Sessions:[" + employedSessions + "], and total Available Sessions:["
                 + availableSessionsNowClosed + "] -> After: All Available Sessions closed, resulting in Live"
@@ -200,70 +353,326 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
         return liveConnectionsWithPoolAfter;
     }
 
+    @Override
+    public void prewarmSessions(JmsMatsInitiator<?> initiator) throws JmsMatsJmsException {
+        int minIdleSessions = _minIdleSessions;
+        // ?: Pre-warming enabled?
+        if (minIdleSessions <= 0) {
+            // -> No, so nothing to do.
+            return;
+        }
+        // :: Fill each of the connections for the initiator's pooling key, on this thread.
+        Object poolingKey = derivePoolingKey(initiator);
+        for (int i = 0; i < _connectionsPerPoolingKey; i++) {
+            getOrCreatePool(new PoolingKey(poolingKey, i), initiator, false).fillToMinIdle(initiator);
+        }
+        log.info(LOG_PREFIX + "Pre-warmed Session pools for [" + initiator + "] with [" + minIdleSessions
+                + "] idle Sessions for each of [" + _connectionsPerPoolingKey + "] Connections.");
+    }
+
+    /**
+     * @return a snapshot of the statistics of each of the live and crashed pools - e.g. for metrics. Also available
+     *         without casting the session handler, using {@link JmsMatsFactory#getSessionPoolStats()}.
+     */
+    public List<PoolStats> getPoolStats() {
+        List<PoolStats> stats = new ArrayList<>();
+        for (ConnectionWithSessionPool pool : _connectionWithSessionPools_live.values()) {
+            stats.add(pool.getStats());
+        }
+        for (ConnectionWithSessionPool pool : _connectionWithSessionPools_crashed.values()) {
+            stats.add(pool.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Snapshot of the statistics of one pool, i.e. one JMS Connection with its Sessions, as returned by
+     * {@link #getPoolStats()}.
+     */
+    public static final class PoolStats {
+        private final String _poolingKey;
+        private final boolean _crashed;
+        private final int _idleSessions;
+        private final int _inUseSessions;
+        private final long _sessionsCreated;
+        private final double _averageSessionCreationMillis;
+        private final double _maxSessionCreationMillis;
+        private final long _waitsForSession;
+        private final long _timeoutsWaitingForSession;
+
+        PoolStats(String poolingKey, boolean crashed, int idleSessions, int inUseSessions, long sessionsCreated,
+                double averageSessionCreationMillis, double maxSessionCreationMillis, long waitsForSession,
+                long timeoutsWaitingForSession) {
+            _poolingKey = poolingKey;
+            _crashed = crashed;
+            _idleSessions = idleSessions;
+            _inUseSessions = inUseSessions;
+            _sessionsCreated = sessionsCreated;
+            _averageSessionCreationMillis = averageSessionCreationMillis;
+            _maxSessionCreationMillis = maxSessionCreationMillis;
+            _waitsForSession = waitsForSession;
+            _timeoutsWaitingForSession = timeoutsWaitingForSession;
+        }
+
+        /**
+         * @return a String representation of the pooling key, i.e. what the pool is for.
+         */
+        public String getPoolingKey() {
+            return _poolingKey;
+        }
+
+        /**
+         * @return whether the pool is crashed, i.e. waiting for its in-use Sessions to come back before it is gone.
+         */
+        public boolean isCrashed() {
+            return _crashed;
+        }
+
+        /**
+         * @return the number of idle Sessions, i.e. available in the pool.
+         */
+        public int getIdleSessions() {
+            return _idleSessions;
+        }
+
+        /**
+         * @return the number of Sessions in use by Initiators and StageProcessors.
+         */
+        public int getInUseSessions() {
+            return _inUseSessions;
+        }
+
+        /**
+         * @return the number of Sessions created in this pool.
+         */
+        public long getSessionsCreated() {
+            return _sessionsCreated;
+        }
+
+        /**
+         * @return the average time taken to create a Session (and its default MessageProducer), in milliseconds.
+         */
+        public double getAverageSessionCreationMillis() {
+            return _averageSessionCreationMillis;
+        }
+
+        /**
+         * @return the max time taken to create a Session (and its default MessageProducer), in milliseconds.
+         */
+        public double getMaxSessionCreationMillis() {
+            return _maxSessionCreationMillis;
+        }
+
+        /**
+         * @return the number of times an Initiator had to wait for a Session due to {@link #setMaxSessions(int, long)
+         *         max sessions}.
+         */
+        public long getWaitsForSession() {
+            return _waitsForSession;
+        }
+
+        /**
+         * @return the number of times an Initiator gave up waiting for a Session due to
+         *         {@link #setMaxSessions(int, long) max sessions}.
+         */
+        public long getTimeoutsWaitingForSession() {
+            return _timeoutsWaitingForSession;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats{" + _poolingKey + (_crashed ? "|crashed" : "") + "|idle:" + _idleSessions + ";inUse:"
+                    + _inUseSessions + "|created:" + _sessionsCreated + ";avgMs:" + _averageSessionCreationMillis
+                    + ";maxMs:" + _maxSessionCreationMillis + "|waits:" + _waitsForSession + ";timeouts:"
+                    + _timeoutsWaitingForSession + "}";
+        }
+    }
+
+    /**
+     * Get-or-create the ConnectionWithSessionPool for the pooling key - if we create it, we also create the JMS
+     * Connection, and if asked, fill it to {@link #setMinIdleSessions(int) min idle} in the background.
+     */
+    protected ConnectionWithSessionPool getOrCreatePool(PoolingKey poolingKey, JmsMatsTxContextKey txContextKey,
+            boolean fillInBackground) throws JmsMatsJmsException {
+        // NOTE: No locking, as this is done for every single initiation and stage processor session fetch.
+        ConnectionWithSessionPool connectionWithSessionPool = _connectionWithSessionPools_live.get(poolingKey);
+        // ?: Was there a ConnectionWithSessionPool on this pooling key?
+        if (connectionWithSessionPool != null) {
+            // -> Yes, so use it.
+            return connectionWithSessionPool;
+        }
+        // E-> No, no ConnectionWithSessionPool - so we must make it, but another thread might beat us to it.
+        ConnectionWithSessionPool newPool = new ConnectionWithSessionPool(poolingKey);
+        connectionWithSessionPool = _connectionWithSessionPools_live.putIfAbsent(poolingKey, newPool);
+        // ?: Did we win the race, i.e. *this thread* put it into the map?
+        if (connectionWithSessionPool != null) {
+            // -> No, so use the one that beat us.
+            return connectionWithSessionPool;
+        }
+        // E-> Yes, so *this thread* must create the JMS Connection.
+        newPool.initializePoolByCreatingJmsConnection(txContextKey);
+        // ?: Should we fill it to min idle in the background? (Only for Initiators, StageProcessors keep their own)
+        if (fillInBackground && (_minIdleSessions > 0) && (txContextKey instanceof JmsMatsInitiator)) {
+            // -> Yes, so do it in a separate thread, so that the current fetcher gets going right away.
+            Thread filler = new Thread(() -> {
+                try {
+                    newPool.fillToMinIdle(txContextKey);
+                }
+                catch (Throwable t) {
+                    log.warn(LOG_PREFIX + "Got problems when filling [" + newPool + "] with idle Sessions -"
+                            + " ignoring, as it is only an optimization.", t);
+                }
+            }, THREAD_PREFIX + "SessionPoolFiller");
+            filler.setDaemon(true);
+            filler.start();
+        }
+        return newPool;
+    }
+
     protected JmsSessionHolder getSessionHolder_internal(JmsMatsTxContextKey txContextKey) throws JmsMatsJmsException {
         // Get the pooling key.
-        Object poolingKey = derivePoolingKey(txContextKey);
-
-        // :: Get-or-create ConnectionAndSession - record if we created it, as we then need to create the JMS Connection
-        boolean weCreatedConnectionWithSessionPool = false;
-        ConnectionWithSessionPool connectionWithSessionPool;
-        synchronized (this) {
-            // Get the ConnectionWithSessionPool for the pooling key
-            connectionWithSessionPool = _connectionWithSessionPools_live.get(poolingKey);
-            // ?: Was there a ConnectionWithSessionPool on this pooling key?
-            if (connectionWithSessionPool == null) {
-                // -> No, no ConnectionWithSessionPool - so we must make it.
-                // *This thread* must initialize this ConnectionWithSessionPool
-                weCreatedConnectionWithSessionPool = true;
-                // Now create it..
-                connectionWithSessionPool = new ConnectionWithSessionPool(poolingKey);
-                // .. and put it into the map for this pooling key.
-                _connectionWithSessionPools_live.put(poolingKey, connectionWithSessionPool);
-            }
-        }
-
-        // ?: Was *this thread* the creator of this ConnectionWithSessionPool?
-        if (weCreatedConnectionWithSessionPool) {
-            // -> Yes, so we must create the JMS Connection (Notice: Outside the synchronization)
-            connectionWithSessionPool.initializePoolByCreatingJmsConnection(txContextKey);
-        }
-
-        // ----- Either we got an existing JMS Connection (or the not-us fetcher got Exception) - or we just created it.
-
-        // crazy toString'ing, to get a nice log-line, but only if in debug to not waste cycles..
-        String connectionWithSessionPool_ToStringBeforeDepool = null;
-        if (log.isDebugEnabled()) {
-            connectionWithSessionPool_ToStringBeforeDepool = connectionWithSessionPool.toString();
-        }
-        // Get-or-create a new SessionHolder. NOTE: Synchronized internally
-        JmsSessionHolderImpl jmsSessionHolder = connectionWithSessionPool
-                .getOrCreateAndEmploySessionHolder(txContextKey);
-
-        if (log.isDebugEnabled()) log.debug(LOG_PREFIX + "getSessionHolder(...) for [" + txContextKey
-                + "], derived pool [" + connectionWithSessionPool_ToStringBeforeDepool
-                + "] -> returning created or depooled session [" + jmsSessionHolder + "], resulting in pool ["
-                + connectionWithSessionPool + "].");
-        return jmsSessionHolder;
+        PoolingKey poolingKey = chooseConnection(derivePoolingKey(txContextKey));
+
+        // Loop, since the pool we get might concurrently crash or be emptied and closed - in which case we retry.
+        while (true) {
+            // :: Get-or-create ConnectionWithSessionPool - if we create it, we also need to create the JMS Connection.
+            ConnectionWithSessionPool connectionWithSessionPool = getOrCreatePool(poolingKey, txContextKey, true);
+
+            // ----- Either we got an existing JMS Connection (or the not-us fetcher got Exception) - or we created it.
+
+            // crazy toString'ing, to get a nice log-line, but only if in debug to not waste cycles..
+            String connectionWithSessionPool_ToStringBeforeDepool = null;
+            if (log.isDebugEnabled()) {
+                connectionWithSessionPool_ToStringBeforeDepool = connectionWithSessionPool.toString();
+            }
+            // Get-or-create a new SessionHolder - null if the pool crashed or was emptied and closed concurrently.
+            JmsSessionHolderImpl jmsSessionHolder = connectionWithSessionPool
+                    .getOrCreateAndEmploySessionHolder(txContextKey);
+
+            // ?: Did we get a SessionHolder?
+            if (jmsSessionHolder == null) {
+                // -> No, the pool is dead - so ensure it is not in the live map, and retry with a fresh pool.
+                if (log.isDebugEnabled()) log.debug(LOG_PREFIX + "getSessionHolder(...) for [" + txContextKey
+                        + "], derived pool [" + connectionWithSessionPool + "], which was crashed or closed"
+                        + " concurrently - retrying.");
+                _connectionWithSessionPools_live.remove(poolingKey, connectionWithSessionPool);
+                continue;
+            }
+
+            if (log.isDebugEnabled()) log.debug(LOG_PREFIX + "getSessionHolder(...) for [" + txContextKey
+                    + "], derived pool [" + connectionWithSessionPool_ToStringBeforeDepool
+                    + "] -> returning created or depooled session [" + jmsSessionHolder + "], resulting in pool ["
+                    + connectionWithSessionPool + "].");
+            return jmsSessionHolder;
+        }
+    }
+
+    /**
+     * Chooses which of the {@link #setConnectionsPerPoolingKey(int) connections for the pooling key} to use: The one
+     * whose pool has the fewest employed Sessions, starting round-robin. A connection not yet having a pool has none
+     * employed, and is thus chosen right away.
+     */
+    protected PoolingKey chooseConnection(Object poolingKey) {
+        int connections = _connectionsPerPoolingKey;
+        // ?: Only one connection per pooling key?
+        if (connections == 1) {
+            // -> Yes, so nothing to choose between.
+            return new PoolingKey(poolingKey, 0);
+        }
+        int start = (_connectionRoundRobin.getAndIncrement() & Integer.MAX_VALUE) % connections;
+        PoolingKey chosen = null;
+        int chosenEmployed = Integer.MAX_VALUE;
+        for (int i = 0; i < connections; i++) {
+            PoolingKey candidate = new PoolingKey(poolingKey, (start + i) % connections);
+            ConnectionWithSessionPool pool = _connectionWithSessionPools_live.get(candidate);
+            // ?: Is there a pool for this connection?
+            if (pool == null) {
+                // -> No, so it has no employed Sessions - can't beat that.
+                return candidate;
+            }
+            int employed = pool._employedSessionHolders.size();
+            if (employed < chosenEmployed) {
+                chosen = candidate;
+                chosenEmployed = employed;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Key for the pool maps, wrapping the pooling key from {@link #derivePoolingKey(JmsMatsTxContextKey)} so that it
+     * is compared by identity - e.g. an Endpoint that is removed and then recreated with the same id shall not get
+     * the old pool - along with which of the {@link #setConnectionsPerPoolingKey(int) connections for the pooling
+     * key} it is.
+     */
+    protected static final class PoolingKey {
+        private final Object _key;
+        private final int _connectionIndex;
+
+        PoolingKey(Object key, int connectionIndex) {
+            _key = key;
+            _connectionIndex = connectionIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PoolingKey)) {
+                return false;
+            }
+            PoolingKey other = (PoolingKey) o;
+            return (other._key == _key) && (other._connectionIndex == _connectionIndex);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(_key) * 31) + _connectionIndex;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolingKey{" + _key + (_connectionIndex == 0 ? "" : "#" + _connectionIndex) + "}";
+        }
     }
 
     // Map<PoolingKey, Pool>
-    // Synchronized by /this/ (i.e. the JmsMatsJmsSessionHandler_Pooling instance)
-    protected IdentityHashMap<Object, ConnectionWithSessionPool> _connectionWithSessionPools_live = new IdentityHashMap<>();
+    // Concurrent, as it is read on every fetch of SessionHolder. Modifications upon crash and close of pools are
+    // additionally synchronized by /this/ (i.e. the JmsMatsJmsSessionHandler_Pooling instance), to keep them in
+    // step with the crashed map.
+    protected final ConcurrentHashMap<PoolingKey, ConnectionWithSessionPool> _connectionWithSessionPools_live =
+            new ConcurrentHashMap<>();
     // Map<PoolingKey, Pool>
-    // Synchronized by /this/ (i.e. the JmsMatsJmsSessionHandler_Pooling instance)
-    protected IdentityHashMap<Object, ConnectionWithSessionPool> _connectionWithSessionPools_crashed = new IdentityHashMap<>();
+    // Modifications are synchronized by /this/ (i.e. the JmsMatsJmsSessionHandler_Pooling instance)
+    protected final ConcurrentHashMap<PoolingKey, ConnectionWithSessionPool> _connectionWithSessionPools_crashed =
+            new ConcurrentHashMap<>();
 
     protected class ConnectionWithSessionPool implements JmsMatsStatics {
-        final Object _poolingKey;
+        final PoolingKey _poolingKey;
 
-        // Synchronized by /this/ (i.e. the ConnectionWithSessionPool instance)
-        final Deque<JmsSessionHolderImpl> _availableSessionHolders = new ArrayDeque<>();
-        // Synchronized by /this/ (i.e. the ConnectionWithSessionPool instance)
-        final Set<JmsSessionHolderImpl> _employedSessionHolders = new HashSet<>();
+        // Lock-free, as SessionHolders are depooled and released by any number of threads concurrently.
+        final ConcurrentLinkedDeque<JmsSessionHolderImpl> _availableSessionHolders = new ConcurrentLinkedDeque<>();
+        final Set<JmsSessionHolderImpl> _employedSessionHolders = ConcurrentHashMap.newKeySet();
+
+        // Number of SessionHolders belonging to this pool, including those being created and those in transit between
+        // available and employed. When it goes to 0 upon a removal, it is set to -1, which closes the pool: No more
+        // SessionHolders may be created, and the JMS Connection is closed.
+        final AtomicInteger _sessionCount = new AtomicInteger();
 
         final CountDownLatch _creatingConnectionCountDownLatch = new CountDownLatch(1);
 
-        ConnectionWithSessionPool(Object poolingKey) {
+        // :: Waiting for a Session when at max Sessions - the signal is only locked when someone is waiting.
+        final Object _sessionReleasedSignal = new Object();
+        final AtomicInteger _waitingForSession = new AtomicInteger();
+        // Serializes the filling to min idle Sessions.
+        final Object _fillLock = new Object();
+
+        // :: Statistics
+        final AtomicLong _sessionsCreated = new AtomicLong();
+        final AtomicLong _totalSessionCreationNanos = new AtomicLong();
+        final AtomicLong _maxSessionCreationNanos = new AtomicLong();
+        final AtomicLong _waitsForSession = new AtomicLong();
+        final AtomicLong _timeoutsWaitingForSession = new AtomicLong();
+
+        ConnectionWithSessionPool(PoolingKey poolingKey) {
             _poolingKey = poolingKey;
         }
 
@@ -282,9 +691,7 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
                 // Also, will remove the newly created ConnectionWithSessionPool. No-one can have made a Session, and
                 // the next guy coming in should start anew.
                 setConnectionOrException_ReleaseWaiters(null, t);
-                synchronized (JmsMatsJmsSessionHandler_Pooling.this) {
-                    _connectionWithSessionPools_live.remove(_poolingKey);
-                }
+                _connectionWithSessionPools_live.remove(_poolingKey, this);
                 throw new JmsMatsJmsException("Got problems when trying to create & start a new JMS Connection.", t);
             }
         }
@@ -316,54 +723,224 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
             }
         }
 
+        /**
+         * @return a depooled or newly created SessionHolder, now employed - or <code>null</code> if this pool is
+         *         crashed or closed, in which case the caller should get a fresh pool.
+         */
         JmsSessionHolderImpl getOrCreateAndEmploySessionHolder(JmsMatsTxContextKey txContextKey)
                 throws JmsMatsJmsException {
-            synchronized (this) {
+            // Max Sessions only apply to Initiators - StageProcessors have a fixed concurrency, and must not wait.
+            int maxSessions = (txContextKey instanceof JmsMatsInitiator) ? _maxSessions : 0;
+            long waitUntilNanos = 0;
+            while (true) {
+                // ?: Is this pool crashed? (Then it is on its way out of the live map)
+                if (_poolIsCrashed_StackTrace != null) {
+                    // -> Yes, so caller must get a fresh pool.
+                    return null;
+                }
                 JmsSessionHolderImpl availableSessionHolder = _availableSessionHolders.pollFirst();
+                // ?: Did we get an available SessionHolder?
                 if (availableSessionHolder != null) {
-                    availableSessionHolder.setCurrentContext("depooled,employed_by:" + txContextKey);
+                    // -> Yes, so employ it.
                     _employedSessionHolders.add(availableSessionHolder);
+                    // ?: Did the pool crash while we depooled it? (The crash clears the available, but we might have
+                    // snuck in before)
+                    if (_poolIsCrashed_StackTrace != null) {
+                        // -> Yes, so the JMS Session is dead along with the JMS Connection. Ditch it.
+                        availableSessionHolder.setCurrentContext("crashed+depooled");
+                        removeSessionHolderFromPool_And_DitchPoolIfEmpty(availableSessionHolder);
+                        return null;
+                    }
+                    availableSessionHolder.setCurrentContext("depooled,employed_by:" + txContextKey);
                     return availableSessionHolder;
                 }
+                // ----- No, there was no SessionHolder available, so we must make a new session
+
+                // :: Reserve a spot in the pool for the new SessionHolder - which fails if the pool is closed.
+                int reserved = reserveSessionSpot(maxSessions);
+                // ?: Is the pool closed?
+                if (reserved < 0) {
+                    // -> Yes, so caller must get a fresh pool.
+                    return null;
+                }
+                // ?: Did we get a spot?
+                if (reserved > 0) {
+                    // -> Yes, so create the new Session and employ it.
+                    JmsSessionHolderImpl jmsSessionHolder = createSessionHolder(txContextKey);
+                    jmsSessionHolder.setCurrentContext("create_new,employed_by:" + txContextKey);
+                    _employedSessionHolders.add(jmsSessionHolder);
+                    return jmsSessionHolder;
+                }
+                // E-> The pool is at max Sessions, so we must wait for one to be released.
+                long nowNanos = System.nanoTime();
+                // ?: Is this the first time we wait?
+                if (waitUntilNanos == 0) {
+                    // -> Yes, so start the clock.
+                    waitUntilNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(_maxSessionsWaitMillis);
+                    _waitsForSession.incrementAndGet();
+                }
+                long nanosLeft = waitUntilNanos - nowNanos;
+                // ?: Have we waited long enough?
+                if (nanosLeft <= 0) {
+                    // -> Yes, so give up.
+                    _timeoutsWaitingForSession.incrementAndGet();
+                    throw new JmsMatsJmsException("Waited [" + _maxSessionsWaitMillis + " ms] for a JMS Session from"
+                            + " pool [" + this + "] for [" + txContextKey + "], but it is at max Sessions ["
+                            + maxSessions + "] and none were released.");
+                }
+                _waitingForSession.incrementAndGet();
+                try {
+                    synchronized (_sessionReleasedSignal) {
+                        // ?: Still none available and at max? (Release signals after adding, so no lost wakeup)
+                        if (_availableSessionHolders.isEmpty() && (_sessionCount.get() >= maxSessions)) {
+                            // -> Yes, so wait.
+                            TimeUnit.NANOSECONDS.timedWait(_sessionReleasedSignal, nanosLeft);
+                        }
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JmsMatsJmsException("Got interrupted while waiting for a JMS Session from pool ["
+                            + this + "] for [" + txContextKey + "].", e);
+                }
+                finally {
+                    _waitingForSession.decrementAndGet();
+                }
             }
-            // ----- No, there was no SessionHolder available, so we must make a new session
+        }
 
+        /**
+         * Reserves a spot in the pool for a new Session, lock-free.
+         *
+         * @param maxSessions
+         *            max number of Sessions in the pool, 0 for unbounded.
+         * @return 1 if reserved, 0 if the pool is at max Sessions, -1 if the pool is closed.
+         */
+        private int reserveSessionSpot(int maxSessions) {
+            while (true) {
+                int sessionCount = _sessionCount.get();
+                // ?: Is the pool closed?
+                if (sessionCount < 0) {
+                    // -> Yes, so no spot.
+                    return -1;
+                }
+                // ?: Is the pool at max?
+                if ((maxSessions > 0) && (sessionCount >= maxSessions)) {
+                    // -> Yes, so no spot.
+                    return 0;
+                }
+                if (_sessionCount.compareAndSet(sessionCount, sessionCount + 1)) {
+                    return 1;
+                }
+            }
+        }
+
+        /**
+         * Creates a new JMS Session with its default MessageProducer, stuck into a SessionHolder - the caller must
+         * already have reserved a spot for it. Crashes the pool if the creation fails.
+         */
+        private JmsSessionHolderImpl createSessionHolder(JmsMatsTxContextKey txContextKey)
+                throws JmsMatsJmsException {
             // NOTE: This is async, so while we make the JMS Session, another might come in. No problem..
 
             // :: Get the Pool's JMS Connection (will wait if not already in place)
             // NOTE: Might throw if it was attempted created by someone else (concurrently), which threw.
-            Connection jmsConnection = getOrWaitForPoolJmsConnection();
+            Connection jmsConnection;
+            try {
+                jmsConnection = getOrWaitForPoolJmsConnection();
+            }
+            catch (JmsMatsJmsException e) {
+                // Give back the reserved spot - the pool is already out of the live map.
+                _sessionCount.decrementAndGet();
+                throw e;
+            }
 
-            // :: Create a new JMS Session and stick it into a SessionHolder, and employ it.
+            // :: Create a new JMS Session and stick it into a SessionHolder.
             try {
+                long nanosStart = System.nanoTime();
                 // Create JMS Session from JMS Connection
                 Session jmsSession = jmsConnection.createSession(true, Session.SESSION_TRANSACTED);
                 // Create the default MessageProducer
                 MessageProducer messageProducer = jmsSession.createProducer(null);
+                // :: Record the creation for the statistics
+                long nanosTaken = System.nanoTime() - nanosStart;
+                _sessionsCreated.incrementAndGet();
+                _totalSessionCreationNanos.addAndGet(nanosTaken);
+                _maxSessionCreationNanos.accumulateAndGet(nanosTaken, Math::max);
                 // Stick them into a SessionHolder
-                JmsSessionHolderImpl jmsSessionHolder = new JmsSessionHolderImpl(txContextKey, this, jmsSession,
-                        messageProducer);
-                // Set context
-                jmsSessionHolder.setCurrentContext("create_new,employed_by:" + txContextKey);
-                // Employ it.
-                synchronized (this) {
-                    _employedSessionHolders.add(jmsSessionHolder);
-                }
-                // Return it.
-                return jmsSessionHolder;
+                return new JmsSessionHolderImpl(txContextKey, this, jmsSession, messageProducer);
             }
             catch (Throwable t) {
                 // Bad stuff - create Exception for throwing, and crashing entire ConnectionWithSessionPool
                 JmsMatsJmsException e = new JmsMatsJmsException("Got problems when trying to create a new JMS"
                         + " Session from JMS Connection [" + jmsConnection + "].", t);
                 // :: Crash this ConnectionWithSessionPool
-                // Need a dummy JmsSessionHolderImpl (The JMS objects are not touched by the crashed() method).
+                // Need a dummy JmsSessionHolderImpl (The JMS objects are not touched by the crashed() method), which
+                // also gives back the reserved spot when removed.
                 crashed(new JmsSessionHolderImpl(txContextKey, this, null, null), e);
                 // Throw it out.
                 throw e;
             }
         }
 
+        /**
+         * Creates Sessions and puts them as available in the pool, until there are {@link #setMinIdleSessions(int)
+         * min idle} available - or the pool is at {@link #setMaxSessions(int, long) max}, crashed or closed.
+         */
+        void fillToMinIdle(JmsMatsTxContextKey txContextKey) throws JmsMatsJmsException {
+            // Only one filler at a time, e.g. the background filler and the pre-warm at start, lest they both fill.
+            synchronized (_fillLock) {
+                fillToMinIdle_Locked(txContextKey);
+            }
+        }
+
+        private void fillToMinIdle_Locked(JmsMatsTxContextKey txContextKey) throws JmsMatsJmsException {
+            int minIdleSessions = _minIdleSessions;
+            while ((_poolIsCrashed_StackTrace == null) && (_availableSessionHolders.size() < minIdleSessions)) {
+                // ?: Did we get a spot?
+                if (reserveSessionSpot(_maxSessions) <= 0) {
+                    // -> No, so the pool is full or closed - we're done.
+                    return;
+                }
+                JmsSessionHolderImpl jmsSessionHolder = createSessionHolder(txContextKey);
+                jmsSessionHolder.setCurrentContext("prewarmed");
+                _availableSessionHolders.addFirst(jmsSessionHolder);
+                // ?: Did the pool crash while we made it? (Then the crash might not have seen it)
+                if (_poolIsCrashed_StackTrace != null) {
+                    // -> Yes, so ditch it if still there - whoever polls it out first does the removal.
+                    if (_availableSessionHolders.remove(jmsSessionHolder)) {
+                        jmsSessionHolder.setCurrentContext("crashed+prewarmed");
+                        removeSessionHolderFromPool_And_DitchPoolIfEmpty(jmsSessionHolder);
+                    }
+                    return;
+                }
+                signalSessionReleased();
+            }
+        }
+
+        /**
+         * Wakes up any Initiators waiting for a Session due to {@link #setMaxSessions(int, long) max sessions} - only
+         * taking the lock if someone is waiting.
+         */
+        void signalSessionReleased() {
+            if (_waitingForSession.get() > 0) {
+                synchronized (_sessionReleasedSignal) {
+                    _sessionReleasedSignal.notifyAll();
+                }
+            }
+        }
+
+        PoolStats getStats() {
+            long sessionsCreated = _sessionsCreated.get();
+            double averageCreationMillis = sessionsCreated == 0
+                    ? 0
+                    : _totalSessionCreationNanos.get() / (sessionsCreated * 1_000_000d);
+            return new PoolStats(_poolingKey.toString(), _poolIsCrashed_StackTrace != null,
+                    _availableSessionHolders.size(), _employedSessionHolders.size(), sessionsCreated,
+                    averageCreationMillis, _maxSessionCreationNanos.get() / 1_000_000d, _waitsForSession.get(),
+                    _timeoutsWaitingForSession.get());
+        }
+
         protected volatile Exception _poolIsCrashed_StackTrace;
 
         /**
@@ -417,11 +994,18 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
                 jmsSessionHolder_ToStringBeforeEnPool = jmsSessionHolder.toString();
                 pool_ToStringBeforeEnPool = this.toString();
             }
-            synchronized (this) {
-                _employedSessionHolders.remove(jmsSessionHolder);
-                _availableSessionHolders.addFirst(jmsSessionHolder);
-            }
             jmsSessionHolder.setCurrentContext("available");
+            _employedSessionHolders.remove(jmsSessionHolder);
+            _availableSessionHolders.addFirst(jmsSessionHolder);
+            // ?: Did the pool crash while we enpooled? (The crash clears the available, but we might have come after)
+            if ((_poolIsCrashed_StackTrace != null) && _availableSessionHolders.remove(jmsSessionHolder)) {
+                // -> Yes, and we got it back out, so remove it from the pool as crashed.
+                jmsSessionHolder.setCurrentContext("crashed+released");
+                removeSessionHolderFromPool_And_DitchPoolIfEmpty(jmsSessionHolder);
+                return;
+            }
+            // Wake up any Initiator waiting for a Session due to max Sessions.
+            signalSessionReleased();
             if (log.isDebugEnabled()) log.debug(LOG_PREFIX + "release() invoked from [" +
                     jmsSessionHolder_ToStringBeforeEnPool + "] on pool [" + pool_ToStringBeforeEnPool
                     + "] -> moving from 'employed' to 'available' set, resulting in pool [" + this + "].");
@@ -457,56 +1041,44 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
                     + " is empty of SessionHolders (i.e. employed == 0), then close JMS Connection."
                     + " Underlying JMS Connection is [" + id(_jmsConnection) + ":" + _jmsConnection + "]");
 
-            // Lock both the whole Handler, and this ConnectionWithSessionPool instance, to avoid having threads sneak
-            // by and getting either an available Session, or the Connection.
-            // Lock order: Bigger to smaller objects.
+            // Lock the whole Handler, to keep the live and crashed maps in step with other crashes and closes.
             log.info(LOG_PREFIX + "Marking pool as crashed, clearing available SessionHolders, moving us"
                     + " from live to dead ConnectionWithSessionPool. [" + this + "].");
-            assertBigToSmallLockOrder();
             synchronized (JmsMatsJmsSessionHandler_Pooling.this) {
-                synchronized (this) {
-                    // Crash this pool
-                    _poolIsCrashed_StackTrace = new Exception("This [" + this + "] was crashed.", reasonException);
-                    // Clear *available* SessionHolders. (Employed list will empty out eventually)
-                    // NOTE: Closing JMS Connection unconditionally, and thus Sessions, outside of synch..
-                    _availableSessionHolders.clear();
-                    // Removing this SessionHolder from employed
-                    boolean lastSessionFromPool = removeSessionHolderFromPool_And_DitchPoolIfEmpty(
-                            jmsSessionHolder);
-                    // NOTE: If it was the last session, it is already removed from live-set.
-                    // ?: Was this the last session?
-                    if (!lastSessionFromPool) {
-                        // -> No, it was not the last session, so move this pool to the crashed-set
-                        // Remove us from the live connections set.
-                        _connectionWithSessionPools_live.remove(_poolingKey);
-                        // Add us to the crashed set
-                        _connectionWithSessionPools_crashed.put(_poolingKey, this);
-                    }
-                    /*
-                     * NOTE: Any other employed SessionHolders will invoke isConnectionLive(), and find that it is not
-                     * still active by getting a JmsMatsJmsException, thus come back with crashed(). Otherwise, they
-                     * will also come get a JMS Exception from other JMS actions, and come back with crashed(). It could
-                     * potentially also get a null from .receive(), and thus come back with close().
-                     */
+                // Crash this pool - any threads depooling or enpooling after this point will see it.
+                _poolIsCrashed_StackTrace = new Exception("This [" + this + "] was crashed.", reasonException);
+                // Clear *available* SessionHolders. (Employed list will empty out eventually)
+                // NOTE: Closing JMS Connection unconditionally, and thus Sessions, outside of synch..
+                JmsSessionHolderImpl availableHolder;
+                while ((availableHolder = _availableSessionHolders.pollFirst()) != null) {
+                    availableHolder.setCurrentContext("crashed+cleared");
+                    removeSessionHolderFromPool_And_DitchPoolIfEmpty(availableHolder);
+                }
+                // Removing this SessionHolder from employed
+                removeSessionHolderFromPool_And_DitchPoolIfEmpty(jmsSessionHolder);
+                // NOTE: If the last session was removed, either above or by clearing the available, or before we
+                // got here (e.g. via internalCloseSession() whose JMS Session close failed), the pool is closed and
+                // already removed from the live-set - and must then not be put into the crashed-set.
+                // ?: Is the pool still open, i.e. are there still sessions left?
+                if (_sessionCount.get() >= 0) {
+                    // -> Yes, there are still sessions in the pool, so move this pool to the crashed-set
+                    // Remove us from the live connections set.
+                    _connectionWithSessionPools_live.remove(_poolingKey, this);
+                    // Add us to the crashed set
+                    _connectionWithSessionPools_crashed.put(_poolingKey, this);
                 }
+                /*
+                 * NOTE: Any other employed SessionHolders will invoke isConnectionLive(), and find that it is not
+                 * still active by getting a JmsMatsJmsException, thus come back with crashed(). Otherwise, they
+                 * will also come get a JMS Exception from other JMS actions, and come back with crashed(). It could
+                 * potentially also get a null from .receive(), and thus come back with close().
+                 */
             }
             // :: Now close the JMS Connection, since this was a crash, and we want to get rid of it.
             // Closing JMS Connection will per JMS API close all Sessions, Consumers and Producers.
             closeJmsConnection();
         }
 
-        protected void assertBigToSmallLockOrder() {
-            // If we at this point only have 'this' locked, and not "mother", then we're screwed.
-            // Both none locked, and both locked, is OK.
-            if (Thread.holdsLock(this) && (!Thread.holdsLock(JmsMatsJmsSessionHandler_Pooling.this))) {
-                throw new AssertionError("When locking both '"
-                        + JmsMatsJmsSessionHandler_Pooling.class.getSimpleName()
-                        + "' and '" + ConnectionWithSessionPool.class.getSimpleName() + "', one shall not"
-                        + " start by having the pool locked, as that is the smaller, and the defined"
-                        + " locking order is big to small.");
-            }
-        }
-
         protected void internalCloseSession(JmsSessionHolderImpl jmsSessionHolder) {
             jmsSessionHolder.setCurrentContext("closed");
             // Remove this SessionHolder from pool, and remove ConnectionWithSessionPool if empty (if so, returns true)
@@ -539,37 +1111,33 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
                 JmsSessionHolderImpl jmsSessionHolder) {
             log.info(LOG_PREFIX + "Removing [" + jmsSessionHolder + "] from pool [" + this + "].");
 
-            // Lock both the whole Handler, and this ConnectionWithSessionPool instance, to avoid having threads sneak
-            // by and getting either an available Session, or the Connection.
-            // Lock order: Bigger to smaller objects.
-            assertBigToSmallLockOrder();
-            boolean ret;
-            synchronized (JmsMatsJmsSessionHandler_Pooling.this) {
-                synchronized (this) {
-                    // Remove from employed (this is the normal place a SessionHolder live)
-                    _employedSessionHolders.remove(jmsSessionHolder);
-                    // Remove from available (this is where a SessionHolder lives if the pool is shutting down)
-                    _availableSessionHolders.remove(jmsSessionHolder);
-                    // ?: Is the ConnectionWithSessionPool now empty?
-                    if (_employedSessionHolders.isEmpty() && _availableSessionHolders.isEmpty()) {
-                        // -> Yes, none in either employed nor available set.
-                        // Remove us from live map, if this is where this ConnectionWithSessionPool resides
-                        _connectionWithSessionPools_live.remove(_poolingKey);
-                        // Remove us fom dead map, if this is where this ConnectionWithSessionPool resides
-                        _connectionWithSessionPools_crashed.remove(_poolingKey);
-                        // We removed the ConnectionWithSessionPool - so close the actual JMS Connection.
-                        ret = true;
-                    }
-                    else {
-                        // -> We did not remove the ConnectionWithSessionPool, so keep the JMS Connection open.
-                        return false;
-                    }
-                }
+            // Remove from employed (this is the normal place a SessionHolder live)
+            _employedSessionHolders.remove(jmsSessionHolder);
+            // Remove from available (this is where a SessionHolder lives if the pool is shutting down)
+            _availableSessionHolders.remove(jmsSessionHolder);
+            // ?: Is this the first time this SessionHolder is removed? (Might come both via crash and close)
+            if (!jmsSessionHolder._removedFromPool.compareAndSet(false, true)) {
+                // -> No, already removed, so it does not count anymore.
+                return false;
             }
-            if (ret) {
+            // ?: Is the ConnectionWithSessionPool now empty, and did we get to close it? (Only one may close it)
+            if ((_sessionCount.decrementAndGet() == 0) && _sessionCount.compareAndSet(0, -1)) {
+                // -> Yes, none left, and the pool is now closed for new SessionHolders.
+                // Lock the whole Handler, to keep the live and crashed maps in step with crashes.
+                synchronized (JmsMatsJmsSessionHandler_Pooling.this) {
+                    // Remove us from live map, if this is where this ConnectionWithSessionPool resides
+                    _connectionWithSessionPools_live.remove(_poolingKey, this);
+                    // Remove us fom dead map, if this is where this ConnectionWithSessionPool resides
+                    _connectionWithSessionPools_crashed.remove(_poolingKey, this);
+                }
                 log.info(LOG_PREFIX + "Pool was empty of Sessions, so removed it from the pool-sets [" + this + "].");
+                // We removed the ConnectionWithSessionPool - so close the actual JMS Connection.
+                return true;
             }
-            return ret;
+            // E-> We did not remove the ConnectionWithSessionPool, so keep the JMS Connection open.
+            // The spot is now free, so wake up any Initiator waiting for a Session due to max Sessions.
+            signalSessionReleased();
+            return false;
         }
 
         protected void closeJmsConnection() {
@@ -583,6 +1151,10 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
             }
         }
 
+        int getDestinationProducersPerSession() {
+            return _destinationProducersPerSession;
+        }
+
         /**
          * Will be invoked by all SessionHolders at various times in {@link JmsMatsStageProcessor}.
          */
@@ -598,11 +1170,8 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
 
         @Override
         public String toString() {
-            int available, employed;
-            synchronized (this) {
-                available = _availableSessionHolders.size();
-                employed = _employedSessionHolders.size();
-            }
+            int available = _availableSessionHolders.size();
+            int employed = _employedSessionHolders.size();
             return idThis() + "{pool:" + (_poolIsCrashed_StackTrace == null ? "live" : "crashed") + "|sess avail:"
                     + available + ";empl:" + employed + "}";
         }
@@ -644,8 +1213,53 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
             return _messageProducer;
         }
 
+        private final JmsMatsDestinationCache _destinationCache = new JmsMatsDestinationCache();
+
+        @Override
+        public Destination getDestination(String destinationPrefix, boolean queue, String channelId)
+                throws JMSException {
+            return _destinationCache.getDestination(_jmsSession, destinationPrefix, queue, channelId);
+        }
+
+        // LRU of MessageProducers bound to their Destination, created lazily if enabled. Only used by the thread
+        // currently employing this SessionHolder.
+        protected LinkedHashMap<Destination, MessageProducer> _destinationProducers;
+
+        @Override
+        public void send(Destination destination, Message message, int deliveryMode, int priority,
+                long timeToLive) throws JMSException {
+            int maxProducers = _connectionWithSessionPool.getDestinationProducersPerSession();
+            // ?: Are destination bound producers enabled?
+            if (maxProducers <= 0) {
+                // -> No, so send using the default non-specific producer.
+                _messageProducer.send(destination, message, deliveryMode, priority, timeToLive);
+                return;
+            }
+            // E-> Yes, destination bound producers enabled, so get-or-create the producer for this destination.
+            if (_destinationProducers == null) {
+                _destinationProducers = new LinkedHashMap<>(16, 0.75f, true);
+            }
+            MessageProducer producer = _destinationProducers.get(destination);
+            // ?: Did we have a producer for this destination?
+            if (producer == null) {
+                // -> No, so create it, and evict the least recently used if we're above max.
+                producer = _jmsSession.createProducer(destination);
+                _destinationProducers.put(destination, producer);
+                Iterator<Entry<Destination, MessageProducer>> it = _destinationProducers.entrySet().iterator();
+                while (_destinationProducers.size() > maxProducers) {
+                    MessageProducer eldest = it.next().getValue();
+                    it.remove();
+                    eldest.close();
+                }
+            }
+            producer.send(message, deliveryMode, priority, timeToLive);
+        }
+
         protected AtomicBoolean _closedOrCrashed = new AtomicBoolean();
 
+        // Whether this SessionHolder has been removed from its pool - ensuring it is only counted out once.
+        protected final AtomicBoolean _removedFromPool = new AtomicBoolean();
+
         @Override
         public void close() {
             boolean alreadyClosedOrCrashed = _closedOrCrashed.getAndSet(true);
@@ -654,6 +1268,8 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
                         + "], it was already closed or crashed. Ignoring.");
                 return;
             }
+            // The destination bound producers are closed along with the JMS Session.
+            _destinationProducers = null;
             _connectionWithSessionPool.close(this);
         }
 
@@ -684,6 +1300,8 @@ public class JmsMatsJmsSessionHandler_Pooling implements JmsMatsJmsSessionHandle
                         + "], it was already closed or crashed. Ignoring.");
                 return;
             }
+            // The destination bound producers are closed along with the JMS Session (and Connection).
+            _destinationProducers = null;
             _connectionWithSessionPool.crashed(this, t);
         }
 
@@ -5,6 +5,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
 
@@ -163,6 +165,14 @@ public class JmsMatsJmsSessionHandler_Simple implements JmsMatsJmsSessionHandler
             return _messageProducer;
         }
 
+        private final JmsMatsDestinationCache _destinationCache = new JmsMatsDestinationCache();
+
+        @Override
+        public Destination getDestination(String destinationPrefix, boolean queue, String channelId)
+                throws JMSException {
+            return _destinationCache.getDestination(_jmsSession, destinationPrefix, queue, channelId);
+        }
+
         protected AtomicBoolean _closedOrReleasedOrCrashed = new AtomicBoolean();
 
         @Override
@@ -4,12 +4,18 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.JMSException;
 import javax.jms.MessageConsumer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.Topic;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.mats3.MatsEndpoint.MatsRefuseMessageException;
+import io.mats3.MatsStage.StageConfig;
 import io.mats3.impl.jms.JmsMatsException.JmsMatsJmsException;
 
 /**
@@ -20,6 +26,12 @@ import io.mats3.impl.jms.JmsMatsException.JmsMatsJmsException;
  * <li>Check for Connection liveliness: {@code ActiveMQConnection.is[Closed|Closing|TransportFailed]}.</li>
  * <li>Honor the {@link MatsRefuseMessageException} (i.e. insta-DLQing), by setting redelivery attempts to 0 on the
  * MessageConsumer when rolling back Session: {@code ActiveMQSession.setRedeliveryPolicy(zeroAttemptsPolicy)}.</li>
+ * <li>Per-stage consumer tuning, ref. {@link StageConfig#setPrefetchSize(int)} and
+ * {@link StageConfig#setMaxRedeliveries(int)}: The prefetch is applied using the destination option
+ * {@code consumer.prefetchSize}, and the redelivery by setting a modified copy of the consumer's RedeliveryPolicy:
+ * {@code ActiveMQMessageConsumer.setRedeliveryPolicy(stagePolicy)}. (Artemis has no per-consumer equivalents in its
+ * JMS client: The prefetch is the ConnectionFactory's "consumerWindowSize", and the redelivery is configured on the
+ * broker - thus the settings are not applied, which is logged.)</li>
  * </ul>
  */
 public class JmsMatsMessageBrokerSpecifics {
@@ -42,6 +54,13 @@ public class JmsMatsMessageBrokerSpecifics {
     private static final Method _activeMqMessageConsumer_getRedeliveryPolicy;
     private static final Method _activeMqMessageConsumer_setRedeliveryPolicy;
 
+    // :: For ActiveMQ's impl of createConsumer, i.e. per-stage prefetch and redelivery
+    private static final Class<?> _activeMqSession_class;
+    private static final Method _activeMqRedeliveryPolicy_copy;
+    private static final Method _activeMqRedeliveryPolicy_setMaximumRedeliveries;
+    private static final Method _activeMqRedeliveryPolicy_setInitialRedeliveryDelay;
+    private static final Method _activeMqRedeliveryPolicy_setRedeliveryDelay;
+
     static {
         // :: Check if we have ActiveMQConnection, and if so get the "liveliness methods".
 
@@ -144,6 +163,48 @@ public class JmsMatsMessageBrokerSpecifics {
         _activeMqMessageConsumer_getRedeliveryPolicy = getRedeliveryPolicy;
         _activeMqMessageConsumer_setRedeliveryPolicy = setRedeliveryPolicy;
         _activeMqRedeliveryPolicy_zeroRedeliveries = zeroRedeliveries;
+
+        // :: Check if we have ActiveMQSession, and the RedeliveryPolicy methods to make per-stage policies.
+
+        Class<?> amqSessionClass = null;
+        try {
+            amqSessionClass = Class.forName("org.apache.activemq.ActiveMQSession");
+        }
+        catch (ClassNotFoundException e) {
+            log.info("Couldn't get hold of 'org.apache.activemq.ActiveMQSession' class,"
+                    + " so ActiveMQ probably not on classpath.");
+        }
+        Method copy = null;
+        Method setMaximumRedeliveries = null;
+        Method setInitialRedeliveryDelay = null;
+        Method setRedeliveryDelay = null;
+        // ?: Did we get the RedeliveryPolicy class, and the ActiveMQMessageConsumer methods to set it?
+        if ((redeliveryPolicyClass != null) && (setRedeliveryPolicy != null)) {
+            // -> Yes, so get the methods to make a modified copy.
+            try {
+                Method l_copy = redeliveryPolicyClass.getMethod("copy");
+                Method l_setMaximumRedeliveries = redeliveryPolicyClass.getMethod("setMaximumRedeliveries",
+                        int.class);
+                Method l_setInitialRedeliveryDelay = redeliveryPolicyClass.getMethod("setInitialRedeliveryDelay",
+                        long.class);
+                Method l_setRedeliveryDelay = redeliveryPolicyClass.getMethod("setRedeliveryDelay", long.class);
+                // ----- We've got all these methods, now set them on the class.
+                copy = l_copy;
+                setMaximumRedeliveries = l_setMaximumRedeliveries;
+                setInitialRedeliveryDelay = l_setInitialRedeliveryDelay;
+                setRedeliveryDelay = l_setRedeliveryDelay;
+            }
+            catch (NoSuchMethodException e) {
+                log.warn("'org.apache.activemq.RedeliveryPolicy' was on classpath, but couldn't get hold of"
+                        + " RedeliveryPolicy.[copy|setMaximumRedeliveries|set[Initial]RedeliveryDelay]()"
+                        + " methods. This is not expected, report a bug! Mats will still work, though.", e);
+            }
+        }
+        _activeMqSession_class = amqSessionClass;
+        _activeMqRedeliveryPolicy_copy = copy;
+        _activeMqRedeliveryPolicy_setMaximumRedeliveries = setMaximumRedeliveries;
+        _activeMqRedeliveryPolicy_setInitialRedeliveryDelay = setInitialRedeliveryDelay;
+        _activeMqRedeliveryPolicy_setRedeliveryDelay = setRedeliveryDelay;
     }
 
     public static void init() {
@@ -235,6 +296,89 @@ public class JmsMatsMessageBrokerSpecifics {
         }
     }
 
+    /**
+     * Creates the MessageConsumer for a stage, applying the stage's {@link StageConfig#getPrefetchSize() prefetch} and
+     * {@link StageConfig#getMaxRedeliveries() redelivery} settings if set, i.e. not
+     * {@link StageConfig#CONNECTION_FACTORY_DEFAULT}: For an ActiveMQ JMS Session, the prefetch is applied using the
+     * destination option {@code consumer.prefetchSize}, and the redelivery by setting a modified copy of the consumer's
+     * RedeliveryPolicy on the consumer. For other JMS implementations, the settings are not applied, which is logged.
+     *
+     * @param jmsSession
+     *            the JMS Session to create the consumer on.
+     * @param destination
+     *            the Queue or Topic to consume from.
+     * @param messageSelector
+     *            the message selector, or <code>null</code> if none.
+     * @param stageConfig
+     *            the config of the stage to create the consumer for.
+     * @return the created MessageConsumer.
+     * @throws JMSException
+     *             if the JMS implementation fails to create the consumer.
+     */
+    public static MessageConsumer createConsumer(Session jmsSession, Destination destination, String messageSelector,
+            StageConfig<?, ?, ?> stageConfig) throws JMSException {
+        int prefetchSize = stageConfig.getPrefetchSize();
+        boolean activeMq = (_activeMqSession_class != null) && _activeMqSession_class.isInstance(jmsSession);
+        // ?: Is prefetch set?
+        if (prefetchSize != StageConfig.CONNECTION_FACTORY_DEFAULT) {
+            // ?: Are we in ActiveMQ world?
+            if (activeMq) {
+                // -> Yes, so set it using destination option, which the ActiveMQMessageConsumer applies.
+                String option = "?consumer.prefetchSize=" + prefetchSize;
+                destination = destination instanceof Queue
+                        ? jmsSession.createQueue(((Queue) destination).getQueueName() + option)
+                        : jmsSession.createTopic(((Topic) destination).getTopicName() + option);
+            }
+            else {
+                // -> No, so we cannot set it.
+                log.info("The prefetch size [" + prefetchSize + "] for [" + destination + "] is not applied, as"
+                        + " the JMS implementation [" + jmsSession.getClass().getName() + "] does not support it"
+                        + " per consumer - set it on the ConnectionFactory instead.");
+            }
+        }
+
+        MessageConsumer jmsConsumer = messageSelector != null
+                ? jmsSession.createConsumer(destination, messageSelector)
+                : jmsSession.createConsumer(destination);
+
+        int maxRedeliveries = stageConfig.getMaxRedeliveries();
+        long redeliveryDelayMillis = stageConfig.getRedeliveryDelayMillis();
+        // ?: Is redelivery set?
+        if ((maxRedeliveries != StageConfig.CONNECTION_FACTORY_DEFAULT)
+                || (redeliveryDelayMillis != StageConfig.CONNECTION_FACTORY_DEFAULT)) {
+            // -> Yes, redelivery set.
+            // ?: Are we in ActiveMQ world, and did we get hold of the needed methods?
+            if ((_activeMqRedeliveryPolicy_copy != null) && _activeMqMessageConsumer_class.isInstance(jmsConsumer)) {
+                // -> Yes, so set a modified copy of the consumer's policy (which it got from the ConnectionFactory).
+                try {
+                    Object redeliveryPolicy = _activeMqRedeliveryPolicy_copy.invoke(
+                            _activeMqMessageConsumer_getRedeliveryPolicy.invoke(jmsConsumer));
+                    if (maxRedeliveries != StageConfig.CONNECTION_FACTORY_DEFAULT) {
+                        _activeMqRedeliveryPolicy_setMaximumRedeliveries.invoke(redeliveryPolicy, maxRedeliveries);
+                    }
+                    if (redeliveryDelayMillis != StageConfig.CONNECTION_FACTORY_DEFAULT) {
+                        _activeMqRedeliveryPolicy_setInitialRedeliveryDelay.invoke(redeliveryPolicy,
+                                redeliveryDelayMillis);
+                        _activeMqRedeliveryPolicy_setRedeliveryDelay.invoke(redeliveryPolicy, redeliveryDelayMillis);
+                    }
+                    _activeMqMessageConsumer_setRedeliveryPolicy.invoke(jmsConsumer, redeliveryPolicy);
+                }
+                catch (IllegalAccessException | InvocationTargetException e) {
+                    log.warn("Invoking ActiveMqMessageConsumer.[get|set]RedeliveryPolicy() or RedeliveryPolicy"
+                            + " methods raised exception, which is not expected: Report a bug on Mats!", e);
+                }
+            }
+            else {
+                // -> No, so we cannot set it.
+                log.info("The redelivery settings (max redeliveries [" + maxRedeliveries + "], delay ["
+                        + redeliveryDelayMillis + " ms]) for [" + destination + "] are not applied, as the JMS"
+                        + " implementation [" + jmsConsumer.getClass().getName() + "] does not support it per"
+                        + " consumer - configure it on the ConnectionFactory or broker instead.");
+            }
+        }
+        return jmsConsumer;
+    }
+
     @FunctionalInterface
     interface JmsMatsJmsExceptionThrowingRunnable {
         void run() throws JmsMatsJmsException;
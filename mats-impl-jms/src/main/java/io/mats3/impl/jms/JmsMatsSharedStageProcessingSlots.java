@@ -0,0 +1,261 @@
+package io.mats3.impl.jms;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded number of processing slots shared by all the {@link JmsMatsStageProcessor}s of a {@link JmsMatsFactory},
+ * used if {@link JmsMatsFactory#setSharedStageProcessingSlots(int) enabled}: Instead of each StageProcessor owning a
+ * thread parked in <code>consumer.receive()</code>, each has a JMS MessageListener, which is invoked on the JMS
+ * provider's (pooled) dispatch threads - and before processing the received message, the listener must acquire a slot.
+ * Thus many mostly-idle stages do not hold any threads, and the number of messages concurrently being processed by the
+ * entire MatsFactory is bounded by the number of slots.
+ * <p>
+ * Fairness: The waiting listeners are queued per stage, and a released slot is handed to the first waiter of each
+ * stage having waiters in turn (round-robin), so that a hot stage cannot starve the others. The number of slots a
+ * stage can occupy is capped by its number of StageProcessors, i.e. its concurrency, as each StageProcessor's
+ * MessageListener processes its message before it receives the next.
+ * <p>
+ * The message is processed on the listener's thread, not handed over to a separate worker, as the JMS Session must
+ * only be used by the thread of the listener while it is invoked - e.g. ActiveMQ holds a lock on the consumer while
+ * invoking the listener, which a rollback from another thread would also need. The tasks that must not be run from
+ * within the listener, e.g. establishing the consumer and closing the Session, are run on a single maintenance
+ * thread.
+ * <p>
+ * The wait for a slot is bounded, so that a saturated MatsFactory does not hold the provider's dispatch threads
+ * indefinitely: Upon timeout, the listener rolls back the message, which thus is redelivered later - which counts as a
+ * delivery attempt. So that no message ends up on the DLQ solely due to waiting for slots, a redelivered message waits
+ * for its slot without limit.
+ */
+class JmsMatsSharedStageProcessingSlots implements JmsMatsStatics {
+    private static final Logger log = LoggerFactory.getLogger(JmsMatsSharedStageProcessingSlots.class);
+
+    private final String _name;
+    private final int _numberOfSlots;
+
+    // :: The free slots, the per-stage queues of waiters, and the ring of stages having waiters. Guarded by 'this'.
+    // A stage is only present in the map, and in the ring, while it has waiters - thus stopped or removed stages are
+    // not retained.
+    private int _freeSlots;
+    private final Map<JmsMatsStage<?, ?, ?, ?>, StageWaiters> _stageWaiters = new IdentityHashMap<>();
+    private final ArrayDeque<StageWaiters> _readyStages = new ArrayDeque<>();
+    private boolean _running = true;
+
+    private final ScheduledExecutorService _maintenance;
+
+    JmsMatsSharedStageProcessingSlots(String name, int numberOfSlots) {
+        _name = name;
+        _numberOfSlots = numberOfSlots;
+        _freeSlots = numberOfSlots;
+        ScheduledThreadPoolExecutor maintenance = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_PREFIX + "SharedStageMaintenance:" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.setRemoveOnCancelPolicy(true);
+        _maintenance = maintenance;
+        log.info(LOG_PREFIX + "Created [" + numberOfSlots + "] shared Stage processing slots for [" + name + "].");
+    }
+
+    int getNumberOfSlots() {
+        return _numberOfSlots;
+    }
+
+    /**
+     * Waits for a slot, which is handed out when it is the stage's turn - but at most the given time, so that the
+     * provider's dispatch thread is not held indefinitely. Must be followed by {@link #release()} if acquired.
+     *
+     * @param maxWaitMillis
+     *            how long to wait at most for the slot - or 0 to wait until it is handed out.
+     * @return <code>false</code> if timed out or shut down, in which case no slot is acquired.
+     * @throws InterruptedException
+     *             if interrupted while waiting, in which case no slot is acquired.
+     */
+    synchronized boolean acquire(JmsMatsStage<?, ?, ?, ?> stage, long maxWaitMillis) throws InterruptedException {
+        // ?: Is there a free slot, and nobody else waiting?
+        if (_running && (_freeSlots > 0) && _readyStages.isEmpty()) {
+            // -> Yes, so take it directly.
+            _freeSlots--;
+            return true;
+        }
+        Waiter waiter = new Waiter();
+        StageWaiters stageWaiters = _stageWaiters.computeIfAbsent(stage, StageWaiters::new);
+        stageWaiters._waiters.add(waiter);
+        // ?: Is the stage already in the ring?
+        if (!stageWaiters._inReadyRing) {
+            // -> No, so add it at the end, i.e. it gets its turn after the stages already waiting.
+            stageWaiters._inReadyRing = true;
+            _readyStages.add(stageWaiters);
+        }
+        handOutFreeSlots();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        try {
+            while (_running && !waiter._granted) {
+                // ?: Wait without limit?
+                if (maxWaitMillis == 0) {
+                    // -> Yes, so wait until notified.
+                    wait();
+                    continue;
+                }
+                long millisLeft = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                // ?: Have we waited long enough?
+                if (millisLeft <= 0) {
+                    // -> Yes, so give up.
+                    break;
+                }
+                wait(millisLeft);
+            }
+        }
+        catch (InterruptedException e) {
+            // ?: Did we get the slot concurrently with the interrupt?
+            if (waiter._granted) {
+                // -> Yes, so give it back.
+                releaseSlot();
+            }
+            else {
+                // -> No, so remove us from the queue.
+                removeWaiter(stageWaiters, waiter);
+            }
+            throw e;
+        }
+        // ?: Did we get the slot?
+        if (waiter._granted) {
+            // -> Yes, so we have it.
+            return true;
+        }
+        // E-> No, we timed out or are shut down.
+        removeWaiter(stageWaiters, waiter);
+        return false;
+    }
+
+    /**
+     * Releases a slot acquired by {@link #acquire(JmsMatsStage, long)}, handing it to the next stage in turn if any is
+     * waiting.
+     */
+    synchronized void release() {
+        releaseSlot();
+    }
+
+    /**
+     * Runs the task on the maintenance thread, after the delay (which may be 0).
+     */
+    void runMaintenance(JmsMatsStage<?, ?, ?, ?> stage, Runnable task, long delayMillis) {
+        try {
+            _maintenance.schedule(() -> {
+                try {
+                    task.run();
+                }
+                catch (Throwable t) {
+                    // The tasks shall handle their own problems, but we must never let the maintenance thread die.
+                    log.error(LOG_PREFIX + "Got [" + t.getClass().getSimpleName() + "] from maintenance task for"
+                            + " Stage [" + stage.getStageId() + "] - ignoring.", t);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (RuntimeException e) {
+            // The executor is shut down, i.e. so are we.
+            log.info(LOG_PREFIX + "The shared Stage processing slots for [" + _name + "] are shut down, so ignoring"
+                    + " maintenance task for Stage [" + stage.getStageId() + "].");
+        }
+    }
+
+    /**
+     * Shuts down: Any waiters get no slot, as do any subsequent invocations of {@link #acquire(JmsMatsStage, long)}
+     * - and the maintenance thread is stopped after running its currently due tasks. The StageProcessors shall have
+     * been stopped before this is invoked.
+     */
+    void shutdown() {
+        synchronized (this) {
+            _running = false;
+            notifyAll();
+        }
+        _maintenance.shutdown();
+        try {
+            _maintenance.awaitTermination(EXTRA_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            log.warn(LOG_PREFIX + "Got interrupted while waiting for the maintenance thread to exit.");
+            Thread.currentThread().interrupt();
+        }
+        log.info(LOG_PREFIX + "Shut down shared Stage processing slots for [" + _name + "].");
+    }
+
+    // Guarded by 'this'.
+    private void releaseSlot() {
+        _freeSlots++;
+        handOutFreeSlots();
+    }
+
+    // Guarded by 'this'.
+    private void handOutFreeSlots() {
+        boolean handedOut = false;
+        while ((_freeSlots > 0) && !_readyStages.isEmpty()) {
+            StageWaiters stageWaiters = _readyStages.poll();
+            Waiter waiter = stageWaiters._waiters.poll();
+            // ?: Does the stage have more waiters?
+            if (stageWaiters._waiters.isEmpty()) {
+                // -> No, so it leaves the ring, and the map, until it gets a new waiter.
+                stageWaiters._inReadyRing = false;
+                _stageWaiters.remove(stageWaiters._stage);
+            }
+            else {
+                // -> Yes, so it goes to the back of the ring, i.e. the other stages get their turn first.
+                _readyStages.add(stageWaiters);
+            }
+            _freeSlots--;
+            waiter._granted = true;
+            handedOut = true;
+        }
+        if (handedOut) {
+            notifyAll();
+        }
+    }
+
+    // Guarded by 'this'.
+    private void removeWaiter(StageWaiters stageWaiters, Waiter waiter) {
+        stageWaiters._waiters.remove(waiter);
+        // ?: Was that the last waiter of the stage?
+        if (stageWaiters._waiters.isEmpty()) {
+            // -> Yes, so remove the stage from the map, and from the ring if in it.
+            _stageWaiters.remove(stageWaiters._stage);
+            // ?: Is the stage in the ring?
+            if (stageWaiters._inReadyRing) {
+                // -> Yes, so remove it.
+                stageWaiters._inReadyRing = false;
+                _readyStages.remove(stageWaiters);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JmsMatsSharedStageProcessingSlots{" + _name + ", slots:" + _numberOfSlots + "}";
+    }
+
+    /**
+     * The waiters for a stage - guarded by the slots' monitor.
+     */
+    private static class StageWaiters {
+        private final JmsMatsStage<?, ?, ?, ?> _stage;
+        private final ArrayDeque<Waiter> _waiters = new ArrayDeque<>();
+        private boolean _inReadyRing;
+
+        private StageWaiters(JmsMatsStage<?, ?, ?, ?> stage) {
+            _stage = stage;
+        }
+    }
+
+    /**
+     * A listener waiting for a slot - guarded by the slots' monitor.
+     */
+    private static class Waiter {
+        private boolean _granted;
+    }
+}
@@ -6,6 +6,8 @@ import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.jms.Session;
 
@@ -112,6 +114,97 @@ public class JmsMatsStage<R, S, I, Z> implements MatsStage<R, S, I>, JmsMatsStat
 
     private CountDownLatch _anyProcessorMadeConsumerLatch = new CountDownLatch(1);
 
+    // :: Load metrics recorded by the StageProcessors, read (and reset) by the autoscaler.
+    private final LongAdder _processingNanos = new LongAdder();
+    private final LongAdder _queueWaitMillisSum = new LongAdder();
+    private final LongAdder _queueWaitCount = new LongAdder();
+
+    // Numbering of the ordinary StageProcessors, which continues upwards as the autoscaler adds more.
+    private final AtomicInteger _nextProcessorNumber = new AtomicInteger();
+
+    // Whether this stage is registered with the autoscaler. Guarded by 'this'.
+    private boolean _autoscaled;
+
+    void recordProcessingNanos(long nanos) {
+        _processingNanos.add(nanos);
+    }
+
+    void recordQueueWaitMillis(long millis) {
+        // Clock skew between nodes may give negative wait.
+        _queueWaitMillisSum.add(Math.max(0, millis));
+        _queueWaitCount.increment();
+    }
+
+    long sumThenResetProcessingNanos() {
+        return _processingNanos.sumThenReset();
+    }
+
+    /**
+     * @return the average queue wait of the messages received since last invocation, or -1 if none.
+     */
+    long averageThenResetQueueWaitMillis() {
+        long count = _queueWaitCount.sumThenReset();
+        long sum = _queueWaitMillisSum.sumThenReset();
+        return count == 0 ? -1 : sum / count;
+    }
+
+    /**
+     * @return the number of ordinary (i.e. not interactive) StageProcessors which are not stopping or retired.
+     */
+    int getActiveOrdinaryStageProcessors() {
+        int count = 0;
+        for (JmsMatsStageProcessor<R, S, I, Z> stageProcessor : _stageProcessors) {
+            if (!stageProcessor.isInteractive() && stageProcessor.isActive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Invoked by the autoscaler to grow the stage by one ordinary StageProcessor.
+     *
+     * @return whether a StageProcessor was added - not if the stage has stopped in the meantime.
+     */
+    synchronized boolean addAutoscaledStageProcessor() {
+        if (!_autoscaled) {
+            return false;
+        }
+        JmsMatsStageProcessor<R, S, I, Z> stageProcessor = new JmsMatsStageProcessor<>(this,
+                _nextProcessorNumber.getAndIncrement(), false);
+        _stageProcessors.add(stageProcessor);
+        stageProcessor.start();
+        return true;
+    }
+
+    /**
+     * Invoked by the autoscaler to shrink the stage by one ordinary StageProcessor, preferring one which is idle.
+     *
+     * @return whether a StageProcessor was retired - not if the stage has stopped in the meantime.
+     */
+    synchronized boolean retireAutoscaledStageProcessor() {
+        if (!_autoscaled) {
+            return false;
+        }
+        JmsMatsStageProcessor<R, S, I, Z> toRetire = null;
+        for (JmsMatsStageProcessor<R, S, I, Z> stageProcessor : _stageProcessors) {
+            if (stageProcessor.isInteractive() || !stageProcessor.isActive()) {
+                continue;
+            }
+            toRetire = stageProcessor;
+            // ?: Is it idle? (Then it is the best candidate, as it will exit right away)
+            if (stageProcessor.isInReceive()) {
+                // -> Yes, so pick this.
+                break;
+            }
+        }
+        if (toRetire == null) {
+            return false;
+        }
+        toRetire.retire();
+        return true;
+    }
+
     @Override
     public synchronized void start() {
         if (!_parentEndpoint.isFinishedSetup()) {
@@ -129,8 +222,9 @@ public class JmsMatsStage<R, S, I, Z> implements MatsStage<R, S, I>, JmsMatsStat
             return;
         }
 
-        // :: Fire up the actual stage processors, using the configured (or default) concurrency
-        int numberOfProcessors = getStageConfig().getConcurrency();
+        // :: Fire up the actual stage processors, using the configured (or default) concurrency - or if autoscaling,
+        // the min concurrency, which the autoscaler then grows from.
+        int numberOfProcessors = getStageConfig().getMinConcurrency();
         // ?: Is this a topic?
         if (!_queue) {
             /*
@@ -146,34 +240,51 @@ public class JmsMatsStage<R, S, I, Z> implements MatsStage<R, S, I>, JmsMatsStat
             numberOfProcessors = 1;
         }
 
+        // ?: Are we asked to use virtual threads, but the JVM does not support it?
+        if (getStageConfig().isUseVirtualThreads() && !JmsMatsVirtualThreads.isAvailable()) {
+            // -> Yes, so inform that we fall back to platform threads.
+            log.warn(LOG_PREFIX + "   |- Stage [" + id(_stageId, this) + "] is configured to use virtual threads,"
+                    + " but this JVM [" + System.getProperty("java.version") + "] does not support it. Falling back"
+                    + " to platform threads.");
+        }
+
         // :: Add all the ordinary stage processors
         for (int i = 0; i < numberOfProcessors; i++) {
-            _stageProcessors.add(new JmsMatsStageProcessor<>(this, i, false));
+            _stageProcessors.add(new JmsMatsStageProcessor<>(this, _nextProcessorNumber.getAndIncrement(), false));
         }
         // :: Add interactive stage processors
-        // ?: Should we add them? (RabbitMQ does not support message selectors for Queues (only topics!))
-        // Hacky way to determine the underlying ConnectionFactory
-        boolean shouldStartInteractiveStageProcessors = false;
-        try {
-            JmsSessionHolder sessionHolder = _parentFactory.getJmsMatsJmsSessionHandler()
-                    .getSessionHolder(_parentFactory
-                            .getOrCreateInitiator_internal(JmsMatsFactory.DEFAULT_INITIATOR_NAME));
-            Session session = sessionHolder.getSession();
-            // We should start the interactive stage processors UNLESS the underlying JMS Client is RabbitMQ.
-            shouldStartInteractiveStageProcessors = ! session.getClass().getName().contains(".rabbitmq.");
-            sessionHolder.release();
-        }
-        catch (JmsMatsJmsException e) {
-            log.warn("Got problems getting a JMS Session to determine underlying broker brand we're connected to;"
-                    + " Checking whether RabbitMQ, in which case we can't start interactive StageProcessors."
-                    + " Assuming worst case: Not starting interactive StageProcessors.", e);
+        boolean shouldStartInteractiveStageProcessors;
+        // ?: Are we using separate interactive queues?
+        if (_parentFactory.getFactoryConfig().getInteractiveQueueSuffix() != null) {
+            // -> Yes, so they shall be started, as they consume from their own queue without any message selector.
+            shouldStartInteractiveStageProcessors = true;
+        }
+        else {
+            // -> No, so they consume from the ordinary queue using a message selector on priority.
+            // ?: Should we add them? (RabbitMQ does not support message selectors for Queues (only topics!))
+            // Hacky way to determine the underlying ConnectionFactory
+            shouldStartInteractiveStageProcessors = false;
+            try {
+                JmsSessionHolder sessionHolder = _parentFactory.getJmsMatsJmsSessionHandler()
+                        .getSessionHolder(_parentFactory
+                                .getOrCreateInitiator_internal(JmsMatsFactory.DEFAULT_INITIATOR_NAME));
+                Session session = sessionHolder.getSession();
+                // We should start the interactive stage processors UNLESS the underlying JMS Client is RabbitMQ.
+                shouldStartInteractiveStageProcessors = ! session.getClass().getName().contains(".rabbitmq.");
+                sessionHolder.release();
+            }
+            catch (JmsMatsJmsException e) {
+                log.warn("Got problems getting a JMS Session to determine underlying broker brand we're connected to;"
+                        + " Checking whether RabbitMQ, in which case we can't start interactive StageProcessors."
+                        + " Assuming worst case: Not starting interactive StageProcessors.", e);
+            }
         }
         // ?: Is this a Queue? (Cannot add multiple processors for topic endpoints - read comment above).
         // .. AND should we start interactive StageProcessors?
         if (_queue && shouldStartInteractiveStageProcessors) {
             // -> Yes, this is a queue, so then we can add the interactive processors
-            // Add floor'ed half of the normal numberOfProcessors, but at least 1.
-            int numberOfInteractiveProcessors = Math.max(1, (int) (numberOfProcessors / 2d));
+            // Add the configured number, default floor'ed half of the normal numberOfProcessors, but at least 1.
+            int numberOfInteractiveProcessors = getStageConfig().getInteractiveConcurrency();
             for (int i = 0; i < numberOfInteractiveProcessors; i++) {
                 _stageProcessors.add(new JmsMatsStageProcessor<>(this, i, true));
             }
@@ -183,6 +294,13 @@ public class JmsMatsStage<R, S, I, Z> implements MatsStage<R, S, I>, JmsMatsStat
         for (JmsMatsStageProcessor<R, S, I, Z> stageProcessor : _stageProcessors) {
             stageProcessor.start();
         }
+
+        // ?: Is this a Queue, and autoscaling? (Topic endpoints have a single processor - read comment above)
+        if (_queue && getStageConfig().isAutoscaling()) {
+            // -> Yes, so let the autoscaler grow and shrink the number of ordinary stage processors.
+            _autoscaled = true;
+            _parentFactory.getStageAutoscaler().register(this);
+        }
     }
 
     @Override
@@ -198,6 +316,13 @@ public class JmsMatsStage<R, S, I, Z> implements MatsStage<R, S, I>, JmsMatsStat
     @Override
     public boolean stop(int gracefulShutdownMillis) {
         log.info(LOG_PREFIX + "Stopping [" + _stageId + "]: Stopping all StageProcessors.");
+        // :: First stop the autoscaling, so that no StageProcessors are added while stopping.
+        synchronized (this) {
+            if (_autoscaled) {
+                _autoscaled = false;
+                _parentFactory.getStageAutoscaler().unregister(this);
+            }
+        }
         return JmsMatsStartStoppable.super.stop(gracefulShutdownMillis);
     }
 
@@ -231,6 +356,15 @@ public class JmsMatsStage<R, S, I, Z> implements MatsStage<R, S, I>, JmsMatsStat
 
     private class JmsStageConfig implements StageConfig<R, S, I> {
         private int _concurrency;
+        private Boolean _useVirtualThreads;
+        private int _maxBatchSize = 1;
+        private int _batchMaxWaitMillis;
+        private int _minConcurrency;
+        private int _maxConcurrency;
+        private int _interactiveConcurrency;
+        private int _prefetchSize = CONNECTION_FACTORY_DEFAULT;
+        private int _maxRedeliveries = CONNECTION_FACTORY_DEFAULT;
+        private long _redeliveryDelayMillis = CONNECTION_FACTORY_DEFAULT;
         private String _creationInfo;
 
         @Override
@@ -262,6 +396,152 @@ public class JmsMatsStage<R, S, I, Z> implements MatsStage<R, S, I>, JmsMatsStat
             return _stageProcessors.size();
         }
 
+        @Override
+        public StageConfig<R, S, I> setUseVirtualThreads(boolean useVirtualThreads) {
+            _useVirtualThreads = useVirtualThreads;
+            return this;
+        }
+
+        @Override
+        public boolean isUseVirtualThreads() {
+            if (_useVirtualThreads == null) {
+                return _parentFactory.getFactoryConfig().isUseVirtualThreads();
+            }
+            return _useVirtualThreads;
+        }
+
+        @Override
+        public StageConfig<R, S, I> setMaxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be >= 1, was [" + maxBatchSize + "].");
+            }
+            _maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return _maxBatchSize;
+        }
+
+        @Override
+        public StageConfig<R, S, I> setBatchMaxWaitMillis(int batchMaxWaitMillis) {
+            if (batchMaxWaitMillis < 0) {
+                throw new IllegalArgumentException("batchMaxWaitMillis must be >= 0, was [" + batchMaxWaitMillis
+                        + "].");
+            }
+            _batchMaxWaitMillis = batchMaxWaitMillis;
+            return this;
+        }
+
+        @Override
+        public int getBatchMaxWaitMillis() {
+            return _batchMaxWaitMillis;
+        }
+
+        @Override
+        public StageConfig<R, S, I> setAutoscaling(int minConcurrency, int maxConcurrency) {
+            // ?: Disabling autoscaling?
+            if ((minConcurrency == 0) && (maxConcurrency == 0)) {
+                // -> Yes, so reset to default.
+                _minConcurrency = 0;
+                _maxConcurrency = 0;
+                return this;
+            }
+            if (minConcurrency < 1) {
+                throw new IllegalArgumentException("minConcurrency must be >= 1, was [" + minConcurrency + "].");
+            }
+            if (maxConcurrency < minConcurrency) {
+                throw new IllegalArgumentException("maxConcurrency must be >= minConcurrency [" + minConcurrency
+                        + "], was [" + maxConcurrency + "].");
+            }
+            _minConcurrency = minConcurrency;
+            _maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        @Override
+        public boolean isAutoscaling() {
+            return _minConcurrency != 0;
+        }
+
+        @Override
+        public int getMinConcurrency() {
+            return isAutoscaling() ? _minConcurrency : getConcurrency();
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return isAutoscaling() ? _maxConcurrency : getConcurrency();
+        }
+
+        @Override
+        public StageConfig<R, S, I> setInteractiveConcurrency(int interactiveConcurrency) {
+            // NOTE: 0 is rejected, as without interactive processors, a separate interactive queue is never consumed.
+            if (interactiveConcurrency < 1) {
+                throw new IllegalArgumentException("interactiveConcurrency must be >= 1, was ["
+                        + interactiveConcurrency + "].");
+            }
+            _interactiveConcurrency = interactiveConcurrency;
+            return this;
+        }
+
+        @Override
+        public int getInteractiveConcurrency() {
+            // ?: Is it set explicitly? (0 is the unset state, as it cannot be set)
+            if (_interactiveConcurrency != 0) {
+                // -> Yes, so use it.
+                return _interactiveConcurrency;
+            }
+            // E-> No, so floor'ed half of the (min) concurrency, but at least 1.
+            return Math.max(1, getMinConcurrency() / 2);
+        }
+
+        @Override
+        public StageConfig<R, S, I> setPrefetchSize(int prefetchSize) {
+            if ((prefetchSize < 0) && (prefetchSize != CONNECTION_FACTORY_DEFAULT)) {
+                throw new IllegalArgumentException("prefetchSize must be >= 0, or CONNECTION_FACTORY_DEFAULT, was ["
+                        + prefetchSize + "].");
+            }
+            _prefetchSize = prefetchSize;
+            return this;
+        }
+
+        @Override
+        public int getPrefetchSize() {
+            return _prefetchSize;
+        }
+
+        @Override
+        public StageConfig<R, S, I> setMaxRedeliveries(int maxRedeliveries) {
+            if ((maxRedeliveries < -1) && (maxRedeliveries != CONNECTION_FACTORY_DEFAULT)) {
+                throw new IllegalArgumentException("maxRedeliveries must be >= -1, or CONNECTION_FACTORY_DEFAULT, was ["
+                        + maxRedeliveries + "].");
+            }
+            _maxRedeliveries = maxRedeliveries;
+            return this;
+        }
+
+        @Override
+        public int getMaxRedeliveries() {
+            return _maxRedeliveries;
+        }
+
+        @Override
+        public StageConfig<R, S, I> setRedeliveryDelayMillis(long redeliveryDelayMillis) {
+            if ((redeliveryDelayMillis < 0) && (redeliveryDelayMillis != CONNECTION_FACTORY_DEFAULT)) {
+                throw new IllegalArgumentException("redeliveryDelayMillis must be >= 0, or CONNECTION_FACTORY_DEFAULT,"
+                        + " was [" + redeliveryDelayMillis + "].");
+            }
+            _redeliveryDelayMillis = redeliveryDelayMillis;
+            return this;
+        }
+
+        @Override
+        public long getRedeliveryDelayMillis() {
+            return _redeliveryDelayMillis;
+        }
+
         @Override
         public StageConfig<R, S, I> setOrigin(String origin) {
             if (origin == null) {
@@ -0,0 +1,201 @@
+package io.mats3.impl.jms;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.mats3.MatsFactory.FactoryConfig;
+import io.mats3.MatsStage.StageConfig;
+
+/**
+ * Grows and shrinks the number of ordinary {@link JmsMatsStageProcessor}s of the
+ * {@link StageConfig#setAutoscaling(int, int) autoscaling} {@link JmsMatsStage}s of a {@link JmsMatsFactory}, between
+ * their min and max concurrency. A single daemon thread per MatsFactory evaluates all the registered stages every
+ * {@link FactoryConfig#getAutoscalingIntervalMillis() interval}, based on the load recorded by the StageProcessors
+ * since the previous evaluation:
+ * <ul>
+ * <li><b>Busy ratio:</b> The time spent processing messages, relative to the time the active processors have been
+ * available.</li>
+ * <li><b>Queue wait:</b> The average time the received messages have been waiting since they were sent - i.e. a
+ * backlog on the broker shows up as increasing queue wait.</li>
+ * </ul>
+ * If the processors are mostly busy, or they are somewhat busy and the messages have been waiting on the queue, the
+ * stage grows by half its current size (at least one), thus absorbing bursts quickly. If the processors have been
+ * mostly idle for several consecutive evaluations, the stage shrinks by one processor, which exits and thus releases
+ * its thread and JMS Session.
+ */
+class JmsMatsStageAutoscaler implements JmsMatsStatics {
+    private static final Logger log = LoggerFactory.getLogger(JmsMatsStageAutoscaler.class);
+
+    /**
+     * Grow if the processors have been busy at least this ratio of the time.
+     */
+    static final double GROW_BUSY_RATIO = 0.75;
+
+    /**
+     * .. or if they have been busy at least this ratio, and the messages have waited on the queue at least
+     * {@link #GROW_QUEUE_WAIT_MILLIS} on average. (Requiring some busyness guards against clock skew between nodes.)
+     */
+    static final double GROW_QUEUE_WAIT_BUSY_RATIO = 0.5;
+
+    static final long GROW_QUEUE_WAIT_MILLIS = 100;
+
+    /**
+     * Shrink if the processors have been busy less than this ratio of the time ..
+     */
+    static final double SHRINK_BUSY_RATIO = 0.25;
+
+    /**
+     * .. for this many consecutive evaluations.
+     */
+    static final int SHRINK_AFTER_IDLE_EVALUATIONS = 5;
+
+    private final JmsMatsFactory<?> _parentFactory;
+
+    private final Map<JmsMatsStage<?, ?, ?, ?>, StageLoad> _stages = new ConcurrentHashMap<>();
+
+    // Guarded by 'this'.
+    private ScheduledExecutorService _scheduler;
+
+    JmsMatsStageAutoscaler(JmsMatsFactory<?> parentFactory) {
+        _parentFactory = parentFactory;
+    }
+
+    synchronized void register(JmsMatsStage<?, ?, ?, ?> stage) {
+        // Reset the metrics, so that the first evaluation does not include any load from before the registration.
+        stage.sumThenResetProcessingNanos();
+        stage.averageThenResetQueueWaitMillis();
+        _stages.put(stage, new StageLoad());
+        log.info(LOG_PREFIX + "Autoscaling Stage [" + stage.getStageId() + "] between min ["
+                + stage.getStageConfig().getMinConcurrency() + "] and max [" + stage.getStageConfig()
+                        .getMaxConcurrency() + "] StageProcessors.");
+        // ?: Is the scheduler running?
+        if (_scheduler == null) {
+            // -> No, so start it.
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_PREFIX + "StageAutoscaler:"
+                        + _parentFactory.getFactoryConfig().getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            _scheduler = scheduler;
+            scheduleEvaluation(scheduler);
+        }
+    }
+
+    synchronized void unregister(JmsMatsStage<?, ?, ?, ?> stage) {
+        _stages.remove(stage);
+        // ?: Was this the last stage?
+        if (_stages.isEmpty()) {
+            // -> Yes, so no need for the scheduler thread anymore - it is started again if a stage registers.
+            shutdown();
+        }
+    }
+
+    synchronized void shutdown() {
+        if (_scheduler != null) {
+            _scheduler.shutdownNow();
+            _scheduler = null;
+        }
+    }
+
+    private void scheduleEvaluation(ScheduledExecutorService scheduler) {
+        // Scheduling each evaluation anew, so that a change of the interval takes effect.
+        scheduler.schedule(() -> {
+            evaluateAll();
+            synchronized (this) {
+                // ?: Is the scheduler still the current one? (Not if shut down, or shut down and started again)
+                if (_scheduler == scheduler) {
+                    // -> Yes, so schedule next evaluation.
+                    scheduleEvaluation(scheduler);
+                }
+            }
+        }, _parentFactory.getFactoryConfig().getAutoscalingIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void evaluateAll() {
+        for (Entry<JmsMatsStage<?, ?, ?, ?>, StageLoad> entry : _stages.entrySet()) {
+            try {
+                evaluate(entry.getKey(), entry.getValue());
+            }
+            catch (Throwable t) {
+                // Must not let one problematic stage kill the autoscaling of the others.
+                log.warn(LOG_PREFIX + "Got [" + t.getClass().getSimpleName() + "] when evaluating autoscaling of"
+                        + " Stage [" + entry.getKey().getStageId() + "] - ignoring.", t);
+            }
+        }
+    }
+
+    private void evaluate(JmsMatsStage<?, ?, ?, ?> stage, StageLoad stageLoad) {
+        long nowNanos = System.nanoTime();
+        long elapsedNanos = nowNanos - stageLoad._lastEvaluationNanos;
+        stageLoad._lastEvaluationNanos = nowNanos;
+
+        long processingNanos = stage.sumThenResetProcessingNanos();
+        long averageQueueWaitMillis = stage.averageThenResetQueueWaitMillis();
+        int active = stage.getActiveOrdinaryStageProcessors();
+        // ?: Do we have any active processors? (Not if stopping)
+        if ((active == 0) || (elapsedNanos <= 0)) {
+            // -> No, so nothing to evaluate.
+            return;
+        }
+        double busyRatio = processingNanos / ((double) elapsedNanos * active);
+        int min = stage.getStageConfig().getMinConcurrency();
+        int max = stage.getStageConfig().getMaxConcurrency();
+
+        // ?: Are the processors busy, or are the messages waiting on the queue?
+        if ((busyRatio >= GROW_BUSY_RATIO)
+                || ((busyRatio >= GROW_QUEUE_WAIT_BUSY_RATIO) && (averageQueueWaitMillis >= GROW_QUEUE_WAIT_MILLIS))) {
+            // -> Yes, so grow - quickly, by half the current size, to absorb bursts.
+            stageLoad._idleEvaluations = 0;
+            int toAdd = Math.min(Math.max(1, active / 2), max - active);
+            for (int i = 0; i < toAdd; i++) {
+                if (!stage.addAutoscaledStageProcessor()) {
+                    return;
+                }
+            }
+            if (toAdd > 0) {
+                log.info(LOG_PREFIX + "Autoscaling Stage [" + stage.getStageId() + "]: Busy ratio ["
+                        + formatRatio(busyRatio) + "], average queue wait [" + averageQueueWaitMillis + " ms]:"
+                        + " Growing from [" + active + "] to [" + (active + toAdd) + "] StageProcessors (max ["
+                        + max + "]).");
+            }
+            return;
+        }
+        // ?: Are the processors mostly idle?
+        if (busyRatio < SHRINK_BUSY_RATIO) {
+            // -> Yes, so shrink - slowly, by one, after several consecutive idle evaluations.
+            stageLoad._idleEvaluations++;
+            if ((stageLoad._idleEvaluations >= SHRINK_AFTER_IDLE_EVALUATIONS) && (active > min)) {
+                stageLoad._idleEvaluations = 0;
+                if (stage.retireAutoscaledStageProcessor()) {
+                    log.info(LOG_PREFIX + "Autoscaling Stage [" + stage.getStageId() + "]: Busy ratio ["
+                            + formatRatio(busyRatio) + "]: Shrinking from [" + active + "] to [" + (active - 1)
+                            + "] StageProcessors (min [" + min + "]).");
+                }
+            }
+            return;
+        }
+        // E-> Neither busy nor idle, so stay put.
+        stageLoad._idleEvaluations = 0;
+    }
+
+    private static String formatRatio(double ratio) {
+        return Math.round(ratio * 100) + "%";
+    }
+
+    /**
+     * The autoscaler's state for a stage - only accessed by the scheduler thread.
+     */
+    private static class StageLoad {
+        private long _lastEvaluationNanos = System.nanoTime();
+        private int _idleEvaluations;
+    }
+}
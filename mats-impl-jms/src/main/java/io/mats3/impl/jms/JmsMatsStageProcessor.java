@@ -9,6 +9,9 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -51,8 +54,10 @@ import io.mats3.api.intercept.MatsStageInterceptor.StageInterceptUserLambdaConte
 import io.mats3.api.intercept.MatsStageInterceptor.StagePreprocessAndDeserializeErrorContext;
 import io.mats3.api.intercept.MatsStageInterceptor.StagePreprocessAndDeserializeErrorContext.ReceiveDeconstructError;
 import io.mats3.api.intercept.MatsStageInterceptor.StageReceivedContext;
+import io.mats3.impl.jms.JmsMatsException.JmsMatsBatchRollbackRuntimeException;
 import io.mats3.impl.jms.JmsMatsException.JmsMatsJmsException;
 import io.mats3.impl.jms.JmsMatsException.JmsMatsMessageSendException;
+import io.mats3.impl.jms.JmsMatsException.JmsMatsOverflowRuntimeException;
 import io.mats3.impl.jms.JmsMatsException.JmsMatsUndeclaredCheckedExceptionRaisedRuntimeException;
 import io.mats3.impl.jms.JmsMatsJmsSessionHandler.JmsSessionHolder;
 import io.mats3.impl.jms.JmsMatsProcessContext.DoAfterCommitRunnableHolder;
@@ -67,7 +72,9 @@ import io.mats3.serial.MatsTrace.Call.MessagingModel;
 
 /**
  * MessageConsumer-class for the {@link JmsMatsStage} which is instantiated {@link StageConfig#getConcurrency()} number
- * of times, carrying the run-thread.
+ * of times, carrying the run-thread - which is a virtual thread if {@link StageConfig#isUseVirtualThreads()} and the
+ * JVM supports it. If the stage is {@link StageConfig#isAutoscaling() autoscaling}, processors are added and
+ * {@link #retire() retired} while running.
  * <p>
  * Package access so that it can be referred to from JavaDoc.
  *
@@ -80,17 +87,45 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
     private final JmsMatsStage<R, S, I, Z> _jmsMatsStage;
     private final int _processorNumber;
     private final boolean _interactive;
+    // The suffix of the separate interactive queue if we're interactive, and such are used - otherwise null.
+    private final String _interactiveQueueSuffix;
+    // Our own thread - or null if we're using the shared processing slots, i.e. a MessageListener.
     private final Thread _processorThread;
+    // The shared processing slots - or null if we have our own thread.
+    private final JmsMatsSharedStageProcessingSlots _sharedSlots;
     private final TransactionContext _transactionContext;
+    // Whether we use receive(timeout) instead of receive(), so that we see the run-flag also when idle - which is the
+    // case for the ordinary processors of an autoscaled stage, as the autoscaler only clears the run-flag to retire.
+    private final boolean _timedReceive;
+
+    /**
+     * The timeout for <code>consumer.receive(timeout)</code> when using timed receive, i.e. how long an idle retired
+     * StageProcessor may linger before it exits.
+     */
+    private static final long TIMED_RECEIVE_MILLIS = 1000;
+
+    /**
+     * How long a MessageListener waits at most for a shared processing slot, before rolling back the message to free
+     * the provider's dispatch thread - ref. {@link JmsMatsSharedStageProcessingSlots}.
+     */
+    private static final long SHARED_SLOT_MAX_WAIT_MILLIS = 5000;
 
     JmsMatsStageProcessor(JmsMatsStage<R, S, I, Z> jmsMatsStage, int processorNumber, boolean interactive) {
         _randomInstanceId = randomString(5) + "@" + jmsMatsStage.getParentFactory();
         _jmsMatsStage = jmsMatsStage;
         _processorNumber = processorNumber;
         _interactive = interactive;
+        _interactiveQueueSuffix = interactive
+                ? jmsMatsStage.getParentFactory().getFactoryConfig().getInteractiveQueueSuffix()
+                : null;
         _transactionContext = jmsMatsStage.getParentFactory()
                 .getJmsMatsTransactionManager().getTransactionContext(this);
-        _processorThread = new Thread(this::runner, THREAD_PREFIX + ident());
+        _sharedSlots = jmsMatsStage.getParentFactory().getSharedStageProcessingSlots_internal();
+        _timedReceive = (!interactive) && jmsMatsStage.isQueue() && jmsMatsStage.getStageConfig().isAutoscaling();
+        _processorThread = _sharedSlots != null
+                ? null
+                : JmsMatsVirtualThreads.newThread(this::runner, THREAD_PREFIX + ident(),
+                        jmsMatsStage.getStageConfig().isUseVirtualThreads());
     }
 
     private volatile boolean _runFlag = true; // Start off running.
@@ -121,11 +156,61 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
 
     private volatile boolean _processorInReceive;
 
+    // :: State when using the shared processing slots, i.e. a MessageListener instead of our own thread.
+    // Counted down when exited, i.e. the equivalent of our own thread having died.
+    private final CountDownLatch _sharedExitedLatch = new CountDownLatch(1);
+    private final AtomicBoolean _sharedExited = new AtomicBoolean();
+    // The provider's thread currently processing a message for us, if any - so that it can be interrupted upon stop.
+    private volatile Thread _sharedProcessingThread;
+    // Set when the JMS Session shall be crashed and the consumer re-established - no messages processed meanwhile.
+    private volatile boolean _sharedReestablishPending;
+
     @Override
     public void start() {
+        // ?: Are we using the shared processing slots?
+        if (_sharedSlots != null) {
+            // -> Yes, so establish the consumer with MessageListener, instead of starting our own thread.
+            _sharedSlots.runMaintenance(_jmsMatsStage, this::sharedEstablishConsumer, 0);
+            return;
+        }
         _processorThread.start();
     }
 
+    boolean isInteractive() {
+        return _interactive;
+    }
+
+    /**
+     * @return whether this processor is still supposed to run, i.e. it is not stopping nor {@link #retire() retired}.
+     */
+    boolean isActive() {
+        return _runFlag;
+    }
+
+    /**
+     * @return whether this processor is currently waiting in <code>consumer.receive()</code>, i.e. is idle.
+     */
+    boolean isInReceive() {
+        return _processorInReceive;
+    }
+
+    /**
+     * Used by the autoscaler to shrink the stage: Only clears the run-flag, so that the processor leaves by itself -
+     * the autoscaler thread neither closes the JMS Session nor waits. With our own thread, the processor exits after
+     * finishing any current message, or when its <code>consumer.receive(timeout)</code> times out if idle. With the
+     * shared processing slots, the exit is handed over to the maintenance thread. The processor removes itself from
+     * the stage when exited.
+     */
+    void retire() {
+        log.info(LOG_PREFIX + ident() + " is retired by the autoscaler, as the stage has spare capacity.");
+        _runFlag = false;
+        // ?: Are we using the shared processing slots?
+        if (_sharedSlots != null) {
+            // -> Yes, and no more messages might come to the MessageListener, so exit from the maintenance thread.
+            _sharedSlots.runMaintenance(_jmsMatsStage, this::sharedExitIfWaitingForMessages, 0);
+        }
+    }
+
     @Override
     public void stopPhase0_SetRunFlagFalse() {
         // Start by setting the run-flag to false..
@@ -144,7 +229,7 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
          */
 
         // ?: Has processorThread already exited?
-        if (!_processorThread.isAlive()) {
+        if (!isProcessorAlive()) {
             // -> Yes, thread already exited, and it should thus have closed the JMS Session.
             // 1. JavaDoc isAlive(): "A thread is alive if it has been started and has not yet died."
             // 2. The Thread is started in the constructor.
@@ -164,14 +249,21 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
             }
             chillWait(2);
             // ?: Is the thread dead?
-            if (!_processorThread.isAlive()) {
+            if (!isProcessorAlive()) {
                 // -> Yes, thread is dead, so it has already exited.
                 log.info(LOG_PREFIX + ident() + " has now exited, it should have closed JMS Session.");
                 return;
             }
         }
+        // ?: Are we using the shared processing slots, and waiting for messages, or to re-establish the consumer?
+        if ((_sharedSlots != null) && (_processorInReceive || _sharedReestablishPending)) {
+            // -> Yes, so there is no message processing to wait for: Exit right away, closing the JMS Session.
+            log.info(LOG_PREFIX + ident() + " is waiting for messages on its MessageListener, so we'll exit right"
+                    + " away, closing the current JmsSessionHolder.");
+            sharedExit();
+        }
         // ?: Is the thread in consumer.receive() now?
-        if (_processorInReceive) {
+        else if (_processorInReceive) {
             // -> Yes, waiting in receive(), so close session, thus making receive() return null.
             log.info(LOG_PREFIX + ident() + " is waiting in consumer.receive(), so we'll close the current"
                     + " JmsSessionHolder thereby making the receive() call return null, and the thread will exit.");
@@ -186,12 +278,12 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
 
     @Override
     public void stopPhase2_GracefulWaitAfterRunflagFalse(int gracefulShutdownMillis) {
-        if (_processorThread.isAlive()) {
+        if (isProcessorAlive()) {
             log.info(LOG_PREFIX + "Thread " + ident() + " is running, waiting for it to exit gracefully for ["
                     + gracefulShutdownMillis + " ms].");
             joinProcessorThread(gracefulShutdownMillis);
             // ?: Did the thread exit?
-            if (!_processorThread.isAlive()) {
+            if (!isProcessorAlive()) {
                 // -> Yes, thread exited.
                 log.info(LOG_PREFIX + ident() + " exited nicely, and either we closed the JMS session above, or"
                         + " the thread did it on its way out.");
@@ -201,21 +293,24 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
 
     @Override
     public void stopPhase3_InterruptIfStillAlive() {
-        if (_processorThread.isAlive()) {
+        if (isProcessorAlive()) {
             // -> No, thread did not exit within graceful wait period.
             log.warn(LOG_PREFIX + ident() + " DID NOT exit after grace period, so interrupt it and wait some more.");
-            // Interrupt the processor thread from whatever it is doing.
-            _processorThread.interrupt();
+            // Interrupt the processor thread (or the provider's thread processing for us) from whatever it is doing.
+            Thread threadToInterrupt = _processorThread != null ? _processorThread : _sharedProcessingThread;
+            if (threadToInterrupt != null) {
+                threadToInterrupt.interrupt();
+            }
         }
     }
 
     @Override
     public boolean stopPhase4_GracefulWaitAfterInterrupt() {
-        if (_processorThread.isAlive()) {
+        if (isProcessorAlive()) {
             // Wait a small time more after the interrupt.
             joinProcessorThread(EXTRA_GRACE_MILLIS);
             // ?: Did the thread exit now?
-            if (_processorThread.isAlive()) {
+            if (isProcessorAlive()) {
                 // -> No, thread still not exited. Close the JMS session "in his face" to clean this up.
                 log.warn(LOG_PREFIX + ident() + " DID NOT exit even after being interrupted."
                         + " Giving up, closing JMS Session to clean up. This isn't all that good, should be looked"
@@ -228,7 +323,16 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
                         + " exited after being interrupted, it should have closed the JMS Session on its way out.");
             }
         }
-        return !_processorThread.isAlive();
+        return !isProcessorAlive();
+    }
+
+    /**
+     * @return whether our own thread is alive - or when using the shared processing slots, whether we have not exited.
+     */
+    private boolean isProcessorAlive() {
+        return _processorThread != null
+                ? _processorThread.isAlive()
+                : _sharedExitedLatch.getCount() > 0;
     }
 
     private void closeCurrentSessionHolder() {
@@ -243,7 +347,12 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
 
     private void joinProcessorThread(int gracefulWaitMillis) {
         try {
-            _processorThread.join(gracefulWaitMillis);
+            if (_processorThread != null) {
+                _processorThread.join(gracefulWaitMillis);
+            }
+            else {
+                _sharedExitedLatch.await(gracefulWaitMillis, TimeUnit.MILLISECONDS);
+            }
         }
         catch (InterruptedException e) {
             log.warn(LOG_PREFIX + "Got InterruptedException when waiting for " + ident() + " to join."
@@ -295,10 +404,8 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
             }
             try { // catch-all-Throwable, as we do not ever want the thread to die - and handles jmsSession.crashed()
                 Session jmsSession = _jmsSessionHolder.getSession();
-                Destination destination = createJmsDestination(jmsSession, getFactory().getFactoryConfig());
-                MessageConsumer jmsConsumer = _interactive
-                        ? jmsSession.createConsumer(destination, "JMSPriority = 9")
-                        : jmsSession.createConsumer(destination);
+                Destination destination = createJmsDestination(_jmsSessionHolder, getFactory().getFactoryConfig());
+                MessageConsumer jmsConsumer = createJmsConsumer(jmsSession, destination);
 
                 // We've established the consumer, and hence will start to receive messages and process them.
                 // (Important for topics, where if we haven't established consumer, we won't get messages).
@@ -317,7 +424,9 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
                         if (log.isDebugEnabled()) log.debug(LOG_PREFIX
                                 + "Going into JMS consumer.receive() for [" + destination + "].");
                         _processorInReceive = true;
-                        message = jmsConsumer.receive();
+                        message = _timedReceive
+                                ? jmsConsumer.receive(TIMED_RECEIVE_MILLIS)
+                                : jmsConsumer.receive();
                     }
                     finally {
                         _processorInReceive = false;
@@ -326,18 +435,24 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
                     Instant startedInstant = Instant.now();
 
                     // Need to check whether the JMS Message gotten is null, as that signals that the
-                    // Consumer, Session or Connection was closed from another thread.
+                    // Consumer, Session or Connection was closed from another thread - or the timed receive timed out.
                     if (message == null) {
                         // ?: Are we shut down?
                         if (!_runFlag) {
                             // -> Yes, down
                             log.info(LOG_PREFIX + "Got null from JMS consumer.receive(), and run-flag is false."
                                     + " Breaking out of run-loop to exit.");
-                            // Since this means that the session was closed "from the outside", we'll NOT close it
-                            // from our side (here in the processor thread)
-                            nullFromReceiveThusSessionIsClosed = true;
+                            // Unless the timed receive just timed out (e.g. retired by the autoscaler), this means that
+                            // the session was closed "from the outside", so we'll NOT close it from our side (here in
+                            // the processor thread). (If double-close, the holder will catch it)
+                            nullFromReceiveThusSessionIsClosed = !_timedReceive;
                             break OUTER;
                         }
+                        // ?: Did the timed receive just time out?
+                        else if (_timedReceive) {
+                            // -> Yes, probably - if the Session was closed, the next receive will throw. Loop.
+                            continue;
+                        }
                         else {
                             // -> No, not down: Something strange has happened.
                             log.warn(LOG_PREFIX + "!! Got null from JMS consumer.receive(), but run-flag is still"
@@ -347,527 +462,8 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
                         }
                     }
 
-                    // :: Perform the work inside the TransactionContext
-                    DoAfterCommitRunnableHolder doAfterCommitRunnableHolder = new DoAfterCommitRunnableHolder();
-                    JmsMatsInternalExecutionContext internalExecutionContext = JmsMatsInternalExecutionContext
-                            .forStage(_jmsSessionHolder, jmsConsumer);
-
-                    StageInterceptContextImpl stageContext = new StageInterceptContextImpl(_jmsMatsStage, startedNanos,
-                            startedInstant);
-
-                    // Fetch relevant interceptors
-                    List<MatsStageInterceptor> interceptorsForStage = _jmsMatsStage.getParentFactory()
-                            .getInterceptorsForStage(stageContext);
-
-                    List<JmsMatsMessage<Z>> messagesToSend = new ArrayList<>();
-
-                    @SuppressWarnings({ "unchecked", "rawtypes" })
-                    StageCommonContextImpl<Z>[] stageCommonContext = new StageCommonContextImpl[1];
-
-                    long millis_Received = System.currentTimeMillis(); // Used for setting "Endpoint Entered Timestamp"
-                    long nanosAtStart_Received = System.nanoTime();
-                    long[] nanosTaken_UserLambda = { 0L };
-                    long[] nanosTaken_totalEnvelopeSerAndComp = { 0L };
-                    long[] nanosTaken_totalMsgSysProdAndSend = { 0L };
-
-                    Throwable throwableResult = null;
-                    ProcessResult throwableProcessResult = null;
-
-                    ReceiveDeconstructError[] receiveDeconstructError = new ReceiveDeconstructError[1];
-                    @SuppressWarnings({ "unchecked", "rawtypes" })
-                    JmsMatsProcessContext<R, S, Z>[] processContext = new JmsMatsProcessContext[1];
-
-                    try { // try-catch-finally: Catch processing Exceptions, handle cleanup in finally
-
-                        // :: Going into Mats Transaction
-                        _transactionContext.doTransaction(internalExecutionContext, () -> {
-                            long nanosAtStart_DeconstructMessage = System.nanoTime();
-                            // Assert that this is indeed a JMS MapMessage.
-                            if (!(message instanceof MapMessage)) {
-                                String msg = "Got some JMS Message that is not instanceof JMS MapMessage"
-                                        + " - cannot be a MATS message! Refusing this message!";
-                                log.error(LOG_PREFIX + msg + "\n" + message);
-                                receiveDeconstructError[0] = ReceiveDeconstructError.WRONG_MESSAGE_TYPE;
-                                throw new MatsRefuseMessageException(msg);
-                            }
-
-                            // ----- This is a MapMessage
-                            MapMessage mapMessage = (MapMessage) message;
-
-                            // :: Fetch Mats-specific message data from the JMS Message.
-                            // ==========================================================
-
-                            byte[] matsTraceBytes;
-                            String matsTraceMeta;
-                            String jmsMessageId;
-                            try {
-                                String matsTraceKey = getFactory().getFactoryConfig().getMatsTraceKey();
-                                matsTraceBytes = mapMessage.getBytes(matsTraceKey);
-                                matsTraceMeta = mapMessage.getString(matsTraceKey
-                                        + MatsSerializer.META_KEY_POSTFIX);
-                                jmsMessageId = mapMessage.getJMSMessageID();
-                                // Setting this in the JMS Mats implementation instead of MatsMetricsLoggingInterceptor,
-                                // so that if things fail before getting to the actual Mats part, we'll have it in
-                                // the log lines.
-                                MDC.put(MDC_MATS_IN_MESSAGE_SYSTEM_ID, jmsMessageId);
-
-                                // Fetching the TraceId early from the JMS Message for MDC, so that can follow in logs.
-                                String jmsTraceId = mapMessage.getStringProperty(JMS_MSG_PROP_TRACE_ID);
-                                MDC.put(MDC_TRACE_ID, jmsTraceId);
-
-                                // :: Assert that we got some values
-                                if (matsTraceBytes == null) {
-                                    String msg = "Got some JMS Message that is missing MatsTrace byte array on"
-                                            + "JMS MapMessage key '" + matsTraceKey +
-                                            "' - cannot be a MATS message! Refusing this message!";
-                                    log.error(LOG_PREFIX + msg + "\n" + message);
-                                    receiveDeconstructError[0] = ReceiveDeconstructError.MISSING_CONTENTS;
-                                    throw new MatsRefuseMessageException(msg);
-                                }
-
-                                if (matsTraceMeta == null) {
-                                    String msg = "Got some JMS Message that is missing MatsTraceMeta String on"
-                                            + "JMS MapMessage key '" + MatsSerializer.META_KEY_POSTFIX
-                                            + "' - cannot be a MATS message! Refusing this message!";
-                                    log.error(LOG_PREFIX + msg + "\n" + message);
-                                    receiveDeconstructError[0] = ReceiveDeconstructError.MISSING_CONTENTS;
-                                    throw new MatsRefuseMessageException(msg);
-                                }
-                            }
-                            catch (JMSException e) {
-                                receiveDeconstructError[0] = ReceiveDeconstructError.DECONSTRUCT_ERROR;
-                                throw new JmsMatsJmsException("Got JMSException when getting the MatsTrace"
-                                        + " from the MapMessage by using mapMessage.get[Bytes|String](..)."
-                                        + " Pretty crazy.", e);
-                            }
-
-                            // :: Getting the 'sideloads'; Byte-arrays and Strings from the MapMessage.
-                            LinkedHashMap<String, byte[]> incomingBinaries = new LinkedHashMap<>();
-                            LinkedHashMap<String, String> incomingStrings = new LinkedHashMap<>();
-                            try {
-                                @SuppressWarnings("unchecked")
-                                Enumeration<String> mapNames = (Enumeration<String>) mapMessage.getMapNames();
-                                while (mapNames.hasMoreElements()) {
-                                    String name = mapNames.nextElement();
-                                    Object object = mapMessage.getObject(name);
-                                    if (object instanceof byte[]) {
-                                        incomingBinaries.put(name, (byte[]) object);
-                                    }
-                                    else if (object instanceof String) {
-                                        incomingStrings.put(name, (String) object);
-                                    }
-                                    else {
-                                        log.warn("Got some object in the MapMessage to ["
-                                                + _jmsMatsStage.getStageId()
-                                                + "] which is neither byte[] nor String - which should not"
-                                                + " happen - Ignoring.");
-                                    }
-                                }
-                            }
-                            catch (JMSException e) {
-                                receiveDeconstructError[0] = ReceiveDeconstructError.DECONSTRUCT_ERROR;
-                                throw new JmsMatsJmsException("Got JMSException when getting 'sideloads'"
-                                        + " from the MapMessage by using mapMessage.get[Bytes|String](..)."
-                                        + " Pretty crazy.", e);
-                            }
-
-                            long nanosTaken_DeconstructMessage = System.nanoTime() - nanosAtStart_DeconstructMessage;
-
-                            // :: Deserialize the MatsTrace and DTO/STO from the message data.
-                            // ================================================================
-
-                            MatsSerializer<Z> matsSerializer = getFactory().getMatsSerializer();
-                            DeserializedMatsTrace<Z> matsTraceDeserialized;
-                            try {
-                                matsTraceDeserialized = matsSerializer
-                                        .deserializeMatsTrace(matsTraceBytes, matsTraceMeta);
-                            }
-                            catch (Exception e) {
-                                String msg = "Got some JMS Message where we could not deserialize the MatsTrace.";
-                                log.error(LOG_PREFIX + msg + "\n" + message);
-                                receiveDeconstructError[0] = ReceiveDeconstructError.DECONSTRUCT_ERROR;
-                                throw new MatsRefuseMessageException(msg, e);
-                            }
-                            MatsTrace<Z> matsTrace = matsTraceDeserialized.getMatsTrace();
-                            // Update the MatsTrace with stage-incoming timestamp - handles the "endpoint entered" logic
-                            matsTrace.setStageEnteredTimestamp(millis_Received);
-                            // Fetch endpoint entered (Not same as stage entered - only initial stage is "ep entered")
-                            long endpointEnteredTimestamp = matsTrace.getSameHeightEndpointEnteredTimestamp();
-
-                            // :: Overwriting the TraceId MDC, now from MatsTrace (in case missing from JMS Message)
-                            MDC.put(MDC_TRACE_ID, matsTrace.getTraceId());
-
-                            // :: Current Call
-                            Call<Z> currentCall = matsTrace.getCurrentCall();
-                            // Assert that this is indeed a JMS Message meant for this Stage
-                            if (!_jmsMatsStage.getStageId().equals(currentCall.getTo().getId())) {
-                                String msg = "The incoming MATS message is not to this Stage! this:["
-                                        + _jmsMatsStage.getStageId() + "], msg:[" + currentCall.getTo()
-                                        + "]. Refusing this message!";
-                                log.error(LOG_PREFIX + msg + "\n" + mapMessage);
-                                receiveDeconstructError[0] = ReceiveDeconstructError.WRONG_STAGE;
-                                throw new MatsRefuseMessageException(msg);
-                            }
-
-                            long nanosAtStart_incomingMessageAndStateDeserializationNanos = System.nanoTime();
-
-                            // :: Current State: If null, make an empty object instead, unless Void -> null.
-                            S currentSto = handleIncomingState(matsSerializer, _jmsMatsStage.getStateClass(),
-                                    matsTrace.getCurrentState().orElse(null));
-
-                            // :: Incoming Message DTO
-                            I incomingDto = handleIncomingMessageMatsObject(matsSerializer,
-                                    _jmsMatsStage.getMessageClass(), currentCall.getData());
-
-                            long nanosTaken_incomingMessageAndStateDeserializationNanos = System.nanoTime()
-                                    - nanosAtStart_incomingMessageAndStateDeserializationNanos;
-
-                            Supplier<MatsInitiate> initiateSupplier = () -> JmsMatsInitiate.createForChildFlow(
-                                    getFactory(), messagesToSend, internalExecutionContext, doAfterCommitRunnableHolder,
-                                    matsTrace);
-
-                            // Set the nested initiation context supplier
-                            _jmsMatsStage.getParentFactory().setCurrentMatsFactoryThreadLocal_MatsInitiate(
-                                    initiateSupplier);
-                            // Set the MatsTrace for nested initiations
-                            _jmsMatsStage.getParentFactory().setCurrentMatsFactoryThreadLocal_WithinStageContext(
-                                    matsTrace, jmsConsumer);
-
-                            // :: Create contexts, invoke interceptors
-                            // ==========================================================
-
-                            // .. create the ProcessContext
-                            processContext[0] = new JmsMatsProcessContext<>(
-                                    getFactory(),
-                                    _jmsMatsStage.getParentEndpoint().getEndpointId(),
-                                    _jmsMatsStage.getStageId(),
-                                    jmsMessageId,
-                                    _jmsMatsStage.getNextStageId(),
-                                    _jmsMatsStage.getStageConfig().getOrigin(),
-                                    matsTrace,
-                                    currentSto,
-                                    initiateSupplier,
-                                    incomingBinaries, incomingStrings,
-                                    messagesToSend, internalExecutionContext,
-                                    doAfterCommitRunnableHolder);
-
-                            long nanosTaken_PreUserLambda = System.nanoTime() - nanosAtStart_Received;
-
-                            // .. stick the ProcessContext into the ThreadLocal scope
-                            JmsMatsContextLocalCallback.bindResource(ProcessContext.class, processContext[0]);
-
-                            // Cast the ProcessContext unchecked, since we need it for the interceptors.
-                            @SuppressWarnings("unchecked")
-                            ProcessContext<Object> processContextCasted = (ProcessContext<Object>) processContext[0];
-
-                            long sameHeightOutgoingTimestamp = matsTrace.getSameHeightOutgoingTimestamp();
-
-                            // Create the common part of the interceptor contexts
-                            stageCommonContext[0] = new StageCommonContextImpl<>(
-                                    _jmsMatsStage,
-                                    startedNanos, startedInstant,
-                                    endpointEnteredTimestamp, sameHeightOutgoingTimestamp,
-                                    matsTrace, incomingDto, currentSto,
-                                    nanosTaken_DeconstructMessage,
-                                    matsTraceBytes.length,
-                                    matsTraceDeserialized.getNanosDecompression(),
-                                    matsTraceDeserialized.getSizeDecompressed(),
-                                    matsTraceDeserialized.getNanosDeserialization(),
-                                    nanosTaken_incomingMessageAndStateDeserializationNanos,
-                                    nanosTaken_PreUserLambda);
-
-                            // === Invoke any interceptors, stage "Started"
-                            StageReceivedContextImpl initiateStartedContext = new StageReceivedContextImpl(
-                                    stageCommonContext[0], processContextCasted);
-
-                            for (MatsStageInterceptor matsStageInterceptor : interceptorsForStage) {
-                                try {
-                                    matsStageInterceptor.stageReceived(initiateStartedContext);
-                                }
-                                catch (Throwable t) {
-                                    log.error(LOG_PREFIX + "StageInterceptor raised exception on"
-                                            + " 'started(..)', ignored.", t);
-                                }
-                            }
-
-                            // === Invoke any interceptors, stage "Intercept"
-                            // Create the InitiateInterceptContext instance (one for all interceptors)
-                            StageInterceptUserLambdaContextImpl stageInterceptContext = new StageInterceptUserLambdaContextImpl(
-                                    stageCommonContext[0], processContextCasted);
-                            // :: Create a "lambda stack" of the interceptors
-                            // This is the resulting lambda we will actually invoke
-                            // .. if there are no interceptors, it will directly be the user lambda
-                            @SuppressWarnings("unchecked")
-                            ProcessLambda<Object, Object, Object> currentLambda = (ProcessLambda<Object, Object, Object>) _jmsMatsStage
-                                    .getProcessLambda();
-                            /*
-                             * Create the lambda stack by moving "backwards" through the registered interceptors, as
-                             * when we'll actually invoke the resulting lambda stack, the last stacked (at top), which
-                             * is the first registered (due to iterating backwards), will be the first code to run.
-                             */
-                            for (int i = interceptorsForStage.size() - 1; i >= 0; i--) {
-                                MatsStageInterceptor interceptor = interceptorsForStage.get(i);
-                                if (!(interceptor instanceof MatsStageInterceptUserLambda)) {
-                                    continue;
-                                }
-                                final MatsStageInterceptUserLambda interceptInterceptor = (MatsStageInterceptUserLambda) interceptor;
-                                // The currentLambda is the one that the interceptor should invoke
-                                final ProcessLambda<Object, Object, Object> lambdaThatInterceptorMustInvoke = currentLambda;
-                                // .. and, wrap the current lambda with the interceptor.
-                                // It may, or may not, wrap the provided init with its own implementation
-                                currentLambda = (pc, state, incoming) -> interceptInterceptor.stageInterceptUserLambda(
-                                        stageInterceptContext, lambdaThatInterceptorMustInvoke, pc, state, incoming);
-                            }
-
-                            // :: Invoke the process lambda (the actual user code), possibly wrapped by interceptors.
-                            // =======================================================================================
-
-                            // :: == ACTUALLY Invoke the lambda. The current lambda is the one we should invoke.
-                            long nanosAtStart_UserLambda = System.nanoTime();
-                            try {
-                                currentLambda.process(processContextCasted, currentSto, incomingDto);
-                            }
-                            finally {
-                                nanosTaken_UserLambda[0] = System.nanoTime() - nanosAtStart_UserLambda;
-                            }
-
-                            // === Invoke any interceptors, stage "Message"
-                            invokeStageMessageInterceptors(interceptorsForStage, stageCommonContext[0],
-                                    processContextCasted, messagesToSend);
-
-                            // :: Send messages on target queues/topics
-                            // =======================================================================================
-
-                            /*
-                             * Concatenate all TraceIds for the incoming message and any initiations, to put on the MDC.
-                             * - which is good for the logging, so that they are all present on the MDC for the
-                             * send/commit log lines, and in particular if we get any Exceptions when committing. Notice
-                             * that the typical situation is that there is just one traceId (incoming + request or
-                             * reply, which have the same traceId), as stage-initiations are a more seldom situation.
-                             */
-                            concatAllTraceIds(matsTrace, messagesToSend);
-
-                            // :: Send any outgoing Mats messages (replies, requests, new messages etc..)
-                            // ?: Any messages produced?
-                            if (!messagesToSend.isEmpty()) {
-                                // -> Yes, there are messages, so send them.
-                                // (commit is performed when it exits the transaction lambda)
-
-                                long nanosAtStart_totalEnvelopeSerialization = System.nanoTime();
-                                long nowMillis = System.currentTimeMillis();
-                                for (JmsMatsMessage<Z> matsMessage : messagesToSend) {
-                                    matsMessage.serializeAndCacheMatsTrace(nowMillis);
-                                }
-                                long nowNanos = System.nanoTime();
-                                nanosTaken_totalEnvelopeSerAndComp[0] = nowNanos
-                                        - nanosAtStart_totalEnvelopeSerialization;
-
-                                long nanosAtStart_totalProduceAndSendMsgSysMessages = nowNanos;
-                                produceAndSendMsgSysMessages(log, _jmsSessionHolder, getFactory(), messagesToSend);
-                                nanosTaken_totalMsgSysProdAndSend[0] = System.nanoTime() -
-                                        nanosAtStart_totalProduceAndSendMsgSysMessages;
-                            }
-                        }); // End: Mats Transaction
-
-                        // ----- Transaction is now committed (if exceptions were raised, we've been thrown out earlier)
-
-                        // :: Handle the DoAfterCommit lambda.
-                        try {
-                            doAfterCommitRunnableHolder.runDoAfterCommitIfAny();
-                        }
-                        catch (RuntimeException | AssertionError e) {
-                            // Message processing is per definition finished here, so no way to DLQ or otherwise
-                            // notify world except logging an error.
-                            log.error(LOG_PREFIX + "Got [" + e.getClass().getSimpleName()
-                                    + "] when running the doAfterCommit Runnable. Ignoring.", e);
-                        }
-                    }
-
-                    // ===== CATCH: HANDLE THE DIFFERENT ERROR SITUATIONS =====
-
-                    catch (JmsMatsMessageSendException e) {
-                        /*
-                         * This is the special situation which is the "VERY BAD!" scenario, i.e. DB was committed, but
-                         * JMS was not, which is .. very bad. JmsMatsMessageSendException is a JmsMatsJmsException, and
-                         * that indicates that there was a problem with JMS - so we should "crash" the JmsSessionHolder
-                         * to signal that the JMS Connection is probably broken.
-                         */
-                        // :: Create the API-level Exception for this situation, so that interceptor will get that.
-                        MatsMessageSendException exceptionForInterceptor = new MatsMessageSendException("Evidently got"
-                                + " problems sending out the JMS message after having run the process lambda and"
-                                + " potentially committed other resources, typically database.", e);
-                        // Record for interceptor
-                        throwableResult = exceptionForInterceptor;
-                        throwableProcessResult = ProcessResult.SYSTEM_EXCEPTION;
-                        // Throw on (the original exception) to crash the JMS Session
-                        throw e;
-                    }
-                    catch (JmsMatsJmsException e) {
-                        /*
-                         * Catch any other JmsMatsJmsException, as that most probably indicates that there was some
-                         * serious problem with JMS - so we should "crash" the JmsSessionHolder to signal that the JMS
-                         * Connection is probably broken. This is a lesser evil than JmsMatsMessageSendException (aka
-                         * "VERY BAD!"), as we've not committed neither DB nor JMS.
-                         */
-                        // Notice that we shall NOT have committed "external resources" at this point, meaning database.
-                        // :: Create the API-level Exception for this situation, so that interceptor will get that.
-                        MatsBackendException exceptionForInterceptor = new MatsBackendException("Evidently have"
-                                + " problems talking with our backend, which is a JMS Broker.", e);
-                        // Record for interceptor
-                        throwableResult = exceptionForInterceptor;
-                        throwableProcessResult = ProcessResult.SYSTEM_EXCEPTION;
-                        // Throw on (the original exception) to crash the JMS Session
-                        throw e;
-                    }
-                    catch (JmsMatsUndeclaredCheckedExceptionRaisedRuntimeException e) {
-                        // Just record this for interceptor - but take the cause, since that is the actual exception.
-                        throwableResult = e.getCause();
-                        throwableProcessResult = ProcessResult.USER_EXCEPTION;
-                        // .. These are handled by transaction manager (rollback), so we should just continue.
-                        continue;
-                    }
-                    // Handle most other Throwables that may come out, except Errors which are not AssertionError.
-                    catch (MatsRefuseMessageException | RuntimeException | AssertionError e) {
-                        // Just record this for interceptor..
-                        throwableResult = e;
-                        throwableProcessResult = ProcessResult.USER_EXCEPTION;
-                        // .. These are handled by transaction manager (rollback), so we should just continue.
-                        continue;
-                    }
-
-                    // ===== FINALLY: CLEAN UP, AND INVOKE INTERCEPTORS =====
-
-                    finally {
-                        JmsMatsContextLocalCallback.unbindResource(ProcessContext.class);
-                        _jmsMatsStage.getParentFactory().clearCurrentMatsFactoryThreadLocal_MatsInitiate();
-                        _jmsMatsStage.getParentFactory().clearCurrentMatsFactoryThreadLocal_WithinStageContext();
-
-                        if (throwableProcessResult == ProcessResult.USER_EXCEPTION) {
-                            log.info(LOG_PREFIX + "Got [" + throwableResult.getClass().getName()
-                                    + "] inside transactional message processing, which most probably originated from"
-                                    + " user code. The situation shall have been handled by the MATS TransactionManager"
-                                    + " (rollback). Looping to fetch next message.");
-                        }
-                        else if (throwableProcessResult == ProcessResult.SYSTEM_EXCEPTION) {
-                            log.info(LOG_PREFIX + "Got [" + throwableResult.getClass().getName()
-                                    + "] inside transactional message processing which seems to come from the messaging"
-                                    + " system - this probably means that the JMS Connectivity have gone to bits,"
-                                    + " and we will thus \"crash\" the JMS Session and recreate the connectivity.");
-                        }
-                        else {
-                            // -> All good!
-                            if (log.isDebugEnabled()) log.debug(LOG_PREFIX + " The Stage processing went without a"
-                                    + " hitch.");
-                        }
-
-                        long nanosTaken_TotalStartReceiveToFinished = System.nanoTime() - nanosAtStart_Received;
-
-                        // === Invoke any interceptors, stage "ReceiveDeconstructError"
-
-                        // ?: Was there a receive/deconstruct error?
-                        if (receiveDeconstructError[0] != null) {
-                            // -> Yes, so then the rest of the processing never happened.
-                            StagePreprocessAndDeserializeErrorContextImpl context = new StagePreprocessAndDeserializeErrorContextImpl(
-                                    _jmsMatsStage, startedNanos, startedInstant,
-                                    receiveDeconstructError[0], throwableResult);
-                            for (MatsStageInterceptor matsStageInterceptor : interceptorsForStage) {
-                                try {
-                                    matsStageInterceptor.stagePreprocessAndDeserializeError(context);
-                                }
-                                catch (Throwable t) {
-                                    log.error(LOG_PREFIX + "StageInterceptor raised exception on"
-                                            + " 'receiveDeconstructError(..)', ignored.", t);
-                                }
-                            }
-                        }
-                        else {
-                            // -> No, no receiveDeconstructError. Normal processing.
-
-                            // === Invoke any interceptors, stage "Completed"
-
-                            // ?: Have we come to the actual place in the code where we're running the user lambda?
-                            if ((stageCommonContext[0] != null) && (processContext[0] != null)) {
-
-                                // :: Find any "result" message (REPLY, NEXT, GOTO)
-                                MatsSentOutgoingMessage result = messagesToSend.stream()
-                                        .filter(m -> (m.getMessageType() == MessageType.REPLY)
-                                                || (m.getMessageType() == MessageType.NEXT)
-                                                || (m.getMessageType() == MessageType.GOTO))
-                                        .findFirst().orElse(null);
-                                // :: Find any Request messages (note that Reqs can be produced both by stage and init)
-                                List<MatsSentOutgoingMessage> requests = messagesToSend.stream()
-                                        .filter(m -> (m.getMessageType() == MessageType.REQUEST)
-                                                && (m.getDispatchType() == DispatchType.STAGE))
-                                        .collect(Collectors.toList());
-                                // :: Find any initiations performed within the stage (ProcessType.STAGE_INIT)
-                                List<MatsSentOutgoingMessage> initiations = messagesToSend.stream()
-                                        .filter(m -> m.getDispatchType() == DispatchType.STAGE_INIT)
-                                        .collect(Collectors.toList());
-
-                                // :: "Calculate" the ProcessingResult based on current situation
-                                // Start out with "NONE", i.e. no outgoing messages.
-                                ProcessResult processResult = ProcessResult.NONE;
-                                // Throwable "overrides" any messages
-                                // ?: Did we have a throwableProcessingResult?
-                                if (throwableProcessResult != null) {
-                                    // -> Yes, and then this is it.
-                                    processResult = throwableProcessResult;
-                                }
-                                // E-> No throwable
-                                // ?: Did we get a "result" message?
-                                else if (result != null) {
-                                    // -> Yes, result message
-                                    // ?: Which type is it?
-                                    switch (result.getMessageType()) {
-                                        case REPLY:
-                                            processResult = ProcessResult.REPLY;
-                                            break;
-                                        case NEXT:
-                                            processResult = ProcessResult.NEXT;
-                                            break;
-                                        case GOTO:
-                                            processResult = ProcessResult.GOTO;
-                                            break;
-                                    }
-                                }
-                                // E-> No result
-                                // ?: Did we get any requests?
-                                else if (!requests.isEmpty()) {
-                                    // -> Yes, request(s)
-                                    processResult = ProcessResult.REQUEST;
-                                }
-
-                                StageCompletedContextImpl stageCompletedContext = new StageCompletedContextImpl(
-                                        stageCommonContext[0], processContext[0],
-                                        processResult,
-                                        nanosTaken_UserLambda[0],
-                                        processContext[0].getMeasurements(),
-                                        processContext[0].getTimingMeasurements(),
-                                        nanosTaken_totalEnvelopeSerAndComp[0],
-                                        internalExecutionContext.getDbCommitNanos(),
-                                        nanosTaken_totalMsgSysProdAndSend[0],
-                                        internalExecutionContext.getMessageSystemCommitNanos(),
-                                        nanosTaken_TotalStartReceiveToFinished,
-                                        throwableResult,
-                                        Collections.unmodifiableList(messagesToSend),
-                                        result,
-                                        requests,
-                                        initiations);
-
-                                // Go through interceptors "backwards" for this exit-style stage
-                                for (int i = interceptorsForStage.size() - 1; i >= 0; i--) {
-                                    try {
-                                        interceptorsForStage.get(i).stageCompleted(stageCompletedContext);
-                                    }
-                                    catch (Throwable t) {
-                                        log.error(LOG_PREFIX + "StageInterceptor [" + interceptorsForStage.get(i)
-                                                + "] raised a [" + t.getClass().getSimpleName() + "] when invoking"
-                                                + " stageCompleted(..) - ignoring, but this is probably quite bad.", t);
-                                    }
-                                }
-                            }
-                        }
-                    }
+                    // :: Process the message(s) inside the TransactionContext.
+                    processReceivedMessage(message, startedNanos, startedInstant, jmsConsumer, true);
 
                     // MDC is cleared afterwards, at top of loop.
                 } // End: INNER RECEIVE-LOOP
@@ -949,6 +545,918 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
         _jmsMatsStage.removeStageProcessorFromList(this);
     }
 
+    // ===== Shared processing slots, i.e. MessageListener-based consumption, instead of our own thread.
+
+    /**
+     * Run on the maintenance thread: Gets a JMS Session, creates the consumer, and sets the MessageListener - the
+     * equivalent of the top of the OUTER RUN-LOOP in {@link #runner()}. Upon problems, this is retried after a
+     * "chill-wait".
+     */
+    private void sharedEstablishConsumer() {
+        clearAndSetStaticMdcValues();
+        try {
+            // ?: Are we asked to exit?
+            if (!_runFlag) {
+                // -> Yes, so exit.
+                sharedExit();
+                return;
+            }
+            log.info(LOG_PREFIX + "Getting JMS Session, Destination and Consumer with MessageListener using shared"
+                    + " processing slots for stage [" + _jmsMatsStage.getStageId() + "].");
+            JmsSessionHolder newJmsSessionHolder;
+            try {
+                newJmsSessionHolder = _jmsMatsStage.getParentFactory()
+                        .getJmsMatsJmsSessionHandler().getSessionHolder(this);
+            }
+            catch (JmsMatsJmsException | RuntimeException t) {
+                log.warn(LOG_PREFIX + "Got " + t.getClass().getSimpleName() + " while trying to get new"
+                        + " JmsSessionHolder. Chilling a bit, then retrying.", t);
+                _sharedSlots.runMaintenance(_jmsMatsStage, this::sharedEstablishConsumer, chillWaitMillis());
+                return;
+            }
+            // :: "Publish" the new JMS Session.
+            synchronized (this) {
+                // ?: Check the run-flag one more time!
+                if (!_runFlag) {
+                    // -> We're asked to exit. The JMS Session has not been "published", so close it directly.
+                    newJmsSessionHolder.close();
+                    sharedExit();
+                    return;
+                }
+                _jmsSessionHolder = newJmsSessionHolder;
+            }
+            try {
+                Session jmsSession = _jmsSessionHolder.getSession();
+                Destination destination = createJmsDestination(_jmsSessionHolder, getFactory().getFactoryConfig());
+                MessageConsumer jmsConsumer = createJmsConsumer(jmsSession, destination);
+                _processorInReceive = true;
+                jmsConsumer.setMessageListener(message -> sharedOnMessage(message, jmsConsumer));
+            }
+            catch (Throwable t) {
+                _processorInReceive = false;
+                log.warn(LOG_PREFIX + "Got [" + t.getClass().getSimpleName() + "] while establishing the consumer,"
+                        + " crashing JmsSessionHolder, then retrying after chilling a bit.", t);
+                sharedCrashAndReestablish(t);
+                return;
+            }
+            // We've established the consumer, and hence will start to receive messages and process them.
+            _jmsMatsStage.getAnyProcessorMadeConsumerLatch().countDown();
+            // ?: Were we asked to exit while establishing? (Then the stop might not have seen us waiting for messages)
+            if (!_runFlag) {
+                // -> Yes, so exit.
+                sharedExit();
+            }
+        }
+        finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * The MessageListener, invoked on the JMS provider's dispatch thread: Acquires a shared processing slot, and
+     * processes the message on this thread - the equivalent of the INNER RECEIVE-LOOP in {@link #runner()}. The JMS
+     * Session is thus only used by the thread of the listener, and the next message is not delivered to us until this
+     * one is committed or rolled back by the {@link TransactionContext}.
+     * <p>
+     * If no slot is had within {@link #SHARED_SLOT_MAX_WAIT_MILLIS}, the message is rolled back and the dispatch
+     * thread freed - a redelivered message however waits for its slot without limit, so that the slot waits cannot
+     * use up its delivery attempts. Messages delivered while the consumer is about to be re-established after a
+     * problem are not processed, but rolled back when the Session is crashed - which, just as when the Session is
+     * crashed with a message in it when having our own thread, counts as a delivery attempt.
+     */
+    private void sharedOnMessage(Message message, MessageConsumer jmsConsumer) {
+        _processorInReceive = false;
+        // ?: Should we process? (Not if exiting, or the Session shall be crashed - the message is rolled back by close)
+        if (!_runFlag || _sharedReestablishPending) {
+            // -> No, so just return - exiting if asked to (the listener cannot close its own Session).
+            sharedExitIfNotRunning();
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName();
+        boolean acquired = false;
+        try {
+            acquired = _sharedSlots.acquire(_jmsMatsStage, isRedelivered(message) ? 0 : SHARED_SLOT_MAX_WAIT_MILLIS);
+            // ?: Did we get a slot? (Not if timed out, or shut down)
+            if (!acquired) {
+                // -> No. ?: Are we still running?
+                if (_runFlag) {
+                    // -> Yes, so we timed out: Roll back the message, thus freeing the provider's dispatch thread.
+                    log.info(LOG_PREFIX + "Did not get a shared processing slot within [" + SHARED_SLOT_MAX_WAIT_MILLIS
+                            + " ms], so rolling back the message, to be redelivered.");
+                    _jmsSessionHolder.getSession().rollback();
+                    _processorInReceive = true;
+                }
+                // Return - exiting if asked to.
+                sharedExitIfNotRunning();
+                return;
+            }
+            // The provider's thread takes our name while processing, so that the log lines look as with our own thread.
+            thread.setName(THREAD_PREFIX + ident() + " @" + threadName);
+            _sharedProcessingThread = thread;
+            clearAndSetStaticMdcValues();
+            // Check whether Session/Connection is ok (per contract with JmsSessionHolder)
+            _jmsSessionHolder.isSessionOk();
+            // :: Process the message inside the TransactionContext. (No batching, as a listener cannot receive more.)
+            processReceivedMessage(message, System.nanoTime(), Instant.now(), jmsConsumer, false);
+        }
+        // catch-all-throwable, as we must crash the JMS Session - or just exit if we've been told to.
+        catch (Throwable t) {
+            // Clear any interrupt, ref. the ActiveMQ annoyance described in runner().
+            boolean isThreadInterrupted = Thread.interrupted();
+            // ?: Should we still be running?
+            if (_runFlag) {
+                // -> Yes, so crash the Session, and re-establish - from the maintenance thread, as the listener
+                // cannot close its own Session. No messages are processed meanwhile.
+                log.warn(LOG_PREFIX + "Got [" + t.getClass().getSimpleName() + "] inside the message processing"
+                        + (isThreadInterrupted ? " (NOTE: Interrupted status of Thread was 'true', now cleared)" : "")
+                        + ", crashing JmsSessionHolder, then re-establishing the consumer after chilling a bit.", t);
+                _sharedReestablishPending = true;
+                _sharedSlots.runMaintenance(_jmsMatsStage, () -> sharedCrashAndReestablish(t), 0);
+            }
+            else {
+                // -> No, so just exit.
+                log.info(LOG_PREFIX + "Got [" + t.getClass().getSimpleName() + "] inside the message processing,"
+                        + " but the run-flag was false, so we shortcut to exit.");
+            }
+        }
+        finally {
+            if (acquired) {
+                _sharedSlots.release();
+                _sharedProcessingThread = null;
+                MDC.clear();
+                thread.setName(threadName);
+                // The provider's thread is not ours, so do not leave any interrupt from the stop procedure on it.
+                Thread.interrupted();
+            }
+        }
+        _processorInReceive = true;
+        // ?: Were we asked to exit while processing? (Then the stop might not have seen us waiting for messages)
+        sharedExitIfNotRunning();
+    }
+
+    /**
+     * Run on the maintenance thread when {@link #retire() retired}: Exits if waiting for messages or to re-establish
+     * the consumer - if processing, {@link #sharedOnMessage(Message, MessageConsumer)} hands the exit over when done.
+     */
+    private void sharedExitIfWaitingForMessages() {
+        if (_processorInReceive || _sharedReestablishPending) {
+            sharedExit();
+        }
+    }
+
+    private void sharedExitIfNotRunning() {
+        if (!_runFlag) {
+            // Exit from the maintenance thread, as the listener cannot close its own Session.
+            _sharedSlots.runMaintenance(_jmsMatsStage, this::sharedExit, 0);
+        }
+    }
+
+    /**
+     * Run on the maintenance thread: Crashes the JMS Session, and re-establishes the consumer after a "chill-wait".
+     */
+    private void sharedCrashAndReestablish(Throwable t) {
+        _sharedReestablishPending = true;
+        _processorInReceive = false;
+        JmsSessionHolder currentJmsSessionHolder = _jmsSessionHolder;
+        if (currentJmsSessionHolder != null) {
+            currentJmsSessionHolder.crashed(t);
+        }
+        // ?: Should we still be running?
+        if (!_runFlag) {
+            // -> No, so exit.
+            sharedExit();
+            return;
+        }
+        _sharedSlots.runMaintenance(_jmsMatsStage, () -> {
+            _sharedReestablishPending = false;
+            sharedEstablishConsumer();
+        }, chillWaitMillis());
+    }
+
+    /**
+     * Exits when using the shared processing slots, i.e. closes the JMS Session and removes us from the stage - the
+     * equivalent of the end of {@link #runner()}. Idempotent.
+     */
+    private void sharedExit() {
+        if (!_sharedExited.compareAndSet(false, true)) {
+            return;
+        }
+        _processorInReceive = false;
+        log.info(LOG_PREFIX + ident() + " asked to exit, and that we do! Closing current JmsSessionHolder.");
+        // Close current JMS SessionHolder (if double-close, e.g. after crash, the holder will catch it)
+        closeCurrentSessionHolder();
+        _jmsMatsStage.removeStageProcessorFromList(this);
+        _sharedExitedLatch.countDown();
+    }
+
+    /**
+     * Processes a received message - and if batching and <code>drainIntoBatch</code>, more messages - inside the
+     * {@link TransactionContext}, invoking the interceptors. Exceptions from the processing are handled by the
+     * TransactionContext (rollback), while a {@link JmsMatsJmsException} is thrown out, upon which the JMS Session
+     * shall be crashed.
+     */
+    private void processReceivedMessage(Message message, long startedNanos, Instant startedInstant,
+            MessageConsumer jmsConsumer, boolean drainIntoBatch) throws JmsMatsJmsException, JMSException {
+        // :: Gather the message(s): If batching is configured, drain more messages into this batch.
+        List<StageMessageProcessing> batch = new ArrayList<>();
+        batch.add(new StageMessageProcessing(message, startedNanos, startedInstant));
+        // ?: Can we drain? (Not with a MessageListener, i.e. when using the shared processing slots - and never
+        // start a batch with a redelivered message, as it might be the poison message of a rolled back batch)
+        if (drainIntoBatch && !isRedelivered(message)) {
+            // ?: Did the draining hit a redelivered message?
+            if (!drainMoreMessagesIntoBatch(jmsConsumer, batch)) {
+                // -> Yes, and as it is now received in the transaction, it can only be rolled back along with
+                // the rest: None of the messages are processed yet, and they'll all be processed one by one.
+                log.info(LOG_PREFIX + "Got a redelivered message when draining messages into a batch, which"
+                        + " shall be processed alone: Rolling back the [" + batch.size() + "] unprocessed"
+                        + " messages, so that they are redelivered and processed one by one.");
+                _jmsSessionHolder.getSession().rollback();
+                return;
+            }
+        }
+        boolean batched = batch.size() > 1;
+
+        // :: Perform the work inside the TransactionContext
+        JmsMatsInternalExecutionContext internalExecutionContext = JmsMatsInternalExecutionContext
+                .forStage(_jmsSessionHolder, jmsConsumer);
+
+        StageInterceptContextImpl stageContext = new StageInterceptContextImpl(_jmsMatsStage, startedNanos,
+                startedInstant);
+
+        // Fetch relevant interceptors
+        List<MatsStageInterceptor> interceptorsForStage = _jmsMatsStage.getParentFactory()
+                .getInterceptorsForStage(stageContext);
+
+        Throwable throwableResult = null;
+        ProcessResult throwableProcessResult = null;
+
+        try { // try-catch-finally: Catch processing Exceptions, handle cleanup in finally
+
+            // :: Going into Mats Transaction
+            _transactionContext.doTransaction(internalExecutionContext, () -> {
+                // ?: Is this a batch?
+                if (!batched) {
+                    // -> No, single message - the standard situation.
+                    processMessage(batch.get(0), internalExecutionContext, interceptorsForStage,
+                            jmsConsumer);
+                    return;
+                }
+                // E-> Yes, batch: Process each message in turn, all within this single transaction.
+                for (int i = 0; i < batch.size(); i++) {
+                    clearAndSetStaticMdcValues();
+                    try {
+                        processMessage(batch.get(i), internalExecutionContext, interceptorsForStage,
+                                jmsConsumer);
+                    }
+                    catch (MatsRefuseMessageException | JmsMatsOverflowRuntimeException e) {
+                        // Record which message raised, for the interceptors.
+                        batch.get(i)._raisedInBatch = true;
+                        // Must not let the TransactionManager insta-DLQ, as that would hit the entire
+                        // batch: Rollback instead, and let the replay one-by-one handle the refusal.
+                        throw new JmsMatsBatchRollbackRuntimeException("Message #" + i + " of batch of ["
+                                + batch.size() + "] raised [" + e.getClass().getSimpleName()
+                                + "] - rolling back the batch, replaying the messages one by one.", e);
+                    }
+                    catch (RuntimeException | AssertionError e) {
+                        // Record which message raised, for the interceptors.
+                        batch.get(i)._raisedInBatch = true;
+                        throw e;
+                    }
+                    finally {
+                        clearStageThreadLocals();
+                    }
+                }
+            }); // End: Mats Transaction
+
+            // ----- Transaction is now committed (if exceptions were raised, we've been thrown out earlier)
+
+            // :: Handle the DoAfterCommit lambda(s).
+            for (StageMessageProcessing processing : batch) {
+                try {
+                    processing._doAfterCommitRunnableHolder.runDoAfterCommitIfAny();
+                }
+                catch (RuntimeException | AssertionError e) {
+                    // Message processing is per definition finished here, so no way to DLQ or otherwise
+                    // notify world except logging an error.
+                    log.error(LOG_PREFIX + "Got [" + e.getClass().getSimpleName()
+                            + "] when running the doAfterCommit Runnable. Ignoring.", e);
+                }
+            }
+        }
+
+        // ===== CATCH: HANDLE THE DIFFERENT ERROR SITUATIONS =====
+
+        catch (JmsMatsMessageSendException e) {
+            /*
+             * This is the special situation which is the "VERY BAD!" scenario, i.e. DB was committed, but
+             * JMS was not, which is .. very bad. JmsMatsMessageSendException is a JmsMatsJmsException, and
+             * that indicates that there was a problem with JMS - so we should "crash" the JmsSessionHolder
+             * to signal that the JMS Connection is probably broken.
+             */
+            // :: Create the API-level Exception for this situation, so that interceptor will get that.
+            MatsMessageSendException exceptionForInterceptor = new MatsMessageSendException("Evidently got"
+                    + " problems sending out the JMS message after having run the process lambda and"
+                    + " potentially committed other resources, typically database.", e);
+            // Record for interceptor
+            throwableResult = exceptionForInterceptor;
+            throwableProcessResult = ProcessResult.SYSTEM_EXCEPTION;
+            // Throw on (the original exception) to crash the JMS Session
+            throw e;
+        }
+        catch (JmsMatsJmsException e) {
+            /*
+             * Catch any other JmsMatsJmsException, as that most probably indicates that there was some
+             * serious problem with JMS - so we should "crash" the JmsSessionHolder to signal that the JMS
+             * Connection is probably broken. This is a lesser evil than JmsMatsMessageSendException (aka
+             * "VERY BAD!"), as we've not committed neither DB nor JMS.
+             */
+            // Notice that we shall NOT have committed "external resources" at this point, meaning database.
+            // :: Create the API-level Exception for this situation, so that interceptor will get that.
+            MatsBackendException exceptionForInterceptor = new MatsBackendException("Evidently have"
+                    + " problems talking with our backend, which is a JMS Broker.", e);
+            // Record for interceptor
+            throwableResult = exceptionForInterceptor;
+            throwableProcessResult = ProcessResult.SYSTEM_EXCEPTION;
+            // Throw on (the original exception) to crash the JMS Session
+            throw e;
+        }
+        catch (JmsMatsUndeclaredCheckedExceptionRaisedRuntimeException e) {
+            // Just record this for interceptor - but take the cause, since that is the actual exception.
+            throwableResult = e.getCause();
+            throwableProcessResult = ProcessResult.USER_EXCEPTION;
+            // .. These are handled by transaction manager (rollback), so we should just continue.
+            return;
+        }
+        // Handle most other Throwables that may come out, except Errors which are not AssertionError.
+        catch (MatsRefuseMessageException | RuntimeException | AssertionError e) {
+            // Just record this for interceptor - unwrapping the batch rollback, to get the actual exception.
+            throwableResult = e instanceof JmsMatsBatchRollbackRuntimeException
+                    ? e.getCause()
+                    : e;
+            throwableProcessResult = ProcessResult.USER_EXCEPTION;
+            // .. These are handled by transaction manager (rollback), so we should just continue.
+            return;
+        }
+
+        // ===== FINALLY: CLEAN UP, AND INVOKE INTERCEPTORS =====
+
+        finally {
+            clearStageThreadLocals();
+
+            // Record the time spent processing, used for the busy ratio when autoscaling.
+            _jmsMatsStage.recordProcessingNanos(System.nanoTime() - startedNanos);
+
+            if (throwableProcessResult == ProcessResult.USER_EXCEPTION) {
+                log.info(LOG_PREFIX + "Got [" + throwableResult.getClass().getName()
+                        + "] inside transactional message processing, which most probably originated from"
+                        + " user code. The situation shall have been handled by the MATS TransactionManager"
+                        + " (rollback)." + (batched ? " Since this was a batch of [" + batch.size()
+                                + "] messages, they will be replayed one by one." : "")
+                        + " Looping to fetch next message.");
+            }
+            else if (throwableProcessResult == ProcessResult.SYSTEM_EXCEPTION) {
+                log.info(LOG_PREFIX + "Got [" + throwableResult.getClass().getName()
+                        + "] inside transactional message processing which seems to come from the messaging"
+                        + " system - this probably means that the JMS Connectivity have gone to bits,"
+                        + " and we will thus \"crash\" the JMS Session and recreate the connectivity.");
+            }
+            else {
+                // -> All good!
+                if (log.isDebugEnabled()) log.debug(LOG_PREFIX + " The Stage processing went without a"
+                        + " hitch" + (batched ? ", batch of [" + batch.size() + "] messages." : "."));
+            }
+
+            // ?: Was this a batch that was rolled back due to a message's processing?
+            if (batched && (throwableProcessResult == ProcessResult.USER_EXCEPTION)) {
+                // -> Yes, so report the rollback once, for the message that raised - or the first, if the failure
+                // came after the processing, e.g. upon commit. The other messages were not to blame, and are
+                // reported when they are redelivered and processed one by one.
+                StageMessageProcessing raised = batch.stream()
+                        .filter(processing -> processing._raisedInBatch)
+                        .findFirst().orElse(batch.get(0));
+                invokeStageCompletedInterceptors(raised, internalExecutionContext,
+                        interceptorsForStage, throwableResult, throwableProcessResult);
+            }
+            else {
+                // === Invoke any interceptors, for each message which got to processing.
+                for (StageMessageProcessing processing : batch) {
+                    invokeStageCompletedInterceptors(processing, internalExecutionContext,
+                            interceptorsForStage, throwableResult, throwableProcessResult);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drains more messages into the batch if {@link StageConfig#getMaxBatchSize()} is above 1: Uses
+     * <code>receiveNoWait()</code> if {@link StageConfig#getBatchMaxWaitMillis()} is 0, thus only taking what is
+     * already available (i.e. prefetched), otherwise <code>receive(timeout)</code> until the max wait has passed. The
+     * interactive processors do not batch, as they are meant to be the "fast lane".
+     * <p>
+     * A redelivered message shall never be part of a batch, as it might be the poison message which made a batch roll
+     * back - and must thus be processed alone, so that it does not take the other messages down with it again. Since
+     * it can only be identified after being received, in which case it is part of the transaction, the draining then
+     * returns <code>false</code>, whereupon all the messages received must be rolled back unprocessed: This costs the
+     * other messages a delivery attempt - but they're then redelivered, and thus processed one by one.
+     *
+     * @return <code>false</code> if a redelivered message was received, i.e. the batch must be rolled back unprocessed.
+     */
+    private boolean drainMoreMessagesIntoBatch(MessageConsumer jmsConsumer, List<StageMessageProcessing> batch)
+            throws JMSException {
+        StageConfig<R, S, I> stageConfig = _jmsMatsStage.getStageConfig();
+        int maxBatchSize = _interactive ? 1 : stageConfig.getMaxBatchSize();
+        long batchDeadlineMillis = System.currentTimeMillis() + stageConfig.getBatchMaxWaitMillis();
+        while (_runFlag && (batch.size() < maxBatchSize)) {
+            long millisLeft = batchDeadlineMillis - System.currentTimeMillis();
+            Message message = millisLeft > 0
+                    ? jmsConsumer.receive(millisLeft)
+                    : jmsConsumer.receiveNoWait();
+            // ?: Did we get a message?
+            if (message == null) {
+                // -> No, so the batch is as large as it gets.
+                break;
+            }
+            batch.add(new StageMessageProcessing(message, System.nanoTime(), Instant.now()));
+            // ?: Is it redelivered?
+            if (isRedelivered(message)) {
+                // -> Yes, so it must not be processed in the batch.
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the message is redelivered, i.e. has been attempted processed before - in which case it shall be
+     *         processed alone, not in a batch. If it cannot be determined, it is assumed redelivered.
+     */
+    private static boolean isRedelivered(Message message) {
+        try {
+            return message.getJMSRedelivered()
+                    || (message.propertyExists("JMSXDeliveryCount")
+                            && (message.getIntProperty("JMSXDeliveryCount") > 1));
+        }
+        catch (JMSException e) {
+            log.warn(LOG_PREFIX + "Got [" + e.getClass().getSimpleName() + "] when checking whether the message is"
+                    + " redelivered - assuming it is, thus processing it alone.", e);
+            return true;
+        }
+    }
+
+    private void clearStageThreadLocals() {
+        JmsMatsContextLocalCallback.unbindResource(ProcessContext.class);
+        _jmsMatsStage.getParentFactory().clearCurrentMatsFactoryThreadLocal_MatsInitiate();
+        _jmsMatsStage.getParentFactory().clearCurrentMatsFactoryThreadLocal_WithinStageContext();
+    }
+
+    /**
+     * Processes a single received message: Deconstructs and deserializes it, invokes the interceptors and the process
+     * lambda, and sends any outgoing messages. Runs within the transaction - either for a single message, or for each
+     * message of a batch.
+     */
+    private void processMessage(StageMessageProcessing processing,
+            JmsMatsInternalExecutionContext internalExecutionContext, List<MatsStageInterceptor> interceptorsForStage,
+            MessageConsumer jmsConsumer) throws JmsMatsJmsException, MatsRefuseMessageException {
+        long nanosAtStart_DeconstructMessage = System.nanoTime();
+        // Assert that this is indeed a JMS MapMessage.
+        if (!(processing._message instanceof MapMessage)) {
+            String msg = "Got some JMS Message that is not instanceof JMS MapMessage"
+                    + " - cannot be a MATS message! Refusing this message!";
+            log.error(LOG_PREFIX + msg + "\n" + processing._message);
+            processing._receiveDeconstructError = ReceiveDeconstructError.WRONG_MESSAGE_TYPE;
+            throw new MatsRefuseMessageException(msg);
+        }
+
+        // ----- This is a MapMessage
+        MapMessage mapMessage = (MapMessage) processing._message;
+
+        // :: Fetch Mats-specific message data from the JMS Message.
+        // ==========================================================
+
+        byte[] matsTraceBytes;
+        String matsTraceMeta;
+        String jmsMessageId;
+        try {
+            String matsTraceKey = getFactory().getFactoryConfig().getMatsTraceKey();
+            matsTraceBytes = mapMessage.getBytes(matsTraceKey);
+            matsTraceMeta = mapMessage.getString(matsTraceKey
+                    + MatsSerializer.META_KEY_POSTFIX);
+            jmsMessageId = mapMessage.getJMSMessageID();
+            // Setting this in the JMS Mats implementation instead of MatsMetricsLoggingInterceptor,
+            // so that if things fail before getting to the actual Mats part, we'll have it in
+            // the log lines.
+            MDC.put(MDC_MATS_IN_MESSAGE_SYSTEM_ID, jmsMessageId);
+
+            // Fetching the TraceId early from the JMS Message for MDC, so that can follow in logs.
+            // (Not present if the sender's OutgoingMessageProperties is NONE - then set when the MatsTrace is read)
+            String jmsTraceId = mapMessage.getStringProperty(JMS_MSG_PROP_TRACE_ID);
+            if (jmsTraceId != null) {
+                MDC.put(MDC_TRACE_ID, jmsTraceId);
+            }
+
+            // :: Assert that we got some values
+            if (matsTraceBytes == null) {
+                String msg = "Got some JMS Message that is missing MatsTrace byte array on"
+                        + "JMS MapMessage key '" + matsTraceKey +
+                        "' - cannot be a MATS message! Refusing this message!";
+                log.error(LOG_PREFIX + msg + "\n" + processing._message);
+                processing._receiveDeconstructError = ReceiveDeconstructError.MISSING_CONTENTS;
+                throw new MatsRefuseMessageException(msg);
+            }
+
+            if (matsTraceMeta == null) {
+                String msg = "Got some JMS Message that is missing MatsTraceMeta String on"
+                        + "JMS MapMessage key '" + MatsSerializer.META_KEY_POSTFIX
+                        + "' - cannot be a MATS message! Refusing this message!";
+                log.error(LOG_PREFIX + msg + "\n" + processing._message);
+                processing._receiveDeconstructError = ReceiveDeconstructError.MISSING_CONTENTS;
+                throw new MatsRefuseMessageException(msg);
+            }
+        }
+        catch (JMSException e) {
+            processing._receiveDeconstructError = ReceiveDeconstructError.DECONSTRUCT_ERROR;
+            throw new JmsMatsJmsException("Got JMSException when getting the MatsTrace"
+                    + " from the MapMessage by using mapMessage.get[Bytes|String](..)."
+                    + " Pretty crazy.", e);
+        }
+
+        // :: Getting the 'sideloads'; Byte-arrays and Strings from the MapMessage.
+        LinkedHashMap<String, byte[]> incomingBinaries = new LinkedHashMap<>();
+        LinkedHashMap<String, String> incomingStrings = new LinkedHashMap<>();
+        try {
+            @SuppressWarnings("unchecked")
+            Enumeration<String> mapNames = (Enumeration<String>) mapMessage.getMapNames();
+            while (mapNames.hasMoreElements()) {
+                String name = mapNames.nextElement();
+                Object object = mapMessage.getObject(name);
+                if (object instanceof byte[]) {
+                    incomingBinaries.put(name, (byte[]) object);
+                }
+                else if (object instanceof String) {
+                    incomingStrings.put(name, (String) object);
+                }
+                else {
+                    log.warn("Got some object in the MapMessage to ["
+                            + _jmsMatsStage.getStageId()
+                            + "] which is neither byte[] nor String - which should not"
+                            + " happen - Ignoring.");
+                }
+            }
+        }
+        catch (JMSException e) {
+            processing._receiveDeconstructError = ReceiveDeconstructError.DECONSTRUCT_ERROR;
+            throw new JmsMatsJmsException("Got JMSException when getting 'sideloads'"
+                    + " from the MapMessage by using mapMessage.get[Bytes|String](..)."
+                    + " Pretty crazy.", e);
+        }
+
+        long nanosTaken_DeconstructMessage = System.nanoTime() - nanosAtStart_DeconstructMessage;
+
+        // :: Deserialize the MatsTrace and DTO/STO from the message data.
+        // ================================================================
+
+        MatsSerializer<Z> matsSerializer = getFactory().getMatsSerializer();
+        DeserializedMatsTrace<Z> matsTraceDeserialized;
+        try {
+            matsTraceDeserialized = matsSerializer
+                    .deserializeMatsTrace(matsTraceBytes, matsTraceMeta);
+        }
+        catch (Exception e) {
+            String msg = "Got some JMS Message where we could not deserialize the MatsTrace.";
+            log.error(LOG_PREFIX + msg + "\n" + processing._message);
+            processing._receiveDeconstructError = ReceiveDeconstructError.DECONSTRUCT_ERROR;
+            throw new MatsRefuseMessageException(msg, e);
+        }
+        MatsTrace<Z> matsTrace = matsTraceDeserialized.getMatsTrace();
+        // Update the MatsTrace with stage-incoming timestamp - handles the "endpoint entered" logic
+        matsTrace.setStageEnteredTimestamp(processing._millis_Received);
+        // Fetch endpoint entered (Not same as stage entered - only initial stage is "ep entered")
+        long endpointEnteredTimestamp = matsTrace.getSameHeightEndpointEnteredTimestamp();
+
+        // :: Overwriting the TraceId MDC, now from MatsTrace (in case missing from JMS Message)
+        MDC.put(MDC_TRACE_ID, matsTrace.getTraceId());
+
+        // :: Current Call
+        Call<Z> currentCall = matsTrace.getCurrentCall();
+        // Assert that this is indeed a JMS Message meant for this Stage
+        if (!_jmsMatsStage.getStageId().equals(currentCall.getTo().getId())) {
+            String msg = "The incoming MATS message is not to this Stage! this:["
+                    + _jmsMatsStage.getStageId() + "], msg:[" + currentCall.getTo()
+                    + "]. Refusing this message!";
+            log.error(LOG_PREFIX + msg + "\n" + mapMessage);
+            processing._receiveDeconstructError = ReceiveDeconstructError.WRONG_STAGE;
+            throw new MatsRefuseMessageException(msg);
+        }
+
+        long nanosAtStart_incomingMessageAndStateDeserializationNanos = System.nanoTime();
+
+        // :: Current State: If null, make an empty object instead, unless Void -> null.
+        S currentSto = handleIncomingState(matsSerializer, _jmsMatsStage.getStateClass(),
+                matsTrace.getCurrentState().orElse(null));
+
+        // :: Incoming Message DTO
+        I incomingDto = handleIncomingMessageMatsObject(matsSerializer,
+                _jmsMatsStage.getMessageClass(), currentCall.getData());
+
+        long nanosTaken_incomingMessageAndStateDeserializationNanos = System.nanoTime()
+                - nanosAtStart_incomingMessageAndStateDeserializationNanos;
+
+        Supplier<MatsInitiate> initiateSupplier = () -> JmsMatsInitiate.createForChildFlow(
+                getFactory(), processing._messagesToSend, internalExecutionContext,
+                processing._doAfterCommitRunnableHolder,
+                matsTrace);
+
+        // Set the nested initiation context supplier
+        _jmsMatsStage.getParentFactory().setCurrentMatsFactoryThreadLocal_MatsInitiate(
+                initiateSupplier);
+        // Set the MatsTrace for nested initiations
+        _jmsMatsStage.getParentFactory().setCurrentMatsFactoryThreadLocal_WithinStageContext(
+                matsTrace, jmsConsumer);
+
+        // :: Create contexts, invoke interceptors
+        // ==========================================================
+
+        // .. create the ProcessContext
+        processing._processContext = new JmsMatsProcessContext<>(
+                getFactory(),
+                _jmsMatsStage.getParentEndpoint().getEndpointId(),
+                _jmsMatsStage.getStageId(),
+                jmsMessageId,
+                _jmsMatsStage.getNextStageId(),
+                _jmsMatsStage.getStageConfig().getOrigin(),
+                matsTrace,
+                currentSto,
+                initiateSupplier,
+                incomingBinaries, incomingStrings,
+                processing._messagesToSend, internalExecutionContext,
+                processing._doAfterCommitRunnableHolder);
+
+        long nanosTaken_PreUserLambda = System.nanoTime() - processing._nanosAtStart_Received;
+
+        // .. stick the ProcessContext into the ThreadLocal scope
+        JmsMatsContextLocalCallback.bindResource(ProcessContext.class, processing._processContext);
+
+        // Cast the ProcessContext unchecked, since we need it for the interceptors.
+        @SuppressWarnings("unchecked")
+        ProcessContext<Object> processContextCasted = (ProcessContext<Object>) processing._processContext;
+
+        long sameHeightOutgoingTimestamp = matsTrace.getSameHeightOutgoingTimestamp();
+
+        // Record how long the message waited, i.e. since the outgoing message on the same stack height was sent, used
+        // when autoscaling. (A REQUEST has no such message, so then since the incoming message itself was sent.)
+        long queueWaitFromTimestamp = sameHeightOutgoingTimestamp != -1
+                ? sameHeightOutgoingTimestamp
+                : matsTrace.getCurrentCall().getCalledTimestamp();
+        _jmsMatsStage.recordQueueWaitMillis(processing._startedInstant.toEpochMilli() - queueWaitFromTimestamp);
+
+        // Create the common part of the interceptor contexts
+        processing._stageCommonContext = new StageCommonContextImpl<>(
+                _jmsMatsStage,
+                processing._startedNanos, processing._startedInstant,
+                endpointEnteredTimestamp, sameHeightOutgoingTimestamp,
+                matsTrace, incomingDto, currentSto,
+                nanosTaken_DeconstructMessage,
+                matsTraceBytes.length,
+                matsTraceDeserialized.getNanosDecompression(),
+                matsTraceDeserialized.getSizeDecompressed(),
+                matsTraceDeserialized.getNanosDeserialization(),
+                nanosTaken_incomingMessageAndStateDeserializationNanos,
+                nanosTaken_PreUserLambda);
+
+        // === Invoke any interceptors, stage "Started"
+        StageReceivedContextImpl initiateStartedContext = new StageReceivedContextImpl(
+                processing._stageCommonContext, processContextCasted);
+
+        for (MatsStageInterceptor matsStageInterceptor : interceptorsForStage) {
+            try {
+                matsStageInterceptor.stageReceived(initiateStartedContext);
+            }
+            catch (Throwable t) {
+                log.error(LOG_PREFIX + "StageInterceptor raised exception on"
+                        + " 'started(..)', ignored.", t);
+            }
+        }
+
+        // === Invoke any interceptors, stage "Intercept"
+        // Create the InitiateInterceptContext instance (one for all interceptors)
+        StageInterceptUserLambdaContextImpl stageInterceptContext = new StageInterceptUserLambdaContextImpl(
+                processing._stageCommonContext, processContextCasted);
+        // :: Create a "lambda stack" of the interceptors
+        // This is the resulting lambda we will actually invoke
+        // .. if there are no interceptors, it will directly be the user lambda
+        @SuppressWarnings("unchecked")
+        ProcessLambda<Object, Object, Object> currentLambda = (ProcessLambda<Object, Object, Object>) _jmsMatsStage
+                .getProcessLambda();
+        /*
+         * Create the lambda stack by moving "backwards" through the registered interceptors, as
+         * when we'll actually invoke the resulting lambda stack, the last stacked (at top), which
+         * is the first registered (due to iterating backwards), will be the first code to run.
+         */
+        for (int i = interceptorsForStage.size() - 1; i >= 0; i--) {
+            MatsStageInterceptor interceptor = interceptorsForStage.get(i);
+            if (!(interceptor instanceof MatsStageInterceptUserLambda)) {
+                continue;
+            }
+            final MatsStageInterceptUserLambda interceptInterceptor = (MatsStageInterceptUserLambda) interceptor;
+            // The currentLambda is the one that the interceptor should invoke
+            final ProcessLambda<Object, Object, Object> lambdaThatInterceptorMustInvoke = currentLambda;
+            // .. and, wrap the current lambda with the interceptor.
+            // It may, or may not, wrap the provided init with its own implementation
+            currentLambda = (pc, state, incoming) -> interceptInterceptor.stageInterceptUserLambda(
+                    stageInterceptContext, lambdaThatInterceptorMustInvoke, pc, state, incoming);
+        }
+
+        // :: Invoke the process lambda (the actual user code), possibly wrapped by interceptors.
+        // =======================================================================================
+
+        // :: == ACTUALLY Invoke the lambda. The current lambda is the one we should invoke.
+        long nanosAtStart_UserLambda = System.nanoTime();
+        try {
+            currentLambda.process(processContextCasted, currentSto, incomingDto);
+        }
+        finally {
+            processing._nanosTaken_UserLambda = System.nanoTime() - nanosAtStart_UserLambda;
+        }
+
+        // === Invoke any interceptors, stage "Message"
+        invokeStageMessageInterceptors(interceptorsForStage, processing._stageCommonContext,
+                processContextCasted, processing._messagesToSend);
+
+        // :: Send messages on target queues/topics
+        // =======================================================================================
+
+        /*
+         * Concatenate all TraceIds for the incoming message and any initiations, to put on the MDC.
+         * - which is good for the logging, so that they are all present on the MDC for the
+         * send/commit log lines, and in particular if we get any Exceptions when committing. Notice
+         * that the typical situation is that there is just one traceId (incoming + request or
+         * reply, which have the same traceId), as stage-initiations are a more seldom situation.
+         */
+        concatAllTraceIds(matsTrace, processing._messagesToSend);
+
+        // :: Send any outgoing Mats messages (replies, requests, new messages etc..)
+        // ?: Any messages produced?
+        if (!processing._messagesToSend.isEmpty()) {
+            // -> Yes, there are messages, so send them.
+            // (commit is performed when it exits the transaction lambda)
+
+            long nanosAtStart_totalEnvelopeSerialization = System.nanoTime();
+            long nowMillis = System.currentTimeMillis();
+            serializeAndCacheMatsTraces(getFactory(), processing._messagesToSend, nowMillis);
+            long nowNanos = System.nanoTime();
+            processing._nanosTaken_totalEnvelopeSerAndComp = nowNanos
+                    - nanosAtStart_totalEnvelopeSerialization;
+
+            long nanosAtStart_totalProduceAndSendMsgSysMessages = nowNanos;
+            produceAndSendMsgSysMessages(log, _jmsSessionHolder, getFactory(), processing._messagesToSend);
+            processing._nanosTaken_totalMsgSysProdAndSend = System.nanoTime() -
+                    nanosAtStart_totalProduceAndSendMsgSysMessages;
+        }
+    }
+
+    private void invokeStageCompletedInterceptors(StageMessageProcessing processing,
+            JmsMatsInternalExecutionContext internalExecutionContext, List<MatsStageInterceptor> interceptorsForStage,
+            Throwable throwableResult, ProcessResult throwableProcessResult) {
+        long nanosTaken_TotalStartReceiveToFinished = System.nanoTime() - processing._nanosAtStart_Received;
+
+        // === Invoke any interceptors, stage "ReceiveDeconstructError"
+
+        // ?: Was there a receive/deconstruct error?
+        if (processing._receiveDeconstructError != null) {
+            // -> Yes, so then the rest of the processing never happened.
+            StagePreprocessAndDeserializeErrorContextImpl context = new StagePreprocessAndDeserializeErrorContextImpl(
+                    _jmsMatsStage, processing._startedNanos, processing._startedInstant,
+                    processing._receiveDeconstructError, throwableResult);
+            for (MatsStageInterceptor matsStageInterceptor : interceptorsForStage) {
+                try {
+                    matsStageInterceptor.stagePreprocessAndDeserializeError(context);
+                }
+                catch (Throwable t) {
+                    log.error(LOG_PREFIX + "StageInterceptor raised exception on"
+                            + " 'receiveDeconstructError(..)', ignored.", t);
+                }
+            }
+        }
+        else {
+            // -> No, no receiveDeconstructError. Normal processing.
+
+            // === Invoke any interceptors, stage "Completed"
+
+            // ?: Have we come to the actual place in the code where we're running the user lambda?
+            if ((processing._stageCommonContext != null) && (processing._processContext != null)) {
+
+                // :: Find any "result" message (REPLY, NEXT, GOTO)
+                MatsSentOutgoingMessage result = processing._messagesToSend.stream()
+                        .filter(m -> (m.getMessageType() == MessageType.REPLY)
+                                || (m.getMessageType() == MessageType.NEXT)
+                                || (m.getMessageType() == MessageType.GOTO))
+                        .findFirst().orElse(null);
+                // :: Find any Request messages (note that Reqs can be produced both by stage and init)
+                List<MatsSentOutgoingMessage> requests = processing._messagesToSend.stream()
+                        .filter(m -> (m.getMessageType() == MessageType.REQUEST)
+                                && (m.getDispatchType() == DispatchType.STAGE))
+                        .collect(Collectors.toList());
+                // :: Find any initiations performed within the stage (ProcessType.STAGE_INIT)
+                List<MatsSentOutgoingMessage> initiations = processing._messagesToSend.stream()
+                        .filter(m -> m.getDispatchType() == DispatchType.STAGE_INIT)
+                        .collect(Collectors.toList());
+
+                // :: "Calculate" the ProcessingResult based on current situation
+                // Start out with "NONE", i.e. no outgoing messages.
+                ProcessResult processResult = ProcessResult.NONE;
+                // Throwable "overrides" any messages
+                // ?: Did we have a throwableProcessingResult?
+                if (throwableProcessResult != null) {
+                    // -> Yes, and then this is it.
+                    processResult = throwableProcessResult;
+                }
+                // E-> No throwable
+                // ?: Did we get a "result" message?
+                else if (result != null) {
+                    // -> Yes, result message
+                    // ?: Which type is it?
+                    switch (result.getMessageType()) {
+                        case REPLY:
+                            processResult = ProcessResult.REPLY;
+                            break;
+                        case NEXT:
+                            processResult = ProcessResult.NEXT;
+                            break;
+                        case GOTO:
+                            processResult = ProcessResult.GOTO;
+                            break;
+                    }
+                }
+                // E-> No result
+                // ?: Did we get any requests?
+                else if (!requests.isEmpty()) {
+                    // -> Yes, request(s)
+                    processResult = ProcessResult.REQUEST;
+                }
+
+                StageCompletedContextImpl stageCompletedContext = new StageCompletedContextImpl(
+                        processing._stageCommonContext, processing._processContext,
+                        processResult,
+                        processing._nanosTaken_UserLambda,
+                        processing._processContext.getMeasurements(),
+                        processing._processContext.getTimingMeasurements(),
+                        processing._nanosTaken_totalEnvelopeSerAndComp,
+                        internalExecutionContext.getDbCommitNanos(),
+                        processing._nanosTaken_totalMsgSysProdAndSend,
+                        internalExecutionContext.getMessageSystemCommitNanos(),
+                        nanosTaken_TotalStartReceiveToFinished,
+                        throwableResult,
+                        Collections.unmodifiableList(processing._messagesToSend),
+                        result,
+                        requests,
+                        initiations);
+
+                // Go through interceptors "backwards" for this exit-style stage
+                for (int i = interceptorsForStage.size() - 1; i >= 0; i--) {
+                    try {
+                        interceptorsForStage.get(i).stageCompleted(stageCompletedContext);
+                    }
+                    catch (Throwable t) {
+                        log.error(LOG_PREFIX + "StageInterceptor [" + interceptorsForStage.get(i)
+                                + "] raised a [" + t.getClass().getSimpleName() + "] when invoking"
+                                + " stageCompleted(..) - ignoring, but this is probably quite bad.", t);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The per-message state of the processing of a received message, needed both within the transaction, and
+     * afterwards for the DoAfterCommit and the "completed" interceptors. A batch consists of several of these.
+     */
+    private class StageMessageProcessing {
+        private final Message _message;
+        private final long _startedNanos;
+        private final Instant _startedInstant;
+        private final long _millis_Received; // Used for setting "Endpoint Entered Timestamp"
+        private final long _nanosAtStart_Received;
+        private final List<JmsMatsMessage<Z>> _messagesToSend = new ArrayList<>();
+        private final DoAfterCommitRunnableHolder _doAfterCommitRunnableHolder = new DoAfterCommitRunnableHolder();
+
+        private ReceiveDeconstructError _receiveDeconstructError;
+        private StageCommonContextImpl<Z> _stageCommonContext;
+        private JmsMatsProcessContext<R, S, Z> _processContext;
+        private long _nanosTaken_UserLambda;
+        private long _nanosTaken_totalEnvelopeSerAndComp;
+        private long _nanosTaken_totalMsgSysProdAndSend;
+        private boolean _raisedInBatch;
+
+        private StageMessageProcessing(Message message, long startedNanos, Instant startedInstant) {
+            _message = message;
+            _startedNanos = startedNanos;
+            _startedInstant = startedInstant;
+            _millis_Received = System.currentTimeMillis();
+            _nanosAtStart_Received = System.nanoTime();
+        }
+    }
+
     private void invokeStageMessageInterceptors(List<MatsStageInterceptor> interceptorsForStage,
             StageCommonContextImpl<Z> stageCommonContext, ProcessContext<Object> processContextCasted,
             List<JmsMatsMessage<Z>> messagesToSend) {
@@ -1052,19 +1560,30 @@ class JmsMatsStageProcessor<R, S, I, Z> implements JmsMatsStatics, JmsMatsTxCont
     }
 
     private void chillWait() {
+        chillWait(chillWaitMillis());
+    }
+
+    private long chillWaitMillis() {
         // About 5 seconds..
-        chillWait(4500 + Math.round(Math.random() * 1000));
+        return 4500 + Math.round(Math.random() * 1000);
     }
 
-    private Destination createJmsDestination(Session jmsSession, FactoryConfig factoryConfig) throws JMSException {
-        Destination destination;
-        String destinationName = factoryConfig.getMatsDestinationPrefix() + _jmsMatsStage.getStageId();
-        if (_jmsMatsStage.isQueue()) {
-            destination = jmsSession.createQueue(destinationName);
-        }
-        else {
-            destination = jmsSession.createTopic(destinationName);
-        }
+    private MessageConsumer createJmsConsumer(Session jmsSession, Destination destination) throws JMSException {
+        // ?: Are we interactive, consuming from the ordinary queue? (Not if using separate interactive queue)
+        String messageSelector = _interactive && (_interactiveQueueSuffix == null) ? "JMSPriority = 9" : null;
+        // Apply any per-stage prefetch and redelivery settings, where the JMS implementation supports it.
+        return JmsMatsMessageBrokerSpecifics.createConsumer(jmsSession, destination, messageSelector,
+                _jmsMatsStage.getStageConfig());
+    }
+
+    private Destination createJmsDestination(JmsSessionHolder jmsSessionHolder, FactoryConfig factoryConfig)
+            throws JMSException {
+        // If we're interactive and using separate interactive queue, consume from that instead of the ordinary.
+        String destinationName = _interactiveQueueSuffix != null
+                ? _jmsMatsStage.getStageId() + _interactiveQueueSuffix
+                : _jmsMatsStage.getStageId();
+        Destination destination = jmsSessionHolder.getDestination(factoryConfig.getMatsDestinationPrefix(),
+                _jmsMatsStage.isQueue(), destinationName);
         log.info(LOG_PREFIX + "Created JMS " + (_jmsMatsStage.isQueue() ? "Queue" : "Topic") + ""
                 + " to receive from: [" + destination + "].");
         return destination;
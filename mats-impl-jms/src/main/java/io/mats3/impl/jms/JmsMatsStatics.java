@@ -1,14 +1,17 @@
 package io.mats3.impl.jms;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 
 import javax.jms.DeliveryMode;
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.MapMessage;
-import javax.jms.MessageProducer;
 import javax.jms.Session;
 
 import org.slf4j.Logger;
@@ -17,6 +20,7 @@ import org.slf4j.MDC;
 import io.mats3.MatsEndpoint.MatsObject;
 import io.mats3.MatsEndpoint.MatsRefuseMessageException;
 import io.mats3.MatsFactory.FactoryConfig;
+import io.mats3.MatsFactory.FactoryConfig.OutgoingMessageProperties;
 import io.mats3.impl.jms.JmsMatsException.JmsMatsJmsException;
 import io.mats3.impl.jms.JmsMatsJmsSessionHandler.JmsSessionHolder;
 import io.mats3.impl.jms.JmsMatsTransactionManager.JmsMatsTxContextKey;
@@ -105,6 +109,89 @@ public interface JmsMatsStatics {
      */
     KeepMatsTrace DEFAULT_KEEP_MATS_TRACE = KeepMatsTrace.COMPACT;
 
+    /**
+     * The minimum number of outgoing messages for the serialization to be done in parallel, when
+     * {@link FactoryConfig#setOutgoingSerializationParallelism(int) enabled} - below this, the overhead of handing off
+     * to the pool is not worth it.
+     */
+    int PARALLEL_SERIALIZATION_MIN_MESSAGES = 8;
+
+    /**
+     * Serialize (and compress) the MatsTraces of a bunch of {@link JmsMatsMessage}s, caching the result on each
+     * message - in parallel on the {@link JmsMatsFactory#getOutgoingSerializationPool() factory's pool} if enabled
+     * and there are enough messages, otherwise sequentially. The calling thread takes the first chunk itself. Only
+     * the serialization is parallel: The messages are still sent in order by
+     * {@link #produceAndSendMsgSysMessages(Logger, JmsSessionHolder, JmsMatsFactory, List)}.
+     */
+    default <Z> void serializeAndCacheMatsTraces(JmsMatsFactory<Z> jmsMatsFactory,
+            List<JmsMatsMessage<Z>> messagesToSend, long nowMillis) {
+        ForkJoinPool pool = messagesToSend.size() >= PARALLEL_SERIALIZATION_MIN_MESSAGES
+                ? jmsMatsFactory.getOutgoingSerializationPool()
+                : null;
+        // ?: Should we serialize in parallel?
+        if (pool == null) {
+            // -> No, so serialize sequentially on this thread.
+            for (JmsMatsMessage<Z> matsMessage : messagesToSend) {
+                matsMessage.serializeAndCacheMatsTrace(nowMillis);
+            }
+            return;
+        }
+        // :: Split into one chunk per thread, where this thread takes the first.
+        int size = messagesToSend.size();
+        int chunks = Math.min(pool.getParallelism(), size);
+        int chunkSize = (size + chunks - 1) / chunks;
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunks];
+        // The pool's threads shall log with this thread's MDC, i.e. traceId and stage context.
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            List<JmsMatsMessage<Z>> sublist = messagesToSend.subList(Math.min(chunk * chunkSize, size),
+                    Math.min((chunk + 1) * chunkSize, size));
+            Runnable serializeChunk = () -> {
+                for (JmsMatsMessage<Z> matsMessage : sublist) {
+                    matsMessage.serializeAndCacheMatsTrace(nowMillis);
+                }
+            };
+            try {
+                tasks[chunk] = pool.submit(() -> {
+                    // Note: join() may run the task on this very thread, thus restore instead of just clearing.
+                    Map<String, String> existingMdcContext = MDC.getCopyOfContextMap();
+                    setMdcContext(mdcContext);
+                    try {
+                        serializeChunk.run();
+                    }
+                    finally {
+                        setMdcContext(existingMdcContext);
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {
+                // The pool was shut down concurrently (factory stopped, or parallelism changed), so do it ourselves.
+                serializeChunk.run();
+            }
+        }
+        for (JmsMatsMessage<Z> matsMessage : messagesToSend.subList(0, Math.min(chunkSize, size))) {
+            matsMessage.serializeAndCacheMatsTrace(nowMillis);
+        }
+        // :: Wait for the other chunks - join() rethrows any RuntimeException, e.g. SerializationException.
+        for (ForkJoinTask<?> task : tasks) {
+            if (task != null) {
+                task.join();
+            }
+        }
+    }
+
+    /**
+     * Sets the MDC to the provided context map, clearing it if <code>null</code>.
+     */
+    default void setMdcContext(Map<String, String> mdcContext) {
+        if (mdcContext != null) {
+            MDC.setContextMap(mdcContext);
+        }
+        else {
+            MDC.clear();
+        }
+    }
+
     /**
      * Send a bunch of {@link JmsMatsMessage}s.
      */
@@ -114,8 +201,6 @@ public interface JmsMatsStatics {
         Session jmsSession = jmsSessionHolder.getSession();
         if (log.isDebugEnabled()) log.debug(LOG_PREFIX + "Sending [" + messagesToSend.size() + "] messages.");
 
-        MessageProducer messageProducer = jmsSessionHolder.getDefaultNoDestinationMessageProducer();
-
         // :: Send each message
         for (JmsMatsMessage<Z> jmsMatsMessage : messagesToSend) {
             MatsTrace<Z> outgoingMatsTrace = jmsMatsMessage.getMatsTrace();
@@ -148,18 +233,27 @@ public interface JmsMatsStatics {
                     mm.setString(entry.getKey(), entry.getValue());
                 }
 
-                // :: Add some JMS Message Properties to simplify intercepting/logging on MQ Broker.
-                mm.setStringProperty(JMS_MSG_PROP_TRACE_ID, outgoingMatsTrace.getTraceId());
-                mm.setStringProperty(JMS_MSG_PROP_MATS_MESSAGE_ID,
-                        outgoingMatsTrace.getCurrentCall().getMatsMessageId());
-                mm.setStringProperty(JMS_MSG_PROP_DISPATCH_TYPE, jmsMatsMessage.getDispatchType().toString());
-                mm.setStringProperty(JMS_MSG_PROP_MESSAGE_TYPE, jmsMatsMessage.getMessageType().toString());
-                mm.setLongProperty(JMS_MSG_PROP_ENVELOPE_SIZE, serializedOutgoingMatsTrace.getSizeCompressed());
-                mm.setStringProperty(JMS_MSG_PROP_INITIALIZING_APP, outgoingMatsTrace.getInitializingAppName());
-                mm.setStringProperty(JMS_MSG_PROP_INITIATOR_ID, outgoingMatsTrace.getInitiatorId());
-                mm.setStringProperty(JMS_MSG_PROP_FROM, outgoingMatsTrace.getCurrentCall().getFrom());
-                mm.setStringProperty(JMS_MSG_PROP_TO, toChannel.getId());
-                mm.setBooleanProperty(JMS_MSG_PROP_AUDIT, !outgoingMatsTrace.isNoAudit());
+                // :: Add some JMS Message Properties to simplify intercepting/logging on MQ Broker - as configured.
+                OutgoingMessageProperties outgoingMessageProperties = factoryConfig.getOutgoingMessageProperties();
+                // ?: Any properties at all?
+                if (outgoingMessageProperties != OutgoingMessageProperties.NONE) {
+                    // -> Yes, so at least the minimal: TraceId and MatsMessageId
+                    mm.setStringProperty(JMS_MSG_PROP_TRACE_ID, outgoingMatsTrace.getTraceId());
+                    mm.setStringProperty(JMS_MSG_PROP_MATS_MESSAGE_ID,
+                            outgoingMatsTrace.getCurrentCall().getMatsMessageId());
+                }
+                // ?: Full set of properties?
+                if (outgoingMessageProperties == OutgoingMessageProperties.FULL) {
+                    // -> Yes, so add the rest.
+                    mm.setStringProperty(JMS_MSG_PROP_DISPATCH_TYPE, jmsMatsMessage.getDispatchType().toString());
+                    mm.setStringProperty(JMS_MSG_PROP_MESSAGE_TYPE, jmsMatsMessage.getMessageType().toString());
+                    mm.setLongProperty(JMS_MSG_PROP_ENVELOPE_SIZE, serializedOutgoingMatsTrace.getSizeCompressed());
+                    mm.setStringProperty(JMS_MSG_PROP_INITIALIZING_APP, outgoingMatsTrace.getInitializingAppName());
+                    mm.setStringProperty(JMS_MSG_PROP_INITIATOR_ID, outgoingMatsTrace.getInitiatorId());
+                    mm.setStringProperty(JMS_MSG_PROP_FROM, outgoingMatsTrace.getCurrentCall().getFrom());
+                    mm.setStringProperty(JMS_MSG_PROP_TO, toChannel.getId());
+                    mm.setBooleanProperty(JMS_MSG_PROP_AUDIT, !outgoingMatsTrace.isNoAudit());
+                }
 
                 // Setting DeliveryMode: NonPersistent or Persistent
                 int deliveryMode = outgoingMatsTrace.isNonPersistent()
@@ -173,12 +267,17 @@ public interface JmsMatsStatics {
                 long timeToLive = outgoingMatsTrace.getTimeToLive();
 
                 // :: Create the JMS Queue or Topic.
-                Destination destination = toChannel.getMessagingModel() == MessagingModel.QUEUE
-                        ? jmsSession.createQueue(factoryConfig.getMatsDestinationPrefix() + toChannel.getId())
-                        : jmsSession.createTopic(factoryConfig.getMatsDestinationPrefix() + toChannel.getId());
+                boolean queue = toChannel.getMessagingModel() == MessagingModel.QUEUE;
+                String interactiveQueueSuffix = factoryConfig.getInteractiveQueueSuffix();
+                // ?: Is this an interactive message to a queue, and are we using separate interactive queues?
+                String destinationName = outgoingMatsTrace.isInteractive() && queue && (interactiveQueueSuffix != null)
+                        ? toChannel.getId() + interactiveQueueSuffix
+                        : toChannel.getId();
+                Destination destination = jmsSessionHolder.getDestination(factoryConfig.getMatsDestinationPrefix(),
+                        queue, destinationName);
 
                 // :: Send the message (but since transactional, won't be committed until TransactionContext does).
-                messageProducer.send(destination, mm, deliveryMode, priority, timeToLive);
+                jmsSessionHolder.send(destination, mm, deliveryMode, priority, timeToLive);
 
                 // Log it.
                 long nanosTaken_ProduceAndSendSingleJmsMessage = System.nanoTime()
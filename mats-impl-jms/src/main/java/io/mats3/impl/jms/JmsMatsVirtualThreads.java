@@ -0,0 +1,90 @@
+package io.mats3.impl.jms;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the threads for the {@link JmsMatsStageProcessor}s, either as ordinary platform threads, or as virtual
+ * threads if requested and available. Since Mats is compiled for Java 8, the Java 21 API for virtual threads
+ * (<code>Thread.ofVirtual().name(..).unstarted(..)</code>) is accessed reflectively, the lookup done once at class
+ * load. If not available (pre-21 JVMs, or 19/20 without preview enabled), we fall back to platform threads.
+ * <p>
+ * Notice that ThreadLocals, and thus the SLF4J MDC and the {@link JmsMatsContextLocalCallback}, work just the same on
+ * virtual threads - and since each StageProcessor still owns its thread for its entire life, the MDC and ThreadLocal
+ * handling of the run-loop is unaffected.
+ */
+final class JmsMatsVirtualThreads implements JmsMatsStatics {
+    private static final Logger log = LoggerFactory.getLogger(JmsMatsVirtualThreads.class);
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderUnstarted = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderName = builderClass.getMethod("name", String.class);
+            builderUnstarted = builderClass.getMethod("unstarted", Runnable.class);
+            // Invoke once, since on Java 19 and 20 this throws UnsupportedOperationException unless preview enabled.
+            ofVirtual.invoke(null);
+        }
+        catch (Throwable t) {
+            // This is expected on pre-21 JVMs - log on debug only.
+            if (log.isDebugEnabled()) log.debug(LOG_PREFIX + "Virtual threads are not available on this JVM ["
+                    + System.getProperty("java.version") + "]: [" + t.getClass().getSimpleName() + "].");
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_UNSTARTED = builderUnstarted;
+    }
+
+    private JmsMatsVirtualThreads() {
+        /* utility class */
+    }
+
+    /**
+     * @return whether virtual threads are available on this JVM.
+     */
+    static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates an unstarted thread, which is a virtual thread if <code>virtual</code> is <code>true</code> and virtual
+     * threads are {@link #isAvailable() available}, otherwise a platform thread.
+     *
+     * @param runnable
+     *            the run-method for the new thread.
+     * @param name
+     *            the name of the new thread.
+     * @param virtual
+     *            whether a virtual thread is desired.
+     * @return an unstarted thread.
+     */
+    static Thread newThread(Runnable runnable, String name, boolean virtual) {
+        // ?: Should we, and can we, make a virtual thread?
+        if (virtual && isAvailable()) {
+            // -> Yes, so do that.
+            try {
+                Object builder = OF_VIRTUAL.invoke(null);
+                builder = BUILDER_NAME.invoke(builder, name);
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+            }
+            catch (IllegalAccessException | InvocationTargetException e) {
+                // This should not happen, as we tested it in the static initializer. Fall back to platform thread.
+                log.warn(LOG_PREFIX + "Got problems creating virtual thread [" + name + "], falling back to platform"
+                        + " thread.", e);
+            }
+        }
+        // E-> Platform thread
+        return new Thread(runnable, name);
+    }
+}
@@ -0,0 +1,34 @@
+package io.mats3.serial.binary;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+
+/**
+ * Pluggable codec for the DTOs and STOs carried in the byte[] slots of the {@link MatsTraceBinaryImpl}, employed by
+ * {@link MatsSerializerBinary}. The default is {@link MatsBinaryDtoCodecJackson}, which serializes to UTF-8 JSON bytes -
+ * but you may provide e.g. a Smile, CBOR, Protobuf or Kryo based codec. Notice that all communicating parties must use
+ * compatible codecs, as this is part of the wire format.
+ * <p>
+ * Note that <code>byte[]</code> DTOs never reach the codec: They are put directly in the slot by the
+ * {@link MatsSerializerBinary}.
+ */
+public interface MatsBinaryDtoCodec {
+    /**
+     * @param object
+     *            the DTO or STO to serialize, never <code>null</code>.
+     * @return the serialized bytes.
+     * @throws SerializationException
+     *             if the object could not be serialized.
+     */
+    byte[] serialize(Object object) throws SerializationException;
+
+    /**
+     * @param serialized
+     *            the bytes to deserialize, never <code>null</code>.
+     * @param type
+     *            the class of the DTO or STO to deserialize into.
+     * @return the reconstituted object.
+     * @throws SerializationException
+     *             if the bytes could not be deserialized.
+     */
+    <T> T deserialize(byte[] serialized, Class<T> type) throws SerializationException;
+}
@@ -0,0 +1,71 @@
+package io.mats3.serial.binary;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+
+/**
+ * The default {@link MatsBinaryDtoCodec}, serializing DTOs and STOs to UTF-8 JSON bytes using Jackson - with the
+ * {@link ObjectMapper} configured identically to the one in <code>MatsSerializerJson</code> (fields only, drop nulls,
+ * ignore unknown properties, JSR310 dates as Strings, JDK8 Optionals), so that the DTOs behave the same with both
+ * serializers.
+ */
+public class MatsBinaryDtoCodecJackson implements MatsBinaryDtoCodec {
+
+    private final ObjectMapper _objectMapper;
+
+    public MatsBinaryDtoCodecJackson() {
+        ObjectMapper mapper = new ObjectMapper();
+
+        // Read and write any access modifier fields (e.g. private)
+        mapper.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+
+        // Drop nulls
+        mapper.setSerializationInclusion(Include.NON_NULL);
+
+        // If props are in JSON that aren't in Java DTO, do not fail.
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        // Write e.g. Dates as "1975-03-11" instead of timestamp, and instead of array-of-ints [1975, 3, 11].
+        // Uses ISO8601 with milliseconds and timezone (if present).
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+        // Handle Optional, OptionalLong, OptionalDouble
+        mapper.registerModule(new Jdk8Module());
+
+        _objectMapper = mapper;
+    }
+
+    @Override
+    public byte[] serialize(Object object) {
+        try {
+            return _objectMapper.writeValueAsBytes(object);
+        }
+        catch (JsonProcessingException e) {
+            throw new SerializationException("Couldn't serialize Object [" + object + "].", e);
+        }
+    }
+
+    @Override
+    public <T> T deserialize(byte[] serialized, Class<T> type) {
+        try {
+            return _objectMapper.readValue(serialized, type);
+        }
+        catch (IOException e) {
+            throw new SerializationException("Couldn't deserialize JSON bytes into object of type [" + type + "].",
+                    e);
+        }
+    }
+}
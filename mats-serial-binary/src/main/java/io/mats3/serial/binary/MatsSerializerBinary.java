@@ -0,0 +1,421 @@
+package io.mats3.serial.binary;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.mats3.serial.MatsSerializer;
+import io.mats3.serial.MatsTrace;
+import io.mats3.serial.MatsTrace.KeepMatsTrace;
+import io.mats3.serial.impl.MatsTraceFieldImpl;
+
+/**
+ * Implementation of {@link MatsSerializer} with <code>Z = byte[]</code>, which serializes the {@link MatsTrace} into a
+ * compact binary envelope (varints, per-envelope interned strings, raw byte slots for the DTOs and STOs - ref.
+ * {@link MatsTraceBinaryCodec}), and compress and decompress using {@link Deflater} and {@link Inflater}.
+ * <p />
+ * Compared to <code>MatsSerializerJson</code>, where each DTO and STO is first serialized to a JSON String and then
+ * escaped as a String inside the JSON of the MatsTrace, the DTO and STO bytes are here put directly into the envelope.
+ * The DTOs and STOs are serialized by a pluggable {@link MatsBinaryDtoCodec}, by default
+ * {@link MatsBinaryDtoCodecJackson} which serializes to UTF-8 JSON bytes using an identically configured Jackson
+ * ObjectMapper as <code>MatsSerializerJson</code>. A DTO of type <code>byte[]</code> is put directly in the slot,
+ * without going through the codec.
+ * <p />
+ * The meta is prefixed by {@link #IDENTIFICATION}, which is what {@link #handlesMeta(String)} keys on - and which the
+ * JSON serializer does not handle.
+ * <p />
+ * <b>Switching to this serializer is a hard cut-over:</b> A MatsFactory deserializes every incoming message with its
+ * single MatsSerializer, and there is no delegating serializer dispatching on the meta. Thus, a MatsFactory using this
+ * serializer cannot read messages produced with <code>MatsSerializerJson</code>, nor vice versa - the meta only makes
+ * the deserialization fail clearly with a {@link SerializationException}. All services communicating over the same
+ * broker must therefore switch at the same time, with their queues drained of messages in the old format.
+ */
+public class MatsSerializerBinary implements MatsSerializer<byte[]> {
+
+    public static String IDENTIFICATION = "MatsTrace_Binary_v1";
+
+    /**
+     * The default compression level - {@link Deflater#BEST_SPEED}, as for <code>MatsSerializerJson</code>.
+     */
+    public static int DEFAULT_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+    /**
+     * Envelopes larger than this number of bytes are compressed.
+     */
+    public static int DEFAULT_COMPRESSION_THRESHOLD = 900;
+
+    private static final String COMPRESS_DEFLATE = "deflate";
+    private static final String COMPRESS_PLAIN = "plain";
+    private static final String DECOMPRESSED_SIZE_ATTRIBUTE = ";decompSize=";
+
+    private final MatsBinaryDtoCodec _dtoCodec;
+    private final int _compressionLevel;
+
+    /**
+     * Constructs a MatsSerializer, using the {@link MatsBinaryDtoCodecJackson} and the
+     * {@link #DEFAULT_COMPRESSION_LEVEL}.
+     */
+    public static MatsSerializerBinary create() {
+        return new MatsSerializerBinary(new MatsBinaryDtoCodecJackson(), DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Constructs a MatsSerializer, using the specified {@link MatsBinaryDtoCodec} and the
+     * {@link #DEFAULT_COMPRESSION_LEVEL}.
+     *
+     * @param dtoCodec
+     *            the codec to use for serializing DTOs and STOs.
+     */
+    public static MatsSerializerBinary create(MatsBinaryDtoCodec dtoCodec) {
+        return new MatsSerializerBinary(dtoCodec, DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Constructs a MatsSerializer, using the specified {@link MatsBinaryDtoCodec} and Compression Level - refer to
+     * {@link Deflater}'s constants and levels.
+     *
+     * @param dtoCodec
+     *            the codec to use for serializing DTOs and STOs.
+     * @param compressionLevel
+     *            the compression level given to {@link Deflater} to use.
+     */
+    public static MatsSerializerBinary create(MatsBinaryDtoCodec dtoCodec, int compressionLevel) {
+        return new MatsSerializerBinary(dtoCodec, compressionLevel);
+    }
+
+    protected MatsSerializerBinary(MatsBinaryDtoCodec dtoCodec, int compressionLevel) {
+        if (dtoCodec == null) {
+            throw new NullPointerException("dtoCodec");
+        }
+        _dtoCodec = dtoCodec;
+        _compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public boolean handlesMeta(String meta) {
+        return (meta != null) && meta.startsWith(IDENTIFICATION);
+    }
+
+    @Override
+    public MatsTrace<byte[]> createNewMatsTrace(String traceId, String flowId,
+            KeepMatsTrace keepMatsTrace, boolean nonPersistent, boolean interactive, long ttlMillis, boolean noAudit) {
+        return new MatsTraceBinaryImpl(traceId, flowId, keepMatsTrace, nonPersistent, interactive, ttlMillis,
+                noAudit);
+    }
+
+    @Override
+    public SerializedMatsTrace serializeMatsTrace(MatsTrace<byte[]> matsTrace) {
+        long nanosAtStart_Serialization = System.nanoTime();
+        byte[] serializedBytes = MatsTraceBinaryCodec.encode((MatsTraceFieldImpl<byte[]>) matsTrace);
+        long now = System.nanoTime();
+        long nanosTaken_Serialization = now - nanosAtStart_Serialization;
+        long nanosAtStart_Compression = now;
+
+        String meta;
+        byte[] resultBytes;
+        long nanosTaken_Compression;
+
+        if (serializedBytes.length > DEFAULT_COMPRESSION_THRESHOLD) {
+            resultBytes = compress(serializedBytes);
+            nanosTaken_Compression = System.nanoTime() - nanosAtStart_Compression;
+            // Add the uncompressed size, for precise buffer allocation for decompression.
+            meta = IDENTIFICATION + ':' + COMPRESS_DEFLATE + DECOMPRESSED_SIZE_ATTRIBUTE + serializedBytes.length;
+        }
+        else {
+            resultBytes = serializedBytes;
+            nanosTaken_Compression = 0;
+            meta = IDENTIFICATION + ':' + COMPRESS_PLAIN;
+        }
+
+        return new SerializedMatsTraceImpl(resultBytes, meta, serializedBytes.length, nanosTaken_Serialization,
+                nanosTaken_Compression);
+    }
+
+    private static class SerializedMatsTraceImpl implements SerializedMatsTrace {
+        private final byte[] _matsTraceBytes;
+        private final String _meta;
+        private final int _sizeUncompressed;
+        private final long _nanosSerialization;
+        private final long _nanosCompression;
+
+        public SerializedMatsTraceImpl(byte[] matsTraceBytes, String meta, int sizeUncompressed,
+                long nanosSerialization, long nanosCompression) {
+            _matsTraceBytes = matsTraceBytes;
+            _meta = meta;
+            _sizeUncompressed = sizeUncompressed;
+            _nanosSerialization = nanosSerialization;
+            _nanosCompression = nanosCompression;
+        }
+
+        @Override
+        public byte[] getMatsTraceBytes() {
+            return _matsTraceBytes;
+        }
+
+        @Override
+        public String getMeta() {
+            return _meta;
+        }
+
+        @Override
+        public int getSizeUncompressed() {
+            return _sizeUncompressed;
+        }
+
+        @Override
+        public long getNanosSerialization() {
+            return _nanosSerialization;
+        }
+
+        @Override
+        public long getNanosCompression() {
+            return _nanosCompression;
+        }
+    }
+
+    @Override
+    public DeserializedMatsTrace<byte[]> deserializeMatsTrace(byte[] matsTraceBytes, String meta) {
+        return deserializeMatsTrace(matsTraceBytes, 0, matsTraceBytes.length, meta);
+    }
+
+    @Override
+    public DeserializedMatsTrace<byte[]> deserializeMatsTrace(byte[] matsTraceBytes, int offset, int length,
+            String meta) {
+        // ?: Is this our format?
+        if (!handlesMeta(meta)) {
+            // -> No, so we cannot deserialize it.
+            throw new SerializationException("Can only deserialize meta starting with [" + IDENTIFICATION
+                    + "], got [" + meta + "].");
+        }
+        // Chop off the identification
+        meta = meta.substring(IDENTIFICATION.length() + 1);
+
+        long nanosStart = System.nanoTime();
+        long decompressionNanos;
+        long nanosStartDeserialization;
+        int decompressedBytesLength;
+
+        MatsTrace<byte[]> matsTrace;
+        if (meta.startsWith(COMPRESS_DEFLATE)) {
+            // -> Compressed, so decompress the incoming bytes.
+            int decompressedSizeAttributeIndex = meta.indexOf(DECOMPRESSED_SIZE_ATTRIBUTE);
+            // We always add the decompressed size attribute, so this is just a sanity check
+            if (decompressedSizeAttributeIndex == -1) {
+                throw new SerializationException("Missing decompressed size attribute in meta [" + meta + "].");
+            }
+            int start = decompressedSizeAttributeIndex + DECOMPRESSED_SIZE_ATTRIBUTE.length();
+            int end = meta.indexOf(';', start);
+            end = (end != -1) ? end : meta.length();
+            int decompressedSize = Integer.parseInt(meta.substring(start, end));
+
+            // Decompress
+            byte[] decompressedBytes = decompress(matsTraceBytes, offset, length, decompressedSize);
+            // Begin deserialization time
+            nanosStartDeserialization = System.nanoTime();
+            // Store how long it took to decompress (shall not be zero, since we did decompress).
+            decompressionNanos = Math.max(1L, nanosStartDeserialization - nanosStart);
+            decompressedBytesLength = decompressedBytes.length;
+            matsTrace = MatsTraceBinaryCodec.decode(decompressedBytes, 0, decompressedBytes.length);
+        }
+        else if (meta.startsWith(COMPRESS_PLAIN)) {
+            // -> Plain, no compression - use the incoming bytes directly
+            nanosStartDeserialization = nanosStart;
+            decompressionNanos = 0L;
+            decompressedBytesLength = length;
+            matsTrace = MatsTraceBinaryCodec.decode(matsTraceBytes, offset, length);
+        }
+        else {
+            throw new SerializationException("Can only deserialize 'plain' and 'deflate', got meta [" + meta + "].");
+        }
+
+        long deserializationNanos = System.nanoTime() - nanosStartDeserialization;
+        return new DeserializedMatsTraceImpl(matsTrace, decompressedBytesLength, deserializationNanos,
+                decompressionNanos);
+    }
+
+    private static final class DeserializedMatsTraceImpl implements DeserializedMatsTrace<byte[]> {
+        private final MatsTrace<byte[]> _matsTrace;
+        private final int _sizeUncompressed;
+        private final long _nanosDeserialization;
+        private final long _nanosDecompression;
+
+        public DeserializedMatsTraceImpl(MatsTrace<byte[]> matsTrace, int sizeUncompressed,
+                long nanosDeserialization, long nanosDecompression) {
+            _matsTrace = matsTrace;
+            _sizeUncompressed = sizeUncompressed;
+            _nanosDeserialization = nanosDeserialization;
+            _nanosDecompression = nanosDecompression;
+        }
+
+        @Override
+        public MatsTrace<byte[]> getMatsTrace() {
+            return _matsTrace;
+        }
+
+        @Override
+        public int getSizeDecompressed() {
+            return _sizeUncompressed;
+        }
+
+        @Override
+        public long getNanosDeserialization() {
+            return _nanosDeserialization;
+        }
+
+        @Override
+        public long getNanosDecompression() {
+            return _nanosDecompression;
+        }
+    }
+
+    @Override
+    public byte[] serializeObject(Object object) {
+        if (object == null) {
+            return null;
+        }
+        // ?: Is this already a byte array?
+        if (object instanceof byte[]) {
+            // -> Yes, so put it directly in the slot.
+            return (byte[]) object;
+        }
+        return _dtoCodec.serialize(object);
+    }
+
+    @Override
+    public <T> T deserializeObject(byte[] serialized, Class<T> type) {
+        if (serialized == null) {
+            return null;
+        }
+        // ?: Is the desired type a byte array?
+        if (type == byte[].class) {
+            // -> Yes, so return the slot directly.
+            return type.cast(serialized);
+        }
+        return _dtoCodec.deserialize(serialized, type);
+    }
+
+    @Override
+    public <T> T newInstance(Class<T> clazz) {
+        Constructor<T> noArgsConstructor;
+        try {
+            noArgsConstructor = clazz.getDeclaredConstructor();
+        }
+        catch (NoSuchMethodException e) {
+            throw new CannotCreateEmptyInstanceException("Missing no-args constructor on class ["
+                    + clazz.getName() + "].", e);
+        }
+        try {
+            noArgsConstructor.setAccessible(true);
+            return noArgsConstructor.newInstance();
+        }
+        catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new CannotCreateEmptyInstanceException("Couldn't create new empty instance of class ["
+                    + clazz.getName() + "].", e);
+        }
+    }
+
+    private static class CannotCreateEmptyInstanceException extends SerializationException {
+        CannotCreateEmptyInstanceException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static final ConcurrentLinkedDeque<Deflater> _deflaterPool = new ConcurrentLinkedDeque<>();
+
+    protected byte[] compress(byte[] data) {
+        Deflater deflater = _deflaterPool.pollFirst();
+        if (deflater == null) {
+            deflater = new Deflater(_compressionLevel);
+        }
+        boolean reuseDeflater = false;
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            // Hoping for at least 50% reduction, so set "best guess" to half incoming - growing if needed.
+            byte[] output = new byte[Math.max(64, data.length / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            reuseDeflater = true;
+            return Arrays.copyOf(output, length);
+        }
+        finally {
+            // ?: Reuse this Deflater?
+            if (reuseDeflater) {
+                // -> Yes reuse, so reset() it, and enpool.
+                deflater.reset();
+                _deflaterPool.addFirst(deflater);
+            }
+            else {
+                // -> No, not reuse, so end() it to timely release off-heap resource.
+                deflater.end();
+            }
+        }
+    }
+
+    private static final ConcurrentLinkedDeque<Inflater> _inflaterPool = new ConcurrentLinkedDeque<>();
+
+    protected byte[] decompress(byte[] data, int offset, int length, int decompressedSize) {
+        Inflater inflater = _inflaterPool.pollFirst();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        boolean reuseInflater = false;
+        try {
+            inflater.setInput(data, offset, length);
+            // We know the exact decompressed size, so inflate directly into right-sized array.
+            byte[] output = new byte[decompressedSize];
+            int decompressedLength = 0;
+            while (!inflater.finished()) {
+                int count;
+                // ?: Still room in output?
+                if (decompressedLength < output.length) {
+                    // -> Yes, so inflate into it.
+                    count = inflater.inflate(output, decompressedLength, output.length - decompressedLength);
+                }
+                else {
+                    // -> No, full: The inflater might still need to consume the end of the stream, but shall not
+                    // produce any more bytes.
+                    count = inflater.inflate(new byte[1]);
+                    if (count > 0) {
+                        throw new SerializationException("Decompressed size is larger than the ["
+                                + decompressedSize + "] bytes stated in meta.");
+                    }
+                }
+                if ((count == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated or otherwise bad compressed MatsTrace.");
+                }
+                decompressedLength += count;
+            }
+            if (decompressedLength != decompressedSize) {
+                throw new SerializationException("Decompressed size [" + decompressedLength + "] is not the ["
+                        + decompressedSize + "] bytes stated in meta.");
+            }
+            reuseInflater = true;
+            return output;
+        }
+        catch (DataFormatException e) {
+            throw new SerializationException("DataFormatException was bad here.", e);
+        }
+        finally {
+            // ?: Reuse this Inflater?
+            if (reuseInflater) {
+                // -> Yes reuse, so reset() it, and enpool.
+                inflater.reset();
+                _inflaterPool.addFirst(inflater);
+            }
+            else {
+                // -> No, not reuse, so end() it to timely release off-heap resource.
+                inflater.end();
+            }
+        }
+    }
+}
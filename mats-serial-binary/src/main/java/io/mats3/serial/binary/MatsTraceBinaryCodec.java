@@ -0,0 +1,372 @@
+package io.mats3.serial.binary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+import io.mats3.serial.MatsTrace.KeepMatsTrace;
+import io.mats3.serial.impl.MatsTraceFieldImpl;
+import io.mats3.serial.impl.MatsTraceFieldImpl.RawFieldReader;
+import io.mats3.serial.impl.MatsTraceFieldImpl.RawFieldWriter;
+
+/**
+ * The compact binary envelope for {@link MatsTraceBinaryImpl}: Writes the constructor fields and the initialization
+ * timestamp, and then the rest of the fields of {@link MatsTraceFieldImpl} as given by its
+ * {@link MatsTraceFieldImpl#writeRawFields(RawFieldWriter) raw field walk} - the same fields that Jackson handles for
+ * the JSON variant.
+ * <p>
+ * Format, version 1 (first byte of the envelope):
+ * <ul>
+ * <li>Integers are unsigned varints (7 bits per byte), signed longs are ZigZag varints, except SpanIds, which are
+ * random and thus written as fixed 8 bytes.</li>
+ * <li>Strings are interned per envelope: 0 is <code>null</code>, 1 is a new string (varint length + UTF-8 bytes) which
+ * is added to the table, and n &gt;= 2 is a reference to table entry n-2. Thus the endpoint and stage ids, app names
+ * and hosts, which are repeated throughout the call and stack flows, are only written once.</li>
+ * <li>Enums are written as their interned names.</li>
+ * <li>The Z payloads (DTOs, STOs, trace properties) are raw byte slots: 0 is <code>null</code>, otherwise length+1
+ * followed by the bytes.</li>
+ * <li>Collections and arrays: 0 is <code>null</code>, otherwise size+1 followed by the elements.</li>
+ * <li>Call timestamps are written as delta from the MatsTrace initialization timestamp.</li>
+ * </ul>
+ */
+final class MatsTraceBinaryCodec {
+    static final byte FORMAT_VERSION = 1;
+
+    private MatsTraceBinaryCodec() {
+        /* utility class */
+    }
+
+    /**
+     * @return the binary envelope of the provided MatsTrace.
+     */
+    static byte[] encode(MatsTraceFieldImpl<byte[]> matsTrace) {
+        long initializedTimestamp = matsTrace.getInitializedTimestamp();
+        Output out = new Output(512, initializedTimestamp);
+        out.writeByte(FORMAT_VERSION);
+
+        // :: The constructor fields, which the constructor holds as TRUE or null, and ttl or null.
+        out.writeString(matsTrace.getFlowId());
+        out.writeString(matsTrace.getTraceId());
+        out.writeZigZag(initializedTimestamp);
+        KeepMatsTrace keepMatsTrace = matsTrace.getKeepTrace();
+        out.writeString(keepMatsTrace != null ? keepMatsTrace.name() : null);
+        out.writeNullableBoolean(matsTrace.isNonPersistent() ? Boolean.TRUE : null);
+        out.writeNullableBoolean(matsTrace.isInteractive() ? Boolean.TRUE : null);
+        out.writeNullableLong(matsTrace.getTimeToLive() > 0 ? Long.valueOf(matsTrace.getTimeToLive()) : null);
+        out.writeNullableBoolean(matsTrace.isNoAudit() ? Boolean.TRUE : null);
+
+        // :: The rest of the fields
+        matsTrace.writeRawFields(out);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the MatsTrace reconstituted from the binary envelope.
+     */
+    static MatsTraceBinaryImpl decode(byte[] bytes, int offset, int length) {
+        try {
+            Input in = new Input(bytes, offset, length);
+            int version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new SerializationException("Unknown binary MatsTrace format version [" + version
+                        + "], can only handle [" + FORMAT_VERSION + "].");
+            }
+            // :: The constructor fields
+            String flowId = in.readString();
+            String traceId = in.readString();
+            long initializedTimestamp = in.readZigZag();
+            String keepMatsTrace = in.readString();
+            Boolean nonPersistent = in.readNullableBoolean();
+            Boolean interactive = in.readNullableBoolean();
+            Long ttlMillis = in.readNullableLong();
+            Boolean noAudit = in.readNullableBoolean();
+            MatsTraceBinaryImpl matsTrace = new MatsTraceBinaryImpl(traceId, flowId,
+                    keepMatsTrace != null ? KeepMatsTrace.valueOf(keepMatsTrace) : null,
+                    Boolean.TRUE.equals(nonPersistent), Boolean.TRUE.equals(interactive),
+                    ttlMillis != null ? ttlMillis : 0, Boolean.TRUE.equals(noAudit));
+            matsTrace.overrideInitializationTimestamp(initializedTimestamp);
+
+            // :: The rest of the fields
+            in.setTimestampBase(initializedTimestamp);
+            matsTrace.readRawFields(in);
+
+            return matsTrace;
+        }
+        catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new SerializationException("Malformed binary MatsTrace envelope.", e);
+        }
+    }
+
+    /**
+     * Growable byte array output, with the per-envelope string table.
+     */
+    static final class Output implements RawFieldWriter<byte[]> {
+        private final Map<String, Integer> _stringTable = new HashMap<>();
+        private final long _timestampBase;
+        private byte[] _buffer;
+        private int _position;
+
+        Output(int initialCapacity, long timestampBase) {
+            _buffer = new byte[initialCapacity];
+            _timestampBase = timestampBase;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (_position + additional > _buffer.length) {
+                _buffer = Arrays.copyOf(_buffer, Math.max(_buffer.length * 2, _position + additional));
+            }
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            _buffer[_position++] = (byte) value;
+        }
+
+        @Override
+        public void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                _buffer[_position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            _buffer[_position++] = (byte) value;
+        }
+
+        @Override
+        public void writeInt(int value) {
+            writeVarLong(value & 0xFFFF_FFFFL);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        @Override
+        public void writeSpanId(long spanId) {
+            ensureCapacity(8);
+            for (int i = 56; i >= 0; i -= 8) {
+                _buffer[_position++] = (byte) (spanId >>> i);
+            }
+        }
+
+        @Override
+        public void writeTimestamp(long timestamp) {
+            writeZigZag(timestamp - _timestampBase);
+        }
+
+        private void writeRaw(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, _buffer, _position, bytes.length);
+            _position += bytes.length;
+        }
+
+        @Override
+        public void writeValue(byte[] bytes) {
+            if (bytes == null) {
+                writeInt(0);
+                return;
+            }
+            writeInt(bytes.length + 1);
+            writeRaw(bytes);
+        }
+
+        @Override
+        public void writeString(String value) {
+            if (value == null) {
+                writeInt(0);
+                return;
+            }
+            Integer index = _stringTable.get(value);
+            // ?: Have we already written this string?
+            if (index != null) {
+                // -> Yes, so write reference to it.
+                writeInt(index + 2);
+                return;
+            }
+            // E-> No, so add it to table, and write it.
+            _stringTable.put(value, _stringTable.size());
+            writeInt(1);
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(utf8.length);
+            writeRaw(utf8);
+        }
+
+        void writeNullableBoolean(Boolean value) {
+            writeByte(value == null ? 0 : (value ? 2 : 1));
+        }
+
+        @Override
+        public void writeNullableLong(Long value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeZigZag(value);
+            }
+        }
+
+        @Override
+        public void writeLongArray(long[] values) {
+            if (values == null) {
+                writeInt(0);
+                return;
+            }
+            writeInt(values.length + 1);
+            for (long value : values) {
+                writeZigZag(value);
+            }
+        }
+
+        @Override
+        public void writeSize(int size) {
+            writeInt(size + 1);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(_buffer, _position);
+        }
+    }
+
+    /**
+     * Reader of a slice of a byte array, with the per-envelope string table.
+     */
+    static final class Input implements RawFieldReader<byte[]> {
+        private final List<String> _stringTable = new ArrayList<>();
+        private final byte[] _buffer;
+        private final int _limit;
+        private int _position;
+        private long _timestampBase;
+
+        Input(byte[] buffer, int offset, int length) {
+            _buffer = buffer;
+            _position = offset;
+            _limit = offset + length;
+        }
+
+        void setTimestampBase(long timestampBase) {
+            _timestampBase = timestampBase;
+        }
+
+        int readByte() {
+            if (_position >= _limit) {
+                throw new IndexOutOfBoundsException("Read past end of binary MatsTrace envelope.");
+            }
+            return _buffer[_position++];
+        }
+
+        @Override
+        public boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in binary MatsTrace envelope.");
+        }
+
+        @Override
+        public int readInt() {
+            return (int) readVarLong();
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        @Override
+        public long readSpanId() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        @Override
+        public long readTimestamp() {
+            return _timestampBase + readZigZag();
+        }
+
+        private byte[] readRaw(int length) {
+            if ((length < 0) || (_position + length > _limit)) {
+                throw new IndexOutOfBoundsException("Length [" + length + "] reads past end of binary MatsTrace"
+                        + " envelope.");
+            }
+            byte[] bytes = Arrays.copyOfRange(_buffer, _position, _position + length);
+            _position += length;
+            return bytes;
+        }
+
+        @Override
+        public byte[] readValue() {
+            int lengthPlusOne = readInt();
+            return lengthPlusOne == 0 ? null : readRaw(lengthPlusOne - 1);
+        }
+
+        @Override
+        public String readString() {
+            int marker = readInt();
+            if (marker == 0) {
+                return null;
+            }
+            if (marker == 1) {
+                int length = readInt();
+                if ((length < 0) || (_position + length > _limit)) {
+                    throw new IndexOutOfBoundsException("String length [" + length + "] reads past end of binary"
+                            + " MatsTrace envelope.");
+                }
+                String value = new String(_buffer, _position, length, StandardCharsets.UTF_8);
+                _position += length;
+                _stringTable.add(value);
+                return value;
+            }
+            return _stringTable.get(marker - 2);
+        }
+
+        Boolean readNullableBoolean() {
+            int value = readByte();
+            return value == 0 ? null : (value == 2 ? Boolean.TRUE : Boolean.FALSE);
+        }
+
+        @Override
+        public Long readNullableLong() {
+            return readBoolean() ? readZigZag() : null;
+        }
+
+        @Override
+        public long[] readLongArray() {
+            int lengthPlusOne = readInt();
+            if (lengthPlusOne == 0) {
+                return null;
+            }
+            long[] values = new long[lengthPlusOne - 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readZigZag();
+            }
+            return values;
+        }
+
+        /**
+         * @return the size of the following collection, or -1 if <code>null</code>.
+         */
+        @Override
+        public int readSize() {
+            return readInt() - 1;
+        }
+    }
+}
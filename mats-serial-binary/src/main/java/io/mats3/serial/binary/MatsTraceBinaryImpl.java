@@ -0,0 +1,39 @@
+package io.mats3.serial.binary;
+
+import io.mats3.serial.MatsTrace;
+import io.mats3.serial.impl.MatsTraceFieldImpl;
+
+/**
+ * Extension of {@link MatsTraceFieldImpl} which uses byte[] for Z, meant to carry the DTO and STO payloads as raw byte
+ * arrays, serialized by a {@link MatsBinaryDtoCodec}. Employed by {@link MatsSerializerBinary}.
+ */
+public final class MatsTraceBinaryImpl extends MatsTraceFieldImpl<byte[]> {
+
+    /**
+     * Creates a new {@link MatsTrace}, used by {@link MatsSerializerBinary}. Must add a {@link Call} before sending.
+     * Also used by {@link MatsTraceBinaryCodec} when deserializing, where the rest of the fields are set afterwards.
+     *
+     * @param traceId
+     *            the user-defined hopefully-unique id for this call flow.
+     * @param flowId
+     *            the system-defined pretty-much-(for <i>all</i> purposes)-guaranteed-unique id for this call flow.
+     * @param keepMatsTrace
+     *            the level of "trace keeping".
+     * @param nonPersistent
+     *            if the messages in this flow should be non-persistent
+     * @param interactive
+     *            if the messages in this flow is of "interactive" priority.
+     * @param ttlMillis
+     *            the number of milliseconds the message should live before being time out. 0 means "forever", and is
+     *            the default.
+     * @param noAudit
+     *            hint to the underlying implementation, or to any monitoring/auditing tooling on the Message Broker,
+     *            that it does not make much value in auditing this message flow, typically because it is just a
+     *            "getter" of information to show to some user, or a health-check validating that some service is up and
+     *            answers in a timely fashion.
+     */
+    MatsTraceBinaryImpl(String traceId, String flowId, KeepMatsTrace keepMatsTrace, boolean nonPersistent,
+            boolean interactive, long ttlMillis, boolean noAudit) {
+        super(traceId, flowId, keepMatsTrace, nonPersistent, interactive, ttlMillis, noAudit);
+    }
+}
@@ -0,0 +1,311 @@
+package io.mats3.serial.binary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.mats3.serial.MatsSerializer;
+import io.mats3.serial.MatsSerializer.SerializedMatsTrace;
+import io.mats3.serial.MatsTrace;
+import io.mats3.serial.MatsTrace.Call;
+import io.mats3.serial.MatsTrace.Call.Channel;
+import io.mats3.serial.MatsTrace.Call.MessagingModel;
+import io.mats3.serial.MatsTrace.KeepMatsTrace;
+import io.mats3.serial.MatsTrace.StackState;
+import io.mats3.serial.json.MatsSerializerJson;
+
+/**
+ * Tests the {@link MatsSerializerBinary}: Roundtrips of a "realistic deep-stack" flow, both for {@link KeepMatsTrace}
+ * COMPACT and FULL, the raw byte[] DTO slots, the meta handling vs. the JSON serializer - and a simple comparison
+ * benchmark against {@link MatsSerializerJson} on the same flow, logging sizes and timings.
+ */
+public class TestMatsSerializerBinary {
+    private static final Logger log = LoggerFactory.getLogger(TestMatsSerializerBinary.class);
+
+    private static final int STACK_DEPTH = 8;
+
+    @Test
+    public void roundtripDeepStackFlow_Compact() {
+        runFlow(MatsSerializerBinary.create(), KeepMatsTrace.COMPACT, true);
+    }
+
+    @Test
+    public void roundtripDeepStackFlow_Full() {
+        runFlow(MatsSerializerBinary.create(), KeepMatsTrace.FULL, true);
+    }
+
+    @Test
+    public void rawByteArrayDtoSlots() {
+        MatsSerializerBinary ser = MatsSerializerBinary.create();
+        byte[] raw = new byte[] { 0, 1, 2, (byte) 0xFF, 42 };
+        // byte[] goes directly in the slot
+        Assert.assertSame(raw, ser.serializeObject(raw));
+
+        MatsTrace<byte[]> mt = ser.createNewMatsTrace("traceId", "flowId", KeepMatsTrace.COMPACT, false, false, 0,
+                false);
+        mt = mt.addSendCall("from", "Terminator", MessagingModel.QUEUE, ser.serializeObject(raw), null);
+        mt.setOutgoingTimestamp(System.currentTimeMillis());
+        MatsTrace<byte[]> mt2 = reserialize(mt, ser);
+        Assert.assertArrayEquals(raw, ser.deserializeObject(mt2.getCurrentCall().getData(), byte[].class));
+    }
+
+    @Test
+    public void metaIdentification() {
+        MatsSerializerBinary binary = MatsSerializerBinary.create();
+        MatsSerializerJson json = MatsSerializerJson.create();
+
+        SerializedMatsTrace binarySerialized = binary.serializeMatsTrace(createDeepStackTrace(binary,
+                KeepMatsTrace.COMPACT));
+        SerializedMatsTrace jsonSerialized = json.serializeMatsTrace(createDeepStackTrace(json,
+                KeepMatsTrace.COMPACT));
+
+        Assert.assertTrue(binary.handlesMeta(binarySerialized.getMeta()));
+        Assert.assertFalse(binary.handlesMeta(jsonSerialized.getMeta()));
+        Assert.assertTrue(json.handlesMeta(jsonSerialized.getMeta()));
+        Assert.assertFalse(json.handlesMeta(binarySerialized.getMeta()));
+    }
+
+    @Test(expected = MatsSerializer.SerializationException.class)
+    public void truncatedEnvelopeShouldThrowSerializationException() {
+        MatsSerializerBinary ser = MatsSerializerBinary.create();
+        MatsTrace<byte[]> mt = ser.createNewMatsTrace("traceId", "flowId", KeepMatsTrace.COMPACT, false, false, 0,
+                false);
+        mt = mt.addSendCall("from", "Terminator", MessagingModel.QUEUE, ser.serializeObject(new DataTO()), null);
+        SerializedMatsTrace serialized = ser.serializeMatsTrace(mt);
+        byte[] bytes = serialized.getMatsTraceBytes();
+        ser.deserializeMatsTrace(bytes, 0, bytes.length / 2, serialized.getMeta());
+    }
+
+    /**
+     * Not a proper JMH benchmark, but gives an indication: Runs the deep-stack flow through both serializers a bunch
+     * of times, and logs the sizes and times. Asserts only the size, as timings are too noisy for a unit test.
+     */
+    @Test
+    public void compareWithJson() {
+        MatsSerializerBinary binary = MatsSerializerBinary.create();
+        MatsSerializerJson json = MatsSerializerJson.create();
+
+        for (KeepMatsTrace keepMatsTrace : new KeepMatsTrace[] { KeepMatsTrace.COMPACT, KeepMatsTrace.FULL }) {
+            MatsTrace<byte[]> binaryTrace = createDeepStackTrace(binary, keepMatsTrace);
+            MatsTrace<String> jsonTrace = createDeepStackTrace(json, keepMatsTrace);
+
+            SerializedMatsTrace binarySerialized = binary.serializeMatsTrace(binaryTrace);
+            SerializedMatsTrace jsonSerialized = json.serializeMatsTrace(jsonTrace);
+
+            // Warmup, then measure
+            benchmark(binary, binaryTrace, 2_000);
+            benchmark(json, jsonTrace, 2_000);
+            long binaryNanos = benchmark(binary, binaryTrace, 5_000);
+            long jsonNanos = benchmark(json, jsonTrace, 5_000);
+
+            log.info("Deep-stack [" + STACK_DEPTH + "] flow, KeepMatsTrace." + keepMatsTrace + ":\n"
+                    + "  Binary: uncompressed:[" + binarySerialized.getSizeUncompressed() + " B], on wire:["
+                    + binarySerialized.getSizeCompressed() + " B], ser+deser:[" + (binaryNanos / 1000d) + " µs]\n"
+                    + "  JSON:   uncompressed:[" + jsonSerialized.getSizeUncompressed() + " B], on wire:["
+                    + jsonSerialized.getSizeCompressed() + " B], ser+deser:[" + (jsonNanos / 1000d) + " µs]");
+
+            Assert.assertTrue("The binary envelope should be smaller than the JSON.",
+                    binarySerialized.getSizeUncompressed() < jsonSerialized.getSizeUncompressed());
+        }
+    }
+
+    private static <Z> long benchmark(MatsSerializer<Z> ser, MatsTrace<Z> matsTrace, int iterations) {
+        long nanosStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MatsTrace<Z> deserialized = reserialize(matsTrace, ser);
+            // Deserialize the current DTO, to include the "inner" deserialization as a Mats stage would.
+            ser.deserializeObject(deserialized.getCurrentCall().getData(), DataTO.class);
+        }
+        return (System.nanoTime() - nanosStart) / iterations;
+    }
+
+    /**
+     * Runs a request flow down to {@link #STACK_DEPTH}, then replies all the way back up, reserializing at each hop.
+     * Optionally asserts that each reserialization results in an identical MatsTrace.
+     */
+    private static <Z> MatsTrace<Z> runFlow(MatsSerializer<Z> ser, KeepMatsTrace keepMatsTrace,
+            boolean assertRoundtrip) {
+        MatsTrace<Z> mt = ser.createNewMatsTrace("traceId_deepStack", "flowId_deepStack", keepMatsTrace, false,
+                true, 60_000, false);
+        mt.withDebugInfo("TestApp", "1.2.3", "host.example.com", "TestInitiator", "Debug info");
+        mt.setTraceProperty("traceProp", ser.serializeObject(new DataTO("traceProp", 1)));
+        mt = mt.addRequestCall("TestInitiator", "Service0", MessagingModel.QUEUE, "Terminator",
+                MessagingModel.QUEUE, ser.serializeObject(new DataTO("request", 0)),
+                ser.serializeObject(new StateTO(-1)), null);
+        mt.setOutgoingTimestamp(System.currentTimeMillis());
+
+        // :: Request all the way down
+        for (int i = 1; i <= STACK_DEPTH; i++) {
+            mt = hop(mt, ser, assertRoundtrip);
+            mt = mt.addRequestCall("Service" + (i - 1), "Service" + i, MessagingModel.QUEUE,
+                    "Service" + (i - 1) + ".stage1", MessagingModel.QUEUE,
+                    ser.serializeObject(new DataTO("request", i)), ser.serializeObject(new StateTO(i)), null);
+            mt.setOutgoingTimestamp(System.currentTimeMillis());
+        }
+        // :: Reply all the way up
+        for (int i = STACK_DEPTH; i >= 0; i--) {
+            mt = hop(mt, ser, assertRoundtrip);
+            Call<Z> currentCall = mt.getCurrentCall();
+            String replier = currentCall.getTo().getId();
+            if (assertRoundtrip && (i < STACK_DEPTH)) {
+                // Assert that the state which Service[i] sent along with its request to Service[i+1] came back
+                StateTO state = ser.deserializeObject(mt.getCurrentState().get().getState(), StateTO.class);
+                Assert.assertEquals(new StateTO(i + 1), state);
+            }
+            mt = mt.addReplyCall(replier, ser.serializeObject(new DataTO("reply", i)));
+            mt.setOutgoingTimestamp(System.currentTimeMillis());
+        }
+        mt = hop(mt, ser, assertRoundtrip);
+        Assert.assertEquals("Terminator", mt.getCurrentCall().getTo().getId());
+        return mt;
+    }
+
+    private static <Z> MatsTrace<Z> hop(MatsTrace<Z> mt, MatsSerializer<Z> ser, boolean assertRoundtrip) {
+        MatsTrace<Z> received = reserialize(mt, ser);
+        if (assertRoundtrip) {
+            Assert.assertEquals(describe(mt, ser), describe(received, ser));
+        }
+        received.setStageEnteredTimestamp(System.currentTimeMillis());
+        return received;
+    }
+
+    /**
+     * Creates a MatsTrace as it would look when the deepest service receives it.
+     */
+    private static <Z> MatsTrace<Z> createDeepStackTrace(MatsSerializer<Z> ser, KeepMatsTrace keepMatsTrace) {
+        MatsTrace<Z> mt = ser.createNewMatsTrace("traceId_deepStack", "flowId_deepStack", keepMatsTrace, false,
+                true, 60_000, false);
+        mt.withDebugInfo("TestApp", "1.2.3", "host.example.com", "TestInitiator", "Debug info");
+        mt = mt.addRequestCall("TestInitiator", "Service0", MessagingModel.QUEUE, "Terminator",
+                MessagingModel.QUEUE, ser.serializeObject(new DataTO("request", 0)),
+                ser.serializeObject(new StateTO(-1)), null);
+        mt.setOutgoingTimestamp(System.currentTimeMillis());
+        for (int i = 1; i <= STACK_DEPTH; i++) {
+            mt = reserialize(mt, ser);
+            mt.setStageEnteredTimestamp(System.currentTimeMillis());
+            mt.getCurrentCall().setDebugInfo("TestApp", "1.2.3", "host.example.com", "Debug info");
+            mt = mt.addRequestCall("Service" + (i - 1), "Service" + i, MessagingModel.QUEUE,
+                    "Service" + (i - 1) + ".stage1", MessagingModel.QUEUE,
+                    ser.serializeObject(new DataTO("request", i)), ser.serializeObject(new StateTO(i)), null);
+            mt.setOutgoingTimestamp(System.currentTimeMillis());
+        }
+        return mt;
+    }
+
+    private static <Z> MatsTrace<Z> reserialize(MatsTrace<Z> mt, MatsSerializer<Z> ser) {
+        SerializedMatsTrace serialized = ser.serializeMatsTrace(mt);
+        return ser.deserializeMatsTrace(serialized.getMatsTraceBytes(), serialized.getMeta()).getMatsTrace();
+    }
+
+    /**
+     * Canonical description of a MatsTrace, where the Z payloads are deserialized, so that it can be compared across
+     * serializations.
+     */
+    private static <Z> String describe(MatsTrace<Z> mt, MatsSerializer<Z> ser) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(mt.getTraceId()).append('|').append(mt.getFlowId()).append('|')
+                .append(mt.getInitializedTimestamp()).append('|').append(mt.getKeepTrace()).append('|')
+                .append(mt.isNonPersistent()).append('|').append(mt.isInteractive()).append('|')
+                .append(mt.getTimeToLive()).append('|').append(mt.isNoAudit()).append('|')
+                .append(mt.getInitializingAppName()).append('|').append(mt.getInitializingAppVersion()).append('|')
+                .append(mt.getInitializingHost()).append('|').append(mt.getInitiatorId()).append('|')
+                .append(mt.getDebugInfo()).append('|').append(mt.getCallNumber()).append('|')
+                .append(mt.getTotalCallNumber()).append('|').append(mt.getCurrentSpanId()).append('|')
+                .append(mt.getSameHeightOutgoingTimestamp()).append('\n');
+        for (String key : mt.getTracePropertyKeys()) {
+            buf.append("prop:").append(key).append('=')
+                    .append(ser.deserializeObject(mt.getTraceProperty(key), DataTO.class)).append('\n');
+        }
+        for (Call<Z> call : mt.getCallFlow()) {
+            List<String> replyStack = new ArrayList<>();
+            for (Channel channel : call.getReplyStack()) {
+                replyStack.add(channel.getMessagingModel() + ":" + channel.getId());
+            }
+            buf.append("call:").append(call.getCallType()).append('|').append(call.getFrom()).append('|')
+                    .append(call.getTo().getMessagingModel()).append(':').append(call.getTo().getId()).append('|')
+                    .append(call.getMatsMessageId()).append('|').append(call.getCalledTimestamp()).append('|')
+                    .append(call.getCallingAppName()).append('|').append(call.getCallingHost()).append('|')
+                    .append(call.getReplyStackHeight()).append('|').append(replyStack).append('|')
+                    .append(call.getData() != null ? ser.deserializeObject(call.getData(), DataTO.class) : null)
+                    .append('\n');
+        }
+        for (StackState<Z> stackState : mt.getStateFlow()) {
+            buf.append("state:").append(stackState.getHeight()).append('|')
+                    .append(ser.deserializeObject(stackState.getState(), StateTO.class)).append('\n');
+        }
+        Optional<StackState<Z>> currentState = mt.getCurrentState();
+        buf.append("currentState:").append(currentState.map(s -> ser.deserializeObject(s.getState(),
+                StateTO.class)).orElse(null));
+        return buf.toString();
+    }
+
+    static class DataTO {
+        String string;
+        int number;
+        List<String> list;
+
+        DataTO() {
+        }
+
+        DataTO(String string, int number) {
+            this.string = string;
+            this.number = number;
+            this.list = Arrays.asList("a", "b", string + number);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DataTO)) {
+                return false;
+            }
+            DataTO other = (DataTO) o;
+            return number == other.number && Objects.equals(string, other.string)
+                    && Objects.equals(list, other.list);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(string, number, list);
+        }
+
+        @Override
+        public String toString() {
+            return "DataTO[" + string + ", " + number + ", " + list + "]";
+        }
+    }
+
+    static class StateTO {
+        int height;
+        String info = "Some state";
+
+        StateTO() {
+        }
+
+        StateTO(int height) {
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof StateTO) && (height == ((StateTO) o).height)
+                    && Objects.equals(info, ((StateTO) o).info);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(height, info);
+        }
+
+        @Override
+        public String toString() {
+            return "StateTO[" + height + ", " + info + "]";
+        }
+    }
+}
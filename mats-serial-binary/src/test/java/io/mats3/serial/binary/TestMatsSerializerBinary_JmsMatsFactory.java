@@ -0,0 +1,155 @@
+package io.mats3.serial.binary;
+
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.impl.jms.JmsMatsFactory;
+import io.mats3.impl.jms.JmsMatsJmsSessionHandler_Pooling;
+import io.mats3.test.broker.MatsTestBroker;
+
+/**
+ * Tests the {@link MatsSerializerBinary} end-to-end, running a {@link JmsMatsFactory} on a {@link MatsTestBroker}: A
+ * multi-stage service requests a leaf service, keeping state across the request, and replies to a terminator - thus
+ * exercising the binary envelope with a stack, STOs, a trace property and the reply to the initiator's state.
+ *
+ * <pre>
+ * [Initiator]   - request, with state to Terminator, and a trace property
+ *     [Service] - stage0: request Leaf, with state - lastStage: reply, using the state and the trace property
+ *         [Leaf]    - reply
+ * [Terminator]
+ * </pre>
+ */
+public class TestMatsSerializerBinary_JmsMatsFactory {
+    private static final Logger log = LoggerFactory.getLogger(TestMatsSerializerBinary_JmsMatsFactory.class);
+
+    private static final String SERVICE = "BinarySerializer.Service";
+    private static final String LEAF = "BinarySerializer.Leaf";
+    private static final String TERMINATOR = "BinarySerializer.Terminator";
+
+    @Test
+    public void requestReplyFlowOverJms() throws Exception {
+        MatsTestBroker matsTestBroker = MatsTestBroker.create();
+        JmsMatsFactory<byte[]> matsFactory = JmsMatsFactory.createMatsFactory_JmsOnlyTransactions("test",
+                "testversion", JmsMatsJmsSessionHandler_Pooling.create(matsTestBroker.getConnectionFactory()),
+                MatsSerializerBinary.create());
+        try {
+            matsFactory.single(LEAF, DataDto.class, DataDto.class,
+                    (context, dto) -> new DataDto(dto.number * 2, dto.string + ":FromLeaf"));
+
+            MatsEndpoint<DataDto, StateSto> service = matsFactory.staged(SERVICE, DataDto.class, StateSto.class);
+            service.stage(DataDto.class, (context, sto, dto) -> {
+                Assert.assertEquals(new StateSto(0, null), sto);
+                sto.number = 42;
+                sto.string = "ServiceState";
+                context.request(LEAF, new DataDto(dto.number, dto.string + ":ToLeaf"));
+            });
+            service.lastStage(DataDto.class, (context, sto, dto) -> {
+                Assert.assertEquals(new StateSto(42, "ServiceState"), sto);
+                String traceProperty = context.getTraceProperty("prop", String.class);
+                return new DataDto(dto.number + sto.number, dto.string + ":FromService:" + traceProperty);
+            });
+
+            AtomicReference<StateSto> terminatorSto = new AtomicReference<>();
+            AtomicReference<DataDto> terminatorDto = new AtomicReference<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            matsFactory.terminator(TERMINATOR, StateSto.class, DataDto.class, (context, sto, dto) -> {
+                terminatorSto.set(sto);
+                terminatorDto.set(dto);
+                latch.countDown();
+            });
+            Assert.assertTrue("Endpoints did not start receiving.", matsFactory.waitForReceiving(30_000));
+
+            matsFactory.getDefaultInitiator().initiateUnchecked(init -> init
+                    .traceId("BinarySerializer_" + Long.toString(Math.abs(System.nanoTime()), 36))
+                    .from("TestMatsSerializerBinary_JmsMatsFactory")
+                    .to(SERVICE)
+                    .setTraceProperty("prop", "TraceProp")
+                    .replyTo(TERMINATOR, new StateSto(7, "TerminatorState"))
+                    .request(new DataDto(10, "Request")));
+
+            Assert.assertTrue("Didn't get reply.", latch.await(30, TimeUnit.SECONDS));
+            log.info("Terminator got DTO [" + terminatorDto.get() + "], STO [" + terminatorSto.get() + "].");
+            Assert.assertEquals(new StateSto(7, "TerminatorState"), terminatorSto.get());
+            Assert.assertEquals(new DataDto(10 * 2 + 42, "Request:ToLeaf:FromLeaf:FromService:TraceProp"),
+                    terminatorDto.get());
+        }
+        finally {
+            Assert.assertTrue("Did not stop nicely.", matsFactory.stop(30_000));
+            matsTestBroker.close();
+        }
+    }
+
+    public static class DataDto {
+        public double number;
+        public String string;
+
+        public DataDto() {
+            // For Jackson
+        }
+
+        DataDto(double number, String string) {
+            this.number = number;
+            this.string = string;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DataDto)) {
+                return false;
+            }
+            DataDto other = (DataDto) o;
+            return Double.compare(number, other.number) == 0 && Objects.equals(string, other.string);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(number, string);
+        }
+
+        @Override
+        public String toString() {
+            return "DataDto[number=" + number + ", string=" + string + "]";
+        }
+    }
+
+    public static class StateSto {
+        public int number;
+        public String string;
+
+        public StateSto() {
+            // For Jackson
+        }
+
+        StateSto(int number, String string) {
+            this.number = number;
+            this.string = string;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StateSto)) {
+                return false;
+            }
+            StateSto other = (StateSto) o;
+            return number == other.number && Objects.equals(string, other.string);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(number, string);
+        }
+
+        @Override
+        public String toString() {
+            return "StateSto[number=" + number + ", string=" + string + "]";
+        }
+    }
+}
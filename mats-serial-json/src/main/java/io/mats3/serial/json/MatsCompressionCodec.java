@@ -0,0 +1,165 @@
+package io.mats3.serial.json;
+
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+
+/**
+ * SPI for the compression employed by {@link MatsSerializerJson} on the serialized MatsTrace when it is above the
+ * configured {@link MatsSerializerJson#create(MatsCompressionCodec, int) compression threshold}. The
+ * {@link #getMetaTag() meta tag} of the codec is put first in the "meta" String that accompanies the serialized bytes,
+ * followed by the decompressed size (<code>"{tag};decompSize={size}"</code>) - so that the receiver can pick the
+ * correct codec, and allocate a precisely sized array for the decompressed result.
+ * <p />
+ * A {@link MatsSerializerJson} will always be able to <i>decompress</i> all the built-in codecs ({@link #deflate(int)
+ * Deflate} and {@link #lz4() LZ4}, and {@link #zstd(int) Zstd} if the <code>zstd-jni</code> library is present on the
+ * classpath), in addition to the codec it is configured with for compression. Thus, it is only the sending side that
+ * decides which codec to use - but notice that if you change to a codec that older versions of Mats do not know of,
+ * all receiving parties must be upgraded before the senders start using it.
+ * <p />
+ * Implementations must be thread safe.
+ */
+public interface MatsCompressionCodec {
+    /**
+     * @return the tag that identifies this codec in the "meta" String, e.g. "deflate", "lz4" or "zstd". Must not
+     *         contain ':' or ';', and must be unique among the codecs in use.
+     */
+    String getMetaTag();
+
+    /**
+     * Compresses the entire provided array.
+     *
+     * @param data
+     *            the bytes to compress.
+     * @return the compressed bytes.
+     */
+    byte[] compress(byte[] data);
+
+    /**
+     * Compresses the provided range of bytes - employed by {@link MatsSerializerJson}, which serializes into a pooled
+     * buffer. The default implementation copies out the range and invokes {@link #compress(byte[])}, so codecs should
+     * override it to compress directly from the range.
+     *
+     * @param data
+     *            the array holding the bytes to compress.
+     * @param offset
+     *            the offset in the array where the bytes to compress start.
+     * @param length
+     *            the number of bytes to compress.
+     * @return the compressed bytes.
+     */
+    default byte[] compress(byte[] data, int offset, int length) {
+        return compress(Arrays.copyOfRange(data, offset, offset + length));
+    }
+
+    /**
+     * Decompresses the provided range of bytes.
+     *
+     * @param data
+     *            the array holding the compressed bytes.
+     * @param offset
+     *            the offset in the array where the compressed bytes start.
+     * @param length
+     *            the number of compressed bytes.
+     * @param decompressedSize
+     *            the size of the decompressed result, as given by the sender in the meta String - or <code>-1</code> if
+     *            not known (which only happens for messages from very old senders, which always use Deflate).
+     * @return the decompressed bytes, which shall be exactly the decompressed size.
+     */
+    byte[] decompress(byte[] data, int offset, int length, int decompressedSize);
+
+    /**
+     * Decompresses the provided range of bytes into the start of the provided destination array, which is at least the
+     * decompressed size - employed by {@link MatsSerializerJson} to decompress into pooled buffers when the
+     * decompressed size is known. The default implementation invokes {@link #decompress(byte[], int, int, int)} and
+     * copies over the result, so codecs should override it to decompress directly into the destination.
+     *
+     * @param data
+     *            the array holding the compressed bytes.
+     * @param offset
+     *            the offset in the array where the compressed bytes start.
+     * @param length
+     *            the number of compressed bytes.
+     * @param dest
+     *            the array to decompress into, starting at index 0 - which is at least <code>decompressedSize</code>
+     *            long.
+     * @param decompressedSize
+     *            the size of the decompressed result, as given by the sender in the meta String. The codec must throw
+     *            if the decompressed data is not exactly this size.
+     */
+    default void decompress(byte[] data, int offset, int length, byte[] dest, int decompressedSize) {
+        byte[] decompressed = decompress(data, offset, length, decompressedSize);
+        if (decompressed.length != decompressedSize) {
+            throw new SerializationException("Decompressed size [" + decompressed.length + "] differs from the"
+                    + " expected [" + decompressedSize + "].");
+        }
+        System.arraycopy(decompressed, 0, dest, 0, decompressedSize);
+    }
+
+    /**
+     * @return the "no compression" codec: The serialized MatsTrace is never compressed, no matter the size.
+     */
+    static MatsCompressionCodec none() {
+        return MatsCompressionCodecNone.INSTANCE;
+    }
+
+    /**
+     * @param compressionLevel
+     *            the compression level given to {@link Deflater}.
+     * @return a Deflate codec - this is the codec that Mats always has used, and is the default.
+     */
+    static MatsCompressionCodec deflate(int compressionLevel) {
+        return new MatsCompressionCodecDeflate(compressionLevel);
+    }
+
+    /**
+     * @return a pure-Java LZ4 (block format) codec, which uses far less CPU than Deflate, at the expense of somewhat
+     *         larger output.
+     */
+    static MatsCompressionCodec lz4() {
+        return MatsCompressionCodecLz4.INSTANCE;
+    }
+
+    /**
+     * @param compressionLevel
+     *            the Zstd compression level, where 1 is fastest, and 3 is Zstd's default.
+     * @return a Zstd codec, which requires the <code>com.github.luben:zstd-jni</code> library on the classpath.
+     */
+    static MatsCompressionCodec zstd(int compressionLevel) {
+        // ?: Is the library present? (Must check before touching the codec class, as it cannot load without it)
+        if (!MatsSerializerJson.isZstdAvailable()) {
+            // -> No, so we cannot make the Zstd codec.
+            throw new IllegalStateException("The Zstd codec requires the library 'com.github.luben:zstd-jni' on the"
+                    + " classpath, but class [" + MatsSerializerJson.ZSTD_CLASS_NAME + "] could not be loaded.");
+        }
+        return new MatsCompressionCodecZstd(compressionLevel);
+    }
+
+    /**
+     * The "codec" that does not compress, employed by {@link MatsCompressionCodec#none()}.
+     */
+    final class MatsCompressionCodecNone implements MatsCompressionCodec {
+        static final MatsCompressionCodecNone INSTANCE = new MatsCompressionCodecNone();
+
+        private MatsCompressionCodecNone() {
+        }
+
+        @Override
+        public String getMetaTag() {
+            return "plain";
+        }
+
+        @Override
+        public byte[] compress(byte[] data) {
+            return data;
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int offset, int length, int decompressedSize) {
+            byte[] result = new byte[length];
+            System.arraycopy(data, offset, result, 0, length);
+            return result;
+        }
+    }
+}
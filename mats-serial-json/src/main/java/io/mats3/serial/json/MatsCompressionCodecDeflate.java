@@ -0,0 +1,203 @@
+package io.mats3.serial.json;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+import io.mats3.serial.json.MatsSerializerJson.NonblockingStack;
+
+/**
+ * {@link MatsCompressionCodec} using {@link Deflater} and {@link Inflater}, pooling the instances. This is the codec
+ * that Mats has always used, and is thus the default. Compression deflates into a pooled worst-case sized buffer, and
+ * decompression inflates directly into the destination when the decompressed size is known.
+ */
+class MatsCompressionCodecDeflate implements MatsCompressionCodec {
+    static final String META_TAG = "deflate";
+
+    private final int _compressionLevel;
+
+    private final NonblockingStack<Deflater> _deflaterPool = new NonblockingStack<>();
+    private final NonblockingStack<Inflater> _inflaterPool = new NonblockingStack<>();
+
+    MatsCompressionCodecDeflate(int compressionLevel) {
+        _compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public String getMetaTag() {
+        return META_TAG;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        return compress(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) {
+        // Get a Deflater from the pool
+        Deflater deflater = _deflaterPool.pop();
+        // ?: Did we get an Deflater from the pool?
+        if (deflater == null) {
+            // -> No, so make a new one.
+            deflater = new Deflater(_compressionLevel);
+        }
+
+        // Whether we should enpool the deflater at end
+        boolean reuseDeflater = false;
+        // Deflate into a pooled buffer of the worst-case size (zlib's compressBound), so it will not need to grow.
+        int worstCaseSize = length + (length >>> 12) + (length >>> 14) + (length >>> 25) + 13;
+        byte[] buffer = MatsSerializerJson.BYTE_ARRAY_POOL.take(worstCaseSize);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                // ?: Is the buffer full? (Should not happen, due to the worst-case size)
+                if (compressedLength == buffer.length) {
+                    // -> Yes, so grow it, giving the old back.
+                    byte[] newBuffer = MatsSerializerJson.BYTE_ARRAY_POOL.take(buffer.length * 2);
+                    System.arraycopy(buffer, 0, newBuffer, 0, compressedLength);
+                    MatsSerializerJson.BYTE_ARRAY_POOL.give(buffer);
+                    buffer = newBuffer;
+                }
+                compressedLength += deflater.deflate(buffer, compressedLength, buffer.length - compressedLength);
+            }
+            // We can reuse this Deflater, since things behaved correctly
+            reuseDeflater = true;
+            // The one necessary copy: The exact-size result.
+            return Arrays.copyOf(buffer, compressedLength);
+        }
+        finally {
+            MatsSerializerJson.BYTE_ARRAY_POOL.give(buffer);
+            // ?: Still reuse this Deflater?
+            if (reuseDeflater) {
+                // -> Yes reuse, so reset() it, and enpool.
+                deflater.reset();
+                _deflaterPool.push(deflater);
+            }
+            else {
+                // -> No, not reuse, so ditch it: end(), and do NOT enpool.
+                // Invoke the "end()" method to timely release off-heap resource, thus not depending on finalization.
+                deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int decompressedSize) {
+        // ?: Do we know the decompressed size?
+        if (decompressedSize >= 0) {
+            // -> Yes, so inflate directly into right-sized array.
+            byte[] dest = new byte[decompressedSize];
+            decompress(data, offset, length, dest, decompressedSize);
+            return dest;
+        }
+        // E-> No, very old sender, so we must inflate to a growing stream.
+        Inflater inflater = takeInflater();
+        // Whether we should enpool the inflater at end
+        boolean reuseInflater = false;
+        try {
+            inflater.setInput(data, offset, length);
+            // Do an initial guess on the decompressed size
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                // ?: Did we not get anything, while needing more input (or a dictionary)?
+                if ((count == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // -> Yes, so the compressed data is truncated or bad - which would otherwise spin forever.
+                    throw new SerializationException("The deflated data was truncated or malformed.");
+                }
+                outputStream.write(buffer, 0, count);
+            }
+            // We can reuse this Inflater, since things behaved correctly
+            reuseInflater = true;
+            return outputStream.toByteArray();
+        }
+        catch (DataFormatException e) {
+            // Just in case this leaves the Inflater in some strange state, ditch it instead of reuse.
+            // NOT setting reuseInflater to true.
+            throw new SerializationException("DataFormatException was bad here.", e);
+        }
+        finally {
+            releaseInflater(inflater, reuseInflater);
+        }
+    }
+
+    @Override
+    public void decompress(byte[] data, int offset, int length, byte[] dest, int decompressedSize) {
+        Inflater inflater = takeInflater();
+        // Whether we should enpool the inflater at end
+        boolean reuseInflater = false;
+        try {
+            inflater.setInput(data, offset, length);
+            int decompressedLength = 0;
+            while (!inflater.finished()) {
+                int count;
+                // ?: Still room for the stated decompressed size?
+                if (decompressedLength < decompressedSize) {
+                    // -> Yes, so inflate directly into the destination.
+                    count = inflater.inflate(dest, decompressedLength, decompressedSize - decompressedLength);
+                }
+                else {
+                    // -> No, full: The inflater might still need to consume the end of the stream, but shall not
+                    // produce any more bytes.
+                    count = inflater.inflate(new byte[1]);
+                    if (count > 0) {
+                        throw new SerializationException("Decompressed size is larger than the expected ["
+                                + decompressedSize + "].");
+                    }
+                }
+                // ?: Did we not get anything, while needing more input (or a dictionary)?
+                if ((count == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // -> Yes, so the compressed data is truncated or bad - which would otherwise spin forever.
+                    throw new SerializationException("The deflated data was truncated or malformed.");
+                }
+                decompressedLength += count;
+            }
+            if (decompressedLength != decompressedSize) {
+                throw new SerializationException("Decompressed size [" + decompressedLength + "] differs from the"
+                        + " expected [" + decompressedSize + "].");
+            }
+            // We can reuse this Inflater, since things behaved correctly
+            reuseInflater = true;
+        }
+        catch (DataFormatException e) {
+            // Just in case this leaves the Inflater in some strange state, ditch it instead of reuse.
+            // NOT setting reuseInflater to true.
+            throw new SerializationException("DataFormatException was bad here.", e);
+        }
+        finally {
+            releaseInflater(inflater, reuseInflater);
+        }
+    }
+
+    private Inflater takeInflater() {
+        // Get a Inflater from the pool
+        Inflater inflater = _inflaterPool.pop();
+        // ?: Did we get an Inflater from the pool?
+        if (inflater == null) {
+            // -> No, so make a new one.
+            inflater = new Inflater();
+        }
+        return inflater;
+    }
+
+    private void releaseInflater(Inflater inflater, boolean reuseInflater) {
+        // ?: Still reuse this Inflater?
+        if (reuseInflater) {
+            // -> Yes reuse, so reset() it, and enpool.
+            inflater.reset();
+            _inflaterPool.push(inflater);
+        }
+        else {
+            // -> No, not reuse, so ditch it: end(), and do NOT enpool.
+            // Invoke the "end()" method to timely release off-heap resource, thus not depending on finalization.
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package io.mats3.serial.json;
+
+import java.util.Arrays;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+import io.mats3.serial.json.MatsSerializerJson.NonblockingStack;
+
+/**
+ * Pure-Java {@link MatsCompressionCodec} implementing the
+ * <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 block format</a>, using a simple greedy
+ * single-probe hash table matcher (which is what the "fast" mode of the reference implementation does). The compression
+ * ratio is worse than Deflate's, but it uses a small fraction of the CPU, both compressing and decompressing. Since the
+ * block format does not contain the decompressed size, this codec requires the decompressed size from the meta String.
+ * The hash table and the worst-case sized compression buffer are pooled.
+ */
+class MatsCompressionCodecLz4 implements MatsCompressionCodec {
+    static final String META_TAG = "lz4";
+
+    static final MatsCompressionCodecLz4 INSTANCE = new MatsCompressionCodecLz4();
+
+    private static final int MIN_MATCH = 4;
+    // The last 5 bytes are always literals
+    private static final int LAST_LITERALS = 5;
+    // The last match must start at least 12 bytes before end of block
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 12;
+    private static final int RUN_MASK = 15;
+
+    private final NonblockingStack<int[]> _hashTablePool = new NonblockingStack<>();
+
+    private MatsCompressionCodecLz4() {
+    }
+
+    @Override
+    public String getMetaTag() {
+        return META_TAG;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        return compress(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) {
+        // Worst case: All literals, plus the length-bytes.
+        byte[] dest = MatsSerializerJson.BYTE_ARRAY_POOL.take(length + (length / 255) + 16);
+        try {
+            int destPos = 0;
+            // NOTE: All positions are relative to offset.
+            int anchor = 0;
+
+            // ?: Is the input large enough to contain a match?
+            if (length > MF_LIMIT) {
+                // -> Yes, so run the matcher
+                // Note: Position 0 is both "empty" and the first position, but match candidates are verified anyway.
+                int[] hashTable = _hashTablePool.pop();
+                if (hashTable == null) {
+                    hashTable = new int[1 << HASH_LOG];
+                }
+                else {
+                    Arrays.fill(hashTable, 0);
+                }
+                int matchLimit = length - LAST_LITERALS;
+                int mfLimit = length - MF_LIMIT;
+                int pos = 0;
+                while (pos < mfLimit) {
+                    int sequence = readIntLE(data, offset + pos);
+                    int hash = hash(sequence);
+                    int ref = hashTable[hash];
+                    hashTable[hash] = pos;
+                    // ?: Do we have a match?
+                    if ((ref < pos) && ((pos - ref) <= MAX_DISTANCE)
+                            && (readIntLE(data, offset + ref) == sequence)) {
+                        // -> Yes, match. Extend it backwards into the pending literals,
+                        while ((pos > anchor) && (ref > 0) && (data[offset + pos - 1] == data[offset + ref - 1])) {
+                            pos--;
+                            ref--;
+                        }
+                        // .. and forwards as long as it goes.
+                        int matchLength = MIN_MATCH;
+                        while (((pos + matchLength) < matchLimit)
+                                && (data[offset + ref + matchLength] == data[offset + pos + matchLength])) {
+                            matchLength++;
+                        }
+                        destPos = writeSequence(dest, destPos, data, offset + anchor, pos - anchor, pos - ref,
+                                matchLength);
+                        pos += matchLength;
+                        anchor = pos;
+                    }
+                    else {
+                        pos++;
+                    }
+                }
+                _hashTablePool.push(hashTable);
+            }
+
+            // :: The last sequence, which is only literals.
+            int literalLength = length - anchor;
+            int tokenPos = destPos++;
+            dest[tokenPos] = 0;
+            destPos = writeLength(dest, tokenPos, destPos, literalLength, 4);
+            System.arraycopy(data, offset + anchor, dest, destPos, literalLength);
+            destPos += literalLength;
+
+            // The one necessary copy: The exact-size result.
+            return Arrays.copyOf(dest, destPos);
+        }
+        finally {
+            MatsSerializerJson.BYTE_ARRAY_POOL.give(dest);
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int decompressedSize) {
+        if (decompressedSize < 0) {
+            throw new SerializationException("LZ4 requires the decompressed size, which was not present in meta.");
+        }
+        byte[] dest = new byte[decompressedSize];
+        decompress(data, offset, length, dest, decompressedSize);
+        return dest;
+    }
+
+    @Override
+    public void decompress(byte[] data, int offset, int length, byte[] dest, int decompressedSize) {
+        int srcPos = offset;
+        int srcEnd = offset + length;
+        int destPos = 0;
+        while (true) {
+            if (srcPos >= srcEnd) {
+                throw new SerializationException("LZ4 data was truncated: Missing token.");
+            }
+            int token = data[srcPos++] & 0xFF;
+
+            // :: Literals
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    if (srcPos >= srcEnd) {
+                        throw new SerializationException("LZ4 data was truncated: Missing literal length.");
+                    }
+                    b = data[srcPos++] & 0xFF;
+                    literalLength += b;
+                } while ((b == 255) && (literalLength > 0));
+            }
+            if ((literalLength < 0) || (literalLength > (srcEnd - srcPos))
+                    || (literalLength > (decompressedSize - destPos))) {
+                throw new SerializationException("LZ4 data was malformed: Literal length [" + literalLength
+                        + "] is outside input or output.");
+            }
+            System.arraycopy(data, srcPos, dest, destPos, literalLength);
+            srcPos += literalLength;
+            destPos += literalLength;
+
+            // ?: Was this the last sequence?
+            if (srcPos == srcEnd) {
+                // -> Yes, so we're done.
+                break;
+            }
+
+            // :: Match
+            if ((srcEnd - srcPos) < 2) {
+                throw new SerializationException("LZ4 data was truncated: Missing match offset.");
+            }
+            int matchOffset = (data[srcPos] & 0xFF) | ((data[srcPos + 1] & 0xFF) << 8);
+            srcPos += 2;
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    if (srcPos >= srcEnd) {
+                        throw new SerializationException("LZ4 data was truncated: Missing match length.");
+                    }
+                    b = data[srcPos++] & 0xFF;
+                    matchLength += b;
+                } while ((b == 255) && (matchLength > 0));
+            }
+            matchLength += MIN_MATCH;
+            int ref = destPos - matchOffset;
+            if ((matchOffset == 0) || (ref < 0) || (matchLength < 0)
+                    || (matchLength > (decompressedSize - destPos))) {
+                throw new SerializationException("LZ4 data was malformed: Match offset [" + matchOffset
+                        + "] or length [" + matchLength + "] is outside output.");
+            }
+            // ?: Is the match overlapping the bytes being written?
+            if (matchOffset < matchLength) {
+                // -> Yes, overlapping (i.e. repeating pattern), so must copy byte by byte.
+                for (int i = 0; i < matchLength; i++) {
+                    dest[destPos + i] = dest[ref + i];
+                }
+            }
+            else {
+                System.arraycopy(dest, ref, dest, destPos, matchLength);
+            }
+            destPos += matchLength;
+        }
+        if (destPos != decompressedSize) {
+            throw new SerializationException("LZ4 data was malformed: Decompressed size [" + destPos
+                    + "] differs from the expected [" + decompressedSize + "].");
+        }
+    }
+
+    private static int writeSequence(byte[] dest, int destPos, byte[] src, int literalStart, int literalLength,
+            int matchOffset, int matchLength) {
+        int tokenPos = destPos++;
+        // The buffer is pooled, thus not necessarily zeroed.
+        dest[tokenPos] = 0;
+        destPos = writeLength(dest, tokenPos, destPos, literalLength, 4);
+        System.arraycopy(src, literalStart, dest, destPos, literalLength);
+        destPos += literalLength;
+        dest[destPos++] = (byte) matchOffset;
+        dest[destPos++] = (byte) (matchOffset >>> 8);
+        return writeLength(dest, tokenPos, destPos, matchLength - MIN_MATCH, 0);
+    }
+
+    /**
+     * Writes the 4-bit length into the token at the given shift, and any extra length bytes at destPos.
+     */
+    private static int writeLength(byte[] dest, int tokenPos, int destPos, int length, int shift) {
+        if (length < RUN_MASK) {
+            dest[tokenPos] |= (byte) (length << shift);
+            return destPos;
+        }
+        dest[tokenPos] |= (byte) (RUN_MASK << shift);
+        int remaining = length - RUN_MASK;
+        while (remaining >= 255) {
+            dest[destPos++] = (byte) 255;
+            remaining -= 255;
+        }
+        dest[destPos++] = (byte) remaining;
+        return destPos;
+    }
+
+    private static int readIntLE(byte[] data, int pos) {
+        return (data[pos] & 0xFF)
+                | ((data[pos + 1] & 0xFF) << 8)
+                | ((data[pos + 2] & 0xFF) << 16)
+                | ((data[pos + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
@@ -0,0 +1,84 @@
+package io.mats3.serial.json;
+
+import java.util.Arrays;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+
+/**
+ * {@link MatsCompressionCodec} using <a href="https://github.com/luben/zstd-jni">zstd-jni</a>, which is an optional
+ * dependency: You must bring it yourself if you want to use this codec. (Thus, this class must not be loaded
+ * unless {@link MatsSerializerJson#isZstdAvailable()}.) Zstd at low levels compresses about as well as
+ * Deflate, at a fraction of the CPU cost.
+ */
+class MatsCompressionCodecZstd implements MatsCompressionCodec {
+    static final String META_TAG = "zstd";
+
+    private final int _compressionLevel;
+
+    MatsCompressionCodecZstd(int compressionLevel) {
+        _compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public String getMetaTag() {
+        return META_TAG;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        return compress(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) {
+        // Compress into a pooled buffer of the worst-case size
+        byte[] dest = MatsSerializerJson.BYTE_ARRAY_POOL.take((int) Zstd.compressBound(length));
+        try {
+            long result = Zstd.compressByteArray(dest, 0, dest.length, data, offset, length, _compressionLevel);
+            if (Zstd.isError(result)) {
+                throw new SerializationException("Zstd compression failed: " + Zstd.getErrorName(result));
+            }
+            // The one necessary copy: The exact-size result.
+            return Arrays.copyOf(dest, (int) result);
+        }
+        catch (ZstdException e) {
+            throw new SerializationException("Zstd compression failed.", e);
+        }
+        finally {
+            MatsSerializerJson.BYTE_ARRAY_POOL.give(dest);
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int decompressedSize) {
+        if (decompressedSize < 0) {
+            throw new SerializationException("Zstd requires the decompressed size, which was not present in meta.");
+        }
+        byte[] dest = new byte[decompressedSize];
+        decompress(data, offset, length, dest, decompressedSize);
+        return dest;
+    }
+
+    @Override
+    public void decompress(byte[] data, int offset, int length, byte[] dest, int decompressedSize) {
+        long result;
+        try {
+            result = Zstd.decompressByteArray(dest, 0, decompressedSize, data, offset, length);
+        }
+        catch (ZstdException e) {
+            // Newer versions of zstd-jni throws instead of returning error code.
+            throw new SerializationException("Zstd decompression failed, decompressed size [" + decompressedSize
+                    + "].", e);
+        }
+        if (Zstd.isError(result)) {
+            throw new SerializationException("Zstd decompression failed: " + Zstd.getErrorName(result));
+        }
+        if (result != decompressedSize) {
+            throw new SerializationException("Zstd data was malformed: Decompressed size [" + result
+                    + "] differs from the expected [" + decompressedSize + "].");
+        }
+    }
+}
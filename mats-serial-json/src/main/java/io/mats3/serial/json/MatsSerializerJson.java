@@ -5,8 +5,12 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
@@ -25,11 +29,21 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.mats3.serial.MatsSerializer;
 import io.mats3.serial.MatsTrace;
 import io.mats3.serial.MatsTrace.KeepMatsTrace;
+import io.mats3.serial.impl.MatsTraceFieldImpl;
+import io.mats3.serial.json.MatsTraceJsonLazyLists.LazySource;
+import io.mats3.serial.json.MatsTraceJsonLazyLists.MatsTraceFieldImplMixin;
 
 /**
  * Implementation of {@link MatsSerializer} that employs <a href="https://github.com/FasterXML/jackson">Jackson JSON
  * library</a> for serialization and deserialization, and compress and decompress using {@link Deflater} and
- * {@link Inflater}.
+ * {@link Inflater} - or another {@link MatsCompressionCodec}, e.g. {@link MatsCompressionCodec#lz4() LZ4}, if
+ * configured using {@link #create(MatsCompressionCodec, int)}. The serialized MatsTrace is only compressed if it is
+ * larger than the compression threshold, default {@link #DEFAULT_COMPRESSION_THRESHOLD 900 bytes}. Upon
+ * deserialization, all the built-in codecs are handled, no matter which codec is configured for serialization.
+ * <p />
+ * The Call Flow and State Flow of an incoming MatsTrace are deserialized lazily: Only the current Call and the last
+ * State are deserialized right away, while the rest of the elements are kept as raw JSON until accessed (they are
+ * seldom needed) - and the untouched elements are written out raw when the outgoing MatsTrace is serialized.
  * <p />
  * The Jackson {@link ObjectMapper} is configured to only handle fields (think "data struct"), i.e. not use setters or
  * getters; and to only include non-null fields; and upon deserialization to ignore properties from the JSON that has no
@@ -68,11 +82,28 @@ public class MatsSerializerJson implements MatsSerializer<String> {
      */
     public static int DEFAULT_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
 
-    private final int _compressionLevel;
+    /**
+     * The default compression threshold, 900 bytes: The serialized MatsTrace is only compressed if it is larger than
+     * this, since compressing small messages costs more CPU than the few bytes saved is worth.
+     */
+    public static int DEFAULT_COMPRESSION_THRESHOLD = 900;
+
+    /**
+     * The max number of classes for which specific {@link ObjectReader}s and {@link ObjectWriter}s are cached - above
+     * this, readers and writers are created per invocation (which also was the original behavior).
+     */
+    private static final int MAX_CACHED_CLASSES = 2000;
+
+    private final MatsCompressionCodec _compressionCodec;
+    private final int _compressionThreshold;
+    // Codecs we can decompress, keyed by meta tag. Only read after construction, thus HashMap is fine.
+    private final Map<String, MatsCompressionCodec> _decompressionCodecs = new HashMap<>();
 
     private final ObjectMapper _objectMapper;
     private final ObjectReader _matsTraceJson_Reader;
     private final ObjectWriter _matsTraceJson_Writer;
+    private final ConcurrentHashMap<Class<?>, ObjectReader> _objectReaders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> _objectWriters = new ConcurrentHashMap<>();
 
     /**
      * Constructs a MatsSerializer, using the {@link #DEFAULT_COMPRESSION_LEVEL} (which is {@link Deflater#BEST_SPEED},
@@ -93,6 +124,20 @@ public class MatsSerializerJson implements MatsSerializer<String> {
         return new MatsSerializerJson(compressionLevel);
     }
 
+    /**
+     * Constructs a MatsSerializer, using the specified {@link MatsCompressionCodec} for serialized MatsTraces larger
+     * than the specified threshold. Use {@link MatsCompressionCodec#none()} to never compress.
+     *
+     * @param compressionCodec
+     *            the codec to use for compression, e.g. {@link MatsCompressionCodec#lz4()}.
+     * @param compressionThreshold
+     *            the size in bytes the serialized MatsTrace must be larger than to be compressed - the default is
+     *            {@link #DEFAULT_COMPRESSION_THRESHOLD}.
+     */
+    public static MatsSerializerJson create(MatsCompressionCodec compressionCodec, int compressionThreshold) {
+        return new MatsSerializerJson(compressionCodec, compressionThreshold);
+    }
+
     /**
      * Constructs a MatsSerializer, using the specified Compression Level - refer to {@link Deflater}'s constants and
      * levels.
@@ -101,7 +146,41 @@ public class MatsSerializerJson implements MatsSerializer<String> {
      *            the compression level given to {@link Deflater} to use.
      */
     protected MatsSerializerJson(int compressionLevel) {
-        _compressionLevel = compressionLevel;
+        this(MatsCompressionCodec.deflate(compressionLevel), DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Constructs a MatsSerializer, using the specified {@link MatsCompressionCodec} and compression threshold.
+     *
+     * @param compressionCodec
+     *            the codec to use for compression.
+     * @param compressionThreshold
+     *            the size in bytes the serialized MatsTrace must be larger than to be compressed.
+     */
+    protected MatsSerializerJson(MatsCompressionCodec compressionCodec, int compressionThreshold) {
+        if (compressionCodec == null) {
+            throw new NullPointerException("compressionCodec");
+        }
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("compressionThreshold must be >= 0, was [" + compressionThreshold
+                    + "].");
+        }
+        _compressionCodec = compressionCodec;
+        _compressionThreshold = compressionThreshold;
+
+        // :: Register the codecs we can decompress: All the built-in, and the one we compress with.
+        registerDecompressionCodec(new MatsCompressionCodecDeflate(DEFAULT_COMPRESSION_LEVEL));
+        registerDecompressionCodec(MatsCompressionCodec.lz4());
+        // ?: Is the optional zstd-jni library present?
+        if (isZstdAvailable()) {
+            // -> Yes, so we can handle Zstd.
+            registerDecompressionCodec(new MatsCompressionCodecZstd(3));
+        }
+        // ?: Are we compressing at all?
+        if (compressionCodec != MatsCompressionCodec.none()) {
+            // -> Yes, so register the codec we compress with - overriding any built-in with the same tag.
+            registerDecompressionCodec(compressionCodec);
+        }
 
         ObjectMapper mapper = new ObjectMapper();
 
@@ -123,12 +202,41 @@ public class MatsSerializerJson implements MatsSerializer<String> {
         // Handle Optional, OptionalLong, OptionalDouble
         mapper.registerModule(new Jdk8Module());
 
+        // Lazy deserialization of the Call Flow and State Flow of the MatsTrace (only employed when the LazySource
+        // attribute is set on the reader), and raw writing of the untouched elements.
+        mapper.addMixIn(MatsTraceFieldImpl.class, MatsTraceFieldImplMixin.class);
+
         // Make specific Reader and Writer for MatsTraceStringImpl (thus possibly caching class structure?)
         _matsTraceJson_Reader = mapper.readerFor(MatsTraceStringImpl.class);
         _matsTraceJson_Writer = mapper.writerFor(MatsTraceStringImpl.class);
         _objectMapper = mapper;
+    }
+
+    static final String ZSTD_CLASS_NAME = "com.github.luben.zstd.Zstd";
+
+    /**
+     * @return whether the optional zstd-jni library is present on the classpath. This check must be done without
+     *         loading {@link MatsCompressionCodecZstd}, as it cannot be loaded without the library.
+     */
+    static boolean isZstdAvailable() {
+        try {
+            Class.forName(ZSTD_CLASS_NAME, false, MatsSerializerJson.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
 
-        // TODO / OPTIMIZE: What about making specific mappers for each new class found, using e.g. ConcurrentHashMap?
+    private void registerDecompressionCodec(MatsCompressionCodec codec) {
+        String metaTag = codec.getMetaTag();
+        if ((metaTag == null) || metaTag.isEmpty() || (metaTag.indexOf(':') != -1) || (metaTag.indexOf(';') != -1)
+                || metaTag.equals(COMPRESS_PLAIN)) {
+            throw new IllegalArgumentException("The meta tag [" + metaTag + "] of MatsCompressionCodec [" + codec
+                    + "] is not valid: Must be non-empty, not contain ':' or ';', and not be '" + COMPRESS_PLAIN
+                    + "'.");
+        }
+        _decompressionCodecs.put(metaTag, codec);
     }
 
     @Override
@@ -138,7 +246,27 @@ public class MatsSerializerJson implements MatsSerializer<String> {
         }
         // If it starts with the old "plain" or "deflate", then we handle it, as well as if it is the new identification
         // "MatsTrace_JSON_v1".
-        return meta.startsWith(COMPRESS_DEFLATE) || meta.startsWith(COMPRESS_PLAIN) | meta.startsWith(IDENTIFICATION);
+        if (meta.startsWith(COMPRESS_DEFLATE) || meta.startsWith(COMPRESS_PLAIN) || meta.startsWith(IDENTIFICATION)) {
+            return true;
+        }
+        // ?: Does it have some other identification prefix?
+        if (meta.indexOf(':') != -1) {
+            // -> Yes, so it is some other serializer's format (e.g. "MatsTrace_Binary_v1:deflate").
+            return false;
+        }
+        // E-> Might be one of the other codecs we can decompress
+        return _decompressionCodecs.containsKey(metaTag(meta));
+    }
+
+    /**
+     * @return the compression tag of the meta, i.e. the part before the first ';' - having chopped off any
+     *         identification prefix (up to ':').
+     */
+    private static String metaTag(String meta) {
+        int colon = meta.indexOf(':');
+        int start = (colon != -1) ? colon + 1 : 0;
+        int semicolon = meta.indexOf(';', start);
+        return (semicolon != -1) ? meta.substring(start, semicolon) : meta.substring(start);
     }
 
     @Override
@@ -148,7 +276,7 @@ public class MatsSerializerJson implements MatsSerializer<String> {
                 noAudit);
     }
 
-    private static final String COMPRESS_DEFLATE = "deflate";
+    private static final String COMPRESS_DEFLATE = MatsCompressionCodecDeflate.META_TAG;
     private static final String COMPRESS_PLAIN = "plain";
     private static final String DECOMPRESSED_SIZE_ATTRIBUTE = ";decompSize=";
 
@@ -156,31 +284,43 @@ public class MatsSerializerJson implements MatsSerializer<String> {
     public SerializedMatsTrace serializeMatsTrace(MatsTrace<String> matsTrace) {
         try {
             long nanosAtStart_Serialization = System.nanoTime();
-            byte[] serializedBytes = _matsTraceJson_Writer.writeValueAsBytes(matsTrace);
-            long now = System.nanoTime();
-            long nanosTaken_Serialization = now - nanosAtStart_Serialization;
-            long nanosAtStart_Compression = now;
-
-            String meta;
-            byte[] resultBytes;
-            long nanosTaken_Compression;
-
-            if (serializedBytes.length > 900) {
-                resultBytes = compress(serializedBytes);
-                nanosTaken_Compression = System.nanoTime() - nanosAtStart_Compression;
-                // Add the uncompressed size, for precise buffer allocation for decompression.
-                meta = COMPRESS_DEFLATE + DECOMPRESSED_SIZE_ATTRIBUTE + serializedBytes.length;
+            // Serialize into a pooled buffer, so that we do not need an intermediate array if we compress.
+            PooledByteArrayOutputStream serialized = PooledByteArrayOutputStream.take();
+            try {
+                _matsTraceJson_Writer.writeValue(serialized, matsTrace);
+                int serializedLength = serialized.size();
+                long now = System.nanoTime();
+                long nanosTaken_Serialization = now - nanosAtStart_Serialization;
+                long nanosAtStart_Compression = now;
+
+                String meta;
+                byte[] resultBytes;
+                long nanosTaken_Compression;
+
+                // ?: Are we compressing, and is the serialized MatsTrace above the threshold?
+                if ((_compressionCodec != MatsCompressionCodec.none())
+                        && (serializedLength > _compressionThreshold)) {
+                    // -> Yes, so compress directly from the pooled buffer
+                    resultBytes = _compressionCodec.compress(serialized.buffer(), 0, serializedLength);
+                    nanosTaken_Compression = System.nanoTime() - nanosAtStart_Compression;
+                    // Add the uncompressed size, for precise buffer allocation for decompression.
+                    meta = _compressionCodec.getMetaTag() + DECOMPRESSED_SIZE_ATTRIBUTE + serializedLength;
+                }
+                else {
+                    // -> No, so copy out the exact bytes
+                    resultBytes = Arrays.copyOf(serialized.buffer(), serializedLength);
+                    nanosTaken_Compression = 0;
+                    meta = COMPRESS_PLAIN;
+                }
+
+                return new SerializedMatsTraceImpl(resultBytes, meta, serializedLength, nanosTaken_Serialization,
+                        nanosTaken_Compression);
             }
-            else {
-                resultBytes = serializedBytes;
-                nanosTaken_Compression = 0;
-                meta = COMPRESS_PLAIN;
+            finally {
+                serialized.release();
             }
-
-            return new SerializedMatsTraceImpl(resultBytes, meta, serializedBytes.length, nanosTaken_Serialization,
-                    nanosTaken_Compression);
         }
-        catch (JsonProcessingException e) {
+        catch (IOException e) {
             throw new SerializationException("Couldn't serialize MatsTrace, which is crazy!\n" + matsTrace, e);
         }
     }
@@ -252,10 +392,32 @@ public class MatsSerializerJson implements MatsSerializer<String> {
             }
 
             MatsTrace<String> matsTrace;
-            if (meta.startsWith(COMPRESS_DEFLATE)) {
-                // -> Compressed, so decompress the incoming bytes
-                // Do an initial guess on the decompressed size
-                int bestGuessDecompressedSize = length * 4;
+            if (meta.startsWith(COMPRESS_PLAIN)) {
+                // -> Plain, no compression - use the incoming bytes directly
+                // There is no decompression, so we "start deserialization timer" at the beginning.
+                nanosStartDeserialization = nanosStart;
+                // It per definition (and API contract) takes 0 nanos to NOT decompress.
+                decompressionNanos = 0L;
+                // The decompressed bytes length is the same as the incoming length, since we do not decompress.
+                decompressedBytesLength = length;
+                // Deserialize directly from the incoming bytes, using offset and length.
+                matsTrace = lazyMatsTraceReader(matsTraceBytes, offset).readValue(matsTraceBytes, offset, length);
+            }
+            else {
+                // -> Compressed, so find the codec, and decompress the incoming bytes
+                String metaTag = metaTag(meta);
+                MatsCompressionCodec codec = _decompressionCodecs.get(metaTag);
+                // ?: Did we find the codec?
+                if (codec == null) {
+                    // -> No, so we cannot decompress this.
+                    throw new SerializationException("Can only deserialize '" + COMPRESS_PLAIN + "' and "
+                            + _decompressionCodecs.keySet() + ", but meta was [" + meta + "]"
+                            + (MatsCompressionCodecZstd.META_TAG.equals(metaTag)
+                                    ? " - to handle Zstd, add the library 'com.github.luben:zstd-jni' to classpath."
+                                    : "."));
+                }
+                // The decompressed size, if present (it is always present, except from very old senders)
+                int decompressedSize = -1;
                 // Find actual decompressed size from meta, if present
                 int decompressedBytesAttributeIndex = meta.indexOf(DECOMPRESSED_SIZE_ATTRIBUTE);
                 // ?: Was the size attribute present?
@@ -267,33 +429,36 @@ public class MatsSerializerJson implements MatsSerializer<String> {
                     int end = meta.indexOf(';', start);
                     end = (end != -1) ? end : meta.length();
                     String sizeString = meta.substring(start, end);
-                    bestGuessDecompressedSize = Integer.parseInt(sizeString);
+                    decompressedSize = Integer.parseInt(sizeString);
                 }
 
-                // Decompress
-                byte[] decompressedBytes = decompress(matsTraceBytes, offset, length, bestGuessDecompressedSize);
-                // Begin deserialization time
-                nanosStartDeserialization = System.nanoTime();
+                // ?: Do we know the decompressed size?
+                if (decompressedSize >= 0) {
+                    // -> Yes, so decompress directly into a pooled buffer, and deserialize from the slice of it.
+                    byte[] buffer = BYTE_ARRAY_POOL.take(decompressedSize);
+                    try {
+                        codec.decompress(matsTraceBytes, offset, length, buffer, decompressedSize);
+                        // Begin deserialization time
+                        nanosStartDeserialization = System.nanoTime();
+                        // Deserialize using the decompressed slice of the buffer (the lazy lists copy out their bytes)
+                        matsTrace = lazyMatsTraceReader(buffer, 0).readValue(buffer, 0, decompressedSize);
+                    }
+                    finally {
+                        BYTE_ARRAY_POOL.give(buffer);
+                    }
+                    decompressedBytesLength = decompressedSize;
+                }
+                else {
+                    // -> No, very old sender, so decompress into a new array.
+                    byte[] decompressedBytes = codec.decompress(matsTraceBytes, offset, length, decompressedSize);
+                    // Begin deserialization time
+                    nanosStartDeserialization = System.nanoTime();
+                    decompressedBytesLength = decompressedBytes.length;
+                    // Deserialize using the entire decompressed byte array
+                    matsTrace = lazyMatsTraceReader(decompressedBytes, 0).readValue(decompressedBytes);
+                }
                 // Store how long it took to decompress (shall not be zero, since we did decompress).
                 decompressionNanos = Math.max(1L, nanosStartDeserialization - nanosStart);
-                // Store the size of the decompressed array
-                decompressedBytesLength = decompressedBytes.length;
-                // Deserialize using the entire decompressed byte array
-                matsTrace = _matsTraceJson_Reader.readValue(decompressedBytes);
-            }
-            else if (meta.startsWith(COMPRESS_PLAIN)) {
-                // -> Plain, no compression - use the incoming bytes directly
-                // There is no decompression, so we "start deserialization timer" at the beginning.
-                nanosStartDeserialization = nanosStart;
-                // It per definition (and API contract) takes 0 nanos to NOT decompress.
-                decompressionNanos = 0L;
-                // The decompressed bytes length is the same as the incoming length, since we do not decompress.
-                decompressedBytesLength = length;
-                // Deserialize directly from the incoming bytes, using offset and length.
-                matsTrace = _matsTraceJson_Reader.readValue(matsTraceBytes, offset, length);
-            }
-            else {
-                throw new AssertionError("Can only deserialize 'plain' and 'deflate'.");
             }
 
             long deserializationNanos = System.nanoTime() - nanosStartDeserialization;
@@ -306,6 +471,17 @@ public class MatsSerializerJson implements MatsSerializer<String> {
         }
     }
 
+    /**
+     * @return the MatsTrace reader, set up for lazy deserialization of the Call Flow and State Flow from the given
+     *         bytes - only the current Call and State are deserialized right away, the rest when accessed. Elements
+     *         that are not accessed are written out raw when the MatsTrace is serialized again. The deferred elements'
+     *         bytes are copied out, so the source array may be reused after deserialization.
+     */
+    private ObjectReader lazyMatsTraceReader(byte[] bytes, int offset) {
+        return _matsTraceJson_Reader.withAttribute(MatsTraceJsonLazyLists.LAZY_SOURCE_ATTRIBUTE,
+                new LazySource(_objectMapper, bytes, offset));
+    }
+
     private static final class DeserializedMatsTraceImpl implements DeserializedMatsTrace<String> {
         private final MatsTrace<String> _matsTrace;
         private final int _sizeUncompressed;
@@ -347,7 +523,7 @@ public class MatsSerializerJson implements MatsSerializer<String> {
             return null;
         }
         try {
-            return _objectMapper.writeValueAsString(object);
+            return objectWriterFor(object.getClass()).writeValueAsString(object);
         }
         catch (JsonProcessingException e) {
             throw new SerializationException("Couldn't serialize Object [" + object + "].", e);
@@ -360,7 +536,7 @@ public class MatsSerializerJson implements MatsSerializer<String> {
             return null;
         }
         try {
-            return _objectMapper.readValue(serialized, type);
+            return objectReaderFor(type).readValue(serialized);
         }
         catch (IOException e) {
             throw new SerializationException("Couldn't deserialize JSON into object of type [" + type + "].\n"
@@ -368,6 +544,57 @@ public class MatsSerializerJson implements MatsSerializer<String> {
         }
     }
 
+    /**
+     * Pre-resolves and caches the {@link ObjectReader}s and {@link ObjectWriter}s for the given classes, so that the
+     * first message of each type does not incur the resolving of the Jackson (de)serializers.
+     */
+    @Override
+    public void warmup(Collection<Class<?>> types) {
+        for (Class<?> type : types) {
+            // ?: Is this a type that ever will be (de)serialized?
+            if ((type == null) || (type == Void.class) || type.isPrimitive()) {
+                // -> No, so skip.
+                continue;
+            }
+            objectReaderFor(type);
+            objectWriterFor(type);
+        }
+    }
+
+    private ObjectReader objectReaderFor(Class<?> type) {
+        ObjectReader reader = _objectReaders.get(type);
+        // ?: Did we have it cached?
+        if (reader != null) {
+            // -> Yes, so use it.
+            return reader;
+        }
+        // E-> No, so make it - the "forType" eagerly resolves the root deserializer.
+        reader = _objectMapper.readerFor(type);
+        // ?: Is there room in the cache?
+        if (_objectReaders.size() < MAX_CACHED_CLASSES) {
+            // -> Yes, so cache it (racing threads might both make it, which is fine).
+            _objectReaders.putIfAbsent(type, reader);
+        }
+        return reader;
+    }
+
+    private ObjectWriter objectWriterFor(Class<?> type) {
+        ObjectWriter writer = _objectWriters.get(type);
+        // ?: Did we have it cached?
+        if (writer != null) {
+            // -> Yes, so use it.
+            return writer;
+        }
+        // E-> No, so make it - the "forType" eagerly resolves the root serializer.
+        writer = _objectMapper.writerFor(type);
+        // ?: Is there room in the cache?
+        if (_objectWriters.size() < MAX_CACHED_CLASSES) {
+            // -> Yes, so cache it (racing threads might both make it, which is fine).
+            _objectWriters.putIfAbsent(type, writer);
+        }
+        return writer;
+    }
+
     @Override
     public <T> T newInstance(Class<T> clazz) {
         Constructor<T> noArgsConstructor;
@@ -394,114 +621,85 @@ public class MatsSerializerJson implements MatsSerializer<String> {
         }
     }
 
-    private static final NonblockingStack<Deflater> _deflaterPool = new NonblockingStack<>();
+    /**
+     * Pool of byte arrays shared by all MatsSerializerJson instances and the built-in {@link MatsCompressionCodec}s,
+     * used for the serialization, compression and decompression scratch buffers.
+     */
+    static final ByteArrayPool BYTE_ARRAY_POOL = new ByteArrayPool();
+
+    /**
+     * Pool of byte arrays, handing out arrays that are <i>at least</i> the requested size. Sizes are rounded up to the
+     * next power of two, and an enpooled array that is too small for a request is ditched in favour of a new larger,
+     * so that the pool converges towards arrays that are large enough for the messages in flight. Arrays larger than
+     * {@link #MAX_POOLED_SIZE} are not pooled, so that a single huge message does not pin memory forever. A pool
+     * instead of ThreadLocals is used since the stage processors might be virtual threads.
+     */
+    static final class ByteArrayPool {
+        static final int MAX_POOLED_SIZE = 1024 * 1024;
+        private static final int MIN_SIZE = 1024;
 
-    protected byte[] compress(byte[] data) {
-        // Get a Inflater from the pool
-        Deflater deflater = _deflaterPool.pop();
-        // ?: Did we get an Inflater from the pool?
-        if (deflater == null) {
-            // -> No, so make a new one.
-            deflater = new Deflater(_compressionLevel);
-        }
+        private final NonblockingStack<byte[]> _stack = new NonblockingStack<>();
 
-        // Whether we should enpool the deflater at end
-        boolean reuseDeflater = false;
-        try {
-            deflater.setInput(data);
-            // Hoping for at least 50% reduction, so set "best guess" to half incoming
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 2);
-            deflater.finish();
-            byte[] buffer = new byte[2048];
-            while (!deflater.finished()) {
-                int count = deflater.deflate(buffer);
-                outputStream.write(buffer, 0, count);
-            }
-            try {
-                outputStream.close();
-            }
-            catch (IOException e) {
-                // Just in case this leaves the Deflater in some strange state, ditch it instead of reuse.
-                // NOT setting reuseDeflater to true.
-                throw new DecompressionException("Shall not throw IOException here.", e);
+        byte[] take(int minSize) {
+            // ?: Is this larger than we pool?
+            if (minSize > MAX_POOLED_SIZE) {
+                // -> Yes, so just allocate exact size.
+                return new byte[minSize];
             }
-            // We can reuse this Deflater, since things behaved correctly
-            reuseDeflater = true;
-            return outputStream.toByteArray();
-        }
-        finally {
-            // ?: Still reuse this Inflater?
-            if (reuseDeflater) {
-                // -> Yes reuse, so reset() it, and enpool.
-                deflater.reset();
-                _deflaterPool.push(deflater);
+            byte[] array = _stack.pop();
+            // ?: Did we get an array that is large enough?
+            if ((array != null) && (array.length >= minSize)) {
+                // -> Yes, so use it.
+                return array;
             }
-            else {
-                // -> No, not reuse, so ditch it: end(), and do NOT enpool.
-                // Invoke the "end()" method to timely release off-heap resource, thus not depending on finalization.
-                deflater.end();
+            // E-> No array, or too small (which we ditch), so make a new one.
+            int size = Math.max(MIN_SIZE, Integer.highestOneBit(minSize - 1) << 1);
+            return new byte[size];
+        }
+
+        void give(byte[] array) {
+            // ?: Is this a poolable array?
+            if (array.length <= MAX_POOLED_SIZE) {
+                // -> Yes, so enpool it
+                _stack.push(array);
             }
         }
     }
 
-    private static final NonblockingStack<Inflater> _inflaterPool = new NonblockingStack<>();
+    /**
+     * A {@link ByteArrayOutputStream} whose initial buffer is taken from the {@link #BYTE_ARRAY_POOL}, exposing the
+     * buffer, and which must be {@link #release() released} after use.
+     */
+    static final class PooledByteArrayOutputStream extends ByteArrayOutputStream {
+        private PooledByteArrayOutputStream(byte[] buffer) {
+            super(0);
+            buf = buffer;
+        }
 
-    protected byte[] decompress(byte[] data, int offset, int length, int bestGuessDecompressedSize) {
-        // Get a Inflater from the pool
-        Inflater inflater = _inflaterPool.pop();
-        // ?: Did we get an Inflater from the pool?
-        if (inflater == null) {
-            // -> No, so make a new one.
-            inflater = new Inflater();
+        static PooledByteArrayOutputStream take() {
+            return new PooledByteArrayOutputStream(BYTE_ARRAY_POOL.take(8 * 1024));
         }
 
-        // Whether we should enpool the inflater at end
-        boolean reuseInflater = false;
-        try {
-            inflater.setInput(data, offset, length);
-            // TODO: Optimize: Decompress directly to bytearray: toByteArray() creates a new.
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bestGuessDecompressedSize);
-            byte[] buffer = new byte[4096];
-            while (!inflater.finished()) {
-                try {
-                    int count = inflater.inflate(buffer);
-                    outputStream.write(buffer, 0, count);
-                }
-                catch (DataFormatException e) {
-                    // Just in case this leaves the Inflater in some strange state, ditch it instead of reuse.
-                    // NOT setting reuseInflater to true.
-                    throw new DecompressionException("DataFormatException was bad here.", e);
-                }
-            }
-            try {
-                outputStream.close();
-            }
-            catch (IOException e) {
-                throw new DecompressionException("Shall not throw IOException here.", e);
-            }
-            // We can reuse this Inflater, since things behaved correctly
-            reuseInflater = true;
-            return outputStream.toByteArray();
-        }
-        finally {
-            // ?: Still reuse this Inflater?
-            if (reuseInflater) {
-                // -> Yes reuse, so reset() it, and enpool.
-                inflater.reset();
-                _inflaterPool.push(inflater);
-            }
-            else {
-                // -> No, not reuse, so ditch it: end(), and do NOT enpool.
-                // Invoke the "end()" method to timely release off-heap resource, thus not depending on finalization.
-                inflater.end();
-            }
+        /**
+         * @return the internal buffer, of which the first {@link #size()} bytes are written.
+         */
+        byte[] buffer() {
+            return buf;
+        }
+
+        /**
+         * Returns the internal buffer (which might have grown) to the pool - the stream must not be used afterwards.
+         */
+        void release() {
+            BYTE_ARRAY_POOL.give(buf);
+            buf = null;
         }
     }
 
     /**
      * By Brian Goetz; Nonblocking stack using Treiber's algorithm.
      */
-    private static class NonblockingStack<E> {
+    static class NonblockingStack<E> {
         AtomicReference<Node<E>> head = new AtomicReference<>();
 
         public void push(E item) {
@@ -535,10 +733,4 @@ public class MatsSerializerJson implements MatsSerializer<String> {
             }
         }
     }
-
-    private static class DecompressionException extends SerializationException {
-        DecompressionException(String message, Throwable cause) {
-            super(message, cause);
-        }
-    }
 }
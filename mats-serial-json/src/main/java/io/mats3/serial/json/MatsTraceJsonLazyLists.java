@@ -0,0 +1,337 @@
+package io.mats3.serial.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import io.mats3.serial.MatsSerializer.SerializationException;
+import io.mats3.serial.impl.MatsTraceFieldImpl;
+import io.mats3.serial.impl.MatsTraceLazyList;
+
+/**
+ * Jackson support for lazy deserialization of the Call Flow ("c") and State Flow ("ss") of the MatsTrace: Instead of
+ * deserializing every element of these lists, the deserializer only records where each element's JSON is, copies the
+ * range of raw bytes holding them out of the (possibly pooled) source, and hands them to a {@link MatsTraceLazyList} -
+ * which deserializes an element when it is accessed. The last element of each list is deserialized right away, as the
+ * last Call is the current Call, and the last State typically is the current State. When serializing, elements that
+ * still are deferred are written as the raw bytes they were read from, instead of being reserialized - and consecutive
+ * such elements are written as one run of bytes. Thus, serializing an outgoing MatsTrace costs in proportion to what
+ * the stage added (the new Call and State, and the previous Call which is modified), plus a copy of the history.
+ * <p />
+ * The lists are only lazy when the {@link #LAZY_SOURCE_ATTRIBUTE} is set on the reader, which
+ * {@link MatsSerializerJson} does when deserializing a MatsTrace.
+ */
+final class MatsTraceJsonLazyLists {
+    private MatsTraceJsonLazyLists() {
+    }
+
+    /**
+     * The reader attribute holding the {@link LazySource}.
+     */
+    static final String LAZY_SOURCE_ATTRIBUTE = "mats3.lazySource";
+
+    /**
+     * Mix-in for {@link MatsTraceFieldImpl}, to use the lazy (de)serializers for the "c" and "ss" fields.
+     */
+    abstract static class MatsTraceFieldImplMixin {
+        @JsonSerialize(using = LazyListSerializer.class)
+        @JsonDeserialize(using = LazyListDeserializer.class)
+        private List<?> c;
+
+        @JsonSerialize(using = LazyListSerializer.class)
+        @JsonDeserialize(using = LazyListDeserializer.class)
+        private List<?> ss;
+    }
+
+    /**
+     * The bytes being deserialized - the byte offsets from the parser are relative to <code>offset</code>.
+     */
+    static final class LazySource {
+        private final ObjectMapper _mapper;
+        private final byte[] _bytes;
+        private final int _offset;
+
+        LazySource(ObjectMapper mapper, byte[] bytes, int offset) {
+            _mapper = mapper;
+            _bytes = bytes;
+            _offset = offset;
+        }
+    }
+
+    /**
+     * The deferred form of an element: A range of an immutable array, holding the element's JSON as UTF-8. Implements
+     * {@link SerializableString} so that it may be written raw by the {@link JsonGenerator}.
+     */
+    static final class RawJson implements SerializableString {
+        private final byte[] _bytes;
+        private final int _offset;
+        private final int _length;
+
+        RawJson(byte[] bytes, int offset, int length) {
+            _bytes = bytes;
+            _offset = offset;
+            _length = length;
+        }
+
+        @Override
+        public String getValue() {
+            return new String(_bytes, _offset, _length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return new SerializedString(getValue()).asQuotedChars();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return Arrays.copyOfRange(_bytes, _offset, _offset + _length);
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return new SerializedString(getValue()).asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return new SerializedString(getValue()).appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return new SerializedString(getValue()).appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            // ?: Does it fit in the buffer?
+            if ((offset + _length) > buffer.length) {
+                // -> No, so tell the generator to use asUnquotedUTF8() instead.
+                return -1;
+            }
+            System.arraycopy(_bytes, _offset, buffer, offset, _length);
+            return _length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return new SerializedString(getValue()).appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return new SerializedString(getValue()).writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(_bytes, _offset, _length);
+            return _length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return new SerializedString(getValue()).putQuotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) throws IOException {
+            if (_length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(_bytes, _offset, _length);
+            return _length;
+        }
+
+        @Override
+        public String toString() {
+            return getValue();
+        }
+    }
+
+    /**
+     * Deserializes the JSON array into a {@link MatsTraceLazyList} of {@link RawJson} elements, if the
+     * {@link #LAZY_SOURCE_ATTRIBUTE} is present - otherwise as a normal List.
+     */
+    static final class LazyListDeserializer extends StdDeserializer<List<Object>> implements ContextualDeserializer {
+        private final JavaType _listType;
+        private final JavaType _elementType;
+        // Created on first use, from the LazySource's ObjectMapper. Racy, but idempotent.
+        private volatile ObjectReader _elementReader;
+
+        LazyListDeserializer() {
+            this(null);
+        }
+
+        private LazyListDeserializer(JavaType listType) {
+            super(List.class);
+            _listType = listType;
+            _elementType = (listType == null) ? null : listType.getContentType();
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+            return new LazyListDeserializer(property.getType());
+        }
+
+        @Override
+        public List<Object> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            LazySource source = (LazySource) ctxt.getAttribute(LAZY_SOURCE_ATTRIBUTE);
+            // ?: Are we deserializing lazily?
+            if (source == null) {
+                // -> No, so deserialize as a normal List.
+                return ctxt.readValue(p, _listType);
+            }
+            if (!p.isExpectedStartArrayToken()) {
+                throw JsonMappingException.from(p, "Expected START_ARRAY for [" + _listType + "], got ["
+                        + p.currentToken() + "].");
+            }
+            // :: Record where each element starts and ends, skipping over its contents.
+            int[] starts = new int[16];
+            int[] ends = new int[16];
+            int count = 0;
+            JsonToken token;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw JsonMappingException.from(p, "Expected START_OBJECT for element of [" + _listType
+                            + "], got [" + token + "].");
+                }
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                starts[count] = (int) p.getTokenLocation().getByteOffset();
+                p.skipChildren();
+                ends[count] = (int) p.getCurrentLocation().getByteOffset();
+                count++;
+            }
+            // ?: Empty?
+            if (count == 0) {
+                // -> Yes, so nothing to defer.
+                return new ArrayList<>();
+            }
+            // :: Copy out the raw bytes of all the elements in one go - the source might be a pooled buffer.
+            int regionStart = starts[0];
+            byte[] region = Arrays.copyOfRange(source._bytes, source._offset + regionStart,
+                    source._offset + ends[count - 1]);
+            Object[] elements = new Object[count];
+            for (int i = 0; i < count; i++) {
+                elements[i] = new RawJson(region, starts[i] - regionStart, ends[i] - starts[i]);
+            }
+            ObjectReader elementReader = _elementReader;
+            if (elementReader == null) {
+                elementReader = source._mapper.readerFor(_elementType);
+                _elementReader = elementReader;
+            }
+            ObjectReader reader = elementReader;
+            MatsTraceLazyList<Object> list = new MatsTraceLazyList<>(raw -> materialize(reader, (RawJson) raw),
+                    elements);
+            // Materialize the last element right away: It is the current Call, or most probably the current State.
+            list.get(count - 1);
+            return list;
+        }
+
+        private Object materialize(ObjectReader reader, RawJson raw) {
+            try {
+                return reader.readValue(raw._bytes, raw._offset, raw._length);
+            }
+            catch (IOException e) {
+                throw new SerializationException("Couldn't lazily deserialize element of [" + _listType
+                        + "] from JSON, which is crazy!\n" + raw, e);
+            }
+        }
+    }
+
+    /**
+     * Serializes the List, writing the still deferred elements of a {@link MatsTraceLazyList} raw.
+     */
+    static final class LazyListSerializer extends StdSerializer<List<?>> implements ContextualSerializer {
+        private final JsonSerializer<Object> _elementSerializer;
+
+        LazyListSerializer() {
+            this(null);
+        }
+
+        private LazyListSerializer(JsonSerializer<Object> elementSerializer) {
+            super(List.class, false);
+            _elementSerializer = elementSerializer;
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property)
+                throws JsonMappingException {
+            return new LazyListSerializer(prov.findValueSerializer(property.getType().getContentType(), property));
+        }
+
+        @Override
+        public void serialize(List<?> list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            MatsTraceLazyList<?> lazyList = (list instanceof MatsTraceLazyList) ? (MatsTraceLazyList<?>) list : null;
+            int size = list.size();
+            gen.writeStartArray(list, size);
+            for (int i = 0; i < size; i++) {
+                Object deferred = (lazyList != null) ? lazyList.getDeferred(i) : null;
+                // ?: Is this an untouched deferred element?
+                if (deferred instanceof RawJson) {
+                    // -> Yes, so write the raw bytes we read it from - along with any directly following untouched
+                    // elements from the same source, in one go: The incoming history is typically a single run.
+                    RawJson raw = (RawJson) deferred;
+                    int runEnd = raw._offset + raw._length;
+                    while ((i + 1) < size) {
+                        Object next = lazyList.getDeferred(i + 1);
+                        // ?: Is the next element also untouched, and directly following this in the source?
+                        if (!(next instanceof RawJson) || (((RawJson) next)._bytes != raw._bytes)
+                                || (((RawJson) next)._offset != (runEnd + 1)) || (raw._bytes[runEnd] != ',')) {
+                            // -> No, so the run ends here.
+                            break;
+                        }
+                        runEnd = ((RawJson) next)._offset + ((RawJson) next)._length;
+                        i++;
+                    }
+                    gen.writeRawValue((runEnd == (raw._offset + raw._length))
+                            ? raw
+                            : new RawJson(raw._bytes, raw._offset, runEnd - raw._offset));
+                    continue;
+                }
+                Object element = list.get(i);
+                if (element == null) {
+                    gen.writeNull();
+                }
+                else {
+                    _elementSerializer.serialize(element, gen, provider);
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+}
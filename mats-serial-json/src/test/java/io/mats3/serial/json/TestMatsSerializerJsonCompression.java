@@ -0,0 +1,234 @@
+package io.mats3.serial.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.mats3.serial.MatsSerializer.DeserializedMatsTrace;
+import io.mats3.serial.MatsSerializer.SerializationException;
+import io.mats3.serial.MatsSerializer.SerializedMatsTrace;
+import io.mats3.serial.MatsTrace;
+import io.mats3.serial.MatsTrace.Call.MessagingModel;
+import io.mats3.serial.MatsTrace.KeepMatsTrace;
+
+/**
+ * Tests the {@link MatsCompressionCodec}s of {@link MatsSerializerJson}: That each codec roundtrips, that the meta tag
+ * and threshold is employed, and that a serializer can deserialize what a serializer with a different codec serialized.
+ */
+public class TestMatsSerializerJsonCompression {
+    private static final Logger log = LoggerFactory.getLogger(TestMatsSerializerJsonCompression.class);
+
+    @Test
+    public void eachCodecRoundtripsAndIsReadableByDefaultSerializer() {
+        MatsSerializerJson defaultSerializer = MatsSerializerJson.create();
+        MatsCompressionCodec[] codecs = { MatsCompressionCodec.deflate(1), MatsCompressionCodec.lz4(),
+                MatsCompressionCodec.zstd(1) };
+        for (MatsCompressionCodec codec : codecs) {
+            MatsSerializerJson ser = MatsSerializerJson.create(codec, 100);
+            MatsTrace<String> matsTrace = createMatsTrace(ser, 50);
+            SerializedMatsTrace serialized = ser.serializeMatsTrace(matsTrace);
+            log.info("Codec [" + codec.getMetaTag() + "]: uncompressed:[" + serialized.getSizeUncompressed()
+                    + " B], compressed:[" + serialized.getMatsTraceBytes().length + " B], meta:["
+                    + serialized.getMeta() + "]");
+            Assert.assertEquals(codec.getMetaTag() + ";decompSize=" + serialized.getSizeUncompressed(),
+                    serialized.getMeta());
+            Assert.assertTrue(serialized.getMatsTraceBytes().length < serialized.getSizeUncompressed());
+            Assert.assertTrue(defaultSerializer.handlesMeta(serialized.getMeta()));
+
+            // Deserialize both with the same serializer, and with the default (Deflate) serializer.
+            for (MatsSerializerJson deser : new MatsSerializerJson[] { ser, defaultSerializer }) {
+                // Put the bytes at an offset, to check offset handling
+                byte[] bytes = serialized.getMatsTraceBytes();
+                byte[] withOffset = new byte[bytes.length + 10];
+                System.arraycopy(bytes, 0, withOffset, 7, bytes.length);
+                DeserializedMatsTrace<String> deserialized = deser.deserializeMatsTrace(withOffset, 7, bytes.length,
+                        serialized.getMeta());
+                Assert.assertEquals(serialized.getSizeUncompressed(), deserialized.getSizeDecompressed());
+                Assert.assertTrue(deserialized.getNanosDecompression() > 0);
+                Assert.assertEquals(matsTrace.getCurrentCall().getData(),
+                        deserialized.getMatsTrace().getCurrentCall().getData());
+                Assert.assertEquals(matsTrace.getCallFlow().size(), deserialized.getMatsTrace().getCallFlow().size());
+            }
+        }
+    }
+
+    @Test
+    public void thresholdAndNone() {
+        MatsSerializerJson ser = MatsSerializerJson.create(MatsCompressionCodec.lz4(), 100_000);
+        SerializedMatsTrace belowThreshold = ser.serializeMatsTrace(createMatsTrace(ser, 50));
+        Assert.assertEquals("plain", belowThreshold.getMeta());
+        Assert.assertEquals(0, belowThreshold.getNanosCompression());
+
+        MatsSerializerJson none = MatsSerializerJson.create(MatsCompressionCodec.none(), 0);
+        SerializedMatsTrace neverCompressed = none.serializeMatsTrace(createMatsTrace(none, 50));
+        Assert.assertEquals("plain", neverCompressed.getMeta());
+        Assert.assertEquals(neverCompressed.getSizeUncompressed(), neverCompressed.getMatsTraceBytes().length);
+
+        // Old style deflate without size attribute shall still be handled.
+        MatsSerializerJson deflate = MatsSerializerJson.create(MatsCompressionCodec.deflate(1), 0);
+        MatsTrace<String> matsTrace = createMatsTrace(deflate, 50);
+        SerializedMatsTrace serialized = deflate.serializeMatsTrace(matsTrace);
+        DeserializedMatsTrace<String> deserialized = none.deserializeMatsTrace(serialized.getMatsTraceBytes(),
+                "deflate");
+        Assert.assertEquals(matsTrace.getCurrentCall().getData(),
+                deserialized.getMatsTrace().getCurrentCall().getData());
+    }
+
+    @Test
+    public void unknownCodecThrows() {
+        MatsSerializerJson ser = MatsSerializerJson.create();
+        Assert.assertFalse(ser.handlesMeta("brotli;decompSize=10"));
+        try {
+            ser.deserializeMatsTrace(new byte[10], "brotli;decompSize=10");
+            Assert.fail("Should have thrown.");
+        }
+        catch (SerializationException e) {
+            log.info("Got expected exception: " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void lz4Roundtrips() {
+        Random random = new Random(42);
+        MatsCompressionCodec lz4 = MatsCompressionCodec.lz4();
+        for (int size : new int[] { 0, 1, 5, 12, 13, 16, 100, 4096, 70_000, 300_000 }) {
+            // :: Incompressible
+            byte[] randomBytes = new byte[size];
+            random.nextBytes(randomBytes);
+            assertLz4Roundtrip(lz4, randomBytes);
+
+            // :: Very compressible, including long runs (overlapping matches, and long length encodings)
+            byte[] runs = new byte[size];
+            for (int i = 0; i < size; i++) {
+                runs[i] = (byte) ((i / 1000) % 3);
+            }
+            assertLz4Roundtrip(lz4, runs);
+
+            // :: Text-like, with matches further apart than the max distance
+            StringBuilder buf = new StringBuilder();
+            while (buf.length() < size) {
+                buf.append("{\"endpointId\":\"Service.endpoint").append(random.nextInt(size + 1)).append("\"}");
+            }
+            assertLz4Roundtrip(lz4, buf.substring(0, size).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void lz4MalformedThrows() {
+        MatsCompressionCodec lz4 = MatsCompressionCodec.lz4();
+        byte[] data = new byte[2000];
+        Arrays.fill(data, (byte) 'x');
+        byte[] compressed = lz4.compress(data);
+        // Truncated
+        assertThrows(() -> lz4.decompress(compressed, 0, compressed.length - 1, data.length));
+        // Wrong size
+        assertThrows(() -> lz4.decompress(compressed, 0, compressed.length, data.length - 1));
+        assertThrows(() -> lz4.decompress(compressed, 0, compressed.length, data.length + 1));
+        // Garbage
+        byte[] garbage = new byte[50];
+        new Random(1).nextBytes(garbage);
+        assertThrows(() -> lz4.decompress(garbage, 0, garbage.length, 1000));
+    }
+
+    @Test
+    public void decompressIntoLargerDestinationAndDetectWrongSize() {
+        byte[] data = new byte[5000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ((i * 7) % 61);
+        }
+        MatsCompressionCodec[] codecs = { MatsCompressionCodec.deflate(1), MatsCompressionCodec.lz4(),
+                MatsCompressionCodec.zstd(1) };
+        for (MatsCompressionCodec codec : codecs) {
+            // Compress from a slice
+            byte[] withOffset = new byte[data.length + 20];
+            Arrays.fill(withOffset, (byte) 99);
+            System.arraycopy(data, 0, withOffset, 11, data.length);
+            byte[] compressed = codec.compress(withOffset, 11, data.length);
+            Assert.assertArrayEquals(compressed, codec.compress(data));
+
+            // Decompress into a larger, dirty, destination - as the pooled buffers are.
+            byte[] dest = new byte[data.length + 1000];
+            Arrays.fill(dest, (byte) 42);
+            codec.decompress(compressed, 0, compressed.length, dest, data.length);
+            Assert.assertArrayEquals(codec.getMetaTag(), data, Arrays.copyOf(dest, data.length));
+
+            // Stated size too small and too large shall throw
+            assertThrows(() -> codec.decompress(compressed, 0, compressed.length, dest, data.length - 1));
+            assertThrows(() -> codec.decompress(compressed, 0, compressed.length, dest, data.length + 1));
+            // Truncated shall throw
+            assertThrows(() -> codec.decompress(compressed, 0, compressed.length - 3, dest, data.length));
+        }
+    }
+
+    @Test
+    public void pooledBuffersDoNotLeakBetweenMessages() {
+        for (MatsCompressionCodec codec : new MatsCompressionCodec[] { MatsCompressionCodec.deflate(1),
+                MatsCompressionCodec.lz4(), MatsCompressionCodec.none() }) {
+            MatsSerializerJson ser = MatsSerializerJson.create(codec, 500);
+            // Alternate between large and small, so that the pooled buffers hold stale larger content.
+            for (int i = 0; i < 40; i++) {
+                int depth = (i % 2 == 0) ? 60 - i : 1 + (i % 5);
+                MatsTrace<String> matsTrace = createMatsTrace(ser, depth);
+                SerializedMatsTrace serialized = ser.serializeMatsTrace(matsTrace);
+                DeserializedMatsTrace<String> deserialized = ser.deserializeMatsTrace(
+                        serialized.getMatsTraceBytes(), serialized.getMeta());
+                Assert.assertEquals(serialized.getSizeUncompressed(), deserialized.getSizeDecompressed());
+                Assert.assertEquals(depth, deserialized.getMatsTrace().getCallFlow().size());
+                Assert.assertEquals(matsTrace.getCurrentCall().getData(),
+                        deserialized.getMatsTrace().getCurrentCall().getData());
+                // Reserializing gives the same bytes
+                Assert.assertArrayEquals(serialized.getMatsTraceBytes(),
+                        ser.serializeMatsTrace(deserialized.getMatsTrace()).getMatsTraceBytes());
+            }
+        }
+    }
+
+    private static void assertLz4Roundtrip(MatsCompressionCodec lz4, byte[] data) {
+        byte[] compressed = lz4.compress(data);
+        byte[] withOffset = new byte[compressed.length + 3];
+        System.arraycopy(compressed, 0, withOffset, 3, compressed.length);
+        byte[] decompressed = lz4.decompress(withOffset, 3, compressed.length, data.length);
+        Assert.assertArrayEquals("Size " + data.length, data, decompressed);
+    }
+
+    private static void assertThrows(Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail("Should have thrown.");
+        }
+        catch (SerializationException e) {
+            // Expected
+        }
+    }
+
+    private static MatsTrace<String> createMatsTrace(MatsSerializerJson ser, int depth) {
+        MatsTrace<String> mt = ser.createNewMatsTrace("traceId_compression", "flowId", KeepMatsTrace.FULL, false,
+                false, 0, false);
+        for (int i = 0; i < depth; i++) {
+            mt = mt.addRequestCall("Service.endpoint" + i, "Service.endpoint" + i, MessagingModel.QUEUE,
+                    "Service.endpoint" + (i + 1), MessagingModel.QUEUE,
+                    ser.serializeObject(new DataTO("data" + i, i)), ser.serializeObject(new DataTO("state", i)),
+                    null);
+            mt.setOutgoingTimestamp(i);
+        }
+        return mt;
+    }
+
+    private static class DataTO {
+        String string;
+        int number;
+
+        DataTO() {
+        }
+
+        DataTO(String string, int number) {
+            this.string = string;
+            this.number = number;
+        }
+    }
+}
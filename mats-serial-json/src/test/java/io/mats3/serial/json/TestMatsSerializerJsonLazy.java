@@ -0,0 +1,237 @@
+package io.mats3.serial.json;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.mats3.serial.MatsSerializer.SerializedMatsTrace;
+import io.mats3.serial.MatsTrace;
+import io.mats3.serial.MatsTrace.Call;
+import io.mats3.serial.MatsTrace.Call.MessagingModel;
+import io.mats3.serial.MatsTrace.KeepMatsTrace;
+import io.mats3.serial.MatsTrace.StackState;
+import io.mats3.serial.impl.MatsTraceFieldImpl;
+import io.mats3.serial.impl.MatsTraceLazyList;
+
+/**
+ * Tests the lazy deserialization of the Call Flow and State Flow of {@link MatsSerializerJson}: That only the current
+ * Call and last State are deserialized up front, that the history is deserialized correctly when accessed, and that a
+ * lazily deserialized MatsTrace serializes to the same as a fully deserialized one - also when a new call is added.
+ */
+public class TestMatsSerializerJsonLazy {
+    @Test
+    public void historyIsDeferredUntilAccessed() {
+        for (MatsSerializerJson ser : serializers()) {
+            MatsTrace<String> matsTrace = createMatsTrace(ser, KeepMatsTrace.FULL, 30);
+            SerializedMatsTrace serialized = ser.serializeMatsTrace(matsTrace);
+            MatsTrace<String> lazy = ser.deserializeMatsTrace(serialized.getMatsTraceBytes(), serialized.getMeta())
+                    .getMatsTrace();
+
+            MatsTraceLazyList<?> calls = lazyList(lazy, "c");
+            MatsTraceLazyList<?> states = lazyList(lazy, "ss");
+            Assert.assertEquals(30, calls.size());
+            Assert.assertEquals(29, calls.getDeferredCount());
+            Assert.assertEquals(59, states.getDeferredCount());
+
+            // Current call and state shall not need more deserialization
+            Assert.assertEquals(matsTrace.getCurrentCall().getData(), lazy.getCurrentCall().getData());
+            Assert.assertEquals(matsTrace.getCurrentState().get().getState(), lazy.getCurrentState().get().getState());
+            Assert.assertEquals(29, calls.getDeferredCount());
+            Assert.assertEquals(59, states.getDeferredCount());
+
+            // Reserializing untouched gives the same bytes
+            Assert.assertArrayEquals(serialized.getMatsTraceBytes(),
+                    ser.serializeMatsTrace(lazy).getMatsTraceBytes());
+
+            // Accessing the history deserializes it
+            List<Call<String>> callFlow = lazy.getCallFlow();
+            List<StackState<String>> stateFlow = lazy.getStateFlow();
+            Assert.assertEquals(0, calls.getDeferredCount());
+            Assert.assertEquals(0, states.getDeferredCount());
+            List<Call<String>> originalCallFlow = matsTrace.getCallFlow();
+            List<StackState<String>> originalStateFlow = matsTrace.getStateFlow();
+            Assert.assertEquals(originalCallFlow.size(), callFlow.size());
+            Assert.assertEquals(originalStateFlow.size(), stateFlow.size());
+            for (int i = 0; i < callFlow.size(); i++) {
+                Assert.assertEquals(originalCallFlow.get(i).toString(), callFlow.get(i).toString());
+            }
+            for (int i = 0; i < stateFlow.size(); i++) {
+                Assert.assertEquals(originalStateFlow.get(i).toString(), stateFlow.get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    public void lazyAndFullyDeserializedSerializeTheSame() throws IOException {
+        for (MatsSerializerJson ser : serializers()) {
+            for (KeepMatsTrace keepMatsTrace : KeepMatsTrace.values()) {
+                MatsTrace<String> matsTrace = createMatsTrace(ser, keepMatsTrace, 20);
+                SerializedMatsTrace serialized = ser.serializeMatsTrace(matsTrace);
+                MatsTrace<String> lazy = ser.deserializeMatsTrace(serialized.getMatsTraceBytes(),
+                        serialized.getMeta()).getMatsTrace();
+                MatsTrace<String> eager = ser.deserializeMatsTrace(serialized.getMatsTraceBytes(),
+                        serialized.getMeta()).getMatsTrace();
+                // Deserialize all of "eager"
+                eager.getCallFlow();
+                eager.getStateFlow();
+
+                // :: Add a new call to both, with extra-state on the current state, and serialize.
+                lazy.getCurrentState().get().setExtraState("extra", "\"lazy\"");
+                eager.getCurrentState().get().setExtraState("extra", "\"lazy\"");
+                MatsTrace<String> lazyNext = addCall(ser, lazy, 20);
+                MatsTrace<String> eagerNext = addCall(ser, eager, 20);
+                if (keepMatsTrace == KeepMatsTrace.FULL) {
+                    // The history shall still be deferred in the new MatsTrace
+                    Assert.assertEquals(19, lazyList(lazyNext, "c").getDeferredCount());
+                }
+                SerializedMatsTrace lazySerialized = ser.serializeMatsTrace(lazyNext);
+                byte[] lazyBytes = lazySerialized.getMatsTraceBytes();
+                byte[] eagerBytes = ser.serializeMatsTrace(eagerNext).getMatsTraceBytes();
+                Assert.assertEquals(keepMatsTrace.toString(), withoutNewCallRandomness(eagerBytes),
+                        withoutNewCallRandomness(lazyBytes));
+
+                // The incoming MatsTrace shall not have been affected by the new call.
+                Assert.assertEquals(matsTrace.getCallFlow().size(), lazy.getCallFlow().size());
+
+                // :: Deserialize the result, and check that it is as expected.
+                MatsTrace<String> roundtripped = ser.deserializeMatsTrace(lazyBytes, lazySerialized.getMeta())
+                        .getMatsTrace();
+                Assert.assertEquals("\"data20\"", roundtripped.getCurrentCall().getData());
+                Assert.assertEquals(lazyNext.getCallFlow().size(), roundtripped.getCallFlow().size());
+                Assert.assertEquals(lazyNext.getStateFlow().toString(), roundtripped.getStateFlow().toString());
+            }
+        }
+    }
+
+    @Test
+    public void multipleHopsWriteUntouchedHistoryAsIfFullySerialized() {
+        for (MatsSerializerJson ser : serializers()) {
+            MatsTrace<String> matsTrace = createMatsTrace(ser, KeepMatsTrace.FULL, 5);
+            SerializedMatsTrace serialized = ser.serializeMatsTrace(matsTrace);
+            for (int hop = 5; hop < 25; hop++) {
+                // :: The "stage": Deserialize the incoming, add a call, and serialize the outgoing.
+                MatsTrace<String> incoming = ser.deserializeMatsTrace(serialized.getMatsTraceBytes(),
+                        serialized.getMeta()).getMatsTrace();
+                MatsTrace<String> outgoing = addCall(ser, incoming, hop);
+                serialized = ser.serializeMatsTrace(outgoing);
+
+                // :: Fully deserialize the result, and reserialize it: Shall be the same bytes.
+                MatsTrace<String> full = ser.deserializeMatsTrace(serialized.getMatsTraceBytes(),
+                        serialized.getMeta()).getMatsTrace();
+                Assert.assertEquals(hop + 1, full.getCallFlow().size());
+                full.getStateFlow();
+                Assert.assertEquals(0, lazyList(full, "c").getDeferredCount());
+                Assert.assertArrayEquals(serialized.getMatsTraceBytes(),
+                        ser.serializeMatsTrace(full).getMatsTraceBytes());
+            }
+        }
+    }
+
+    @Test
+    public void fanOutSharesHistoryAndSerializesCorrectly() {
+        for (MatsSerializerJson ser : serializers()) {
+            MatsTrace<String> inMemory = createMatsTrace(ser, KeepMatsTrace.FULL, 15);
+            SerializedMatsTrace serialized = ser.serializeMatsTrace(inMemory);
+            MatsTrace<String> lazy = ser.deserializeMatsTrace(serialized.getMatsTraceBytes(), serialized.getMeta())
+                    .getMatsTrace();
+            MatsTrace<String> lazyMaterialized = ser.deserializeMatsTrace(serialized.getMatsTraceBytes(),
+                    serialized.getMeta()).getMatsTrace();
+            lazyMaterialized.getCallFlow();
+            lazyMaterialized.getStateFlow();
+
+            for (MatsTrace<String> incoming : Arrays.asList(inMemory, lazy, lazyMaterialized)) {
+                List<Call<String>> incomingCallFlow = incoming.getCallFlow();
+                for (int i = 0; i < 10; i++) {
+                    MatsTrace<String> sibling = addCall(ser, incoming, 100 + i);
+                    List<Call<String>> siblingCallFlow = sibling.getCallFlow();
+                    // The history Calls are shared, the current Call is cloned (as it is modified), and one is added.
+                    for (int j = 0; j < (incomingCallFlow.size() - 1); j++) {
+                        Assert.assertSame(incomingCallFlow.get(j), siblingCallFlow.get(j));
+                    }
+                    Call<String> previousCurrent = siblingCallFlow.get(incomingCallFlow.size() - 1);
+                    Assert.assertNotSame(incomingCallFlow.get(incomingCallFlow.size() - 1), previousCurrent);
+                    Assert.assertEquals(incomingCallFlow.size() + 1, siblingCallFlow.size());
+                    // The incoming current Call is not modified, while the sibling's copy of it is.
+                    Assert.assertEquals("Service.endpoint14", incoming.getCurrentCall().getFrom());
+                    Assert.assertNotEquals("Service.endpoint14", previousCurrent.getFrom());
+
+                    // A new call on the sibling in turn, which then has the sibling's (modified) Call as history.
+                    MatsTrace<String> next = addCall(ser, sibling, 200 + i);
+                    for (MatsTrace<String> outgoing : Arrays.asList(sibling, next)) {
+                        // :: Serialized, it shall be the same as if fully serialized.
+                        SerializedMatsTrace outgoingSerialized = ser.serializeMatsTrace(outgoing);
+                        MatsTrace<String> full = ser.deserializeMatsTrace(outgoingSerialized.getMatsTraceBytes(),
+                                outgoingSerialized.getMeta()).getMatsTrace();
+                        full.getCallFlow();
+                        full.getStateFlow();
+                        Assert.assertArrayEquals(outgoingSerialized.getMatsTraceBytes(),
+                                ser.serializeMatsTrace(full).getMatsTraceBytes());
+                    }
+                }
+            }
+        }
+    }
+
+    private static MatsSerializerJson[] serializers() {
+        // Compressed (thus decompressed into pooled buffers), and plain (directly from the incoming bytes).
+        return new MatsSerializerJson[] { MatsSerializerJson.create(),
+                MatsSerializerJson.create(MatsCompressionCodec.none(), 0) };
+    }
+
+    private static String withoutNewCallRandomness(byte[] bytes) throws IOException {
+        byte[] json = bytes;
+        // ?: Compressed?
+        if (bytes[0] != '{') {
+            json = MatsCompressionCodec.deflate(1).decompress(bytes, 0, bytes.length, -1);
+        }
+        ObjectNode tree = (ObjectNode) new ObjectMapper().readTree(json);
+        ArrayNode calls = (ArrayNode) tree.get("c");
+        // The new Call has a new timestamp (also in its id), and its new stack frame has a random SpanId.
+        ObjectNode newCall = (ObjectNode) calls.get(calls.size() - 1);
+        newCall.remove("ts");
+        newCall.remove("id");
+        ArrayNode stack = (ArrayNode) newCall.get("s");
+        ((ObjectNode) stack.get(stack.size() - 1)).remove("sid");
+        return tree.toString();
+    }
+
+    private static MatsTraceLazyList<?> lazyList(MatsTrace<String> matsTrace, String fieldName) {
+        try {
+            Field field = MatsTraceFieldImpl.class.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            Object list = field.get(matsTrace);
+            Assert.assertTrue("Should be lazy: " + list.getClass(), list instanceof MatsTraceLazyList);
+            return (MatsTraceLazyList<?>) list;
+        }
+        catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new AssertionError("Couldn't get field [" + fieldName + "].", e);
+        }
+    }
+
+    private static MatsTrace<String> createMatsTrace(MatsSerializerJson ser, KeepMatsTrace keepMatsTrace,
+            int depth) {
+        MatsTrace<String> mt = ser.createNewMatsTrace("traceId_lazy", "flowId", keepMatsTrace, false, false, 0,
+                false);
+        for (int i = 0; i < depth; i++) {
+            mt = addCall(ser, mt, i);
+        }
+        return mt;
+    }
+
+    private static MatsTrace<String> addCall(MatsSerializerJson ser, MatsTrace<String> mt, int i) {
+        MatsTrace<String> next = mt.addRequestCall("Service.endpoint" + i, "Service.endpoint" + i,
+                MessagingModel.QUEUE, "Service.endpoint" + (i + 1), MessagingModel.QUEUE,
+                ser.serializeObject("data" + i), ser.serializeObject("state" + i),
+                ser.serializeObject("initial" + i));
+        next.setOutgoingTimestamp(i);
+        return next;
+    }
+}
@@ -0,0 +1,67 @@
+package io.mats3.serial.json;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the per-class cached ObjectReaders and ObjectWriters of {@link MatsSerializerJson}, and the
+ * {@link MatsSerializerJson#warmup(java.util.Collection) warm-up}.
+ */
+public class TestMatsSerializerJsonObjectCache {
+    @Test
+    public void warmupAndRoundtrip() {
+        MatsSerializerJson ser = MatsSerializerJson.create();
+        // Shall handle types that never will be (de)serialized.
+        ser.warmup(Arrays.asList(DataTO.class, StateTO.class, Void.class, void.class, int.class, null));
+
+        DataTO dto = new DataTO("text", 42, LocalDate.of(1975, 3, 11), Optional.of("present"));
+        String json = ser.serializeObject(dto);
+        // Same as before caching: Fields only, null dropped, dates as strings, Optional as value.
+        Assert.assertEquals("{\"string\":\"text\",\"number\":42,\"date\":\"1975-03-11\",\"optional\":\"present\"}",
+                json);
+        // Twice, to hit the cache.
+        Assert.assertEquals(json, ser.serializeObject(dto));
+
+        DataTO roundtripped = ser.deserializeObject(json, DataTO.class);
+        Assert.assertEquals(dto.string, roundtripped.string);
+        Assert.assertEquals(dto.number, roundtripped.number);
+        Assert.assertEquals(dto.date, roundtripped.date);
+        Assert.assertEquals(dto.optional, roundtripped.optional);
+
+        // Unknown properties shall still be ignored, and the same class shall deserialize via the cached reader.
+        StateTO sto = ser.deserializeObject("{\"state\":7,\"unknown\":\"x\"}", StateTO.class);
+        Assert.assertEquals(7, sto.state);
+        Assert.assertEquals(8, ser.deserializeObject("{\"state\":8}", StateTO.class).state);
+
+        // Not warmed-up classes shall work as before, as shall null.
+        Assert.assertEquals("\"just a string\"", ser.serializeObject("just a string"));
+        Assert.assertNull(ser.serializeObject(null));
+        Assert.assertNull(ser.deserializeObject(null, DataTO.class));
+    }
+
+    private static class DataTO {
+        String string;
+        int number;
+        LocalDate date;
+        Optional<String> optional;
+        String nullField;
+
+        DataTO() {
+        }
+
+        DataTO(String string, int number, LocalDate date, Optional<String> optional) {
+            this.string = string;
+            this.number = number;
+            this.date = date;
+            this.optional = optional;
+        }
+    }
+
+    private static class StateTO {
+        int state;
+    }
+}
@@ -1,5 +1,6 @@
 package io.mats3.serial;
 
+import java.util.Collection;
 import java.util.concurrent.ThreadLocalRandom;
 
 import io.mats3.serial.MatsTrace.Call;
@@ -243,6 +244,20 @@ public interface MatsSerializer<Z> {
      */
     <T> T newInstance(Class<T> type);
 
+    /**
+     * Optional warm-up hook: Invoked by the MatsFactory when it is started, with all the STO and DTO classes of the
+     * endpoints created at that point (i.e. the incoming, reply and state classes), so that the serializer can resolve
+     * and cache whatever it needs for these classes up front, instead of incurring that latency on the first message.
+     * Any Exception thrown will be logged and ignored, as this shall only be an optimization. The default
+     * implementation does nothing.
+     *
+     * @param types
+     *            the STO and DTO classes in use by the endpoints.
+     */
+    default void warmup(Collection<Class<?>> types) {
+        /* no-op */
+    }
+
     /**
      * The methods in this interface shall throw this RuntimeException if they encounter problems.
      */
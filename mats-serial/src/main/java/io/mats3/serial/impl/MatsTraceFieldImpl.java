@@ -705,24 +705,39 @@ public class MatsTraceFieldImpl<Z> implements MatsTrace<Z>, Cloneable {
         try {
             @SuppressWarnings("unchecked")
             MatsTraceFieldImpl<Z> cloned = (MatsTraceFieldImpl<Z>) super.clone();
-            // Calls are not immutable (a Call's stack and data may be nulled due to KeepMatsTrace value)
+            // Calls are not immutable (a Call's stack and data may be nulled due to KeepMatsTrace value) - but only the
+            // current (last) Call is ever modified, the earlier Calls are history. Thus, only the current Call needs to
+            // be cloned, while the earlier are shared (which e.g. makes a stage doing many requests much cheaper).
             // ?: Are we using MINIMAL?
             if (kt == KeepMatsTrace.MINIMAL) {
                 // -> Yes, MINIMAL, so we will literally just have the sole "NewCall" in the trace.
                 cloned.c = new ArrayList<>(1);
             }
+            // ?: Are the Calls lazily deserialized?
+            else if (c instanceof MatsTraceLazyList) {
+                // -> Yes, so copy the list, sharing the earlier Calls - the deferred are not deserialized.
+                cloned.c = ((MatsTraceLazyList<CallImpl<Z>>) c).copy(c.size() - 1, CallImpl::clone);
+            }
             else {
-                // -> No, not MINIMAL (i.e. FULL or COMPACT), so clone up the Calls.
-                cloned.c = new ArrayList<>(c.size());
-                // Clone all the calls.
-                for (CallImpl<Z> call : c) {
-                    cloned.c.add(call.clone());
+                // -> No, not MINIMAL (i.e. FULL or COMPACT), so share the earlier Calls, and clone the current.
+                // Note: Room for the Call that will be added.
+                cloned.c = new ArrayList<>(c.size() + 1);
+                if (!c.isEmpty()) {
+                    cloned.c.addAll(c.subList(0, c.size() - 1));
+                    cloned.c.add(c.get(c.size() - 1).clone());
                 }
             }
             // StackStates are mutable (the extra-state)
-            cloned.ss = new ArrayList<>(ss.size());
-            for (StackStateImpl<Z> stateState : ss) {
-                cloned.ss.add(stateState.clone());
+            // ?: Are the StackStates lazily deserialized?
+            if (ss instanceof MatsTraceLazyList) {
+                // -> Yes, so copy the list, only cloning the materialized StackStates.
+                cloned.ss = ((MatsTraceLazyList<StackStateImpl<Z>>) ss).copy(0, StackStateImpl::clone);
+            }
+            else {
+                cloned.ss = new ArrayList<>(ss.size());
+                for (StackStateImpl<Z> stateState : ss) {
+                    cloned.ss.add(stateState.clone());
+                }
             }
 
             // TraceProps are immutable.
@@ -740,6 +755,170 @@ public class MatsTraceFieldImpl<Z> implements MatsTrace<Z>, Cloneable {
         }
     }
 
+    // ===== Raw field access, for serializers which do not go via Jackson's field serialization.
+
+    /**
+     * Receiver of the raw fields of a {@link MatsTraceFieldImpl}, ref. {@link #writeRawFields(RawFieldWriter)}. The
+     * values are given as they are held, i.e. not converted as by the {@link MatsTrace} getters: Nulls are kept as
+     * nulls. Enums are given by their name. Sizes are -1 for a <code>null</code> collection.
+     *
+     * @param <Z>
+     *            the type of the DTO/STO holders.
+     */
+    public interface RawFieldWriter<Z> {
+        void writeBoolean(boolean value);
+
+        void writeInt(int value);
+
+        void writeNullableLong(Long value);
+
+        void writeSpanId(long spanId);
+
+        void writeTimestamp(long timestamp);
+
+        void writeLongArray(long[] values);
+
+        void writeString(String value);
+
+        void writeValue(Z value);
+
+        void writeSize(int size);
+    }
+
+    /**
+     * Provider of the raw fields of a {@link MatsTraceFieldImpl}, ref. {@link #readRawFields(RawFieldReader)} - the
+     * counterpart of {@link RawFieldWriter}.
+     *
+     * @param <Z>
+     *            the type of the DTO/STO holders.
+     */
+    public interface RawFieldReader<Z> {
+        boolean readBoolean();
+
+        int readInt();
+
+        Long readNullableLong();
+
+        long readSpanId();
+
+        long readTimestamp();
+
+        long[] readLongArray();
+
+        String readString();
+
+        Z readValue();
+
+        int readSize();
+    }
+
+    /**
+     * <b>NOTICE! This is NOT meant for public usage!</b> Writes all the fields, except those given to the constructor
+     * and {@link #getInitializedTimestamp()}, in a fixed order to the provided {@link RawFieldWriter} - which
+     * {@link #readRawFields(RawFieldReader)} reads back in the same order. Meant for serializers which do not employ
+     * Jackson's field serialization, e.g. the binary MatsSerializer in 'mats-serial-binary'.
+     */
+    public void writeRawFields(RawFieldWriter<Z> out) {
+        out.writeNullableLong(tidh);
+        out.writeNullableLong(tidl);
+        out.writeNullableLong(sid);
+        out.writeNullableLong(pid);
+        out.writeNullableLong(f != null ? Long.valueOf(f) : null);
+        out.writeLongArray(sids);
+        out.writeInt(d);
+        out.writeString(an);
+        out.writeString(av);
+        out.writeString(h);
+        out.writeString(iid);
+        out.writeString(x);
+        out.writeString(auth);
+        out.writeString(sig);
+        out.writeInt(cn);
+        out.writeInt(tcn);
+        out.writeString(pmid);
+        out.writeLongArray(ots);
+        out.writeLongArray(eets);
+        out.writeSize(c != null ? c.size() : -1);
+        if (c != null) {
+            for (CallImpl<Z> call : c) {
+                call.writeRawFields(out);
+            }
+        }
+        out.writeSize(ss != null ? ss.size() : -1);
+        if (ss != null) {
+            for (StackStateImpl<Z> stackState : ss) {
+                out.writeInt(stackState.h);
+                out.writeValue(stackState.s);
+                writeRawMap(out, stackState.es);
+            }
+        }
+        writeRawMap(out, tp);
+    }
+
+    /**
+     * <b>NOTICE! This is NOT meant for public usage!</b> Reads back the fields written by
+     * {@link #writeRawFields(RawFieldWriter)}, into a MatsTrace constructed with the same constructor arguments, and
+     * with the {@link #overrideInitializationTimestamp(long) initialization timestamp} set.
+     */
+    public void readRawFields(RawFieldReader<Z> in) {
+        tidh = in.readNullableLong();
+        tidl = in.readNullableLong();
+        sid = in.readNullableLong();
+        pid = in.readNullableLong();
+        Long flags = in.readNullableLong();
+        f = flags != null ? Byte.valueOf(flags.byteValue()) : null;
+        sids = in.readLongArray();
+        d = in.readInt();
+        an = in.readString();
+        av = in.readString();
+        h = in.readString();
+        iid = in.readString();
+        x = in.readString();
+        auth = in.readString();
+        sig = in.readString();
+        cn = in.readInt();
+        tcn = in.readInt();
+        pmid = in.readString();
+        ots = in.readLongArray();
+        eets = in.readLongArray();
+        int numCalls = in.readSize();
+        c = numCalls != -1 ? new ArrayList<>(numCalls) : null;
+        for (int i = 0; i < numCalls; i++) {
+            c.add(new CallImpl<>(in));
+        }
+        int numStackStates = in.readSize();
+        ss = numStackStates != -1 ? new ArrayList<>(numStackStates) : null;
+        for (int i = 0; i < numStackStates; i++) {
+            StackStateImpl<Z> stackState = new StackStateImpl<>(in.readInt(), in.readValue());
+            // The extra-state is a HashMap, as in setExtraState(..)
+            stackState.es = readRawMap(in, new HashMap<>());
+            ss.add(stackState);
+        }
+        // The TraceProps is a LinkedHashMap, as in the field initializer.
+        tp = readRawMap(in, new LinkedHashMap<>());
+    }
+
+    private static <Z> void writeRawMap(RawFieldWriter<Z> out, Map<String, Z> map) {
+        out.writeSize(map != null ? map.size() : -1);
+        if (map != null) {
+            for (Map.Entry<String, Z> entry : map.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeValue(entry.getValue());
+            }
+        }
+    }
+
+    private static <Z> Map<String, Z> readRawMap(RawFieldReader<Z> in, Map<String, Z> emptyMap) {
+        int size = in.readSize();
+        if (size == -1) {
+            return null;
+        }
+        for (int i = 0; i < size; i++) {
+            emptyMap.put(in.readString(), in.readValue());
+        }
+        return emptyMap;
+    }
+
     /**
      * Represents an entry in the {@link MatsTrace}.
      */
@@ -769,6 +948,63 @@ public class MatsTraceFieldImpl<Z> implements MatsTrace<Z>, Cloneable {
             to = null;
         }
 
+        /**
+         * Reads back the fields written by {@link #writeRawFields(RawFieldWriter)}.
+         */
+        private CallImpl(RawFieldReader<Z> in) {
+            an = in.readString();
+            av = in.readString();
+            h = in.readString();
+            x = in.readString();
+            ts = in.readTimestamp();
+            id = in.readString();
+            String type = in.readString();
+            t = type != null ? CallType.valueOf(type) : null;
+            f = in.readString();
+            to = in.readBoolean() ? new ToChannel(in.readString(), readRawMessagingModel(in)) : null;
+            d = in.readValue();
+            int stackSize = in.readSize();
+            s = stackSize != -1 ? new ArrayList<>(stackSize) : null;
+            for (int i = 0; i < stackSize; i++) {
+                s.add(new ReplyChannel(in.readString(), readRawMessagingModel(in), in.readSpanId()));
+            }
+            Long nulledStackSize = in.readNullableLong();
+            ss = nulledStackSize != null ? Integer.valueOf(nulledStackSize.intValue()) : null;
+            rid = in.readNullableLong();
+        }
+
+        private void writeRawFields(RawFieldWriter<Z> out) {
+            out.writeString(an);
+            out.writeString(av);
+            out.writeString(h);
+            out.writeString(x);
+            out.writeTimestamp(ts);
+            out.writeString(id);
+            out.writeString(t != null ? t.name() : null);
+            out.writeString(f);
+            out.writeBoolean(to != null);
+            if (to != null) {
+                out.writeString(to.i);
+                out.writeString(to.m != null ? to.m.name() : null);
+            }
+            out.writeValue(d);
+            out.writeSize(s != null ? s.size() : -1);
+            if (s != null) {
+                for (ReplyChannel replyChannel : s) {
+                    out.writeString(replyChannel.i);
+                    out.writeString(replyChannel.m != null ? replyChannel.m.name() : null);
+                    out.writeSpanId(replyChannel.sid);
+                }
+            }
+            out.writeNullableLong(ss != null ? Long.valueOf(ss) : null);
+            out.writeNullableLong(rid);
+        }
+
+        private static MessagingModel readRawMessagingModel(RawFieldReader<?> in) {
+            String messagingModel = in.readString();
+            return messagingModel != null ? MessagingModel.valueOf(messagingModel) : null;
+        }
+
         CallImpl(CallType type, String flowId, long matsTraceCreationMillis, int callNo, String from, ToChannel to,
                 Z data, List<ReplyChannel> stack) {
             this.t = type;
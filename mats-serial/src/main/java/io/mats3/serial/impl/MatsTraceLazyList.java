@@ -0,0 +1,208 @@
+package io.mats3.serial.impl;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * A List for the Call Flow and State Flow of {@link MatsTraceFieldImpl}, where elements may be <i>deferred</i>: Held
+ * in some serialized form (e.g. the raw bytes of the element's JSON), and only deserialized - "materialized" - by the
+ * {@link Materializer} when accessed. A stage typically only needs the current Call and the State for the current
+ * stack height, so with a long {@link io.mats3.serial.MatsTrace.KeepMatsTrace#FULL FULL} MatsTrace, most of the
+ * elements never need to be deserialized. A serializer may check {@link #getDeferred(int)} when serializing, and if it
+ * returns the serialized form, emit that directly instead of reserializing the element.
+ * <p />
+ * The deferred forms must be immutable, as they are shared between {@link #copy(int, UnaryOperator) copies}. Just like
+ * the rest of {@link MatsTraceFieldImpl}, this class is not thread safe.
+ *
+ * @param <E>
+ *            the element type.
+ */
+public class MatsTraceLazyList<E> extends AbstractList<E> implements RandomAccess {
+    private final Materializer<E> _materializer;
+    // The materialized elements - null if not yet materialized.
+    private Object[] _elements;
+    // The deferred forms - null if the element was added materialized, set, or copied.
+    private Object[] _deferred;
+    // Whether the element has been materialized.
+    private boolean[] _materialized;
+    // Whether the element is shared as unmodifiable, so that its deferred form stays valid when it is materialized.
+    private boolean[] _unmodified;
+    private int _size;
+
+    /**
+     * Materializes an element from its deferred form.
+     *
+     * @param <E>
+     *            the element type.
+     */
+    @FunctionalInterface
+    public interface Materializer<E> {
+        E materialize(Object deferred);
+    }
+
+    /**
+     * @param materializer
+     *            the {@link Materializer} which deserializes the deferred elements.
+     * @param deferredElements
+     *            the deferred form of each of the elements. The array is used directly.
+     */
+    public MatsTraceLazyList(Materializer<E> materializer, Object[] deferredElements) {
+        _materializer = materializer;
+        _deferred = deferredElements;
+        _size = deferredElements.length;
+        _elements = new Object[_size];
+        _materialized = new boolean[_size];
+        _unmodified = new boolean[_size];
+    }
+
+    private MatsTraceLazyList(Materializer<E> materializer, int size, int capacity) {
+        _materializer = materializer;
+        _size = size;
+        _elements = new Object[capacity];
+        _deferred = new Object[capacity];
+        _materialized = new boolean[capacity];
+        _unmodified = new boolean[capacity];
+    }
+
+    /**
+     * @param index
+     *            the index of the element.
+     * @return the deferred form of the element if it still represents the element, i.e. if the element is not
+     *         materialized, or if it is materialized but known to be unmodified - otherwise <code>null</code>.
+     */
+    public Object getDeferred(int index) {
+        rangeCheck(index);
+        return (!_materialized[index] || _unmodified[index]) ? _deferred[index] : null;
+    }
+
+    /**
+     * @return the number of elements that are not yet materialized.
+     */
+    public int getDeferredCount() {
+        int count = 0;
+        for (int i = 0; i < _size; i++) {
+            if (!_materialized[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates a copy of this list which retains the deferred elements - which is the reason why this must be used
+     * instead of iterating over the list, which would materialize all elements. The elements below
+     * <code>shareBelowIndex</code> are shared with the copy as unmodifiable: The caller guarantees that they will not
+     * be modified, so if they are materialized, they are shared as-is, and their deferred form stays valid (and will
+     * thus still be used by the serializer). The materialized elements from <code>shareBelowIndex</code> and up are copied
+     * using the supplied function, while the not materialized are still deferred.
+     *
+     * @param shareBelowIndex
+     *            the elements below this index are shared as unmodifiable; use 0 to copy all materialized elements.
+     * @param materializedElementCopier
+     *            copies a materialized element, typically by cloning it.
+     * @return a copy of this list, which retains the deferred elements.
+     */
+    public MatsTraceLazyList<E> copy(int shareBelowIndex, UnaryOperator<E> materializedElementCopier) {
+        // Room for the element that will be added to the copy
+        MatsTraceLazyList<E> copy = new MatsTraceLazyList<>(_materializer, _size, _size + 1);
+        System.arraycopy(_elements, 0, copy._elements, 0, _size);
+        System.arraycopy(_deferred, 0, copy._deferred, 0, _size);
+        System.arraycopy(_materialized, 0, copy._materialized, 0, _size);
+        System.arraycopy(_unmodified, 0, copy._unmodified, 0, _size);
+        for (int i = 0; i < _size; i++) {
+            // ?: Is this element shared as unmodifiable?
+            if (i < shareBelowIndex) {
+                // -> Yes, so its deferred form still represents it, also if materialized.
+                copy._unmodified[i] = true;
+            }
+            // ?: Is this element materialized (and thus might be modified)?
+            else if (copy._materialized[i]) {
+                // -> Yes, so copy it - and as the copy is made to be modified, its deferred form is dropped.
+                @SuppressWarnings("unchecked")
+                E element = (E) copy._elements[i];
+                copy._elements[i] = (element == null) ? null : materializedElementCopier.apply(element);
+                copy._deferred[i] = null;
+                copy._unmodified[i] = false;
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public E get(int index) {
+        rangeCheck(index);
+        // ?: Is the element still deferred?
+        if (!_materialized[index]) {
+            // -> Yes, so materialize it now - keeping the deferred form, as copies may share the element unmodified.
+            _elements[index] = _materializer.materialize(_deferred[index]);
+            _materialized[index] = true;
+        }
+        @SuppressWarnings("unchecked")
+        E element = (E) _elements[index];
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        E previous = get(index);
+        _elements[index] = element;
+        _deferred[index] = null;
+        _unmodified[index] = false;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        if ((index < 0) || (index > _size)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        }
+        if (_size == _elements.length) {
+            int newCapacity = Math.max(4, _size + (_size >> 1));
+            _elements = Arrays.copyOf(_elements, newCapacity);
+            _deferred = Arrays.copyOf(_deferred, newCapacity);
+            _materialized = Arrays.copyOf(_materialized, newCapacity);
+            _unmodified = Arrays.copyOf(_unmodified, newCapacity);
+        }
+        int numMoved = _size - index;
+        System.arraycopy(_elements, index, _elements, index + 1, numMoved);
+        System.arraycopy(_deferred, index, _deferred, index + 1, numMoved);
+        System.arraycopy(_materialized, index, _materialized, index + 1, numMoved);
+        System.arraycopy(_unmodified, index, _unmodified, index + 1, numMoved);
+        _elements[index] = element;
+        _deferred[index] = null;
+        _materialized[index] = true;
+        _unmodified[index] = false;
+        _size++;
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        E previous = get(index);
+        int numMoved = _size - index - 1;
+        System.arraycopy(_elements, index + 1, _elements, index, numMoved);
+        System.arraycopy(_deferred, index + 1, _deferred, index, numMoved);
+        System.arraycopy(_materialized, index + 1, _materialized, index, numMoved);
+        System.arraycopy(_unmodified, index + 1, _unmodified, index, numMoved);
+        _size--;
+        _elements[_size] = null;
+        _deferred[_size] = null;
+        _materialized[_size] = false;
+        _unmodified[_size] = false;
+        modCount++;
+        return previous;
+    }
+
+    private void rangeCheck(int index) {
+        if ((index < 0) || (index >= _size)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        }
+    }
+}
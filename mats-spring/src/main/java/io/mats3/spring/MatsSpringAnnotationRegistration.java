@@ -1,6 +1,10 @@
 package io.mats3.spring;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -563,8 +567,9 @@ public class MatsSpringAnnotationRegistration implements
 
         String typeEndpoint;
 
-        // Get an argument array for the method populated with default values for all types: Primitives cannot be null.
-        Object[] templateArgsArray = defaultArgsArray(method);
+        // Build the invoker for the method once, instead of reflectively invoking it for each message.
+        MatsLambdaInvoker invoker = new MatsLambdaInvoker(matsMapping, method, processContextParamF, dtoParamF,
+                stoParamF);
 
         String origin = originForMethod(matsMapping, method);
         MatsEndpoint<?, ?> matsEndpoint;
@@ -574,19 +579,13 @@ public class MatsSpringAnnotationRegistration implements
             typeEndpoint = "Terminator";
             if (subscription) {
                 matsEndpoint = matsFactoryToUse.subscriptionTerminator(matsMapping.endpointId(), stoType, dtoType,
-                        (processContext, state, incomingDto) -> invokeMatsLambdaMethod(
-                                matsMapping, method, bean, templateArgsArray,
-                                processContextParamF, processContext,
-                                dtoParamF, incomingDto,
-                                stoParamF, state));
+                        (processContext, state, incomingDto) -> invoker.invoke(
+                                bean, processContext, incomingDto, state));
             }
             else {
                 matsEndpoint = matsFactoryToUse.terminator(matsMapping.endpointId(), stoType, dtoType,
-                        (processContext, state, incomingDto) -> invokeMatsLambdaMethod(
-                                matsMapping, method, bean, templateArgsArray,
-                                processContextParamF, processContext,
-                                dtoParamF, incomingDto,
-                                stoParamF, state));
+                        (processContext, state, incomingDto) -> invoker.invoke(
+                                bean, processContext, incomingDto, state));
             }
         }
         else {
@@ -598,10 +597,7 @@ public class MatsSpringAnnotationRegistration implements
                 matsEndpoint = matsFactoryToUse.staged(matsMapping.endpointId(), replyType, stoType);
                 // NOTE: .lastStage() invokes .finishSetup()
                 MatsStage<?, ?, ?> matsStage = matsEndpoint.lastStage(dtoType, (processContext, state, incomingDto) -> {
-                    Object reply = invokeMatsLambdaMethod(matsMapping, method, bean, templateArgsArray,
-                            processContextParamF, processContext,
-                            dtoParamF, incomingDto,
-                            stoParamF, state);
+                    Object reply = invoker.invoke(bean, processContext, incomingDto, state);
                     return helperCast(reply);
                 });
                 matsStage.getStageConfig().setOrigin(origin);
@@ -611,10 +607,7 @@ public class MatsSpringAnnotationRegistration implements
                 typeEndpoint = "SingleStage";
                 matsEndpoint = matsFactoryToUse.single(matsMapping.endpointId(), replyType, dtoType,
                         (processContext, incomingDto) -> {
-                            Object reply = invokeMatsLambdaMethod(matsMapping, method, bean, templateArgsArray,
-                                    processContextParamF, processContext,
-                                    dtoParamF, incomingDto,
-                                    -1, null);
+                            Object reply = invoker.invoke(bean, processContext, incomingDto, null);
                             return helperCast(reply);
                         });
                 matsEndpoint.getStages().get(0).getStageConfig().setOrigin(origin);
@@ -951,6 +944,18 @@ public class MatsSpringAnnotationRegistration implements
             processContextField.setAccessible(true);
         }
 
+        // :: Pre-resolve setters for the template fields and the ProcessContext field, instead of reflective set.
+
+        Field[] templateFieldsArray = templateFields.keySet().toArray(new Field[0]);
+        Object[] templateFieldValues = templateFields.values().toArray();
+        MethodHandle[] templateFieldSetters = new MethodHandle[templateFieldsArray.length];
+        for (int i = 0; i < templateFieldsArray.length; i++) {
+            templateFieldSetters[i] = fieldSetter(templateFieldsArray[i], matsClass);
+        }
+        MethodHandle processContextFieldSetter = processContextField != null
+                ? fieldSetter(processContextField, matsClass)
+                : null;
+
         // :: Make the stages of the Endpoint by running through the @Stage-annotated methods.
 
         stagesByOrdinal.forEach((ordinal, method) -> {
@@ -975,62 +980,62 @@ public class MatsSpringAnnotationRegistration implements
                     + classNameWithoutPackage(incomingClass) + " - ProcessContext paramIdx:" + processContextParamIdx
                     + ".");
 
-            Object[] defaultArgsArray = defaultArgsArray(method);
-
             // Force accessible, i.e. ignore visibility modifiers.
             method.setAccessible(true);
 
+            // Build the invoker for the method once, instead of reflectively invoking it for each message.
+            MatsLambdaInvoker invoker = new MatsLambdaInvoker(matsClassMapping, method, processContextParamIdx,
+                    dtoParamIdx, -1);
+
             MatsStage<?, ?, ?> stage = ep.stage(incomingClass, (originalProcessContext, state, incomingDto) -> {
                 Consumer<ProcessContext<?>> setFields = (processContext) -> {
                     // :: Set the "template fields" from original Dependency Injection of @Service.
-                    for (Entry<Field, Object> entry : templateFields.entrySet()) {
-                        Field templateField = entry.getKey();
+                    for (int i = 0; i < templateFieldSetters.length; i++) {
                         try {
-                            templateField.set(state, entry.getValue());
+                            templateFieldSetters[i].invokeExact(state, templateFieldValues[i]);
                         }
-                        catch (IllegalAccessException e) {
+                        catch (Throwable t) {
                             throw new MatsSpringInvocationTargetException("Didn't manage to set \"template field\" '"
-                                    + templateField.getName() + "' assumed coming from Spring Dependency Injection into"
-                                    + " the @MatsClassMapping combined state/@Service class '"
-                                    + classNameWithoutPackage(matsClass) + "' upon invocation of Mats Stage.", e);
+                                    + templateFieldsArray[i].getName() + "' assumed coming from Spring Dependency"
+                                    + " Injection into the @MatsClassMapping combined state/@Service class '"
+                                    + classNameWithoutPackage(matsClass) + "' upon invocation of Mats Stage.", t);
                         }
                     }
 
                     // :: Set the ProcessContext for this processing.
-                    if (processContextField != null) {
+                    if (processContextFieldSetter != null) {
                         try {
-                            processContextField.set(state, processContext);
+                            processContextFieldSetter.invokeExact(state, (Object) processContext);
                         }
-                        catch (IllegalAccessException e) {
+                        catch (Throwable t) {
                             throw new MatsSpringInvocationTargetException("Didn't manage to set the ProcessContext '"
                                     + processContextField.getName() + "' into "
                                     + " the @MatsClassMapping combined state/@Service class '"
-                                    + classNameWithoutPackage(matsClass) + "' upon invocation of Mats Stage.", e);
+                                    + classNameWithoutPackage(matsClass) + "' upon invocation of Mats Stage.", t);
                         }
                     }
                 };
 
                 Runnable clearFields = () -> {
                     // :: Null out the template fields
-                    for (Entry<Field, Object> entry : templateFields.entrySet()) {
-                        Field templateField = entry.getKey();
+                    for (int i = 0; i < templateFieldSetters.length; i++) {
                         try {
-                            templateField.set(state, null);
+                            templateFieldSetters[i].invokeExact(state, (Object) null);
                         }
-                        catch (IllegalAccessException e) {
+                        catch (Throwable t) {
                             throw new MatsSpringInvocationTargetException("Didn't manage to null \"template field\" '"
-                                    + templateField.getName() + "'.", e);
+                                    + templateFieldsArray[i].getName() + "'.", t);
                         }
                     }
 
                     // :: Null out the ProcessContext
-                    if (processContextField != null) {
+                    if (processContextFieldSetter != null) {
                         try {
-                            processContextField.set(state, null);
+                            processContextFieldSetter.invokeExact(state, (Object) null);
                         }
-                        catch (IllegalAccessException e) {
+                        catch (Throwable t) {
                             throw new MatsSpringInvocationTargetException("Didn't manage to null the ProcessContext '"
-                                    + processContextField.getName() + "'.", e);
+                                    + processContextField.getName() + "'.", t);
                         }
                     }
                 };
@@ -1068,10 +1073,7 @@ public class MatsSpringAnnotationRegistration implements
                 // .. first set the fields
                 setFields.accept(wrappedProcessContext);
                 // .. do the invocation
-                Object o = invokeMatsLambdaMethod(matsClassMapping, method, state, defaultArgsArray,
-                        processContextParamIdx, wrappedProcessContext,
-                        dtoParamIdx, incomingDto,
-                        -1, null);
+                Object o = invoker.invoke(state, wrappedProcessContext, incomingDto, null);
                 // .. then clear fields before going out of lambda.
                 clearFields.run();
 
@@ -1140,7 +1142,7 @@ public class MatsSpringAnnotationRegistration implements
      * the problem being that primitive types cannot be null: Null are not coerced into the default value for the
      * primitive as one might could think.
      */
-    Object[] defaultArgsArray(Method method) {
+    static Object[] defaultArgsArray(Method method) {
         Parameter[] parameters = method.getParameters();
         Object[] args = new Object[parameters.length];
         for (int i = 0; i < parameters.length; i++) {
@@ -1172,40 +1174,114 @@ public class MatsSpringAnnotationRegistration implements
     }
 
     /**
-     * Helper for invoking the Method that constitute the Mats process-lambdas for @MatsMapping and @MatsClassMapping.
+     * Creates a setter for the (accessible) field of a @MatsClassMapping class, adapted to <code>(Object target,
+     * Object value)void</code> so that it can be invoked exactly.
      */
-    private static Object invokeMatsLambdaMethod(Annotation matsAnnotation, Method method, Object bean,
-            Object[] templateDefaultArgsArray,
-            int processContextParamIdx, ProcessContext<?> processContext,
-            int dtoParamIdx, Object dto,
-            int stoParamIdx, Object sto)
-            throws MatsRefuseMessageException {
-        Object[] args = templateDefaultArgsArray.clone();
-        if (processContextParamIdx != -1) {
-            args[processContextParamIdx] = processContext;
-        }
-        if (dtoParamIdx != -1) {
-            args[dtoParamIdx] = dto;
-        }
-        if (stoParamIdx != -1) {
-            args[stoParamIdx] = sto;
-        }
+    private static MethodHandle fieldSetter(Field field, Class<?> matsClass) {
         try {
-            return method.invoke(bean, args);
+            return MethodHandles.lookup().unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
         }
-        catch (IllegalAccessException | IllegalArgumentException e) {
-            throw new MatsRefuseMessageException("Problem with invoking "
-                    + simpleAnnotationAndMethodDescription(matsAnnotation, method) + ".", e);
+        catch (IllegalAccessException e) {
+            throw new MatsSpringConfigException("Could not create setter for field '" + field.getName()
+                    + "' of the @MatsClassMapping combined state/@Service class '"
+                    + classNameWithoutPackage(matsClass) + "'.", e);
         }
-        catch (InvocationTargetException e) {
-            if (e.getTargetException() instanceof MatsRefuseMessageException) {
-                throw (MatsRefuseMessageException) e.getTargetException();
+    }
+
+    /**
+     * Invoker for the Method that constitute the Mats process-lambdas for @MatsMapping and @MatsClassMapping: Built
+     * once at registration, as a {@link MethodHandle} adapted to the fixed shape <code>(Object target, Object
+     * processContext, Object dto, Object sto)Object</code> - where the parameters not present on the method are
+     * dropped, and any other parameters get the type's default value bound in. Thus, no argument array cloning nor
+     * reflective {@link Method#invoke(Object, Object...) Method.invoke(..)} per processed message.
+     * <p/>
+     * As with <code>Method.invoke(..)</code>, a <code>null</code> DTO or STO for a primitive parameter is refused with
+     * a {@link MatsRefuseMessageException}, instead of being given the primitive's default value - as are arguments
+     * not fitting the parameter types. (Package-private for testing.)
+     */
+    static final class MatsLambdaInvoker {
+        private static final MethodType INVOKER_TYPE = MethodType.genericMethodType(4);
+
+        private final Annotation _matsAnnotation;
+        private final Method _method;
+        private final MethodHandle _methodHandle;
+        private final boolean _primitiveDtoParam;
+        private final boolean _primitiveStoParam;
+
+        MatsLambdaInvoker(Annotation matsAnnotation, Method method, int processContextParamIdx, int dtoParamIdx,
+                int stoParamIdx) {
+            _matsAnnotation = matsAnnotation;
+            _method = method;
+            MethodHandle methodHandle;
+            try {
+                // NOTE: The Method has been made accessible, which the unreflected MethodHandle inherits.
+                methodHandle = MethodHandles.lookup().unreflect(method);
             }
-            if (e.getTargetException() instanceof RuntimeException) {
-                throw (RuntimeException) e.getTargetException();
+            catch (IllegalAccessException e) {
+                throw new MatsSpringConfigException("Could not create MethodHandle for "
+                        + simpleAnnotationAndMethodDescription(matsAnnotation, method) + ".", e);
+            }
+            int paramCount = method.getParameterCount();
+            // Make it all Object, i.e. (Object target, Object... params)Object - void return becomes null.
+            methodHandle = methodHandle.asType(MethodType.genericMethodType(1 + paramCount));
+            Object[] defaultArgs = defaultArgsArray(method);
+            // A primitive parameter has a non-null default value - unboxing null for it would throw NPE.
+            _primitiveDtoParam = (dtoParamIdx != -1) && (defaultArgs[dtoParamIdx] != null);
+            _primitiveStoParam = (stoParamIdx != -1) && (defaultArgs[stoParamIdx] != null);
+            // :: Bind in the default values for the parameters that are not ProcessContext, DTO or STO.
+            // Going from the back, so that the indices of the remaining parameters are stable.
+            // Which invoker argument each of the remaining parameters shall be fed from, in reverse order.
+            List<Integer> reorderReversed = new ArrayList<>();
+            for (int i = paramCount - 1; i >= 0; i--) {
+                if (i == processContextParamIdx) {
+                    reorderReversed.add(1);
+                }
+                else if (i == dtoParamIdx) {
+                    reorderReversed.add(2);
+                }
+                else if (i == stoParamIdx) {
+                    reorderReversed.add(3);
+                }
+                else {
+                    // +1 since the target is the first parameter of the MethodHandle.
+                    methodHandle = MethodHandles.insertArguments(methodHandle, i + 1, defaultArgs[i]);
+                }
+            }
+            // :: Reorder the remaining parameters from the fixed invoker shape, dropping those not present.
+            int[] reorder = new int[1 + reorderReversed.size()];
+            // reorder[0] == 0: The target.
+            for (int i = 0; i < reorderReversed.size(); i++) {
+                reorder[reorder.length - 1 - i] = reorderReversed.get(i);
+            }
+            _methodHandle = MethodHandles.permuteArguments(methodHandle, INVOKER_TYPE, reorder);
+        }
+
+        Object invoke(Object target, ProcessContext<?> processContext, Object dto, Object sto)
+                throws MatsRefuseMessageException {
+            // ?: Is a null DTO or STO going to a primitive parameter?
+            if ((_primitiveDtoParam && (dto == null)) || (_primitiveStoParam && (sto == null))) {
+                // -> Yes, which cannot be invoked - refuse the message, as Method.invoke(..) would have.
+                throw new MatsRefuseMessageException("Problem with invoking "
+                        + simpleAnnotationAndMethodDescription(_matsAnnotation, _method) + ": Got null "
+                        + (_primitiveDtoParam && (dto == null) ? "DTO" : "STO") + " for a primitive parameter.");
+            }
+            try {
+                return (Object) _methodHandle.invokeExact(target, (Object) processContext, dto, sto);
+            }
+            catch (ClassCastException | WrongMethodTypeException e) {
+                // The arguments did not fit the Method's parameters - refuse the message, as Method.invoke(..) would
+                // have, by its IllegalArgumentException.
+                throw new MatsRefuseMessageException("Problem with invoking "
+                        + simpleAnnotationAndMethodDescription(_matsAnnotation, _method) + ".", e);
+            }
+            catch (MatsRefuseMessageException | RuntimeException | Error e) {
+                throw e;
+            }
+            catch (Throwable t) {
+                throw new MatsSpringInvocationTargetException("Got checked Exception when invoking "
+                        + simpleAnnotationAndMethodDescription(_matsAnnotation, _method) + ".", t);
             }
-            throw new MatsSpringInvocationTargetException("Got InvocationTargetException when invoking "
-                    + simpleAnnotationAndMethodDescription(matsAnnotation, method) + ".", e);
         }
     }
 
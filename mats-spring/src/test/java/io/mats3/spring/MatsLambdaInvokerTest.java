@@ -0,0 +1,72 @@
+package io.mats3.spring;
+
+import java.lang.reflect.Method;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.mats3.MatsEndpoint.MatsRefuseMessageException;
+import io.mats3.MatsEndpoint.ProcessContext;
+import io.mats3.spring.MatsSpringAnnotationRegistration.MatsLambdaInvoker;
+
+/**
+ * Tests the MethodHandle-based invoker of the @MatsMapping and @MatsClassMapping methods directly, without any Mats
+ * flow: The ProcessContext, DTO and STO shall be fed to their parameters with any other parameters getting default
+ * values, while a null DTO or STO for a primitive parameter, or an argument of the wrong type, shall be refused.
+ */
+public class MatsLambdaInvokerTest {
+
+    public static class Endpoints {
+        @MatsMapping("Invoker.Primitive")
+        public int primitive(int number) {
+            return number * 2;
+        }
+
+        @MatsMapping("Invoker.Mixed")
+        public String mixed(String other, @Sto SpringTestStateTO sto, ProcessContext<String> context,
+                @Dto SpringTestDataTO dto, long otherPrimitive) {
+            return other + ':' + sto.cuerda + ':' + (context == null) + ':' + dto.string + ':' + otherPrimitive;
+        }
+    }
+
+    @Test
+    public void feedsTheParametersAndDefaultsTheOthers() throws Exception {
+        MatsLambdaInvoker invoker = invoker("mixed", 2, 3, 1);
+        Object reply = invoker.invoke(new Endpoints(), null, new SpringTestDataTO(1, "dto"),
+                new SpringTestStateTO(2, "sto"));
+        Assert.assertEquals("null:sto:true:dto:0", reply);
+    }
+
+    @Test
+    public void primitiveDtoParameter() throws Exception {
+        MatsLambdaInvoker invoker = invoker("primitive", -1, 0, -1);
+        Assert.assertEquals(42, invoker.invoke(new Endpoints(), null, 21, null));
+    }
+
+    @Test(expected = MatsRefuseMessageException.class)
+    public void nullDtoForPrimitiveParameterIsRefused() throws Exception {
+        invoker("primitive", -1, 0, -1).invoke(new Endpoints(), null, null, null);
+    }
+
+    @Test(expected = MatsRefuseMessageException.class)
+    public void wrongDtoTypeIsRefused() throws Exception {
+        invoker("primitive", -1, 0, -1).invoke(new Endpoints(), null, "Not an int", null);
+    }
+
+    @Test(expected = MatsRefuseMessageException.class)
+    public void wrongStoTypeIsRefused() throws Exception {
+        invoker("mixed", 2, 3, 1).invoke(new Endpoints(), null, new SpringTestDataTO(1, "dto"),
+                new SpringTestDataTO(2, "Not a SpringTestStateTO"));
+    }
+
+    private static MatsLambdaInvoker invoker(String methodName, int processContextParamIdx, int dtoParamIdx,
+            int stoParamIdx) {
+        for (Method method : Endpoints.class.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                return new MatsLambdaInvoker(method.getAnnotation(MatsMapping.class), method, processContextParamIdx,
+                        dtoParamIdx, stoParamIdx);
+            }
+        }
+        throw new AssertionError("Didn't find method [" + methodName + "].");
+    }
+}
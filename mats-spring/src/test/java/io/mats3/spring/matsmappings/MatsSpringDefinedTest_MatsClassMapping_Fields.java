@@ -0,0 +1,117 @@
+package io.mats3.spring.matsmappings;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.mats3.MatsEndpoint.ProcessContext;
+import io.mats3.MatsInitiator;
+import io.mats3.spring.Dto;
+import io.mats3.spring.MatsClassMapping;
+import io.mats3.spring.MatsClassMapping.Stage;
+import io.mats3.spring.MatsMapping;
+import io.mats3.spring.SpringTestDataTO;
+import io.mats3.spring.SpringTestStateTO;
+import io.mats3.spring.Sto;
+import io.mats3.spring.test.MatsTestContext;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.MatsTestLatch;
+import io.mats3.test.MatsTestLatch.Result;
+
+/**
+ * Tests the fields of a {@link MatsClassMapping @MatsClassMapping} combined state/@Service class, which are set and
+ * cleared around the invocation of the stage method: The "template fields" from Spring's injection, and the
+ * {@link ProcessContext} field, shall be set when the stage method is invoked - and both shall be nulled out on the
+ * state instance after the invocation.
+ */
+@RunWith(SpringRunner.class)
+@MatsTestContext
+public class MatsSpringDefinedTest_MatsClassMapping_Fields {
+    private static final String ENDPOINT_ID = "MatsClassMapping_Fields.";
+    private static final String SERVICE = "Service";
+    private static final String TERMINATOR = "Terminator";
+
+    // The state instance the stage method was invoked on, and what its fields held during the invocation.
+    private static final AtomicReference<MatsClassMappingService> _invokedInstance = new AtomicReference<>();
+    private static final AtomicReference<SpringTestStateTO> _injectedDuringInvocation = new AtomicReference<>();
+    private static final AtomicReference<ProcessContext<?>> _contextFieldDuringInvocation = new AtomicReference<>();
+    private static final AtomicReference<ProcessContext<?>> _contextParamDuringInvocation = new AtomicReference<>();
+
+    @Configuration
+    public static class BeanConfig {
+        @Bean
+        protected SpringTestStateTO someService() {
+            return new SpringTestStateTO(2, "to");
+        }
+    }
+
+    @Configuration
+    public static class TerminatorConfig {
+        @Inject
+        private MatsTestLatch _latch;
+
+        @MatsMapping(ENDPOINT_ID + TERMINATOR)
+        public void terminator(@Dto SpringTestDataTO msg, @Sto SpringTestStateTO state) {
+            _latch.resolve(state, msg);
+        }
+    }
+
+    @Configuration
+    @MatsClassMapping(ENDPOINT_ID + SERVICE)
+    public static class MatsClassMappingService {
+        @Inject
+        private SpringTestStateTO _someService;
+
+        private ProcessContext<SpringTestDataTO> _context;
+
+        @Stage(Stage.INITIAL)
+        public SpringTestDataTO initial(ProcessContext<SpringTestDataTO> context, SpringTestDataTO msg) {
+            _invokedInstance.set(this);
+            _injectedDuringInvocation.set(_someService);
+            _contextFieldDuringInvocation.set(_context);
+            _contextParamDuringInvocation.set(context);
+            return new SpringTestDataTO(msg.number * 2, msg.string + ':' + SERVICE);
+        }
+    }
+
+    @Inject
+    private MatsInitiator _matsInitiator;
+
+    @Inject
+    private MatsTestLatch _latch;
+
+    @Test
+    public void fieldsSetDuringInvocationAndClearedAfter() {
+        SpringTestDataTO dto = new SpringTestDataTO(21, "Request");
+        SpringTestStateTO sto = new SpringTestStateTO(1, "state");
+        _matsInitiator.initiateUnchecked(init -> init
+                .traceId(MatsTestHelp.traceId())
+                .from(MatsTestHelp.from("fields"))
+                .to(ENDPOINT_ID + SERVICE)
+                .replyTo(ENDPOINT_ID + TERMINATOR, sto)
+                .request(dto));
+
+        Result<SpringTestStateTO, SpringTestDataTO> result = _latch.waitForResult();
+        Assert.assertEquals(new SpringTestDataTO(dto.number * 2, dto.string + ':' + SERVICE), result.getData());
+        Assert.assertEquals(sto, result.getState());
+
+        // :: During the invocation, the template field was the Spring injected bean ..
+        Assert.assertEquals(new SpringTestStateTO(2, "to"), _injectedDuringInvocation.get());
+        // .. and the ProcessContext field was set, to the same as the ProcessContext parameter.
+        Assert.assertNotNull(_contextFieldDuringInvocation.get());
+        Assert.assertSame(_contextParamDuringInvocation.get(), _contextFieldDuringInvocation.get());
+
+        // :: After the invocation, both are cleared on the state instance the stage method was invoked on.
+        MatsClassMappingService invokedInstance = _invokedInstance.get();
+        Assert.assertNotNull(invokedInstance);
+        Assert.assertNull(invokedInstance._someService);
+        Assert.assertNull(invokedInstance._context);
+    }
+}
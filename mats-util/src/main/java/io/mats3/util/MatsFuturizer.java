@@ -1,16 +1,25 @@
 package io.mats3.util;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +57,8 @@ import io.mats3.MatsInitiator.MatsInitiate;
  * The trick here is that the final reply is specified to come in on a node-specific <i>Topic</i>, i.e. it literally has
  * the node name (default being the hostname) as a part of the MatsEndpoint name, and it is a
  * {@link MatsFactory#subscriptionTerminator(String, Class, Class, ProcessTerminatorLambda) SubscriptionTerminator}.
+ * Since the Topic is node-specific, only the node which issued the request receives the reply. Alternatively, the
+ * reply can be specified to come in on a node-specific <i>Queue</i>, ref. {@link ReplyChannel#NODE_QUEUE}.
  * <p />
  * Another aspect to understand, is that while Mats "guarantees" that a submitted initiation will flow through the Mats
  * endpoints, no matter what happens with the processing nodes <i>(unless you employ <i>NonPersistent messaging</i>,
@@ -161,15 +172,89 @@ public class MatsFuturizer implements AutoCloseable {
         return new MatsFuturizer(matsFactory, endpointIdPrefix, corePoolSize, maxPoolSize, maxOutstandingPromises);
     }
 
+    /**
+     * Creates a MatsFuturizer, <b>and you should only need one per MatsFactory</b> (which again mostly means one per
+     * application or micro-service or JVM). Identical to
+     * {@link #createMatsFuturizer(MatsFactory, String, int, int, int)}, but you may also specify which kind of
+     * node-specific {@link ReplyChannel} the replies shall come in on.
+     *
+     * @param matsFactory
+     *            the underlying {@link MatsFactory} on which outgoing messages will be sent, and on which the receiving
+     *            Terminator or SubscriptionTerminator will be created.
+     * @param endpointIdPrefix
+     *            the first part of the endpointId, ref. {@link #createMatsFuturizer(MatsFactory, String)}. <b>Note: If
+     *            you create multiple MatsFuturizers for a MatsFactory, this parameter must be different for each
+     *            instance!</b>
+     * @param corePoolSize
+     *            the minimum number of threads in the future-completer-pool of threads.
+     * @param maxPoolSize
+     *            the maximum number of threads in the future-completer-pool of threads.
+     * @param maxOutstandingPromises
+     *            the maximum number of outstanding Promises before new are rejected.
+     * @param replyChannel
+     *            whether the replies shall come in on a node-specific Topic (the default) or Queue.
+     * @return the {@link MatsFuturizer}, which is tied to a newly created Terminator or SubscriptionTerminator.
+     */
+    public static MatsFuturizer createMatsFuturizer(MatsFactory matsFactory, String endpointIdPrefix,
+            int corePoolSize, int maxPoolSize, int maxOutstandingPromises, ReplyChannel replyChannel) {
+        return new MatsFuturizer(matsFactory, endpointIdPrefix, corePoolSize, maxPoolSize, maxOutstandingPromises,
+                replyChannel);
+    }
+
+    /**
+     * Which kind of node-specific channel the replies to the futurized requests come in on - in both cases, the node
+     * name is part of the endpointId, so that each node only receives the replies to its own requests.
+     */
+    public enum ReplyChannel {
+        /**
+         * The replies come in on a node-specific Topic, using a
+         * {@link MatsFactory#subscriptionTerminator(String, Class, Class, ProcessTerminatorLambda)
+         * SubscriptionTerminator}. This is the default: If the node goes away, no one subscribes to the Topic, and the
+         * replies to it are dropped by the broker.
+         */
+        NODE_TOPIC,
+
+        /**
+         * The replies come in on a Queue specific to the node <i>and the MatsFuturizer instance</i>, using a
+         * {@link MatsFactory#terminator(String, Class, Class, ProcessTerminatorLambda) Terminator}: The endpointId is
+         * the node name with a random instance id appended, since only the instance holding the Promise can complete
+         * it - so the replies are never shared between several MatsFuturizers, not even with the same prefix on the
+         * same node. This gives the replies the same delivery guarantees as any other Mats message, e.g. they survive
+         * a temporary disconnect from the broker. <b>However</b>, since each instance gets a new Queue, the Queue of a
+         * MatsFuturizer that is closed, or whose node restarts or goes away, is left behind on the broker, along with
+         * any replies that came in after it went away - consider using {@link MatsInitiate#nonPersistent(long)
+         * non-persistent messaging with a time-to-live} for the requests, and having the broker purge inactive
+         * Queues.
+         */
+        NODE_QUEUE
+    }
+
     protected final MatsFactory _matsFactory;
     protected final MatsInitiator _matsInitiator;
     protected final String _terminatorEndpointId;
     protected final ThreadPoolExecutor _futureCompleterThreadPool;
+    protected final LatencyHistogram _completionHandoffLatencyHistogram = new LatencyHistogram();
+    protected final LatencyHistogram _completionLatencyHistogram = new LatencyHistogram();
+    // Volatile, as they may be changed at any time - set together under synchronization on this, as is the making
+    // and shutdown of the virtual thread executor.
+    protected volatile CompletionStrategy _completionStrategy = CompletionStrategy.THREAD_POOL;
+    protected volatile Executor _completionExecutor;
+    protected volatile ExecutorService _virtualThreadPerTaskExecutor;
     protected final int _maxOutstandingPromises;
     protected final MatsEndpoint<Void, String> _replyHandlerEndpoint;
+    protected final ReplyChannel _replyChannel;
 
     protected MatsFuturizer(MatsFactory matsFactory, String endpointIdPrefix, int corePoolSize, int maxPoolSize,
             int maxOutstandingPromises) {
+        this(matsFactory, endpointIdPrefix, corePoolSize, maxPoolSize, maxOutstandingPromises,
+                ReplyChannel.NODE_TOPIC);
+    }
+
+    protected MatsFuturizer(MatsFactory matsFactory, String endpointIdPrefix, int corePoolSize, int maxPoolSize,
+            int maxOutstandingPromises, ReplyChannel replyChannel) {
+        if (replyChannel == null) {
+            throw new NullPointerException("replyChannel");
+        }
         _matsFactory = matsFactory;
         String endpointIdPrefix_sanitized = SanitizeMqNames.sanitizeName(endpointIdPrefix);
         if ((endpointIdPrefix_sanitized == null) || endpointIdPrefix_sanitized.trim().isEmpty()) {
@@ -177,19 +262,27 @@ public class MatsFuturizer implements AutoCloseable {
                     + endpointIdPrefix + "]) is not allowed to use as endpointIdPrefix (null or blank).");
         }
         _matsInitiator = matsFactory.getOrCreateInitiator(endpointIdPrefix_sanitized + ".Futurizer.init");
+        // NOTICE: For the Queue, a random instance id is appended, so that each MatsFuturizer instance has its own
+        // Queue: Otherwise, several instances with the same prefix and nodename would steal each other's replies.
         _terminatorEndpointId = endpointIdPrefix_sanitized + ".Futurizer.private.repliesFor."
-                + _matsFactory.getFactoryConfig().getNodename();
+                + _matsFactory.getFactoryConfig().getNodename()
+                + (replyChannel == ReplyChannel.NODE_QUEUE ? "." + RandomString.partTraceId() : "");
         _futureCompleterThreadPool = _newThreadPool(corePoolSize, maxPoolSize);
+        _completionExecutor = _futureCompleterThreadPool;
         _maxOutstandingPromises = maxOutstandingPromises;
-        _replyHandlerEndpoint = _matsFactory.subscriptionTerminator(_terminatorEndpointId, String.class,
-                MatsObject.class,
-                this::_handleRepliesForPromises);
+        _replyChannel = replyChannel;
+        _replyHandlerEndpoint = replyChannel == ReplyChannel.NODE_QUEUE
+                ? _matsFactory.terminator(_terminatorEndpointId, String.class, MatsObject.class,
+                        this::_handleRepliesForPromises)
+                : _matsFactory.subscriptionTerminator(_terminatorEndpointId, String.class, MatsObject.class,
+                        this::_handleRepliesForPromises);
         _startTimeouterThread();
         log.info(LOG_PREFIX + "MatsFuturizer created."
                 + " EndpointIdPrefix:[" + endpointIdPrefix_sanitized
                 + "], corePoolSize:[" + corePoolSize
                 + "], maxPoolSize:[" + maxPoolSize
-                + "], maxOutstandingPromises:[" + maxOutstandingPromises + "]");
+                + "], maxOutstandingPromises:[" + maxOutstandingPromises
+                + "], replyChannel:[" + replyChannel + "]");
     }
 
     /**
@@ -370,6 +463,135 @@ public class MatsFuturizer implements AutoCloseable {
         return promise._future;
     }
 
+    /**
+     * Batch variant of {@link #futurize(String, String, String, int, TimeUnit, Class, Object, InitiateLambda)
+     * futurize(..)}, for scatter-gather: Registers a Promise for each of the requests, and sends all the requests
+     * within a <b>single</b> initiation - i.e. a single transaction and commit, instead of one per request. The
+     * requests all go to the same endpoint, and each will get its own Mats flow, with the traceId being the given
+     * traceId with the index of the request appended, e.g. <code>"MyTraceId[3]"</code>. The returned
+     * {@link FuturizedBatch} gives both a future for each of the requests, which complete as the replies come in, and a
+     * combined future for all of them.
+     * <p/>
+     * If the initiation fails, none of the requests were sent: The Promises are removed, and their futures completed
+     * exceptionally with the exception, before it is thrown out.
+     *
+     * @param traceId
+     *            TraceId prefix of the resulting Mats call flows, see {@link MatsInitiate#traceId(String)}
+     * @param from
+     *            the "from" of the initiation, see {@link MatsInitiate#from(String)}
+     * @param to
+     *            to which Mats endpoint the requests should go, see {@link MatsInitiate#to(String)}
+     * @param timeout
+     *            how long before the internal timeout-mechanism of MatsFuturizer kicks in and the futures are
+     *            {@link CompletableFuture#completeExceptionally(Throwable) completed exceptionally} with a
+     *            {@link MatsFuturizerTimeoutException}.
+     * @param unit
+     *            the unit of time of the 'timeout' parameter.
+     * @param replyClass
+     *            which expected reply DTO class that the requested endpoint replies with.
+     * @param requests
+     *            the request DTOs that should be sent to the endpoint, see {@link MatsInitiate#request(Object)}
+     * @param customInit
+     *            the {@link InitiateLambda} that the MatsFuturizer is employing to initiate each of the outgoing
+     *            messages, which you can use to tailor them, e.g. setting the {@link MatsInitiate#interactive()
+     *            interactive}-flag.
+     * @param <T>
+     *            the type of the reply DTO.
+     * @return a {@link FuturizedBatch}, with a future for each of the requests, in the same order, and one for all.
+     */
+    public <T> FuturizedBatch<T> futurizeBatch(String traceId, String from, String to, int timeout, TimeUnit unit,
+            Class<T> replyClass, List<?> requests, InitiateLambda customInit) {
+        List<Promise<T>> promises = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            promises.add(_createPromise(traceId + "[" + i + "]", from, to, replyClass, timeout, unit));
+        }
+        _assertFuturizerRunning();
+        try {
+            for (Promise<T> promise : promises) {
+                _enqueuePromise(promise);
+            }
+            _sendRequestsToFulfillPromises(from, to, requests, customInit, promises);
+        }
+        catch (RuntimeException e) {
+            // Remove the Promises, as nothing was sent (and some were perhaps not even enqueued) - and fail their
+            // futures, so that no-one is left hanging on them.
+            for (Promise<T> promise : promises) {
+                _removePromise(promise._correlationId);
+                promise._future.completeExceptionally(e);
+            }
+            throw e;
+        }
+        List<CompletableFuture<Reply<T>>> futures = new ArrayList<>(promises.size());
+        for (Promise<T> promise : promises) {
+            futures.add(promise._future);
+        }
+        return new FuturizedBatch<>(futures);
+    }
+
+    /**
+     * The result of {@link #futurizeBatch(String, String, String, int, TimeUnit, Class, List, InitiateLambda)
+     * futurizeBatch(..)}: A future for each of the requests, and a combined future for all of them.
+     *
+     * @param <T>
+     *            the type of the reply DTO.
+     */
+    public static class FuturizedBatch<T> {
+        private final List<CompletableFuture<Reply<T>>> _futures;
+        private final CompletableFuture<List<Reply<T>>> _allReplies;
+
+        FuturizedBatch(List<CompletableFuture<Reply<T>>> futures) {
+            _futures = Collections.unmodifiableList(futures);
+            _allReplies = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(v -> {
+                        List<Reply<T>> replies = new ArrayList<>(futures.size());
+                        for (CompletableFuture<Reply<T>> future : futures) {
+                            replies.add(future.join());
+                        }
+                        return replies;
+                    });
+        }
+
+        /**
+         * @return the number of requests in the batch.
+         */
+        public int size() {
+            return _futures.size();
+        }
+
+        /**
+         * @return a future for each of the requests, in the same order as the requests - each completes as its reply
+         *         comes in, so you may use the partial results before all have replied.
+         */
+        public List<CompletableFuture<Reply<T>>> getFutures() {
+            return _futures;
+        }
+
+        /**
+         * @return a future which completes with all the replies, in the same order as the requests, when all have
+         *         replied - or completes exceptionally if any of the futures completes exceptionally, e.g. times out.
+         */
+        public CompletableFuture<List<Reply<T>>> getAllReplies() {
+            return _allReplies;
+        }
+
+        /**
+         * Streams the partial results: The consumer is invoked with the index of the request and its reply as each
+         * reply comes in (the ones completing exceptionally are not invoked), on the thread completing the future as
+         * per the {@link CompletionStrategy}.
+         *
+         * @param replyConsumer
+         *            invoked with the index and reply for each reply.
+         * @return <code>this</code>, for chaining.
+         */
+        public FuturizedBatch<T> forEachReply(BiConsumer<Integer, Reply<T>> replyConsumer) {
+            for (int i = 0; i < _futures.size(); i++) {
+                int index = i;
+                _futures.get(i).thenAccept(reply -> replyConsumer.accept(index, reply));
+            }
+            return this;
+        }
+    }
+
     /**
      * @deprecated use {@link #futurize(String, String, String, int, TimeUnit, Class, Object, InitiateLambda)} instead.
      */
@@ -383,9 +605,7 @@ public class MatsFuturizer implements AutoCloseable {
      * @return the number of outstanding promises, not yet completed or timed out.
      */
     public int getOutstandingPromiseCount() {
-        synchronized (_correlationIdToPromiseMap) {
-            return _correlationIdToPromiseMap.size();
-        }
+        return _outstandingPromiseCount.get();
     }
 
     /**
@@ -395,6 +615,224 @@ public class MatsFuturizer implements AutoCloseable {
         return _futureCompleterThreadPool;
     }
 
+    /**
+     * How the futures are completed, i.e. which thread deserializes the reply and runs
+     * {@link CompletableFuture#complete(Object) future.complete(..)} - and hence also runs any non-async
+     * <code>thenApply(..)</code>-style stages attached to the future before completion. Default is
+     * {@link #THREAD_POOL}. Use the {@link #getCompletionHandoffLatencyHistogram() handoff} and
+     * {@link #getCompletionLatencyHistogram() completion} latency histograms to pick the right one for the futurizer.
+     */
+    public enum CompletionStrategy {
+        /**
+         * The future-completer-thread-pool, ref. {@link #getCompleterThreadPool()}. This is the default.
+         */
+        THREAD_POOL,
+
+        /**
+         * A new virtual thread for each completion - which requires Java 21: On earlier JVMs, a warning is logged and
+         * {@link #THREAD_POOL} is used instead.
+         */
+        VIRTUAL_THREADS,
+
+        /**
+         * In-line on the thread which got the reply, i.e. the reply handler's StageProcessor thread (or the timeouter
+         * thread, for timeouts), saving the thread hop. <b>Only use this if what is attached to the futures is cheap
+         * and non-blocking</b>, as it holds up the handling of the other replies - and of the timeouts.
+         */
+        INLINE,
+
+        /**
+         * A caller provided {@link Executor}, set using {@link #setCompletionExecutor(Executor)}.
+         */
+        EXECUTOR
+    }
+
+    /**
+     * Sets how the futures are completed, ref. {@link CompletionStrategy} - for {@link CompletionStrategy#EXECUTOR},
+     * use {@link #setCompletionExecutor(Executor)}.
+     *
+     * @param completionStrategy
+     *            the strategy to use - may be changed at any time, also concurrently.
+     * @return <code>this</code>, for chaining.
+     */
+    public synchronized MatsFuturizer setCompletionStrategy(CompletionStrategy completionStrategy) {
+        Executor executor;
+        switch (completionStrategy) {
+            case THREAD_POOL:
+                executor = _futureCompleterThreadPool;
+                break;
+            case VIRTUAL_THREADS:
+                executor = _virtualThreadPerTaskExecutor;
+                // ?: Do we already have one?
+                if (executor == null) {
+                    // -> No, so make it.
+                    executor = _virtualThreadPerTaskExecutor = _newVirtualThreadPerTaskExecutor();
+                }
+                // ?: Did we get it?
+                if (executor == null) {
+                    // -> No, so fall back to the thread pool.
+                    log.warn(LOG_PREFIX + "Virtual threads are not available on this JVM ["
+                            + System.getProperty("java.version") + "], so falling back to CompletionStrategy ["
+                            + CompletionStrategy.THREAD_POOL + "].");
+                    completionStrategy = CompletionStrategy.THREAD_POOL;
+                    executor = _futureCompleterThreadPool;
+                }
+                break;
+            case INLINE:
+                executor = Runnable::run;
+                break;
+            default:
+                throw new IllegalArgumentException("Use setCompletionExecutor(Executor) for CompletionStrategy ["
+                        + completionStrategy + "].");
+        }
+        _setCompletion(completionStrategy, executor);
+        return this;
+    }
+
+    /**
+     * Sets a caller provided {@link Executor} to complete the futures on, i.e. {@link CompletionStrategy#EXECUTOR}.
+     * The MatsFuturizer will not shut it down upon {@link #close()}.
+     *
+     * @param completionExecutor
+     *            the Executor to run the completions on.
+     * @return <code>this</code>, for chaining.
+     */
+    public MatsFuturizer setCompletionExecutor(Executor completionExecutor) {
+        if (completionExecutor == null) {
+            throw new NullPointerException("completionExecutor");
+        }
+        _setCompletion(CompletionStrategy.EXECUTOR, completionExecutor);
+        return this;
+    }
+
+    /**
+     * @return the current {@link CompletionStrategy}.
+     */
+    public CompletionStrategy getCompletionStrategy() {
+        return _completionStrategy;
+    }
+
+    /**
+     * @return the histogram of the time from a reply is received until its completion starts, i.e. the thread hop
+     *         and any queueing in the {@link CompletionStrategy}.
+     */
+    public LatencyHistogram getCompletionHandoffLatencyHistogram() {
+        return _completionHandoffLatencyHistogram;
+    }
+
+    /**
+     * @return the histogram of the time taken to complete a future, i.e. deserializing the reply and
+     *         {@link CompletableFuture#complete(Object) completing} it, including any non-async stages attached to it.
+     */
+    public LatencyHistogram getCompletionLatencyHistogram() {
+        return _completionLatencyHistogram;
+    }
+
+    /**
+     * A simple lock-free latency histogram, with buckets of powers of two microseconds: Bucket 0 counts latencies
+     * below 1 µs, and bucket <i>n</i> counts latencies from 2<sup>n-1</sup> up to 2<sup>n</sup> µs - the last bucket
+     * counting everything above.
+     */
+    public static class LatencyHistogram {
+        /**
+         * Number of buckets, the last counting everything from ~4.6 minutes and up.
+         */
+        public static final int BUCKETS = 30;
+
+        private final AtomicLongArray _buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder _count = new LongAdder();
+        private final LongAdder _totalNanos = new LongAdder();
+        private final AtomicLong _maxNanos = new AtomicLong();
+
+        /**
+         * Records a latency.
+         *
+         * @param nanos
+         *            the latency in nanoseconds.
+         */
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            _buckets.incrementAndGet(bucket);
+            _count.increment();
+            _totalNanos.add(nanos);
+            _maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * @return the number of recorded latencies.
+         */
+        public long getCount() {
+            return _count.sum();
+        }
+
+        /**
+         * @return the mean of the recorded latencies, in milliseconds - 0 if none.
+         */
+        public double getMeanMillis() {
+            long count = _count.sum();
+            return count == 0 ? 0 : _totalNanos.sum() / (count * 1_000_000d);
+        }
+
+        /**
+         * @return the max of the recorded latencies, in milliseconds.
+         */
+        public double getMaxMillis() {
+            return _maxNanos.get() / 1_000_000d;
+        }
+
+        /**
+         * @param percentile
+         *            the percentile, e.g. 99 for p99.
+         * @return the upper bound of the bucket holding the given percentile, in milliseconds - 0 if none recorded.
+         */
+        public double getPercentileMillis(double percentile) {
+            long[] buckets = getBucketCounts();
+            long total = 0;
+            for (long count : buckets) {
+                total += count;
+            }
+            long target = (long) Math.ceil(total * percentile / 100d);
+            long accumulated = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                accumulated += buckets[i];
+                // ?: Have we reached the percentile?
+                if ((accumulated >= target) && (accumulated > 0)) {
+                    // -> Yes, so this is the bucket - but the last bucket is open-ended, so use the max there.
+                    return i == BUCKETS - 1 ? getMaxMillis() : getBucketUpperBoundMillis(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return a snapshot of the counts of each bucket.
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = _buckets.get(i);
+            }
+            return counts;
+        }
+
+        /**
+         * @param bucket
+         *            the bucket index.
+         * @return the (exclusive) upper bound of the bucket's latencies, in milliseconds.
+         */
+        public static double getBucketUpperBoundMillis(int bucket) {
+            return (1L << bucket) / 1000d;
+        }
+
+        @Override
+        public String toString() {
+            return "LatencyHistogram{count:" + getCount() + ", mean:" + getMeanMillis() + " ms, p50:<"
+                    + getPercentileMillis(50) + " ms, p99:<" + getPercentileMillis(99) + " ms, max:" + getMaxMillis()
+                    + " ms}";
+        }
+    }
+
     // ===== Internal classes and methods, can be overridden if you want to make a customized MatsFuturizer
 
     protected static class Promise<T> implements Comparable<Promise<?>> {
@@ -406,6 +844,9 @@ public class MatsFuturizer implements AutoCloseable {
         public final long _timeoutTimestamp;
         public final Class<T> _replyClass;
         public final CompletableFuture<Reply<T>> _future;
+        // The tick of the timing wheel slot this Promise sits in - normally that of its timeout, but a later one if
+        // that tick's slot had already been scanned when the Promise was enqueued.
+        volatile long _timingWheelTick;
 
         public Promise(String traceId, String correlationId, String from, String to, long initiationTimestamp,
                 long timeoutTimestamp, Class<T> replyClass, CompletableFuture<Reply<T>> future) {
@@ -462,6 +903,46 @@ public class MatsFuturizer implements AutoCloseable {
         return threadPool;
     }
 
+    protected synchronized void _setCompletion(CompletionStrategy completionStrategy, Executor completionExecutor) {
+        log.info(LOG_PREFIX + "CompletionStrategy is set to [" + completionStrategy + "] (was: ["
+                + _completionStrategy + "]).");
+        Executor previousExecutor = _completionExecutor;
+        _completionStrategy = completionStrategy;
+        _completionExecutor = completionExecutor;
+        // ?: Did we switch away from the previous Executor?
+        if (previousExecutor != completionExecutor) {
+            // -> Yes, so if it was the virtual thread executor we made, shut it down.
+            _shutdownIfVirtualThreadPerTaskExecutor(previousExecutor);
+        }
+    }
+
+    /**
+     * @return a new <code>Executors.newVirtualThreadPerTaskExecutor()</code>, looked up reflectively since Mats is
+     *         compiled for Java 8 - or <code>null</code> if not available on this JVM.
+     */
+    protected ExecutorService _newVirtualThreadPerTaskExecutor() {
+        try {
+            Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+        }
+        catch (Throwable t) {
+            // This is expected on pre-21 JVMs - log on debug only.
+            if (log.isDebugEnabled()) log.debug(LOG_PREFIX + "Virtual threads are not available: ["
+                    + t.getClass().getSimpleName() + "].");
+            return null;
+        }
+    }
+
+    // NOTICE: Must be invoked while synchronized on this.
+    protected void _shutdownIfVirtualThreadPerTaskExecutor(Executor executor) {
+        // ?: Is this the virtual thread executor we made?
+        if ((executor != null) && (executor == _virtualThreadPerTaskExecutor)) {
+            // -> Yes, so shut it down - the already submitted completions will still run.
+            _virtualThreadPerTaskExecutor.shutdown();
+            _virtualThreadPerTaskExecutor = null;
+        }
+    }
+
     protected <T> Promise<T> _createPromise(String traceId, String from, String to, Class<T> replyClass,
             int timeout, TimeUnit unit) {
         long timeoutMillis = unit.toMillis(timeout);
@@ -476,24 +957,61 @@ public class MatsFuturizer implements AutoCloseable {
     }
 
     protected <T> void _enqueuePromise(Promise<T> promise) {
-        synchronized (_correlationIdToPromiseMap) {
-            if (_correlationIdToPromiseMap.size() >= _maxOutstandingPromises) {
-                throw new IllegalStateException("There are too many Promises outstanding, so cannot add more"
-                        + " - limit is [" + _maxOutstandingPromises + "].");
-            }
-            // This is the lookup that the reply-handler uses to get to the promise from the correlationId.
-            _correlationIdToPromiseMap.put(promise._correlationId, promise);
-            // This is the priority queue that the timeouter-thread uses to get the next Promise to timeout.
-            _timeoutSortedPromises.add(promise);
-            // ?: Have the earliest Promise to timeout changed by adding this Promise?
-            if (_nextInLineToTimeout != _timeoutSortedPromises.peek()) {
-                // -> Yes, this was evidently earlier than the one we had "next in line", so notify the timeouter-thread
-                // that a new promise was entered, to re-evaluate "next to timeout".
-                _correlationIdToPromiseMap.notifyAll();
+        // ?: Would this Promise exceed the max outstanding?
+        if (_outstandingPromiseCount.incrementAndGet() > _maxOutstandingPromises) {
+            // -> Yes, so give back the spot and reject it.
+            _outstandingPromiseCount.decrementAndGet();
+            throw new IllegalStateException("There are too many Promises outstanding, so cannot add more"
+                    + " - limit is [" + _maxOutstandingPromises + "].");
+        }
+        // This is the lookup that the reply-handler uses to get to the promise from the correlationId.
+        _correlationIdToPromiseMap.put(promise._correlationId, promise);
+        // This is the timing wheel slot that the timeouter-thread scans when the Promise's time is up - but if that
+        // tick's slot is already scanned (the Promise was created a while ago, or with a very short timeout), it
+        // goes in the slot of the next tick to be scanned, where it will be found overdue and timed out at once.
+        long tick = Math.max(promise._timeoutTimestamp / TIMING_WHEEL_TICK_MILLIS, _timingWheelNextScanTick);
+        promise._timingWheelTick = tick;
+        _timingWheelSlot(tick).add(promise);
+        // ?: Did the timeouter-thread pass the slot while we added to it? (It sets next scan tick before scanning)
+        while (tick < _timingWheelNextScanTick) {
+            // -> Yes, so it might not have seen the Promise: Move it to the slot of the next tick to be scanned.
+            // (If the Promise is concurrently removed, it might linger in a slot - but being overdue, the
+            // timeouter-thread removes it from the slot on the next scan.)
+            _timingWheelSlot(tick).remove(promise);
+            tick = _timingWheelNextScanTick;
+            promise._timingWheelTick = tick;
+            _timingWheelSlot(tick).add(promise);
+        }
+        // ?: Is the timeouter-thread idle, i.e. sleeping long since there were no Promises?
+        if (_timeouterIdle) {
+            // -> Yes, so wake it up, so that it starts ticking.
+            synchronized (_timeouterSignal) {
+                _timeouterSignal.notifyAll();
             }
         }
     }
 
+    /**
+     * Removes the Promise from the registry - whoever gets it out, i.e. the reply-handler or the timeouter-thread,
+     * gets to complete it.
+     *
+     * @return the Promise if this invocation removed it, <code>null</code> if it was already gone.
+     */
+    protected Promise<?> _removePromise(String correlationId) {
+        Promise<?> promise = _correlationIdToPromiseMap.remove(correlationId);
+        // ?: Did we get it?
+        if (promise != null) {
+            // -> Yes, so it is no longer outstanding, and should no longer be timed out.
+            _outstandingPromiseCount.decrementAndGet();
+            _timingWheelSlot(promise._timingWheelTick).remove(promise);
+        }
+        return promise;
+    }
+
+    protected Set<Promise<?>> _timingWheelSlot(long tick) {
+        return _timingWheel.get((int) (tick % TIMING_WHEEL_SLOTS));
+    }
+
     protected volatile boolean _replyHandlerEndpointStarted;
 
     protected void _assertFuturizerRunning() {
@@ -522,8 +1040,8 @@ public class MatsFuturizer implements AutoCloseable {
             // Stash in the standard stuff
             msg.traceId(traceId)
                     .from(from)
-                    .to(endpointId)
-                    .replyToSubscription(_terminatorEndpointId, promise._correlationId);
+                    .to(endpointId);
+            _replyToTerminator(msg, promise);
             // Stash up with any extra initialization stuff
             extraMessageInit.initiate(msg);
             // Do the request.
@@ -531,27 +1049,71 @@ public class MatsFuturizer implements AutoCloseable {
         });
     }
 
-    // Synchronized on itself
-    protected final HashMap<String, Promise<?>> _correlationIdToPromiseMap = new HashMap<>();
-    // Synchronized on the HashMap above (i.e. all three are synchronized on the HashMap).
-    protected final PriorityQueue<Promise<?>> _timeoutSortedPromises = new PriorityQueue<>();
-    // Synchronized on the HashMap above (i.e. all three are synchronized on the HashMap).
-    protected Promise<?> _nextInLineToTimeout;
+    protected <T> void _sendRequestsToFulfillPromises(String from, String endpointId, List<?> requests,
+            InitiateLambda extraMessageInit, List<Promise<T>> promises) {
+        // All the requests are sent within the same initiation, i.e. transaction.
+        _matsInitiator.initiateUnchecked(msg -> {
+            for (int i = 0; i < requests.size(); i++) {
+                Promise<T> promise = promises.get(i);
+                // Stash in the standard stuff - for each message, as the MatsInitiate resets after each sent message.
+                msg.traceId(promise._traceId)
+                        .from(from)
+                        .to(endpointId);
+                _replyToTerminator(msg, promise);
+                // Stash up with any extra initialization stuff
+                extraMessageInit.initiate(msg);
+                // Do the request.
+                msg.request(requests.get(i));
+            }
+        });
+    }
+
+    protected void _replyToTerminator(MatsInitiate msg, Promise<?> promise) {
+        // ?: Shall the reply come in on the node-specific Queue?
+        if (_replyChannel == ReplyChannel.NODE_QUEUE) {
+            // -> Yes, Queue, i.e. Terminator.
+            msg.replyTo(_terminatorEndpointId, promise._correlationId);
+        }
+        else {
+            // -> No, Topic, i.e. SubscriptionTerminator.
+            msg.replyToSubscription(_terminatorEndpointId, promise._correlationId);
+        }
+    }
+
+    /**
+     * The resolution of the timeouts, i.e. a Promise is timed out at most this much after its timeout.
+     */
+    protected static final long TIMING_WHEEL_TICK_MILLIS = 10;
+    /**
+     * Number of slots in the timing wheel, so that one revolution is ~10 seconds: A Promise with a longer timeout
+     * stays in its slot for several revolutions, being skipped until its time is up.
+     */
+    protected static final int TIMING_WHEEL_SLOTS = 1024;
+
+    // :: The Promise registry, which is lock-free: The map for lookup by correlationId, and a hashed timing wheel for
+    // the timeouts, where each Promise sits in the slot of its timeout tick - so that enqueue, complete and timeout
+    // are all O(1), instead of the O(n) removal from a PriorityQueue, all under a single lock.
+    protected final ConcurrentHashMap<String, Promise<?>> _correlationIdToPromiseMap = new ConcurrentHashMap<>();
+    protected final List<Set<Promise<?>>> _timingWheel = _newTimingWheel();
+    protected final AtomicInteger _outstandingPromiseCount = new AtomicInteger();
+    // The first tick whose slot the timeouter-thread has not yet scanned, or is about to scan: Set before scanning.
+    protected volatile long _timingWheelNextScanTick = System.currentTimeMillis() / TIMING_WHEEL_TICK_MILLIS;
+    // The timeouter-thread sleeps on this when idle, i.e. when there are no Promises.
+    protected final Object _timeouterSignal = new Object();
+    protected volatile boolean _timeouterIdle;
+
+    protected static List<Set<Promise<?>>> _newTimingWheel() {
+        List<Set<Promise<?>>> timingWheel = new ArrayList<>(TIMING_WHEEL_SLOTS);
+        for (int i = 0; i < TIMING_WHEEL_SLOTS; i++) {
+            timingWheel.add(ConcurrentHashMap.newKeySet());
+        }
+        return timingWheel;
+    }
 
     protected void _handleRepliesForPromises(ProcessContext<Void> context, String correlationId,
             MatsObject matsObject) {
-        // Immediately pick this out of the map & queue
-        Promise<?> promise;
-        synchronized (_correlationIdToPromiseMap) {
-            // Find the Promise from the CorrelationId
-            promise = _correlationIdToPromiseMap.remove(correlationId);
-            // Did we find it?
-            if (promise != null) {
-                // -> Yes, found - remove it from the PriorityQueue too.
-                _timeoutSortedPromises.remove(promise);
-            }
-            // NOTE: We don't bother pinging the Timeouter, as he'll find out himself soon enough if this was first.
-        }
+        // Immediately pick this out of the map & timing wheel
+        Promise<?> promise = _removePromise(correlationId);
         // ?: Did we still have the Promise?
         if (promise == null) {
             // -> Promise gone, log on INFO and exit (it was logged on WARN when it was actually timed out).
@@ -563,9 +1125,14 @@ public class MatsFuturizer implements AutoCloseable {
             return;
         }
 
-        // ----- We have Promise, and shall now fulfill it. Send off to pool thread.
+        // ----- We have Promise, and shall now fulfill it. Send off to the completion strategy, default pool thread.
 
-        _futureCompleterThreadPool.execute(() -> {
+        long nanosAtReceive = System.nanoTime();
+        _completionExecutor.execute(() -> {
+            long nanosAtCompletionStart = System.nanoTime();
+            _completionHandoffLatencyHistogram.record(nanosAtCompletionStart - nanosAtReceive);
+            // If in-line, we're on the reply handler's StageProcessor thread, so keep its MDC traceId.
+            String existingMdcTraceId = MDC.get("traceId");
             try {
                 MDC.put("traceId", promise._traceId);
                 // NOTICE! We don't log here, as the SubscriptionTerminator already has logged the ordinary mats lines.
@@ -594,11 +1161,21 @@ public class MatsFuturizer implements AutoCloseable {
                         + "], traceId:[" + context.getTraceId() + "]", t);
             }
             finally {
-                MDC.remove("traceId");
+                _restoreMdcTraceId(existingMdcTraceId);
+                _completionLatencyHistogram.record(System.nanoTime() - nanosAtCompletionStart);
             }
         });
     }
 
+    protected void _restoreMdcTraceId(String existingMdcTraceId) {
+        if (existingMdcTraceId != null) {
+            MDC.put("traceId", existingMdcTraceId);
+        }
+        else {
+            MDC.remove("traceId");
+        }
+    }
+
     protected Object _deserializeReply(MatsObject matsObject, Class<?> toClass) {
         return matsObject.toClass(toClass);
     }
@@ -614,68 +1191,75 @@ public class MatsFuturizer implements AutoCloseable {
     protected void _startTimeouterThread() {
         Runnable timeouter = () -> {
             log.info(LOG_PREFIX + "MatsFuturizer Timeouter-thread: Started!");
+            // The last tick whose slot has been fully scanned, i.e. all its Promises are timed out.
+            long lastScannedTick = _timingWheelNextScanTick - 1;
             while (_runFlag) {
                 List<Promise<?>> promisesToTimeout = new ArrayList<>();
-                synchronized (_correlationIdToPromiseMap) {
-                    while (_runFlag) {
-                        try {
-                            long sleepMillis;
-                            long now = System.currentTimeMillis();
-                            Promise<?> peekPromise = _timeoutSortedPromises.peek();
-                            if (peekPromise != null) {
-                                // ?: Is this Promise overdue? I.e. current time has passed timeout timestamp of
-                                // promise.
-                                if (now >= peekPromise._timeoutTimestamp) {
-                                    // -> Yes, timed out. remove from both collections
-                                    // It is the first, since it is the object we peeked at.
-                                    _timeoutSortedPromises.remove();
-                                    // Remove explicitly by CorrelationId.
-                                    _correlationIdToPromiseMap.remove(peekPromise._correlationId);
-                                    // Put it in the list to timeout
-                                    promisesToTimeout.add(peekPromise);
-                                    // Check next in line
-                                    continue;
+                try {
+                    long now = System.currentTimeMillis();
+                    long currentTick = now / TIMING_WHEEL_TICK_MILLIS;
+                    // :: Scan the slots of the ticks passed since last, including the current which is only partly
+                    // passed - but at most one revolution, as that covers all slots.
+                    long firstTick = Math.max(lastScannedTick + 1, currentTick - TIMING_WHEEL_SLOTS + 1);
+                    // Tell enqueuers that the slots up to the current tick are being scanned, BEFORE scanning them.
+                    _timingWheelNextScanTick = currentTick;
+                    for (long tick = firstTick; tick <= currentTick; tick++) {
+                        Set<Promise<?>> slot = _timingWheelSlot(tick);
+                        for (Promise<?> promise : slot) {
+                            // ?: Is this Promise overdue? (If not, it is for a later revolution, or later this tick)
+                            if (now >= promise._timeoutTimestamp) {
+                                // -> Yes, timed out - so out of this slot, in case it lingered after a move.
+                                slot.remove(promise);
+                                // If we get it out of the registry, we shall time it out.
+                                if (_removePromise(promise._correlationId) != null) {
+                                    promisesToTimeout.add(promise);
                                 }
-                                // E-> This is the Promise that is next in line to timeout.
-                                _nextInLineToTimeout = peekPromise;
-                                // This Promise has >0 milliseconds left before timeout, so calculate how long to sleep.
-                                sleepMillis = peekPromise._timeoutTimestamp - now;
-                            }
-                            else {
-                                // We have no Promise next in line to timeout.
-                                _nextInLineToTimeout = null;
-                                // Chill for a while, then just check to be on the safe side..
-                                sleepMillis = 30_000;
-                            }
-                            // ?: Do we have any Promises to timeout?
-                            if (!promisesToTimeout.isEmpty()) {
-                                // -> Yes, Promises to timeout - exit out of synch and inner run-loop to do that.
-                                break;
                             }
-                            // ----- We've found a new sleep time, go sleep.
-                            // Now go to sleep, waiting for signal from "new element added" or close()
-                            _correlationIdToPromiseMap.wait(sleepMillis);
                         }
-                        // :: Protection against bad code - catch-all Throwables in hope that it will auto-correct.
-                        catch (Throwable t) {
-                            log.error(LOG_PREFIX + "Got an unexpected Throwable in the promise-timeouter-thread."
-                                    + " Loop and check whether to exit.", t);
-                            // If exiting, do it now.
-                            if (!_runFlag) {
-                                break;
-                            }
-                            // :: Protection against bad code - sleep a tad to not tight-loop.
-                            try {
-                                Thread.sleep(10_000);
-                            }
-                            catch (InterruptedException e) {
-                                e.printStackTrace();
+                    }
+                    // The current tick is not passed yet, so it must be scanned again.
+                    lastScannedTick = currentTick - 1;
+
+                    // ?: Do we have any Promises to timeout?
+                    if (promisesToTimeout.isEmpty()) {
+                        // -> No, so go to sleep.
+                        // ?: Are there any outstanding Promises?
+                        if (_outstandingPromiseCount.get() > 0) {
+                            // -> Yes, so sleep until next tick.
+                            Thread.sleep(((currentTick + 1) * TIMING_WHEEL_TICK_MILLIS) - now);
+                        }
+                        else {
+                            // -> No, so chill until a Promise is added or close(), but check to be on the safe side..
+                            synchronized (_timeouterSignal) {
+                                _timeouterIdle = true;
+                                // ?: Still none, and still running? (Enqueue and close() notify after the change)
+                                if ((_outstandingPromiseCount.get() == 0) && _runFlag) {
+                                    _timeouterSignal.wait(30_000);
+                                }
+                                _timeouterIdle = false;
                             }
                         }
+                        continue;
+                    }
+                    // :: Time them out in the order of their timeouts, as several ticks might have been scanned.
+                    promisesToTimeout.sort(null);
+                }
+                // :: Protection against bad code - catch-all Throwables in hope that it will auto-correct.
+                catch (Throwable t) {
+                    log.error(LOG_PREFIX + "Got an unexpected Throwable in the promise-timeouter-thread."
+                            + " Loop and check whether to exit.", t);
+                    // If exiting, do it now.
+                    if (!_runFlag) {
+                        break;
+                    }
+                    // :: Protection against bad code - sleep a tad to not tight-loop.
+                    try {
+                        Thread.sleep(10_000);
+                    }
+                    catch (InterruptedException e) {
+                        e.printStackTrace();
                     }
                 }
-
-                // ----- This is outside the synch block
 
                 // :: Timing out Promises that was found to be overdue.
                 for (Promise<?> promise : promisesToTimeout) {
@@ -688,7 +1272,7 @@ public class MatsFuturizer implements AutoCloseable {
                                     - promise._initiationTimestamp) + "].";
                     log.warn(LOG_PREFIX + msg);
                     MDC.remove("traceId");
-                    _futureCompleterThreadPool.execute(() -> {
+                    _completionExecutor.execute(() -> {
                         try {
                             MDC.put("traceId", promise._traceId);
                             _timeoutCompleteExceptionally(promise, msg);
@@ -704,8 +1288,7 @@ public class MatsFuturizer implements AutoCloseable {
                         }
                     });
                 }
-                promisesToTimeout.clear();
-                // .. will now loop into the synch block again.
+                // .. will now loop to scan the timing wheel again.
             }
             log.info("MatsFuturizer Timeouter-thread: We got asked to exit, and that we do!");
         };
@@ -732,15 +1315,21 @@ public class MatsFuturizer implements AutoCloseable {
         _runFlag = false;
         _replyHandlerEndpoint.remove(5000);
         _futureCompleterThreadPool.shutdown();
+        // The virtual thread executor is made, switched and shut down under synchronization on this.
+        synchronized (this) {
+            _shutdownIfVirtualThreadPerTaskExecutor(_completionExecutor);
+        }
         // :: Find all remaining Promises, and notify Timeouter-thread that we're dead.
         List<Promise<?>> promisesToCancel = new ArrayList<>();
-        synchronized (_correlationIdToPromiseMap) {
-            promisesToCancel.addAll(_timeoutSortedPromises);
-            // Clear the collections, just to have a clear conscience.
-            _timeoutSortedPromises.clear();
-            _correlationIdToPromiseMap.clear();
-            // Notify the Timeouter-thread that shit is going down.
-            _correlationIdToPromiseMap.notifyAll();
+        for (Promise<?> promise : _correlationIdToPromiseMap.values()) {
+            // ?: Did we get it out? (Otherwise it got completed or timed out concurrently)
+            if (_removePromise(promise._correlationId) != null) {
+                promisesToCancel.add(promise);
+            }
+        }
+        // Notify the Timeouter-thread that shit is going down.
+        synchronized (_timeouterSignal) {
+            _timeouterSignal.notifyAll();
         }
         // :: Cancel all outstanding Promises.
         for (Promise<?> promise : promisesToCancel) {
@@ -0,0 +1,139 @@
+package io.mats3.util.futurizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import io.mats3.MatsFactory;
+import io.mats3.MatsInitiator.MatsInitiate;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+import io.mats3.util.MatsFuturizer;
+import io.mats3.util.MatsFuturizer.FuturizedBatch;
+import io.mats3.util.MatsFuturizer.Reply;
+
+/**
+ * Tests {@link MatsFuturizer#futurizeBatch(String, String, String, int, TimeUnit, Class, List,
+ * io.mats3.MatsInitiator.InitiateLambda) futurizeBatch(..)}: All the requests shall be sent within a single
+ * initiation, and each reply shall come back to the future of its request - both through the combined future and
+ * streamed as they come in - with each flow having its own traceId. If the sending fails, the Promises shall be
+ * removed, and their futures completed exceptionally.
+ */
+public class Test_MatsFuturizer_Batch {
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final String SERVICE = MatsTestHelp.service();
+
+    private static final int NUMBER_OF_REQUESTS = 20;
+
+    @BeforeClass
+    public static void setupService() {
+        MATS.getMatsFactory().single(SERVICE, DataTO.class, DataTO.class,
+                (context, msg) -> new DataTO(msg.number * 2, context.getTraceId()));
+    }
+
+    @Test
+    public void allRequestsInOneInitiationAndRepliesToTheRightFutures() throws Exception {
+        MatsFuturizer futurizer = MATS.getMatsFuturizer();
+        String traceId = MatsTestHelp.traceId();
+
+        // The customInit is invoked for each request, with the MatsInitiate of the initiation it is sent within.
+        Set<MatsInitiate> initiations = Collections.newSetFromMap(new IdentityHashMap<>());
+        AtomicInteger streamed = new AtomicInteger();
+        FuturizedBatch<DataTO> batch = futurizer.futurizeBatch(traceId, "Batch", SERVICE, 30, TimeUnit.SECONDS,
+                DataTO.class, requests(), initiations::add)
+                .forEachReply((index, reply) -> {
+                    if (reply.getReply().number == index * 2) {
+                        streamed.incrementAndGet();
+                    }
+                });
+        Assert.assertEquals(NUMBER_OF_REQUESTS, batch.size());
+        Assert.assertEquals("All requests shall be sent in one initiation", 1, initiations.size());
+
+        List<Reply<DataTO>> replies = batch.getAllReplies().get(30, TimeUnit.SECONDS);
+        Assert.assertEquals(NUMBER_OF_REQUESTS, replies.size());
+        for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+            // The service replies with its traceId, which shall be the batch traceId with the index appended.
+            Assert.assertEquals(new DataTO(i * 2, traceId + "[" + i + "]"), replies.get(i).getReply());
+            Assert.assertSame(replies.get(i), batch.getFutures().get(i).get());
+        }
+        // The streaming consumers are run when each future completes, i.e. before the combined future completes.
+        Assert.assertEquals(NUMBER_OF_REQUESTS, streamed.get());
+        Assert.assertEquals(0, futurizer.getOutstandingPromiseCount());
+    }
+
+    @Test
+    public void failedSendRemovesPromisesAndFailsFutures() throws Exception {
+        FutureRecordingFuturizer futurizer = new FutureRecordingFuturizer(MATS.getMatsFactory());
+        try {
+            RuntimeException sendFailure = new RuntimeException("Test: Failing the initiation on the third request.");
+            AtomicInteger requestCount = new AtomicInteger();
+            try {
+                futurizer.futurizeBatch(MatsTestHelp.traceId(), "FailedBatch", SERVICE, 30, TimeUnit.SECONDS,
+                        DataTO.class, requests(), msg -> {
+                            if (requestCount.incrementAndGet() == 3) {
+                                throw sendFailure;
+                            }
+                        });
+                Assert.fail("The failing initiation should have thrown out.");
+            }
+            catch (RuntimeException e) {
+                Assert.assertSame(sendFailure, e);
+            }
+
+            // :: All the Promises shall be removed, and all their futures completed exceptionally with the failure.
+            Assert.assertEquals(0, futurizer.getOutstandingPromiseCount());
+            Assert.assertEquals(NUMBER_OF_REQUESTS, futurizer._futures.size());
+            for (CompletableFuture<?> future : futurizer._futures) {
+                try {
+                    future.get(0, TimeUnit.SECONDS);
+                    Assert.fail("The future should have been completed exceptionally.");
+                }
+                catch (ExecutionException e) {
+                    Assert.assertSame(sendFailure, e.getCause());
+                }
+            }
+        }
+        finally {
+            futurizer.close();
+        }
+    }
+
+    private static List<DataTO> requests() {
+        List<DataTO> requests = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+            requests.add(new DataTO(i, "Request" + i));
+        }
+        return requests;
+    }
+
+    /**
+     * Records the futures of all enqueued Promises, as these are not handed out when the batch fails.
+     */
+    private static class FutureRecordingFuturizer extends MatsFuturizer {
+        private final List<CompletableFuture<?>> _futures = new CopyOnWriteArrayList<>();
+
+        FutureRecordingFuturizer(MatsFactory matsFactory) {
+            super(matsFactory, Test_MatsFuturizer_Batch.class.getSimpleName(), 1, 1, 1000);
+        }
+
+        @Override
+        protected <T> void _enqueuePromise(Promise<T> promise) {
+            _futures.add(promise._future);
+            super._enqueuePromise(promise);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.mats3.util.futurizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+import io.mats3.util.MatsFuturizer;
+import io.mats3.util.MatsFuturizer.CompletionStrategy;
+import io.mats3.util.MatsFuturizer.LatencyHistogram;
+import io.mats3.util.MatsFuturizer.Reply;
+
+/**
+ * Tests the {@link CompletionStrategy}s of the MatsFuturizer: For each, a bunch of futures shall complete with the
+ * correct replies, and the latency histograms shall have recorded each of them - they are logged, as a simple
+ * benchmark of the strategies. ({@link CompletionStrategy#VIRTUAL_THREADS} falls back to the thread pool on pre-21
+ * JVMs.)
+ */
+public class Test_MatsFuturizer_CompletionStrategies {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final String SERVICE = MatsTestHelp.service();
+
+    private static final int NUMBER_OF_FUTURES = 200;
+
+    @BeforeClass
+    public static void setupService() {
+        MATS.getMatsFactory().single(SERVICE, DataTO.class, DataTO.class,
+                (context, msg) -> new DataTO(msg.number * 2, msg.string + ":FromService"));
+    }
+
+    @Test
+    public void threadPool() throws Exception {
+        runFutures(futurizer -> futurizer.setCompletionStrategy(CompletionStrategy.THREAD_POOL),
+                CompletionStrategy.THREAD_POOL);
+    }
+
+    @Test
+    public void virtualThreads() throws Exception {
+        runFutures(futurizer -> futurizer.setCompletionStrategy(CompletionStrategy.VIRTUAL_THREADS), null);
+    }
+
+    @Test
+    public void inline() throws Exception {
+        runFutures(futurizer -> futurizer.setCompletionStrategy(CompletionStrategy.INLINE),
+                CompletionStrategy.INLINE);
+    }
+
+    @Test
+    public void callerProvidedExecutor() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            runFutures(futurizer -> futurizer.setCompletionExecutor(runnable -> {
+                executed.incrementAndGet();
+                executor.execute(runnable);
+            }), CompletionStrategy.EXECUTOR);
+            Assert.assertEquals(NUMBER_OF_FUTURES, executed.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runFutures(FuturizerConfigurer configurer, CompletionStrategy expectedStrategy) throws Exception {
+        // NOTE: Using try-with-resources in this test - NOT TO BE USED IN NORMAL CIRCUMSTANCES!!!
+        try (MatsFuturizer futurizer = MatsFuturizer.createMatsFuturizer(MATS.getMatsFactory(),
+                MatsTestHelp.endpointId("futurizer"))) {
+            configurer.configure(futurizer);
+            // ?: Do we know which strategy it shall end up with? (Virtual threads depend on the JVM)
+            if (expectedStrategy != null) {
+                Assert.assertEquals(expectedStrategy, futurizer.getCompletionStrategy());
+            }
+            List<CompletableFuture<Reply<DataTO>>> futures = new ArrayList<>();
+            for (int i = 0; i < NUMBER_OF_FUTURES; i++) {
+                futures.add(futurizer.futurizeNonessential(MatsTestHelp.traceId(), "CompletionStrategy", SERVICE,
+                        DataTO.class, new DataTO(i, "TheAnswer")));
+            }
+            for (int i = 0; i < NUMBER_OF_FUTURES; i++) {
+                Reply<DataTO> reply = futures.get(i).get(10, TimeUnit.SECONDS);
+                Assert.assertEquals(new DataTO(i * 2, "TheAnswer:FromService"), reply.getReply());
+            }
+
+            // :: The histograms are recorded after completion, so they might lag ever so slightly.
+            LatencyHistogram handoff = futurizer.getCompletionHandoffLatencyHistogram();
+            LatencyHistogram completion = futurizer.getCompletionLatencyHistogram();
+            long waitUntil = System.currentTimeMillis() + 5_000;
+            while ((completion.getCount() < NUMBER_OF_FUTURES) && (System.currentTimeMillis() < waitUntil)) {
+                Thread.sleep(5);
+            }
+            Assert.assertEquals(NUMBER_OF_FUTURES, handoff.getCount());
+            Assert.assertEquals(NUMBER_OF_FUTURES, completion.getCount());
+            log.info("CompletionStrategy [" + futurizer.getCompletionStrategy() + "]: Handoff: " + handoff
+                    + ", Completion: " + completion);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FuturizerConfigurer {
+        void configure(MatsFuturizer futurizer);
+    }
+}
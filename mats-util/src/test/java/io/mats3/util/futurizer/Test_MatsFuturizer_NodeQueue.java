@@ -0,0 +1,100 @@
+package io.mats3.util.futurizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import io.mats3.MatsEndpoint;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+import io.mats3.util.MatsFuturizer;
+import io.mats3.util.MatsFuturizer.Reply;
+import io.mats3.util.MatsFuturizer.ReplyChannel;
+
+/**
+ * Tests {@link ReplyChannel#NODE_QUEUE}: The replies shall come in on a node-specific Queue, i.e. a Terminator, and
+ * complete the futures just as with the default node-specific Topic. Two instances with the same prefix on the same
+ * node shall get a Queue each, and each get their own replies.
+ */
+public class Test_MatsFuturizer_NodeQueue {
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final String SERVICE = MatsTestHelp.service();
+
+    @BeforeClass
+    public static void setupService() {
+        MATS.getMatsFactory().single(SERVICE, DataTO.class, DataTO.class,
+                (context, msg) -> new DataTO(msg.number * 2, msg.string + ":FromService"));
+    }
+
+    @Test
+    public void repliesOnNodeQueue() throws ExecutionException, InterruptedException, TimeoutException {
+        // NOTE: Using try-with-resources in this test - NOT TO BE USED IN NORMAL CIRCUMSTANCES!!!
+        try (MatsFuturizer futurizer = MatsFuturizer.createMatsFuturizer(MATS.getMatsFactory(),
+                this.getClass().getSimpleName(), 5, 100, 50_000, ReplyChannel.NODE_QUEUE)) {
+            List<CompletableFuture<Reply<DataTO>>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(futurizer.futurizeNonessential(
+                        MatsTestHelp.traceId(), "NodeQueue", SERVICE, DataTO.class, new DataTO(i, "TheAnswer")));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Reply<DataTO> reply = futures.get(i).get(10, TimeUnit.SECONDS);
+                Assert.assertEquals(new DataTO(i * 2, "TheAnswer:FromService"), reply.getReply());
+            }
+            Assert.assertEquals(0, futurizer.getOutstandingPromiseCount());
+
+            // :: The reply handler is a Terminator, i.e. on a Queue, not a SubscriptionTerminator on a Topic.
+            MatsEndpoint<?, ?> replyHandler = MATS.getMatsFactory().getEndpoints().stream()
+                    .filter(endpoint -> endpoint.getEndpointConfig().getEndpointId()
+                            .startsWith(this.getClass().getSimpleName() + ".Futurizer.private.repliesFor."))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Did not find the reply handler endpoint."));
+            Assert.assertFalse(replyHandler.getEndpointConfig().isSubscription());
+        }
+    }
+
+    @Test
+    public void twoInstancesWithSamePrefixGetOwnQueue() throws ExecutionException, InterruptedException,
+            TimeoutException {
+        String prefix = this.getClass().getSimpleName() + "_Two";
+        // NOTE: Using try-with-resources in this test - NOT TO BE USED IN NORMAL CIRCUMSTANCES!!!
+        try (MatsFuturizer futurizer1 = MatsFuturizer.createMatsFuturizer(MATS.getMatsFactory(), prefix,
+                5, 100, 50_000, ReplyChannel.NODE_QUEUE);
+                MatsFuturizer futurizer2 = MatsFuturizer.createMatsFuturizer(MATS.getMatsFactory(), prefix,
+                        5, 100, 50_000, ReplyChannel.NODE_QUEUE)) {
+            // :: Each instance has its own reply handler Terminator, i.e. its own Queue.
+            long replyHandlers = MATS.getMatsFactory().getEndpoints().stream()
+                    .filter(endpoint -> endpoint.getEndpointConfig().getEndpointId()
+                            .startsWith(prefix + ".Futurizer.private.repliesFor."))
+                    .count();
+            Assert.assertEquals(2, replyHandlers);
+
+            // :: Interleave the requests: If the Queue was shared, replies would be stolen by the other instance.
+            List<CompletableFuture<Reply<DataTO>>> futures1 = new ArrayList<>();
+            List<CompletableFuture<Reply<DataTO>>> futures2 = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures1.add(futurizer1.futurizeNonessential(
+                        MatsTestHelp.traceId(), "NodeQueue", SERVICE, DataTO.class, new DataTO(i, "One")));
+                futures2.add(futurizer2.futurizeNonessential(
+                        MatsTestHelp.traceId(), "NodeQueue", SERVICE, DataTO.class, new DataTO(i, "Two")));
+            }
+            for (int i = 0; i < futures1.size(); i++) {
+                Assert.assertEquals(new DataTO(i * 2, "One:FromService"),
+                        futures1.get(i).get(10, TimeUnit.SECONDS).getReply());
+                Assert.assertEquals(new DataTO(i * 2, "Two:FromService"),
+                        futures2.get(i).get(10, TimeUnit.SECONDS).getReply());
+            }
+            Assert.assertEquals(0, futurizer1.getOutstandingPromiseCount());
+            Assert.assertEquals(0, futurizer2.getOutstandingPromiseCount());
+        }
+    }
+}
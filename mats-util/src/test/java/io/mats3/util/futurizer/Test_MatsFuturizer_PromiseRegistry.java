@@ -0,0 +1,182 @@
+package io.mats3.util.futurizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import io.mats3.MatsFactory;
+import io.mats3.test.MatsTestHelp;
+import io.mats3.test.junit.Rule_Mats;
+import io.mats3.util.MatsFuturizer;
+import io.mats3.util.MatsFuturizer.MatsFuturizerTimeoutException;
+import io.mats3.util.MatsFuturizer.Reply;
+
+/**
+ * Exercises the Promise registry of the MatsFuturizer directly, i.e. the lock-free map and timing wheel, without
+ * sending any messages: Several threads concurrently enqueue Promises with staggered timeouts, and then half of them
+ * are removed (as when the replies come in). The removed Promises shall never time out, while the remaining shall
+ * time out in the order of their timeouts, and the outstanding count shall be exact throughout. Also checks that the
+ * timeouter-thread times out Promises whose timing wheel slot already was scanned when they were enqueued.
+ */
+public class Test_MatsFuturizer_PromiseRegistry {
+    private static final Logger log = MatsTestHelp.getClassLogger();
+
+    @ClassRule
+    public static final Rule_Mats MATS = Rule_Mats.create();
+
+    private static final int THREADS = 4;
+
+    private static RegistryAccessFuturizer _futurizer;
+
+    @BeforeClass
+    public static void createFuturizer() {
+        _futurizer = new RegistryAccessFuturizer(MATS.getMatsFactory());
+    }
+
+    @AfterClass
+    public static void closeFuturizer() {
+        _futurizer.close();
+    }
+
+    @Test
+    public void enqueueAndRemove() throws Exception {
+        // Timeouts spaced well apart compared to the timing wheel tick, so that the order of firing is given - and
+        // starting far enough out that the removals are surely done before the first timeout.
+        int count = 20;
+        int spacingMillis = 100;
+        List<Integer> firedOrder = new CopyOnWriteArrayList<>();
+        Enqueued[] enqueued = new Enqueued[count];
+
+        // :: Enqueue concurrently
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = thread; i < count; i += THREADS) {
+                        int index = i;
+                        enqueued[index] = _futurizer.enqueue(500 + (index * spacingMillis));
+                        enqueued[index]._future.whenComplete((reply, throwable) -> firedOrder.add(index));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(count, _futurizer.getOutstandingPromiseCount());
+
+        // :: Remove the even ones, as when the replies come in.
+        for (int i = 0; i < count; i += 2) {
+            Assert.assertTrue(_futurizer.remove(enqueued[i]._correlationId));
+            // Removing twice shall not find it.
+            Assert.assertFalse(_futurizer.remove(enqueued[i]._correlationId));
+        }
+        Assert.assertEquals(count / 2, _futurizer.getOutstandingPromiseCount());
+
+        // :: Wait for the remaining to time out - the last has the longest timeout of all.
+        List<Integer> expectedFiredOrder = new ArrayList<>();
+        for (int i = 1; i < count; i += 2) {
+            expectedFiredOrder.add(i);
+            try {
+                enqueued[i]._future.get(10, TimeUnit.SECONDS);
+                Assert.fail("The future should have been completed exceptionally by timeout.");
+            }
+            catch (ExecutionException e) {
+                Assert.assertTrue("Wrong exception: " + e.getCause(),
+                        e.getCause() instanceof MatsFuturizerTimeoutException);
+            }
+        }
+        Assert.assertEquals(expectedFiredOrder, firedOrder);
+        // The removed ones, whose timeouts have now all passed, never fired.
+        for (int i = 0; i < count; i += 2) {
+            Assert.assertFalse("Removed Promise [" + i + "] was completed.", enqueued[i]._future.isDone());
+        }
+        Assert.assertEquals(0, _futurizer.getOutstandingPromiseCount());
+    }
+
+    @Test
+    public void timeoutsFire() throws Exception {
+        List<CompletableFuture<Reply<String>>> futures = new ArrayList<>();
+        // A very short timeout, whose tick might already be scanned when enqueued.
+        futures.add(_futurizer.enqueueForFuture(1, 0));
+        // An ordinary short timeout, a few ticks into the future.
+        futures.add(_futurizer.enqueueForFuture(50, 0));
+        // Created a good while before it is enqueued (as when futurize(..) waits for the reply endpoint to start), so
+        // its tick is surely scanned when enqueued: Must still time out now, not a timing wheel revolution later.
+        futures.add(_futurizer.enqueueForFuture(5, 100));
+
+        long nanosStart = System.nanoTime();
+        for (CompletableFuture<Reply<String>> future : futures) {
+            try {
+                // A timing wheel revolution is ~10 seconds, so this shows that none had to wait for the next round.
+                future.get(2, TimeUnit.SECONDS);
+                Assert.fail("The future should have been completed exceptionally by timeout.");
+            }
+            catch (ExecutionException e) {
+                Assert.assertTrue("Wrong exception: " + e.getCause(),
+                        e.getCause() instanceof MatsFuturizerTimeoutException);
+            }
+        }
+        log.info("All Promises timed out, the last [" + ((System.nanoTime() - nanosStart) / 1_000_000d)
+                + " ms] after starting to wait.");
+        Assert.assertEquals(0, _futurizer.getOutstandingPromiseCount());
+    }
+
+    private static class Enqueued {
+        private final String _correlationId;
+        private final CompletableFuture<Reply<String>> _future;
+
+        Enqueued(String correlationId, CompletableFuture<Reply<String>> future) {
+            _correlationId = correlationId;
+            _future = future;
+        }
+    }
+
+    /**
+     * Gets access to the protected Promise registry methods, with no limit on outstanding Promises.
+     */
+    private static class RegistryAccessFuturizer extends MatsFuturizer {
+        RegistryAccessFuturizer(MatsFactory matsFactory) {
+            super(matsFactory, Test_MatsFuturizer_PromiseRegistry.class.getSimpleName(), 1, 1, Integer.MAX_VALUE);
+        }
+
+        Enqueued enqueue(int timeoutMillis) {
+            Promise<String> promise = _createPromise("traceId", "from", "to", String.class, timeoutMillis,
+                    TimeUnit.MILLISECONDS);
+            _enqueuePromise(promise);
+            return new Enqueued(promise._correlationId, promise._future);
+        }
+
+        CompletableFuture<Reply<String>> enqueueForFuture(int timeoutMillis, int millisBeforeEnqueue)
+                throws InterruptedException {
+            Promise<String> promise = _createPromise("traceId", "from", "to", String.class, timeoutMillis,
+                    TimeUnit.MILLISECONDS);
+            Thread.sleep(millisBeforeEnqueue);
+            _enqueuePromise(promise);
+            return promise._future;
+        }
+
+        boolean remove(String correlationId) {
+            return _removePromise(correlationId) != null;
+        }
+    }
+}